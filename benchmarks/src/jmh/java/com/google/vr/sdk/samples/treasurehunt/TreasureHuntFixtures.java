@@ -0,0 +1,79 @@
+package com.google.vr.sdk.samples.treasurehunt;
+
+import java.io.ByteArrayInputStream;
+
+import android.content.res.Resources;
+import android.opengl.Matrix;
+
+import com.google.vr.sdk.samples.treasurehunt.benchmarks.Fixtures;
+
+import min3d.core.VertexLayout;
+import min3d.core.Vertices;
+
+/**
+ * Builds the app's package-private GLES20 drawables for the benchmarks.
+ */
+public final class TreasureHuntFixtures {
+
+    private TreasureHuntFixtures() {
+    }
+
+    /**
+     * A loaded LoadAndDraw for the model with the well shaders, as TreasureHuntActivity
+     * sets it up. GL calls go to the installed GlRecorder.
+     */
+    public static LoadAndDraw loadAndDraw(String model) {
+        LoadAndDraw drawable = new LoadAndDraw(
+                new ByteArrayInputStream(Fixtures.raw(model)),
+                new ByteArrayInputStream(Fixtures.raw("well_vertex_shader")),
+                new ByteArrayInputStream(Fixtures.raw("well_fragment_shader")));
+        drawable.run();
+        return drawable;
+    }
+
+    /**
+     * The activity's scene in a MeshRenderer: cube, floor and the model, with the
+     * activity's programs. GL calls go to the installed GlRecorder.
+     */
+    public static MeshRenderer meshRenderer(String model) {
+        return meshRenderer(model, 1);
+    }
+
+    /**
+     * As meshRenderer(model), with copies of the model on a grid sharing one mesh.
+     */
+    public static MeshRenderer meshRenderer(String model, int copies) {
+        Resources res = new Fixtures.RawResources();
+        MeshRenderer renderer = new MeshRenderer(res, new ProgramCache(null), null);
+        MeshRenderer.Program litColor = renderer.program(raw(res, "light_vertex"), raw(res, "passthrough_fragment"));
+        MeshRenderer.Program grid = renderer.program(raw(res, "light_vertex"), raw(res, "grid_fragment"));
+        MeshRenderer.Program mesh = renderer.program(raw(res, "well_vertex_shader"), raw(res, "well_fragment_shader"));
+
+        renderer.add("cube", MeshRenderer.Mesh.fromArrays(
+                WorldLayoutData.CUBE_COORDS, WorldLayoutData.CUBE_NORMALS, WorldLayoutData.CUBE_COLORS),
+                litColor, translation(0, 0, -3.5f));
+        renderer.add("floor", MeshRenderer.Mesh.fromArrays(
+                WorldLayoutData.FLOOR_COORDS, WorldLayoutData.FLOOR_NORMALS, WorldLayoutData.FLOOR_COLORS),
+                grid, translation(0, -20, 0));
+
+        OBJLoader obj = Fixtures.loadObj(model);
+        Vertices vertices = Vertices.fromArrays(new VertexLayout(true, true, false, false, true, 0),
+                obj.getVertices(), obj.getNormals(), obj.getTexture());
+        MeshRenderer.Mesh modelMesh = MeshRenderer.Mesh.fromVertices(vertices, obj.getIndex());
+        for (int i = 0; i < copies; i++) {
+            renderer.add(model, modelMesh, mesh, translation(10 + (i % 10) * 20, -2, -100 - (i / 10) * 20));
+        }
+        return renderer;
+    }
+
+    private static int raw(Resources res, String name) {
+        return res.getIdentifier(name, "raw", Fixtures.PACKAGE);
+    }
+
+    private static float[] translation(float x, float y, float z) {
+        float[] m = new float[16];
+        Matrix.setIdentityM(m, 0);
+        Matrix.translateM(m, 0, x, y, z);
+        return m;
+    }
+}
@@ -0,0 +1,53 @@
+package com.google.vr.sdk.samples.treasurehunt.benchmarks;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import min3d.animation.AnimationObject3d;
+import min3d.parser.IParser;
+import min3d.parser.Parser;
+
+/**
+ * Per-frame keyframe interpolation of an MD2 model, AnimationObject3d.update().
+ * Run with -prof gc to confirm the steady state doesn't allocate.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode({Mode.AverageTime, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class AnimationBenchmark {
+
+    @Param({"bed_obj", "cartoonmedhouse1_obj"})
+    public String model;
+
+    private AnimationObject3d object;
+
+    @Setup
+    public void setup() {
+        IParser parser = Parser.createParser(Parser.Type.MD2, new Fixtures.RawResources(),
+                Fixtures.PACKAGE + ":raw/" + model + "_md2", false);
+        parser.parse();
+        object = parser.getParsedAnimationObject();
+        object.setFps(1000);
+        object.play();
+    }
+
+    @Benchmark
+    public AnimationObject3d update() {
+        object.update();
+        return object;
+    }
+}
@@ -0,0 +1,311 @@
+package com.google.vr.sdk.samples.treasurehunt.benchmarks;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.charset.Charset;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+import android.app.ActivityManager;
+import android.content.Context;
+import android.content.res.Resources;
+
+import com.google.vr.sdk.samples.treasurehunt.OBJLoader;
+
+/**
+ * Benchmark inputs. OBJ models come straight from the app's res/raw. The tree ships
+ * no 3DS, MD2 or DDS assets, so those are synthesized from the same OBJ geometry
+ * (or a seeded random texture) so every parser sees realistic sizes.
+ */
+public final class Fixtures {
+
+    public static final String PACKAGE = "com.google.vr.sdk.samples.treasurehunt";
+
+    /** Models in res/raw, smallest to largest */
+    public static final String[] MODELS = {"bed_obj", "cartoon_well_obj", "cartoonmedhouse1_obj"};
+
+    private static final Charset ASCII = Charset.forName("US-ASCII");
+    private static final Map<String, byte[]> cache = new HashMap<>();
+
+    private Fixtures() {
+    }
+
+    /**
+     * The res/raw directory; set with -Dbench.res, defaults to the app module's.
+     */
+    public static File rawDir() {
+        return new File(System.getProperty("bench.res", "../src/main/res/raw"));
+    }
+
+    public static synchronized byte[] raw(String name) {
+        byte[] data = cache.get(name);
+        if (data == null) {
+            try {
+                if (name.endsWith("_3ds")) {
+                    data = to3ds(loadObj(name.substring(0, name.length() - 4)));
+                } else if (name.endsWith("_md2")) {
+                    data = toMd2(loadObj(name.substring(0, name.length() - 4)), 24);
+                } else {
+                    data = Files.readAllBytes(findRaw(name).toPath());
+                }
+            } catch (IOException e) {
+                throw new IllegalStateException("Missing fixture " + name + " in " + rawDir().getAbsolutePath(), e);
+            }
+            cache.put(name, data);
+        }
+        return data;
+    }
+
+    public static String text(String name) {
+        return new String(raw(name), ASCII);
+    }
+
+    public static OBJLoader loadObj(String name) {
+        return new OBJLoader(text(name));
+    }
+
+    /**
+     * Serves raw resources by name, the way min3d's parsers look them up
+     * ("package:raw/name"). Names ending in _3ds / _md2 return the synthesized
+     * binaries. Unknown names (eg, .mtl files the models reference but the app
+     * doesn't ship) open as empty streams.
+     */
+    public static class RawResources extends Resources {
+        private final List<String> names = new ArrayList<>();
+
+        @Override
+        public synchronized int getIdentifier(String name, String defType, String defPackage) {
+            String key = name.substring(name.lastIndexOf('/') + 1);
+            if (!key.endsWith("_3ds") && !key.endsWith("_md2") && findRaw(key) == null) {
+                return 0;
+            }
+            int index = names.indexOf(key);
+            if (index < 0) {
+                names.add(key);
+                index = names.size() - 1;
+            }
+            return 0x7f060000 + index;
+        }
+
+        @Override
+        public synchronized InputStream openRawResource(int id) {
+            if (id == 0) {
+                return new ByteArrayInputStream(new byte[0]);
+            }
+            return new ByteArrayInputStream(raw(names.get(id - 0x7f060000)));
+        }
+    }
+
+    /**
+     * Context for code that reaches for Shared.context(): raw resources plus an
+     * ActivityManager.
+     */
+    public static class BenchContext extends Context {
+        private final Resources resources = new RawResources();
+        private final ActivityManager activityManager = new ActivityManager();
+
+        @Override
+        public Resources getResources() {
+            return resources;
+        }
+
+        @Override
+        public Object getSystemService(String name) {
+            return ACTIVITY_SERVICE.equals(name) ? activityManager : null;
+        }
+    }
+
+    /**
+     * width x height DXT1 (or DXT5) DDS image with seeded random blocks.
+     */
+    public static byte[] dds(int width, int height, boolean dxt5) {
+        int blockBytes = dxt5 ? 16 : 8;
+        int blocks = ((width + 3) / 4) * ((height + 3) / 4);
+        ByteBuffer b = ByteBuffer.allocate(128 + blocks * blockBytes).order(ByteOrder.LITTLE_ENDIAN);
+
+        b.put("DDS ".getBytes(ASCII));
+        b.putInt(124);                  // header size
+        b.putInt(0x1 | 0x2 | 0x4 | 0x1000 | 0x80000);
+        b.putInt(height);
+        b.putInt(width);
+        b.putInt(blocks * blockBytes);  // linear size
+        b.putInt(0);                    // depth
+        b.putInt(1);                    // mipmaps
+        b.position(76);
+        b.putInt(32);                   // pixel format size
+        b.putInt(0x4);                  // DDPF_FOURCC
+        b.put((dxt5 ? "DXT5" : "DXT1").getBytes(ASCII));
+        b.position(128);
+
+        byte[] data = new byte[blocks * blockBytes];
+        new Random(42).nextBytes(data);
+        b.put(data);
+        return b.array();
+    }
+
+    //
+
+    private static File findRaw(String name) {
+        File[] files = rawDir().listFiles();
+        if (files != null) {
+            for (File f : files) {
+                String base = f.getName();
+                int dot = base.lastIndexOf('.');
+                if (dot > 0) {
+                    base = base.substring(0, dot);
+                }
+                if (base.equals(name) || f.getName().equals(name)) {
+                    return f;
+                }
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Single-object 3DS file laid out the way Max3DSParser reads it:
+     * MAIN > EDIT > OBJECT > TRIMESH > (VERTICES, TEXCOORD, FACES)
+     */
+    static byte[] to3ds(OBJLoader mesh) {
+        float[] verts = mesh.getVertices();
+        float[] uvs = mesh.getTexture();
+        int[] indices = mesh.getIndex();
+        int numVerts = verts.length / 3;
+
+        ByteBuffer vertices = chunk(0x4110, 2 + numVerts * 12);
+        vertices.putShort((short) numVerts);
+        for (float f : verts) {
+            vertices.putFloat(f);
+        }
+
+        ByteBuffer texCoords = chunk(0x4140, 2 + numVerts * 8);
+        texCoords.putShort((short) numVerts);
+        for (int i = 0; i < numVerts * 2; i++) {
+            texCoords.putFloat(i < uvs.length ? uvs[i] : 0);
+        }
+
+        ByteBuffer faces = chunk(0x4120, 2 + indices.length / 3 * 8);
+        faces.putShort((short) (indices.length / 3));
+        for (int i = 0; i < indices.length; i += 3) {
+            faces.putShort((short) indices[i]);
+            faces.putShort((short) indices[i + 1]);
+            faces.putShort((short) indices[i + 2]);
+            faces.putShort((short) 0);
+        }
+
+        byte[] trimesh = container(0x4100, null, vertices, texCoords, faces);
+        byte[] object = container(0x4000, "mesh", ByteBuffer.wrap(trimesh));
+        byte[] edit = container(0x3D3D, null, ByteBuffer.wrap(object));
+        return container(0x4D4D, null, ByteBuffer.wrap(edit));
+    }
+
+    /**
+     * MD2 with $numFrames keyframes of a vertical wobble. Positions are quantized
+     * to bytes per frame, as in the format.
+     */
+    static byte[] toMd2(OBJLoader mesh, int numFrames) {
+        float[] verts = mesh.getVertices();
+        float[] uvs = mesh.getTexture();
+        int[] indices = mesh.getIndex();
+        int numVerts = verts.length / 3;
+        int numTris = indices.length / 3;
+        int skinSize = 256;
+
+        float[] min = {Float.MAX_VALUE, Float.MAX_VALUE, Float.MAX_VALUE};
+        float[] max = {-Float.MAX_VALUE, -Float.MAX_VALUE, -Float.MAX_VALUE};
+        for (int i = 0; i < verts.length; i++) {
+            min[i % 3] = Math.min(min[i % 3], verts[i]);
+            max[i % 3] = Math.max(max[i % 3], verts[i]);
+        }
+
+        int frameSize = 40 + numVerts * 4;
+        int offsetTexCoord = 68;
+        int offsetTriangles = offsetTexCoord + numVerts * 4;
+        int offsetFrames = offsetTriangles + numTris * 12;
+        int offsetGlCommands = offsetFrames + numFrames * frameSize;
+        int numGlCommands = 32;     // MD2Parser's sub-streams assume data after the frames
+        int offsetEnd = offsetGlCommands + numGlCommands * 4;
+
+        ByteBuffer b = ByteBuffer.allocate(offsetEnd).order(ByteOrder.LITTLE_ENDIAN);
+        b.putInt(844121161).putInt(8);              // "IDP2", version
+        b.putInt(skinSize).putInt(skinSize).putInt(frameSize);
+        b.putInt(0).putInt(numVerts).putInt(numVerts).putInt(numTris).putInt(numGlCommands).putInt(numFrames);
+        b.putInt(offsetTexCoord).putInt(offsetTexCoord).putInt(offsetTriangles).putInt(offsetFrames);
+        b.putInt(offsetGlCommands).putInt(offsetEnd);
+
+        for (int i = 0; i < numVerts; i++) {
+            float u = i * 2 < uvs.length ? uvs[i * 2] : 0;
+            float v = i * 2 + 1 < uvs.length ? uvs[i * 2 + 1] : 0;
+            b.putShort((short) (u * skinSize));
+            b.putShort((short) (v * skinSize));
+        }
+
+        // MD2Parser reads each triangle's ids in reverse
+        for (int i = 0; i < indices.length; i += 3) {
+            b.putShort((short) indices[i + 2]).putShort((short) indices[i + 1]).putShort((short) indices[i]);
+            b.putShort((short) indices[i + 2]).putShort((short) indices[i + 1]).putShort((short) indices[i]);
+        }
+
+        byte[] name = new byte[16];
+        for (int f = 0; f < numFrames; f++) {
+            float wobble = (float) Math.sin(f * 2 * Math.PI / numFrames) * 0.1f;
+            float[] scale = new float[3];
+            for (int k = 0; k < 3; k++) {
+                scale[k] = Math.max(1e-6f, (max[k] - min[k]) * (1 + Math.abs(wobble)) / 255f);
+                b.putFloat(scale[k]);
+            }
+            for (int k = 0; k < 3; k++) {
+                b.putFloat(min[k]);
+            }
+            byte[] label = String.format("stand%03d", f).getBytes(ASCII);
+            System.arraycopy(label, 0, name, 0, label.length);
+            b.put(name);
+
+            for (int i = 0; i < numVerts; i++) {
+                for (int k = 0; k < 3; k++) {
+                    float p = verts[i * 3 + k];
+                    if (k == 1) {
+                        p += wobble * (p - min[1]);
+                    }
+                    int q = Math.round((p - min[k]) / scale[k]);
+                    b.put((byte) Math.max(0, Math.min(255, q)));
+                }
+                b.put((byte) 0);    // normal index
+            }
+        }
+
+        // zero-filled GL command list (a lone terminator)
+        return b.array();
+    }
+
+    private static ByteBuffer chunk(int id, int payload) {
+        ByteBuffer b = ByteBuffer.allocate(6 + payload).order(ByteOrder.LITTLE_ENDIAN);
+        b.putShort((short) id);
+        b.putInt(6 + payload);
+        return b;
+    }
+
+    private static byte[] container(int id, String name, ByteBuffer... children) {
+        ByteArrayOutputStream body = new ByteArrayOutputStream();
+        if (name != null) {
+            byte[] n = name.getBytes(ASCII);
+            body.write(n, 0, n.length);
+            body.write(0);
+        }
+        for (ByteBuffer child : children) {
+            body.write(child.array(), 0, child.array().length);
+        }
+        ByteBuffer b = chunk(id, body.size());
+        b.put(body.toByteArray());
+        return b.array();
+    }
+}
@@ -0,0 +1,76 @@
+package com.google.vr.sdk.samples.treasurehunt.benchmarks;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.google.vr.sdk.samples.treasurehunt.OBJLoader;
+
+import min3d.math.Mat4;
+import min3d.math.Vec3;
+import min3d.mesh.NormalGenerator;
+import min3d.mesh.VertexCacheOptimizer;
+
+/**
+ * Load-time mesh processing (normals, cache reordering) and the batch vector math
+ * used per frame.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode({Mode.AverageTime, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class MeshBenchmark {
+
+    @Param({"bed_obj", "cartoonmedhouse1_obj"})
+    public String model;
+
+    private float[] positions;
+    private int[] indices;
+    private int vertexCount;
+    private float[] matrix;
+    private float[] transformed;
+
+    @Setup
+    public void setup() {
+        OBJLoader mesh = Fixtures.loadObj(model);
+        positions = mesh.getVertices();
+        indices = mesh.getIndex();
+        vertexCount = positions.length / 3;
+        matrix = new float[16];
+        Mat4.setTranslation(matrix, 1, 2, 3);
+        transformed = new float[positions.length];
+    }
+
+    @Benchmark
+    public float[] smoothNormals() {
+        return NormalGenerator.smoothNormals(positions, indices, vertexCount);
+    }
+
+    @Benchmark
+    public float[] creasedNormals() {
+        return NormalGenerator.creasedNormals(positions, indices, vertexCount, NormalGenerator.DEFAULT_CREASE_DEGREES);
+    }
+
+    @Benchmark
+    public int[] optimizeTriangleOrder() {
+        return VertexCacheOptimizer.optimizeTriangleOrder(indices, vertexCount, VertexCacheOptimizer.DEFAULT_CACHE_SIZE);
+    }
+
+    @Benchmark
+    public float[] transformPoints() {
+        Vec3.transformPoints(matrix, positions, 0, transformed, 0, vertexCount);
+        return transformed;
+    }
+}
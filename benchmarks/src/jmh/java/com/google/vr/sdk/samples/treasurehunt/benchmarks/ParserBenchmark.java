@@ -0,0 +1,76 @@
+package com.google.vr.sdk.samples.treasurehunt.benchmarks;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.google.vr.sdk.samples.treasurehunt.OBJLoader;
+
+import min3d.animation.AnimationObject3d;
+import min3d.core.Object3dContainer;
+import min3d.parser.IParser;
+import min3d.parser.Parser;
+
+/**
+ * Load-time cost of each model format: raw parse plus building the min3d object.
+ * 3DS and MD2 inputs are synthesized from the same OBJ geometry (see Fixtures).
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode({Mode.AverageTime, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ParserBenchmark {
+
+    @Param({"bed_obj", "cartoon_well_obj", "cartoonmedhouse1_obj"})
+    public String model;
+
+    private Fixtures.RawResources resources;
+    private String objText;
+
+    @Setup
+    public void setup() {
+        resources = new Fixtures.RawResources();
+        objText = Fixtures.text(model);
+        // build and cache the synthesized binaries outside the measurement
+        Fixtures.raw(model + "_3ds");
+        Fixtures.raw(model + "_md2");
+    }
+
+    @Benchmark
+    public Object3dContainer objParser() {
+        IParser parser = Parser.createParser(Parser.Type.OBJ, resources, Fixtures.PACKAGE + ":raw/" + model, false);
+        parser.parse();
+        return parser.getParsedObject();
+    }
+
+    @Benchmark
+    public Object3dContainer max3dsParser() {
+        IParser parser = Parser.createParser(Parser.Type.MAX_3DS, resources, Fixtures.PACKAGE + ":raw/" + model + "_3ds", false);
+        parser.parse();
+        return parser.getParsedObject();
+    }
+
+    @Benchmark
+    public AnimationObject3d md2Parser() {
+        IParser parser = Parser.createParser(Parser.Type.MD2, resources, Fixtures.PACKAGE + ":raw/" + model + "_md2", false);
+        parser.parse();
+        return parser.getParsedAnimationObject();
+    }
+
+    @Benchmark
+    public OBJLoader objLoader() {
+        return new OBJLoader(objText);
+    }
+}
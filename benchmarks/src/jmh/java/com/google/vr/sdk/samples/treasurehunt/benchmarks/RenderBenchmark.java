@@ -0,0 +1,175 @@
+package com.google.vr.sdk.samples.treasurehunt.benchmarks;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import android.opengl.Matrix;
+import android.os.Handler;
+
+import com.google.vr.sdk.samples.treasurehunt.LoadAndDraw;
+import com.google.vr.sdk.samples.treasurehunt.MeshRenderer;
+import com.google.vr.sdk.samples.treasurehunt.TreasureHuntFixtures;
+import com.google.vr.sdk.samples.treasurehunt.benchmarks.gl.GlRecorder;
+
+import min3d.Shared;
+import min3d.core.Object3d;
+import min3d.core.Renderer;
+import min3d.core.Scene;
+import min3d.interfaces.ISceneController;
+import min3d.parser.IParser;
+import min3d.parser.Parser;
+
+/**
+ * CPU cost of submitting one frame, against GlRecorder instead of a GPU.
+ * "min3d" draws the model through min3d's GL10 Renderer, "gles20" through the
+ * app's LoadAndDraw, "meshes" the activity's scene (cube, floor, model) through
+ * MeshRenderer. The per-frame GL counts are printed at the end of each
+ * trial; they're deterministic, so a change in them is a change in the render path.
+ */
+@State(Scope.Thread)
+@BenchmarkMode({Mode.AverageTime, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class RenderBenchmark {
+
+    @Param({"min3d", "gles20", "meshes"})
+    public String path;
+
+    @Param({"cartoon_well_obj", "cartoonmedhouse1_obj"})
+    public String model;
+
+    private GlRecorder recorder;
+    private Renderer renderer;
+    private LoadAndDraw drawable;
+    private MeshRenderer meshRenderer;
+    private GlRecorder.Frame lastFrame;
+
+    private final float[] lightPos = {0, 2, 0, 1};
+    private final float[] view = new float[16];
+    private final float[] perspective = new float[16];
+
+    @Setup(Level.Trial)
+    public void setup() {
+        recorder = GlRecorder.install(new GlRecorder());
+
+        if (path.equals("min3d")) {
+            Shared.context(new Fixtures.BenchContext());
+            final Scene scene = new Scene(null);
+            scene.sceneController(new SceneController(scene, model));
+            renderer = new Renderer(scene);
+            Shared.renderer(renderer);
+            renderer.onSurfaceCreated(recorder.gl(), null);
+            renderer.onSurfaceChanged(recorder.gl(), 1280, 1440);
+        } else {
+            if (path.equals("meshes")) {
+                meshRenderer = TreasureHuntFixtures.meshRenderer(model);
+            } else {
+                drawable = TreasureHuntFixtures.loadAndDraw(model);
+            }
+            Matrix.setLookAtM(view, 0, 0, 0, 0.01f, 0, 0, 0, 0, 1, 0);
+            Matrix.setIdentityM(perspective, 0);
+        }
+        recorder.reset();
+    }
+
+    @Benchmark
+    public GlRecorder.Frame frame() {
+        recorder.beginFrame();
+        if (renderer != null) {
+            renderer.onDrawFrame(recorder.gl());
+        } else if (meshRenderer != null) {
+            meshRenderer.draw(view, perspective, lightPos);
+        } else {
+            drawable.draw(lightPos, view, perspective);
+        }
+        lastFrame = recorder.endFrame();
+        return lastFrame;
+    }
+
+    @TearDown(Level.Trial)
+    public void report() {
+        System.out.println();
+        System.out.println("GL per frame (" + path + ", " + model + "): " + lastFrame);
+        System.out.println(recorder.report(8));
+        GlRecorder.install(null);
+    }
+
+    /**
+     * Fills the scene with one object: the given one, or else the model parsed as OBJ
+     */
+    static final class SceneController implements ISceneController {
+        private final Scene scene;
+        private final String model;
+        private final Object3d object;
+        private final Handler handler = new Handler();
+        private final Runnable noop = new Runnable() {
+            @Override
+            public void run() {
+            }
+        };
+
+        SceneController(Scene scene, String model) {
+            this.scene = scene;
+            this.model = model;
+            this.object = null;
+        }
+
+        SceneController(Scene scene, Object3d object) {
+            this.scene = scene;
+            this.model = null;
+            this.object = object;
+        }
+
+        @Override
+        public void initScene() {
+            Object3d o = object;
+            if (o == null) {
+                IParser parser = Parser.createParser(Parser.Type.OBJ, Shared.context().getResources(),
+                        Fixtures.PACKAGE + ":raw/" + model, false);
+                parser.parse();
+                o = parser.getParsedObject();
+            }
+            o.position().z = -5;
+            scene.addChild(o);
+        }
+
+        @Override
+        public void updateScene() {
+        }
+
+        @Override
+        public Handler getInitSceneHandler() {
+            return handler;
+        }
+
+        @Override
+        public Runnable getInitSceneRunnable() {
+            return noop;
+        }
+
+        @Override
+        public Handler getUpdateSceneHandler() {
+            return handler;
+        }
+
+        @Override
+        public Runnable getUpdateSceneRunnable() {
+            return noop;
+        }
+    }
+}
@@ -0,0 +1,91 @@
+package com.google.vr.sdk.samples.treasurehunt.benchmarks;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import android.opengl.Matrix;
+
+import com.google.vr.sdk.samples.treasurehunt.MeshRenderer;
+import com.google.vr.sdk.samples.treasurehunt.TreasureHuntFixtures;
+import com.google.vr.sdk.samples.treasurehunt.benchmarks.gl.GlRecorder;
+
+/**
+ * CPU cost of submitting both eyes of a frame through MeshRenderer. "perEye"
+ * draws each eye from scratch, "singlePass" prepares the frame once and replays
+ * it per eye. The scene is the activity's plus copies of the model.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class StereoBenchmark {
+
+    @Param({"perEye", "singlePass"})
+    public String mode;
+
+    @Param({"1", "100"})
+    public int copies;
+
+    private GlRecorder recorder;
+    private MeshRenderer renderer;
+    private GlRecorder.Frame lastFrame;
+
+    private final float[] lightPos = {0, 2, 0, 1};
+    private final float[] centerView = new float[16];
+    private final float[] leftView = new float[16];
+    private final float[] rightView = new float[16];
+    private final float[] perspective = new float[16];
+
+    @Setup(Level.Trial)
+    public void setup() {
+        recorder = GlRecorder.install(new GlRecorder());
+        renderer = TreasureHuntFixtures.meshRenderer("cartoon_well_obj", copies);
+
+        float[] eye = new float[16];
+        Matrix.setLookAtM(centerView, 0, 0, 0, 0.01f, 0, 0, 0, 0, 1, 0);
+        Matrix.setIdentityM(eye, 0);
+        Matrix.translateM(eye, 0, 0.032f, 0, 0);
+        Matrix.multiplyMM(leftView, 0, eye, 0, centerView, 0);
+        Matrix.translateM(eye, 0, -0.064f, 0, 0);
+        Matrix.multiplyMM(rightView, 0, eye, 0, centerView, 0);
+        Matrix.frustumM(perspective, 0, -0.1f, 0.1f, -0.1f, 0.1f, 0.1f, 1000f);
+        recorder.reset();
+    }
+
+    @Benchmark
+    public GlRecorder.Frame frame() {
+        recorder.beginFrame();
+        if (mode.equals("perEye")) {
+            renderer.draw(leftView, perspective, lightPos);
+            renderer.draw(rightView, perspective, lightPos);
+        } else {
+            renderer.prepareFrame(centerView);
+            renderer.drawEye(leftView, perspective, lightPos);
+            renderer.drawEye(rightView, perspective, lightPos);
+        }
+        lastFrame = recorder.endFrame();
+        return lastFrame;
+    }
+
+    @TearDown(Level.Trial)
+    public void report() {
+        System.out.println();
+        System.out.println("GL per frame (" + mode + ", " + copies + " copies): " + lastFrame);
+        GlRecorder.install(null);
+    }
+}
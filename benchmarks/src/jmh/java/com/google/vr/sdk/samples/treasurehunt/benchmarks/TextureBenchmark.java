@@ -0,0 +1,47 @@
+package com.google.vr.sdk.samples.treasurehunt.benchmarks;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import objTools.Tools.DDSReader;
+
+/**
+ * Software DXT decode in DDSReader, for the texture sizes the scenes use.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode({Mode.AverageTime, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class TextureBenchmark {
+
+    @Param({"256", "1024"})
+    public int size;
+
+    @Param({"DXT1", "DXT5"})
+    public String format;
+
+    private byte[] dds;
+
+    @Setup
+    public void setup() {
+        dds = Fixtures.dds(size, size, format.equals("DXT5"));
+    }
+
+    @Benchmark
+    public int[] ddsRead() {
+        return DDSReader.read(dds, DDSReader.ARGB, 0);
+    }
+}
@@ -0,0 +1,141 @@
+package com.google.vr.sdk.samples.treasurehunt.benchmarks;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.google.vr.sdk.samples.treasurehunt.OBJLoader;
+import com.google.vr.sdk.samples.treasurehunt.benchmarks.gl.GlRecorder;
+
+import min3d.Shared;
+import min3d.core.FacesBufferedList;
+import min3d.core.Number3dBufferList;
+import min3d.core.Object3d;
+import min3d.core.Object3dContainer;
+import min3d.core.Renderer;
+import min3d.core.Scene;
+import min3d.core.TextureList;
+import min3d.core.UvBufferList;
+import min3d.core.VertexLayout;
+import min3d.core.Vertices;
+
+/**
+ * Building, updating and drawing vertex data: separate buffers ("split") vs one
+ * interleaved buffer with float normals ("interleaved") or GL_BYTE normals ("packed").
+ * "overwrite" is what AnimationObject3d does every frame. "draw" submits the mesh
+ * through min3d's Renderer against GlRecorder; the bytes it binds per frame are
+ * printed at the end of each trial.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode({Mode.AverageTime, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class VertexBufferBenchmark {
+
+    @Param({"split", "interleaved", "packed"})
+    public String layout;
+
+    private float[] points;
+    private float[] normals;
+    private float[] uvs;
+    private Vertices vertices;
+    private Object3d object;
+
+    private GlRecorder recorder;
+    private Renderer renderer;
+    private GlRecorder.Frame lastFrame;
+
+    @Setup(Level.Trial)
+    public void setup() {
+        OBJLoader mesh = Fixtures.loadObj("cartoonmedhouse1_obj");
+        points = mesh.getVertices();
+        normals = mesh.getNormals();
+        uvs = mesh.getTexture();
+        vertices = build();
+
+        int[] indices = mesh.getIndex();
+        FacesBufferedList faces = new FacesBufferedList(indices.length / 3);
+        for (int i = 0; i < indices.length; i += 3) {
+            faces.add(indices[i], indices[i + 1], indices[i + 2]);
+        }
+        object = new Object3dContainer(vertices, faces, new TextureList());
+
+        recorder = GlRecorder.install(new GlRecorder());
+        Shared.context(new Fixtures.BenchContext());
+        Scene scene = new Scene(null);
+        scene.sceneController(new RenderBenchmark.SceneController(scene, object));
+        renderer = new Renderer(scene);
+        Shared.renderer(renderer);
+        renderer.onSurfaceCreated(recorder.gl(), null);
+        renderer.onSurfaceChanged(recorder.gl(), 1280, 1440);
+        recorder.reset();
+    }
+
+    @TearDown(Level.Trial)
+    public void report() {
+        if (lastFrame != null) {
+            System.out.println();
+            System.out.println("GL per frame (" + layout + "): " + lastFrame);
+        }
+        GlRecorder.install(null);
+    }
+
+    @Benchmark
+    public Vertices build() {
+        if (layout.equals("interleaved")) {
+            return Vertices.fromArrays(new VertexLayout(true, true, false), points, normals, uvs);
+        }
+        if (layout.equals("packed")) {
+            return Vertices.fromArrays(new VertexLayout(true, true, false, false, true, 0), points, normals, uvs);
+        }
+        int count = points.length / 3;
+        Number3dBufferList p = new Number3dBufferList(count);
+        Number3dBufferList n = new Number3dBufferList(count);
+        UvBufferList t = new UvBufferList(count);
+        for (int i = 0; i < count; i++) {
+            p.add(points[i * 3], points[i * 3 + 1], points[i * 3 + 2]);
+            n.add(normals[i * 3], normals[i * 3 + 1], normals[i * 3 + 2]);
+            t.add(uvs[i * 2], uvs[i * 2 + 1]);
+        }
+        return new Vertices(p, t, n, null);
+    }
+
+    @Benchmark
+    public Vertices overwrite() {
+        vertices.overwriteVerts(points);
+        vertices.overwriteNormals(normals);
+        return vertices;
+    }
+
+    @Benchmark
+    public GlRecorder.Frame draw() {
+        recorder.beginFrame();
+        renderer.onDrawFrame(recorder.gl());
+        lastFrame = recorder.endFrame();
+        return lastFrame;
+    }
+
+    @Benchmark
+    public float sumPoints() {
+        Number3dBufferList p = object.points();
+        float sum = 0;
+        for (int i = 0, n = p.size(); i < n; i++) {
+            sum += p.getPropertyX(i) + p.getPropertyY(i) + p.getPropertyZ(i);
+        }
+        return sum;
+    }
+}
@@ -0,0 +1,650 @@
+package com.google.vr.sdk.samples.treasurehunt.benchmarks.gl;
+
+import java.io.IOException;
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.nio.Buffer;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.IntBuffer;
+import java.nio.ShortBuffer;
+import java.util.AbstractMap;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import javax.microedition.khronos.opengles.GL10;
+import javax.microedition.khronos.opengles.GL11;
+
+import android.graphics.Bitmap;
+import android.opengl.GLES20;
+
+/**
+ * Stands in for the GPU driver so render paths can run, and be measured, on a
+ * machine without one.
+ *
+ * min3d's Renderer gets a GL10/GL11 from gl(). The static GLES20 and GLUtils
+ * stand-ins in src/stubs/java forward to whichever recorder is install()ed, so
+ * TreasureHuntActivity-style code is recorded the same way.
+ *
+ * For every call the recorder counts:
+ * - calls, by name;
+ * - draw calls and the elements (indices or vertices) they reference;
+ * - state changes that actually changed something, vs redundant ones that set
+ *   the value already in place;
+ * - bytes submitted at draw time from client-side arrays and index buffers;
+ * - bytes uploaded (textures, buffer objects) and uniform bytes.
+ *
+ * Wrap a frame in beginFrame() / endFrame() to get the counts and the CPU time
+ * for just that frame. startTrace() writes every call as one text line that
+ * GlTrace can replay onto another GL (this recorder or a real context).
+ *
+ * Queries return plausible values: names from glGen* / glCreate* count up,
+ * compile and link always succeed, glGetIntegerv reports tracked state (enabled
+ * caps, shade model) and typical ES 1.1 limits. Not thread safe; GL isn't either.
+ */
+public final class GlRecorder implements InvocationHandler {
+
+    public enum Api { GL10, GLES20, GLUTILS }
+
+    private static final int GL_VERTEX_ARRAY = 0x8074;
+    private static final int GL_NORMAL_ARRAY = 0x8075;
+    private static final int GL_COLOR_ARRAY = 0x8076;
+    private static final int GL_TEXTURE_COORD_ARRAY = 0x8078;
+    private static final int GL_HALF_FLOAT_OES = 0x8D61;
+    private static final int GL_FRAMEBUFFER_COMPLETE = 0x8CD5;
+
+    private static volatile GlRecorder current;
+
+    // running totals
+    private long calls;
+    private long drawCalls;
+    private long elements;
+    private long stateChanges;
+    private long redundantStateCalls;
+    private long bytesSubmitted;
+    private long uploadBytes;
+    private long uniformBytes;
+
+    private final Map<String, long[]> callCounts = new HashMap<>();
+    private final Map<String, Object> state = new HashMap<>();
+    private final Map<String, Pointer> pointers = new HashMap<>();
+    private final Map<String, Integer> locations = new HashMap<>();
+    private final Set<Integer> names = new HashSet<>();
+    private int lastName;
+    private int activeUnit;
+    private int clientUnit;
+
+    private long[] frameBase;
+    private long frameStart;
+
+    private Appendable trace;
+    private final StringBuilder line = new StringBuilder();
+
+    private GL11 gl;
+
+    /**
+     * Makes recorder the target of the static GLES20 / GLUtils stand-ins.
+     */
+    public static GlRecorder install(GlRecorder recorder) {
+        current = recorder;
+        return recorder;
+    }
+
+    public static GlRecorder current() {
+        return current;
+    }
+
+    /**
+     * Entry point for the static stand-ins.
+     */
+    public static Object dispatch(Api api, String name, Object... args) {
+        GlRecorder recorder = current;
+        if (recorder == null) {
+            throw new IllegalStateException("No GlRecorder installed; call GlRecorder.install() before " + name);
+        }
+        return recorder.record(api, name, args);
+    }
+
+    public static int toInt(Object value) {
+        if (value instanceof Boolean) {
+            return (Boolean) value ? 1 : 0;
+        }
+        return value == null ? 0 : ((Number) value).intValue();
+    }
+
+    /**
+     * A GL10 that records into this recorder. It's also a GL11, so code that checks
+     * for 1.1 takes its 1.1 path.
+     */
+    public synchronized GL10 gl() {
+        if (gl == null) {
+            gl = (GL11) Proxy.newProxyInstance(GL11.class.getClassLoader(), new Class<?>[] {GL11.class}, this);
+        }
+        return gl;
+    }
+
+    @Override
+    public Object invoke(Object proxy, Method method, Object[] args) {
+        if (method.getDeclaringClass() == Object.class) {
+            switch (method.getName()) {
+                case "equals":
+                    return proxy == args[0];
+                case "hashCode":
+                    return System.identityHashCode(proxy);
+                default:
+                    return "GlRecorder.gl()";
+            }
+        }
+        Object result = record(Api.GL10, method.getName(), args == null ? new Object[0] : args);
+        Class<?> type = method.getReturnType();
+        if (type == int.class) {
+            return toInt(result);
+        }
+        if (type == boolean.class) {
+            return toInt(result) != 0;
+        }
+        return type == void.class ? null : result;
+    }
+
+    //
+
+    /**
+     * Counts since construction or the last reset(), as a Frame with no CPU time.
+     */
+    public Frame totals() {
+        long[] now = snapshot();
+        return new Frame(now, new long[now.length], 0);
+    }
+
+    public void beginFrame() {
+        frameBase = snapshot();
+        frameStart = System.nanoTime();
+    }
+
+    /**
+     * Counts and CPU time since beginFrame(). CPU time includes the recorder's own
+     * bookkeeping, so compare recorded frames with each other, not with device timings.
+     */
+    public Frame endFrame() {
+        long elapsed = System.nanoTime() - frameStart;
+        if (frameBase == null) {
+            throw new IllegalStateException("endFrame() without beginFrame()");
+        }
+        Frame frame = new Frame(snapshot(), frameBase, elapsed);
+        frameBase = null;
+        return frame;
+    }
+
+    /**
+     * Clears counters. GL state (enabled caps, bindings, names) is kept, like a
+     * context that stays alive between frames.
+     */
+    public void reset() {
+        calls = drawCalls = elements = stateChanges = redundantStateCalls = 0;
+        bytesSubmitted = uploadBytes = uniformBytes = 0;
+        callCounts.clear();
+    }
+
+    /**
+     * Calls by name, most frequent first.
+     */
+    public List<Map.Entry<String, Long>> callCounts() {
+        List<Map.Entry<String, Long>> list = new ArrayList<>();
+        for (Map.Entry<String, long[]> e : callCounts.entrySet()) {
+            list.add(new AbstractMap.SimpleImmutableEntry<>(e.getKey(), e.getValue()[0]));
+        }
+        Collections.sort(list, new Comparator<Map.Entry<String, Long>>() {
+            @Override
+            public int compare(Map.Entry<String, Long> a, Map.Entry<String, Long> b) {
+                int c = Long.compare(b.getValue(), a.getValue());
+                return c != 0 ? c : a.getKey().compareTo(b.getKey());
+            }
+        });
+        return list;
+    }
+
+    /**
+     * Totals plus the top most frequent calls, one per line.
+     */
+    public String report(int top) {
+        StringBuilder sb = new StringBuilder(totals().toString());
+        List<Map.Entry<String, Long>> counts = callCounts();
+        for (int i = 0; i < Math.min(top, counts.size()); i++) {
+            sb.append("\n  ").append(counts.get(i).getKey()).append(' ').append(counts.get(i).getValue());
+        }
+        return sb.toString();
+    }
+
+    /**
+     * Writes every following call to $out, one line each, in the format GlTrace reads.
+     * Buffer contents aren't written, only their type and size.
+     */
+    public void startTrace(Appendable out) {
+        trace = out;
+    }
+
+    public void stopTrace() {
+        trace = null;
+    }
+
+    //
+
+    Object record(Api api, String name, Object[] args) {
+        calls++;
+        long[] count = callCounts.get(name);
+        if (count == null) {
+            callCounts.put(name, count = new long[1]);
+        }
+        count[0]++;
+
+        if (trace != null) {
+            writeTrace(api, name, args);
+        }
+
+        switch (name) {
+            // capabilities and client arrays
+            case "glEnable":
+            case "glDisable":
+                setState("cap:" + args[0], name.equals("glEnable"));
+                return null;
+            case "glEnableClientState":
+            case "glDisableClientState":
+                setState(arrayKey(toInt(args[0])), name.equals("glEnableClientState"));
+                return null;
+            case "glEnableVertexAttribArray":
+            case "glDisableVertexAttribArray":
+                setState("attrib:" + args[0], name.equals("glEnableVertexAttribArray"));
+                return null;
+
+            // bindings
+            case "glActiveTexture":
+                activeUnit = toInt(args[0]) - GL10.GL_TEXTURE0;
+                setState(name, args[0]);
+                return null;
+            case "glClientActiveTexture":
+                clientUnit = toInt(args[0]) - GL10.GL_TEXTURE0;
+                setState(name, args[0]);
+                return null;
+            case "glBindTexture":
+                setState("texture:" + activeUnit + ":" + args[0], args[1]);
+                return null;
+            case "glBindBuffer":
+            case "glBindFramebuffer":
+            case "glBindRenderbuffer":
+                setState(name + ":" + args[0], args[1]);
+                return null;
+            case "glUseProgram":
+                setState(name, args[0]);
+                return null;
+
+            // fixed-function and raster state
+            case "glMatrixMode":
+            case "glShadeModel":
+            case "glBlendFunc":
+            case "glDepthFunc":
+            case "glDepthMask":
+            case "glCullFace":
+            case "glFrontFace":
+            case "glColor4f":
+            case "glColor4x":
+            case "glClearColor":
+            case "glLineWidth":
+            case "glPointSize":
+            case "glViewport":
+                setState(name, Arrays.asList(args));
+                return null;
+            case "glTexParameterf":
+            case "glTexParameteri":
+            case "glTexParameterx":
+                setState("texparam:" + state.get("texture:" + activeUnit + ":" + args[0]) + ":" + args[1], args[2]);
+                return null;
+            case "glTexEnvf":
+            case "glTexEnvi":
+            case "glTexEnvx":
+                setState("texenv:" + activeUnit + ":" + args[1], args[2]);
+                return null;
+
+            // arrays
+            case "glVertexPointer":
+                pointer(arrayKey(GL_VERTEX_ARRAY), toInt(args[0]), toInt(args[1]), args[3]);
+                return null;
+            case "glNormalPointer":
+                pointer(arrayKey(GL_NORMAL_ARRAY), 3, toInt(args[0]), args[2]);
+                return null;
+            case "glColorPointer":
+                pointer(arrayKey(GL_COLOR_ARRAY), toInt(args[0]), toInt(args[1]), args[3]);
+                return null;
+            case "glTexCoordPointer":
+                pointer(arrayKey(GL_TEXTURE_COORD_ARRAY), toInt(args[0]), toInt(args[1]), args[3]);
+                return null;
+            case "glVertexAttribPointer":
+                pointer("attrib:" + args[0], toInt(args[1]), toInt(args[2]), args[5]);
+                return null;
+
+            // draws
+            case "glDrawArrays":
+                draw(toInt(args[2]), toInt(args[1]) + toInt(args[2]), 0);
+                return null;
+            case "glDrawElements":
+                drawElements(toInt(args[1]), toInt(args[2]), args[3]);
+                return null;
+
+            // uploads
+            case "glTexImage2D":
+            case "glTexSubImage2D":
+                uploadBytes += byteSize(args[args.length - 1]);
+                return null;
+            case "glBufferData":
+                uploadBytes += toInt(args[1]);
+                return null;
+            case "glCompressedTexImage2D":
+            case "glCompressedTexSubImage2D":
+            case "glBufferSubData":
+                // size is the argument before the data
+                uploadBytes += toInt(args[args.length - 2]);
+                return null;
+            case "texImage2D":
+                Bitmap bitmap = (Bitmap) args[2];
+                uploadBytes += (long) bitmap.getWidth() * bitmap.getHeight() * 4;
+                return null;
+
+            // names
+            case "glGenTextures":
+            case "glGenBuffers":
+            case "glGenFramebuffers":
+            case "glGenRenderbuffers":
+                generateNames(args);
+                return null;
+            case "glCreateProgram":
+            case "glCreateShader":
+                return newName();
+            case "glIsTexture":
+            case "glIsBuffer":
+            case "glIsProgram":
+            case "glIsShader":
+                return names.contains(toInt(args[0])) ? 1 : 0;
+            case "glGetAttribLocation":
+            case "glGetUniformLocation":
+                return location(name, args[0], args[1]);
+
+            // queries
+            case "glGetIntegerv":
+                writeInts(args[1], args.length > 2 ? toInt(args[2]) : 0, queryInt(toInt(args[0])));
+                return null;
+            case "glGetShaderiv":
+            case "glGetProgramiv":
+                writeInts(args[2], args.length > 3 ? toInt(args[3]) : 0, new int[] {1});
+                return null;
+            case "glGetError":
+                return GL10.GL_NO_ERROR;
+            case "glCheckFramebufferStatus":
+                return GL_FRAMEBUFFER_COMPLETE;
+            case "glGetString":
+                return queryString(toInt(args[0]));
+            case "glGetShaderInfoLog":
+            case "glGetProgramInfoLog":
+                return "";
+
+            default:
+                if (name.startsWith("glUniform")) {
+                    uniformBytes += uniformBytes(name, args);
+                }
+                return null;
+        }
+    }
+
+    private long[] snapshot() {
+        return new long[] {calls, drawCalls, elements, stateChanges, redundantStateCalls,
+                bytesSubmitted, uploadBytes, uniformBytes};
+    }
+
+    private void setState(String key, Object value) {
+        Object old = state.put(key, value);
+        if (value.equals(old)) {
+            redundantStateCalls++;
+        } else {
+            stateChanges++;
+        }
+    }
+
+    private String arrayKey(int array) {
+        return array == GL_TEXTURE_COORD_ARRAY ? "array:" + array + ":" + clientUnit : "array:" + array;
+    }
+
+    private void pointer(String key, int size, int type, Object data) {
+        Pointer p = pointers.get(key);
+        if (p == null) {
+            pointers.put(key, p = new Pointer());
+        }
+        p.bytesPerVertex = size * typeBytes(type);
+        // an int offset into a bound buffer object is already on the GPU
+        p.clientSide = data instanceof Buffer;
+    }
+
+    private void drawElements(int count, int type, Object indices) {
+        if (!(indices instanceof Buffer)) {
+            draw(count, 0, 0);
+            return;
+        }
+        draw(count, maxIndex((Buffer) indices, count, type) + 1, (long) count * typeBytes(type));
+    }
+
+    private static int maxIndex(Buffer b, int count, int type) {
+        int max = -1;
+        for (int i = 0; i < count; i++) {
+            max = Math.max(max, index(b, type, b.position() + i));
+        }
+        return max;
+    }
+
+    private void draw(int count, int vertices, long indexBytes) {
+        drawCalls++;
+        elements += count;
+        long bytes = indexBytes;
+        for (Map.Entry<String, Pointer> e : pointers.entrySet()) {
+            Pointer p = e.getValue();
+            if (p.clientSide && Boolean.TRUE.equals(state.get(e.getKey()))) {
+                bytes += (long) vertices * p.bytesPerVertex;
+            }
+        }
+        bytesSubmitted += bytes;
+    }
+
+    private static int index(Buffer b, int type, int i) {
+        if (b instanceof ShortBuffer) {
+            return ((ShortBuffer) b).get(i) & 0xFFFF;
+        }
+        if (b instanceof IntBuffer) {
+            return ((IntBuffer) b).get(i);
+        }
+        ByteBuffer bb = ((ByteBuffer) b).duplicate().order(ByteOrder.nativeOrder());
+        switch (type) {
+            case GL10.GL_UNSIGNED_SHORT:
+                return bb.getShort(i * 2) & 0xFFFF;
+            case GLES20.GL_UNSIGNED_INT:
+                return bb.getInt(i * 4);
+            default:
+                return bb.get(i) & 0xFF;
+        }
+    }
+
+    private static int typeBytes(int type) {
+        switch (type) {
+            case GL10.GL_BYTE:
+            case GL10.GL_UNSIGNED_BYTE:
+                return 1;
+            case GL10.GL_SHORT:
+            case GL10.GL_UNSIGNED_SHORT:
+            case GL_HALF_FLOAT_OES:
+                return 2;
+            default:
+                return 4;
+        }
+    }
+
+    private static long byteSize(Object data) {
+        if (!(data instanceof Buffer)) {
+            return 0;
+        }
+        Buffer b = (Buffer) data;
+        if (b instanceof ByteBuffer) {
+            return b.remaining();
+        }
+        return (long) b.remaining() * (b instanceof ShortBuffer ? 2 : 4);
+    }
+
+    private static long uniformBytes(String name, Object[] args) {
+        // glUniform{1234}{fi}[v], glUniformMatrix{234}fv
+        boolean matrix = name.startsWith("glUniformMatrix");
+        int digit = name.charAt(matrix ? 15 : 9) - '0';
+        int components = matrix ? digit * digit : digit;
+        int count = name.endsWith("v") ? toInt(args[1]) : 1;
+        return (long) components * count * 4;
+    }
+
+    private int newName() {
+        names.add(++lastName);
+        return lastName;
+    }
+
+    private void generateNames(Object[] args) {
+        int n = toInt(args[0]);
+        int[] generated = new int[n];
+        for (int i = 0; i < n; i++) {
+            generated[i] = newName();
+        }
+        writeInts(args[1], args.length > 2 ? toInt(args[2]) : 0, generated);
+    }
+
+    private int location(String name, Object program, Object variable) {
+        String key = name + ":" + program + ":" + variable;
+        Integer location = locations.get(key);
+        if (location == null) {
+            locations.put(key, location = locations.size());
+        }
+        return location;
+    }
+
+    private static void writeInts(Object target, int offset, int[] values) {
+        if (target instanceof int[]) {
+            int[] a = (int[]) target;
+            for (int i = 0; i < values.length && offset + i < a.length; i++) {
+                a[offset + i] = values[i];
+            }
+        } else if (target instanceof IntBuffer) {
+            IntBuffer b = (IntBuffer) target;
+            for (int i = 0; i < values.length && b.position() + i < b.limit(); i++) {
+                b.put(b.position() + i, values[i]);
+            }
+        }
+    }
+
+    private int[] queryInt(int pname) {
+        switch (pname) {
+            case GL10.GL_MAX_TEXTURE_UNITS:
+                return new int[] {2};
+            case GL10.GL_MAX_TEXTURE_SIZE:
+                return new int[] {2048};
+            case GL10.GL_MAX_LIGHTS:
+                return new int[] {8};
+            case GLES20.GL_MAX_VERTEX_ATTRIBS:
+                return new int[] {16};
+            case GLES20.GL_MAX_TEXTURE_IMAGE_UNITS:
+                return new int[] {8};
+            case GL10.GL_ALIASED_POINT_SIZE_RANGE:
+            case GL10.GL_SMOOTH_POINT_SIZE_RANGE:
+                return new int[] {1, 64};
+            case GL10.GL_ALIASED_LINE_WIDTH_RANGE:
+            case GL10.GL_SMOOTH_LINE_WIDTH_RANGE:
+                return new int[] {1, 8};
+            case GL11.GL_SHADE_MODEL:
+                Object shade = state.get("glShadeModel");
+                return new int[] {shade == null ? GL10.GL_SMOOTH : toInt(((List<?>) shade).get(0))};
+            default:
+                return new int[] {Boolean.TRUE.equals(state.get("cap:" + pname)) ? 1 : 0};
+        }
+    }
+
+    private static String queryString(int pname) {
+        switch (pname) {
+            case GL10.GL_VENDOR:
+                return "GlRecorder";
+            case GL10.GL_RENDERER:
+                return "headless";
+            case GL10.GL_VERSION:
+                return "OpenGL ES-CM 1.1";
+            default:
+                return "";
+        }
+    }
+
+    private void writeTrace(Api api, String name, Object[] args) {
+        line.setLength(0);
+        line.append(api).append(' ').append(name);
+        for (Object arg : args) {
+            line.append(' ');
+            GlTrace.encode(arg, line);
+        }
+        if (name.equals("glDrawElements") && args[3] instanceof Buffer) {
+            // keep the vertex range, so replay submits the same bytes
+            line.append('@').append(maxIndex((Buffer) args[3], toInt(args[1]), toInt(args[2])));
+        }
+        line.append('\n');
+        try {
+            trace.append(line);
+        } catch (IOException e) {
+            throw new IllegalStateException("Couldn't write GL trace", e);
+        }
+    }
+
+    private static final class Pointer {
+        int bytesPerVertex;
+        boolean clientSide;
+    }
+
+    /**
+     * Counts for one frame (or totals). Fields are public for assertions.
+     */
+    public static final class Frame {
+        public final long calls;
+        public final long drawCalls;
+        /** Indices (glDrawElements) or vertices (glDrawArrays) drawn */
+        public final long elements;
+        public final long stateChanges;
+        /** State calls that set the value already in place */
+        public final long redundantStateCalls;
+        /** Client-side vertex and index bytes read by draws */
+        public final long bytesSubmitted;
+        public final long uploadBytes;
+        public final long uniformBytes;
+        public final long cpuNanos;
+
+        Frame(long[] now, long[] base, long cpuNanos) {
+            calls = now[0] - base[0];
+            drawCalls = now[1] - base[1];
+            elements = now[2] - base[2];
+            stateChanges = now[3] - base[3];
+            redundantStateCalls = now[4] - base[4];
+            bytesSubmitted = now[5] - base[5];
+            uploadBytes = now[6] - base[6];
+            uniformBytes = now[7] - base[7];
+            this.cpuNanos = cpuNanos;
+        }
+
+        @Override
+        public String toString() {
+            return "calls=" + calls + " draws=" + drawCalls + " elements=" + elements
+                    + " stateChanges=" + stateChanges + " redundant=" + redundantStateCalls
+                    + " submitted=" + bytesSubmitted + "B uploaded=" + uploadBytes + "B uniforms=" + uniformBytes
+                    + "B" + (cpuNanos > 0 ? " cpu=" + (cpuNanos / 1000) + "us" : "");
+        }
+    }
+}
@@ -0,0 +1,326 @@
+package com.google.vr.sdk.samples.treasurehunt.benchmarks.gl;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Modifier;
+import java.nio.Buffer;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.FloatBuffer;
+import java.nio.IntBuffer;
+import java.nio.ShortBuffer;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import javax.microedition.khronos.opengles.GL10;
+import javax.microedition.khronos.opengles.GL11;
+
+import android.graphics.Bitmap;
+import android.opengl.GLES20;
+import android.opengl.GLUtils;
+
+/**
+ * Text format for recorded GL calls, and replay.
+ *
+ * One call per line: the API (GL10, GLES20 or GLUTILS), the function name, then
+ * the arguments separated by spaces. Arguments are written as:
+ * - numbers and booleans as literals; floats always have a '.' or exponent;
+ * - strings in double quotes with \\, \" and \n escaped;
+ * - buffers as kind:elements (F, I, S or B), contents not kept; index buffers
+ *   passed to glDrawElements add @maxIndex;
+ * - arrays as i[..], f[..], s[..], b[..] or z[..];
+ * - bitmaps as bitmap:WxH;
+ * - null as null.
+ *
+ * Replay allocates zeroed buffers and blank bitmaps of the recorded sizes, so
+ * it reproduces the call stream and data volume, not the pixels.
+ */
+public final class GlTrace {
+
+    private final Map<String, List<Method>> methods = new HashMap<>();
+
+    private GlTrace() {
+    }
+
+    /**
+     * Replays a trace. GL10 lines go to gl, GLES20 and GLUTILS lines to the static
+     * android.opengl classes.
+     *
+     * @return number of calls replayed
+     */
+    public static int replay(BufferedReader in, GL10 gl) throws IOException {
+        GlTrace trace = new GlTrace();
+        Class<?> glApi = gl instanceof GL11 ? GL11.class : GL10.class;
+        int replayed = 0;
+        String line;
+
+        while ((line = in.readLine()) != null) {
+            if (line.isEmpty()) {
+                continue;
+            }
+            List<String> tokens = tokenize(line);
+            GlRecorder.Api api = GlRecorder.Api.valueOf(tokens.get(0));
+            Class<?> target = api == GlRecorder.Api.GL10 ? glApi : api == GlRecorder.Api.GLES20 ? GLES20.class : GLUtils.class;
+            List<String> args = tokens.subList(2, tokens.size());
+
+            Method method = trace.find(target, tokens.get(1), args);
+            Class<?>[] types = method.getParameterTypes();
+            Object[] values = new Object[types.length];
+            for (int i = 0; i < types.length; i++) {
+                values[i] = decode(types[i], args.get(i));
+            }
+
+            try {
+                method.invoke(Modifier.isStatic(method.getModifiers()) ? null : gl, values);
+            } catch (IllegalAccessException e) {
+                throw new IllegalStateException(e);
+            } catch (InvocationTargetException e) {
+                throw new IllegalStateException("Replay failed at: " + line, e.getCause());
+            }
+            replayed++;
+        }
+        return replayed;
+    }
+
+    static void encode(Object arg, StringBuilder out) {
+        if (arg == null) {
+            out.append("null");
+        } else if (arg instanceof String) {
+            out.append('"');
+            String s = (String) arg;
+            for (int i = 0; i < s.length(); i++) {
+                char c = s.charAt(i);
+                if (c == '"' || c == '\\') {
+                    out.append('\\').append(c);
+                } else if (c == '\n') {
+                    out.append("\\n");
+                } else {
+                    out.append(c);
+                }
+            }
+            out.append('"');
+        } else if (arg instanceof Buffer) {
+            Buffer b = (Buffer) arg;
+            char kind = b instanceof FloatBuffer ? 'F' : b instanceof IntBuffer ? 'I' : b instanceof ShortBuffer ? 'S' : 'B';
+            out.append(kind).append(':').append(b.remaining());
+        } else if (arg instanceof Bitmap) {
+            Bitmap bitmap = (Bitmap) arg;
+            out.append("bitmap:").append(bitmap.getWidth()).append('x').append(bitmap.getHeight());
+        } else if (arg instanceof int[]) {
+            int[] a = (int[]) arg;
+            out.append("i[");
+            for (int i = 0; i < a.length; i++) {
+                out.append(i == 0 ? "" : ",").append(a[i]);
+            }
+            out.append(']');
+        } else if (arg instanceof float[]) {
+            float[] a = (float[]) arg;
+            out.append("f[");
+            for (int i = 0; i < a.length; i++) {
+                out.append(i == 0 ? "" : ",").append(a[i]);
+            }
+            out.append(']');
+        } else if (arg instanceof short[]) {
+            short[] a = (short[]) arg;
+            out.append("s[");
+            for (int i = 0; i < a.length; i++) {
+                out.append(i == 0 ? "" : ",").append(a[i]);
+            }
+            out.append(']');
+        } else if (arg instanceof byte[]) {
+            byte[] a = (byte[]) arg;
+            out.append("b[");
+            for (int i = 0; i < a.length; i++) {
+                out.append(i == 0 ? "" : ",").append(a[i]);
+            }
+            out.append(']');
+        } else if (arg instanceof boolean[]) {
+            boolean[] a = (boolean[]) arg;
+            out.append("z[");
+            for (int i = 0; i < a.length; i++) {
+                out.append(i == 0 ? "" : ",").append(a[i]);
+            }
+            out.append(']');
+        } else {
+            out.append(arg);
+        }
+    }
+
+    //
+
+    private Method find(Class<?> target, String name, List<String> args) {
+        List<Method> candidates = methods.get(target.getName() + "." + name);
+        if (candidates == null) {
+            candidates = new ArrayList<>();
+            for (Method m : target.getMethods()) {
+                if (m.getName().equals(name)) {
+                    candidates.add(m);
+                }
+            }
+            methods.put(target.getName() + "." + name, candidates);
+        }
+
+        for (Method m : candidates) {
+            Class<?>[] types = m.getParameterTypes();
+            if (types.length != args.size()) {
+                continue;
+            }
+            boolean match = true;
+            for (int i = 0; i < types.length && match; i++) {
+                match = accepts(types[i], args.get(i));
+            }
+            if (match) {
+                return m;
+            }
+        }
+        throw new IllegalArgumentException("No " + target.getSimpleName() + "." + name + " taking " + args);
+    }
+
+    private static boolean accepts(Class<?> type, String token) {
+        if (token.equals("null")) {
+            return !type.isPrimitive();
+        }
+        if (token.startsWith("\"")) {
+            return type == String.class;
+        }
+        if (token.startsWith("bitmap:")) {
+            return type == Bitmap.class;
+        }
+        if (token.length() > 1 && token.charAt(1) == ':') {
+            return type == Buffer.class || type == bufferClass(token.charAt(0));
+        }
+        if (token.length() > 1 && token.charAt(1) == '[') {
+            return type.isArray() && type == arrayClass(token.charAt(0));
+        }
+        if (token.equals("true") || token.equals("false")) {
+            return type == boolean.class;
+        }
+        if (type == float.class) {
+            return true;
+        }
+        return (type == int.class || type == short.class || type == byte.class || type == long.class)
+                && token.matches("-?\\d+");
+    }
+
+    private static Object decode(Class<?> type, String token) {
+        if (token.equals("null")) {
+            return null;
+        }
+        if (type == String.class) {
+            StringBuilder sb = new StringBuilder();
+            for (int i = 1; i < token.length() - 1; i++) {
+                char c = token.charAt(i);
+                if (c == '\\') {
+                    c = token.charAt(++i);
+                    sb.append(c == 'n' ? '\n' : c);
+                } else {
+                    sb.append(c);
+                }
+            }
+            return sb.toString();
+        }
+        if (type == Bitmap.class) {
+            String[] size = token.substring(7).split("x");
+            return Bitmap.createBitmap(Integer.parseInt(size[0]), Integer.parseInt(size[1]), Bitmap.Config.ARGB_8888);
+        }
+        if (Buffer.class.isAssignableFrom(type)) {
+            int at = token.indexOf('@');
+            int n = Integer.parseInt(token.substring(2, at < 0 ? token.length() : at));
+            int max = at < 0 ? 0 : Integer.parseInt(token.substring(at + 1));
+            switch (token.charAt(0)) {
+                case 'F':
+                    return direct(n * 4).asFloatBuffer();
+                case 'I':
+                    return direct(n * 4).asIntBuffer().put(0, max);
+                case 'S':
+                    return direct(n * 2).asShortBuffer().put(0, (short) max);
+                default:
+                    return direct(n).put(0, (byte) max);
+            }
+        }
+        if (type.isArray()) {
+            String body = token.substring(2, token.length() - 1);
+            String[] parts = body.isEmpty() ? new String[0] : body.split(",");
+            Class<?> component = type.getComponentType();
+            Object array = java.lang.reflect.Array.newInstance(component, parts.length);
+            for (int i = 0; i < parts.length; i++) {
+                java.lang.reflect.Array.set(array, i, decode(component, parts[i]));
+            }
+            return array;
+        }
+        if (type == boolean.class) {
+            return Boolean.parseBoolean(token);
+        }
+        if (type == float.class) {
+            return Float.parseFloat(token);
+        }
+        if (type == short.class) {
+            return Short.parseShort(token);
+        }
+        if (type == byte.class) {
+            return Byte.parseByte(token);
+        }
+        if (type == long.class) {
+            return Long.parseLong(token);
+        }
+        return Integer.parseInt(token);
+    }
+
+    private static ByteBuffer direct(int bytes) {
+        return ByteBuffer.allocateDirect(bytes).order(ByteOrder.nativeOrder());
+    }
+
+    private static Class<?> bufferClass(char kind) {
+        switch (kind) {
+            case 'F':
+                return FloatBuffer.class;
+            case 'I':
+                return IntBuffer.class;
+            case 'S':
+                return ShortBuffer.class;
+            default:
+                return ByteBuffer.class;
+        }
+    }
+
+    private static Class<?> arrayClass(char kind) {
+        switch (kind) {
+            case 'i':
+                return int[].class;
+            case 'f':
+                return float[].class;
+            case 's':
+                return short[].class;
+            case 'b':
+                return byte[].class;
+            default:
+                return boolean[].class;
+        }
+    }
+
+    private static List<String> tokenize(String line) {
+        List<String> tokens = new ArrayList<>();
+        int i = 0;
+        while (i < line.length()) {
+            int start = i;
+            if (line.charAt(i) == '"') {
+                i++;
+                while (line.charAt(i) != '"') {
+                    i += line.charAt(i) == '\\' ? 2 : 1;
+                }
+                i++;
+            } else {
+                while (i < line.length() && line.charAt(i) != ' ') {
+                    i++;
+                }
+            }
+            tokens.add(line.substring(start, i));
+            i++;
+        }
+        return tokens;
+    }
+}
@@ -0,0 +1,11 @@
+package android.content;
+
+import android.content.res.Resources;
+
+public abstract class Context {
+    public static final String ACTIVITY_SERVICE = "activity";
+
+    public abstract Resources getResources();
+
+    public abstract Object getSystemService(String name);
+}
@@ -0,0 +1,24 @@
+package android.content.res;
+
+import java.io.FileInputStream;
+import java.io.IOException;
+
+/**
+ * Benchmark stand-in; Resources never hands one out.
+ */
+public class AssetFileDescriptor {
+    public long getStartOffset() {
+        return 0;
+    }
+
+    public long getLength() {
+        return -1;
+    }
+
+    public FileInputStream createInputStream() throws IOException {
+        throw new IOException("not a file");
+    }
+
+    public void close() throws IOException {
+    }
+}
@@ -0,0 +1,29 @@
+package android.content.res;
+
+import java.io.InputStream;
+
+/**
+ * Benchmark stand-in; fixtures override the lookups to serve files from res/raw.
+ */
+public class Resources {
+    public static class NotFoundException extends RuntimeException {
+        public NotFoundException(String name) {
+            super(name);
+        }
+    }
+
+    public int getIdentifier(String name, String defType, String defPackage) {
+        return 0;
+    }
+
+    public InputStream openRawResource(int id) throws NotFoundException {
+        throw new NotFoundException("Resource ID #0x" + Integer.toHexString(id));
+    }
+
+    /**
+     * As for a resource stored compressed: there's no file range to map.
+     */
+    public AssetFileDescriptor openRawResourceFd(int id) throws NotFoundException {
+        throw new NotFoundException("File resource ID #0x" + Integer.toHexString(id));
+    }
+}
@@ -0,0 +1,50 @@
+package android.graphics;
+
+/**
+ * Benchmark stand-in backed by an int[] of ARGB pixels.
+ */
+public final class Bitmap {
+    public enum Config { ALPHA_8, RGB_565, ARGB_4444, ARGB_8888 }
+
+    private final int width;
+    private final int height;
+    private int[] pixels;
+
+    private Bitmap(int width, int height) {
+        this.width = width;
+        this.height = height;
+        this.pixels = new int[width * height];
+    }
+
+    public static Bitmap createBitmap(int width, int height, Config config) {
+        return new Bitmap(width, height);
+    }
+
+    public int getWidth() {
+        return width;
+    }
+
+    public int getHeight() {
+        return height;
+    }
+
+    public void getPixels(int[] out, int offset, int stride, int x, int y, int w, int h) {
+        for (int row = 0; row < h; row++) {
+            System.arraycopy(pixels, (y + row) * width + x, out, offset + row * stride, w);
+        }
+    }
+
+    public void setPixels(int[] in, int offset, int stride, int x, int y, int w, int h) {
+        for (int row = 0; row < h; row++) {
+            System.arraycopy(in, offset + row * stride, pixels, (y + row) * width + x, w);
+        }
+    }
+
+    public boolean isRecycled() {
+        return pixels == null;
+    }
+
+    public void recycle() {
+        pixels = null;
+    }
+}
@@ -0,0 +1,18 @@
+package android.graphics;
+
+import java.io.InputStream;
+
+import android.content.res.Resources;
+
+/**
+ * Benchmark stand-in: image decoding is platform code and is not measured.
+ */
+public class BitmapFactory {
+    public static Bitmap decodeStream(InputStream is) {
+        throw new UnsupportedOperationException("Bitmap decoding is not available in benchmarks");
+    }
+
+    public static Bitmap decodeResource(Resources res, int id) {
+        throw new UnsupportedOperationException("Bitmap decoding is not available in benchmarks");
+    }
+}
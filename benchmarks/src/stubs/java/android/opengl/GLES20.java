@@ -0,0 +1,1068 @@
+package android.opengl;
+
+import java.nio.Buffer;
+import java.nio.FloatBuffer;
+import java.nio.IntBuffer;
+
+import com.google.vr.sdk.samples.treasurehunt.benchmarks.gl.GlRecorder;
+
+/**
+ * Headless GLES20. Generated from the platform signatures; every call goes to the
+ * installed GlRecorder instead of a driver.
+ */
+public class GLES20 {
+    public static final int GL_ACTIVE_TEXTURE = 0x84E0;
+    public static final int GL_DEPTH_BUFFER_BIT = 0x100;
+    public static final int GL_STENCIL_BUFFER_BIT = 0x400;
+    public static final int GL_COLOR_BUFFER_BIT = 0x4000;
+    public static final int GL_FALSE = 0x0;
+    public static final int GL_TRUE = 0x1;
+    public static final int GL_POINTS = 0x0;
+    public static final int GL_LINES = 0x1;
+    public static final int GL_LINE_LOOP = 0x2;
+    public static final int GL_LINE_STRIP = 0x3;
+    public static final int GL_TRIANGLES = 0x4;
+    public static final int GL_TRIANGLE_STRIP = 0x5;
+    public static final int GL_TRIANGLE_FAN = 0x6;
+    public static final int GL_ZERO = 0x0;
+    public static final int GL_ONE = 0x1;
+    public static final int GL_SRC_COLOR = 0x300;
+    public static final int GL_ONE_MINUS_SRC_COLOR = 0x301;
+    public static final int GL_SRC_ALPHA = 0x302;
+    public static final int GL_ONE_MINUS_SRC_ALPHA = 0x303;
+    public static final int GL_DST_ALPHA = 0x304;
+    public static final int GL_ONE_MINUS_DST_ALPHA = 0x305;
+    public static final int GL_DST_COLOR = 0x306;
+    public static final int GL_ONE_MINUS_DST_COLOR = 0x307;
+    public static final int GL_SRC_ALPHA_SATURATE = 0x308;
+    public static final int GL_FUNC_ADD = 0x8006;
+    public static final int GL_BLEND_EQUATION = 0x8009;
+    public static final int GL_BLEND_EQUATION_RGB = 0x8009;
+    public static final int GL_BLEND_EQUATION_ALPHA = 0x883D;
+    public static final int GL_FUNC_SUBTRACT = 0x800A;
+    public static final int GL_FUNC_REVERSE_SUBTRACT = 0x800B;
+    public static final int GL_BLEND_DST_RGB = 0x80C8;
+    public static final int GL_BLEND_SRC_RGB = 0x80C9;
+    public static final int GL_BLEND_DST_ALPHA = 0x80CA;
+    public static final int GL_BLEND_SRC_ALPHA = 0x80CB;
+    public static final int GL_CONSTANT_COLOR = 0x8001;
+    public static final int GL_ONE_MINUS_CONSTANT_COLOR = 0x8002;
+    public static final int GL_CONSTANT_ALPHA = 0x8003;
+    public static final int GL_ONE_MINUS_CONSTANT_ALPHA = 0x8004;
+    public static final int GL_BLEND_COLOR = 0x8005;
+    public static final int GL_ARRAY_BUFFER = 0x8892;
+    public static final int GL_ELEMENT_ARRAY_BUFFER = 0x8893;
+    public static final int GL_ARRAY_BUFFER_BINDING = 0x8894;
+    public static final int GL_ELEMENT_ARRAY_BUFFER_BINDING = 0x8895;
+    public static final int GL_STREAM_DRAW = 0x88E0;
+    public static final int GL_STATIC_DRAW = 0x88E4;
+    public static final int GL_DYNAMIC_DRAW = 0x88E8;
+    public static final int GL_BUFFER_SIZE = 0x8764;
+    public static final int GL_BUFFER_USAGE = 0x8765;
+    public static final int GL_CURRENT_VERTEX_ATTRIB = 0x8626;
+    public static final int GL_FRONT = 0x404;
+    public static final int GL_BACK = 0x405;
+    public static final int GL_FRONT_AND_BACK = 0x408;
+    public static final int GL_TEXTURE_2D = 0xDE1;
+    public static final int GL_CULL_FACE = 0xB44;
+    public static final int GL_BLEND = 0xBE2;
+    public static final int GL_DITHER = 0xBD0;
+    public static final int GL_STENCIL_TEST = 0xB90;
+    public static final int GL_DEPTH_TEST = 0xB71;
+    public static final int GL_SCISSOR_TEST = 0xC11;
+    public static final int GL_POLYGON_OFFSET_FILL = 0x8037;
+    public static final int GL_SAMPLE_ALPHA_TO_COVERAGE = 0x809E;
+    public static final int GL_SAMPLE_COVERAGE = 0x80A0;
+    public static final int GL_NO_ERROR = 0x0;
+    public static final int GL_INVALID_ENUM = 0x500;
+    public static final int GL_INVALID_VALUE = 0x501;
+    public static final int GL_INVALID_OPERATION = 0x502;
+    public static final int GL_OUT_OF_MEMORY = 0x505;
+    public static final int GL_CW = 0x900;
+    public static final int GL_CCW = 0x901;
+    public static final int GL_LINE_WIDTH = 0xB21;
+    public static final int GL_ALIASED_POINT_SIZE_RANGE = 0x846D;
+    public static final int GL_ALIASED_LINE_WIDTH_RANGE = 0x846E;
+    public static final int GL_CULL_FACE_MODE = 0xB45;
+    public static final int GL_FRONT_FACE = 0xB46;
+    public static final int GL_DEPTH_RANGE = 0xB70;
+    public static final int GL_DEPTH_WRITEMASK = 0xB72;
+    public static final int GL_DEPTH_CLEAR_VALUE = 0xB73;
+    public static final int GL_DEPTH_FUNC = 0xB74;
+    public static final int GL_STENCIL_CLEAR_VALUE = 0xB91;
+    public static final int GL_STENCIL_FUNC = 0xB92;
+    public static final int GL_STENCIL_FAIL = 0xB94;
+    public static final int GL_STENCIL_PASS_DEPTH_FAIL = 0xB95;
+    public static final int GL_STENCIL_PASS_DEPTH_PASS = 0xB96;
+    public static final int GL_STENCIL_REF = 0xB97;
+    public static final int GL_STENCIL_VALUE_MASK = 0xB93;
+    public static final int GL_STENCIL_WRITEMASK = 0xB98;
+    public static final int GL_STENCIL_BACK_FUNC = 0x8800;
+    public static final int GL_STENCIL_BACK_FAIL = 0x8801;
+    public static final int GL_STENCIL_BACK_PASS_DEPTH_FAIL = 0x8802;
+    public static final int GL_STENCIL_BACK_PASS_DEPTH_PASS = 0x8803;
+    public static final int GL_STENCIL_BACK_REF = 0x8CA3;
+    public static final int GL_STENCIL_BACK_VALUE_MASK = 0x8CA4;
+    public static final int GL_STENCIL_BACK_WRITEMASK = 0x8CA5;
+    public static final int GL_VIEWPORT = 0xBA2;
+    public static final int GL_SCISSOR_BOX = 0xC10;
+    public static final int GL_COLOR_CLEAR_VALUE = 0xC22;
+    public static final int GL_COLOR_WRITEMASK = 0xC23;
+    public static final int GL_UNPACK_ALIGNMENT = 0xCF5;
+    public static final int GL_PACK_ALIGNMENT = 0xD05;
+    public static final int GL_MAX_TEXTURE_SIZE = 0xD33;
+    public static final int GL_MAX_VIEWPORT_DIMS = 0xD3A;
+    public static final int GL_SUBPIXEL_BITS = 0xD50;
+    public static final int GL_RED_BITS = 0xD52;
+    public static final int GL_GREEN_BITS = 0xD53;
+    public static final int GL_BLUE_BITS = 0xD54;
+    public static final int GL_ALPHA_BITS = 0xD55;
+    public static final int GL_DEPTH_BITS = 0xD56;
+    public static final int GL_STENCIL_BITS = 0xD57;
+    public static final int GL_POLYGON_OFFSET_UNITS = 0x2A00;
+    public static final int GL_POLYGON_OFFSET_FACTOR = 0x8038;
+    public static final int GL_TEXTURE_BINDING_2D = 0x8069;
+    public static final int GL_SAMPLE_BUFFERS = 0x80A8;
+    public static final int GL_SAMPLES = 0x80A9;
+    public static final int GL_SAMPLE_COVERAGE_VALUE = 0x80AA;
+    public static final int GL_SAMPLE_COVERAGE_INVERT = 0x80AB;
+    public static final int GL_NUM_COMPRESSED_TEXTURE_FORMATS = 0x86A2;
+    public static final int GL_COMPRESSED_TEXTURE_FORMATS = 0x86A3;
+    public static final int GL_DONT_CARE = 0x1100;
+    public static final int GL_FASTEST = 0x1101;
+    public static final int GL_NICEST = 0x1102;
+    public static final int GL_GENERATE_MIPMAP_HINT = 0x8192;
+    public static final int GL_BYTE = 0x1400;
+    public static final int GL_UNSIGNED_BYTE = 0x1401;
+    public static final int GL_SHORT = 0x1402;
+    public static final int GL_UNSIGNED_SHORT = 0x1403;
+    public static final int GL_INT = 0x1404;
+    public static final int GL_UNSIGNED_INT = 0x1405;
+    public static final int GL_FLOAT = 0x1406;
+    public static final int GL_FIXED = 0x140C;
+    public static final int GL_DEPTH_COMPONENT = 0x1902;
+    public static final int GL_ALPHA = 0x1906;
+    public static final int GL_RGB = 0x1907;
+    public static final int GL_RGBA = 0x1908;
+    public static final int GL_LUMINANCE = 0x1909;
+    public static final int GL_LUMINANCE_ALPHA = 0x190A;
+    public static final int GL_UNSIGNED_SHORT_4_4_4_4 = 0x8033;
+    public static final int GL_UNSIGNED_SHORT_5_5_5_1 = 0x8034;
+    public static final int GL_UNSIGNED_SHORT_5_6_5 = 0x8363;
+    public static final int GL_FRAGMENT_SHADER = 0x8B30;
+    public static final int GL_VERTEX_SHADER = 0x8B31;
+    public static final int GL_MAX_VERTEX_ATTRIBS = 0x8869;
+    public static final int GL_MAX_VERTEX_UNIFORM_VECTORS = 0x8DFB;
+    public static final int GL_MAX_VARYING_VECTORS = 0x8DFC;
+    public static final int GL_MAX_COMBINED_TEXTURE_IMAGE_UNITS = 0x8B4D;
+    public static final int GL_MAX_VERTEX_TEXTURE_IMAGE_UNITS = 0x8B4C;
+    public static final int GL_MAX_TEXTURE_IMAGE_UNITS = 0x8872;
+    public static final int GL_MAX_FRAGMENT_UNIFORM_VECTORS = 0x8DFD;
+    public static final int GL_SHADER_TYPE = 0x8B4F;
+    public static final int GL_DELETE_STATUS = 0x8B80;
+    public static final int GL_LINK_STATUS = 0x8B82;
+    public static final int GL_VALIDATE_STATUS = 0x8B83;
+    public static final int GL_ATTACHED_SHADERS = 0x8B85;
+    public static final int GL_ACTIVE_UNIFORMS = 0x8B86;
+    public static final int GL_ACTIVE_UNIFORM_MAX_LENGTH = 0x8B87;
+    public static final int GL_ACTIVE_ATTRIBUTES = 0x8B89;
+    public static final int GL_ACTIVE_ATTRIBUTE_MAX_LENGTH = 0x8B8A;
+    public static final int GL_SHADING_LANGUAGE_VERSION = 0x8B8C;
+    public static final int GL_CURRENT_PROGRAM = 0x8B8D;
+    public static final int GL_NEVER = 0x200;
+    public static final int GL_LESS = 0x201;
+    public static final int GL_EQUAL = 0x202;
+    public static final int GL_LEQUAL = 0x203;
+    public static final int GL_GREATER = 0x204;
+    public static final int GL_NOTEQUAL = 0x205;
+    public static final int GL_GEQUAL = 0x206;
+    public static final int GL_ALWAYS = 0x207;
+    public static final int GL_KEEP = 0x1E00;
+    public static final int GL_REPLACE = 0x1E01;
+    public static final int GL_INCR = 0x1E02;
+    public static final int GL_DECR = 0x1E03;
+    public static final int GL_INVERT = 0x150A;
+    public static final int GL_INCR_WRAP = 0x8507;
+    public static final int GL_DECR_WRAP = 0x8508;
+    public static final int GL_VENDOR = 0x1F00;
+    public static final int GL_RENDERER = 0x1F01;
+    public static final int GL_VERSION = 0x1F02;
+    public static final int GL_EXTENSIONS = 0x1F03;
+    public static final int GL_NEAREST = 0x2600;
+    public static final int GL_LINEAR = 0x2601;
+    public static final int GL_NEAREST_MIPMAP_NEAREST = 0x2700;
+    public static final int GL_LINEAR_MIPMAP_NEAREST = 0x2701;
+    public static final int GL_NEAREST_MIPMAP_LINEAR = 0x2702;
+    public static final int GL_LINEAR_MIPMAP_LINEAR = 0x2703;
+    public static final int GL_TEXTURE_MAG_FILTER = 0x2800;
+    public static final int GL_TEXTURE_MIN_FILTER = 0x2801;
+    public static final int GL_TEXTURE_WRAP_S = 0x2802;
+    public static final int GL_TEXTURE_WRAP_T = 0x2803;
+    public static final int GL_TEXTURE = 0x1702;
+    public static final int GL_TEXTURE_CUBE_MAP = 0x8513;
+    public static final int GL_TEXTURE_BINDING_CUBE_MAP = 0x8514;
+    public static final int GL_TEXTURE_CUBE_MAP_POSITIVE_X = 0x8515;
+    public static final int GL_TEXTURE_CUBE_MAP_NEGATIVE_X = 0x8516;
+    public static final int GL_TEXTURE_CUBE_MAP_POSITIVE_Y = 0x8517;
+    public static final int GL_TEXTURE_CUBE_MAP_NEGATIVE_Y = 0x8518;
+    public static final int GL_TEXTURE_CUBE_MAP_POSITIVE_Z = 0x8519;
+    public static final int GL_TEXTURE_CUBE_MAP_NEGATIVE_Z = 0x851A;
+    public static final int GL_MAX_CUBE_MAP_TEXTURE_SIZE = 0x851C;
+    public static final int GL_TEXTURE0 = 0x84C0;
+    public static final int GL_TEXTURE1 = 0x84C1;
+    public static final int GL_TEXTURE2 = 0x84C2;
+    public static final int GL_TEXTURE3 = 0x84C3;
+    public static final int GL_TEXTURE4 = 0x84C4;
+    public static final int GL_TEXTURE5 = 0x84C5;
+    public static final int GL_TEXTURE6 = 0x84C6;
+    public static final int GL_TEXTURE7 = 0x84C7;
+    public static final int GL_TEXTURE8 = 0x84C8;
+    public static final int GL_TEXTURE9 = 0x84C9;
+    public static final int GL_TEXTURE10 = 0x84CA;
+    public static final int GL_TEXTURE11 = 0x84CB;
+    public static final int GL_TEXTURE12 = 0x84CC;
+    public static final int GL_TEXTURE13 = 0x84CD;
+    public static final int GL_TEXTURE14 = 0x84CE;
+    public static final int GL_TEXTURE15 = 0x84CF;
+    public static final int GL_TEXTURE16 = 0x84D0;
+    public static final int GL_TEXTURE17 = 0x84D1;
+    public static final int GL_TEXTURE18 = 0x84D2;
+    public static final int GL_TEXTURE19 = 0x84D3;
+    public static final int GL_TEXTURE20 = 0x84D4;
+    public static final int GL_TEXTURE21 = 0x84D5;
+    public static final int GL_TEXTURE22 = 0x84D6;
+    public static final int GL_TEXTURE23 = 0x84D7;
+    public static final int GL_TEXTURE24 = 0x84D8;
+    public static final int GL_TEXTURE25 = 0x84D9;
+    public static final int GL_TEXTURE26 = 0x84DA;
+    public static final int GL_TEXTURE27 = 0x84DB;
+    public static final int GL_TEXTURE28 = 0x84DC;
+    public static final int GL_TEXTURE29 = 0x84DD;
+    public static final int GL_TEXTURE30 = 0x84DE;
+    public static final int GL_TEXTURE31 = 0x84DF;
+    public static final int GL_REPEAT = 0x2901;
+    public static final int GL_CLAMP_TO_EDGE = 0x812F;
+    public static final int GL_MIRRORED_REPEAT = 0x8370;
+    public static final int GL_FLOAT_VEC2 = 0x8B50;
+    public static final int GL_FLOAT_VEC3 = 0x8B51;
+    public static final int GL_FLOAT_VEC4 = 0x8B52;
+    public static final int GL_INT_VEC2 = 0x8B53;
+    public static final int GL_INT_VEC3 = 0x8B54;
+    public static final int GL_INT_VEC4 = 0x8B55;
+    public static final int GL_BOOL = 0x8B56;
+    public static final int GL_BOOL_VEC2 = 0x8B57;
+    public static final int GL_BOOL_VEC3 = 0x8B58;
+    public static final int GL_BOOL_VEC4 = 0x8B59;
+    public static final int GL_FLOAT_MAT2 = 0x8B5A;
+    public static final int GL_FLOAT_MAT3 = 0x8B5B;
+    public static final int GL_FLOAT_MAT4 = 0x8B5C;
+    public static final int GL_SAMPLER_2D = 0x8B5E;
+    public static final int GL_SAMPLER_CUBE = 0x8B60;
+    public static final int GL_VERTEX_ATTRIB_ARRAY_ENABLED = 0x8622;
+    public static final int GL_VERTEX_ATTRIB_ARRAY_SIZE = 0x8623;
+    public static final int GL_VERTEX_ATTRIB_ARRAY_STRIDE = 0x8624;
+    public static final int GL_VERTEX_ATTRIB_ARRAY_TYPE = 0x8625;
+    public static final int GL_VERTEX_ATTRIB_ARRAY_NORMALIZED = 0x886A;
+    public static final int GL_VERTEX_ATTRIB_ARRAY_POINTER = 0x8645;
+    public static final int GL_VERTEX_ATTRIB_ARRAY_BUFFER_BINDING = 0x889F;
+    public static final int GL_IMPLEMENTATION_COLOR_READ_TYPE = 0x8B9A;
+    public static final int GL_IMPLEMENTATION_COLOR_READ_FORMAT = 0x8B9B;
+    public static final int GL_COMPILE_STATUS = 0x8B81;
+    public static final int GL_INFO_LOG_LENGTH = 0x8B84;
+    public static final int GL_SHADER_SOURCE_LENGTH = 0x8B88;
+    public static final int GL_SHADER_COMPILER = 0x8DFA;
+    public static final int GL_SHADER_BINARY_FORMATS = 0x8DF8;
+    public static final int GL_NUM_SHADER_BINARY_FORMATS = 0x8DF9;
+    public static final int GL_LOW_FLOAT = 0x8DF0;
+    public static final int GL_MEDIUM_FLOAT = 0x8DF1;
+    public static final int GL_HIGH_FLOAT = 0x8DF2;
+    public static final int GL_LOW_INT = 0x8DF3;
+    public static final int GL_MEDIUM_INT = 0x8DF4;
+    public static final int GL_HIGH_INT = 0x8DF5;
+    public static final int GL_FRAMEBUFFER = 0x8D40;
+    public static final int GL_RENDERBUFFER = 0x8D41;
+    public static final int GL_RGBA4 = 0x8056;
+    public static final int GL_RGB5_A1 = 0x8057;
+    public static final int GL_RGB565 = 0x8D62;
+    public static final int GL_DEPTH_COMPONENT16 = 0x81A5;
+    public static final int GL_STENCIL_INDEX = 0x1901;
+    public static final int GL_STENCIL_INDEX8 = 0x8D48;
+    public static final int GL_RENDERBUFFER_WIDTH = 0x8D42;
+    public static final int GL_RENDERBUFFER_HEIGHT = 0x8D43;
+    public static final int GL_RENDERBUFFER_INTERNAL_FORMAT = 0x8D44;
+    public static final int GL_RENDERBUFFER_RED_SIZE = 0x8D50;
+    public static final int GL_RENDERBUFFER_GREEN_SIZE = 0x8D51;
+    public static final int GL_RENDERBUFFER_BLUE_SIZE = 0x8D52;
+    public static final int GL_RENDERBUFFER_ALPHA_SIZE = 0x8D53;
+    public static final int GL_RENDERBUFFER_DEPTH_SIZE = 0x8D54;
+    public static final int GL_RENDERBUFFER_STENCIL_SIZE = 0x8D55;
+    public static final int GL_FRAMEBUFFER_ATTACHMENT_OBJECT_TYPE = 0x8CD0;
+    public static final int GL_FRAMEBUFFER_ATTACHMENT_OBJECT_NAME = 0x8CD1;
+    public static final int GL_FRAMEBUFFER_ATTACHMENT_TEXTURE_LEVEL = 0x8CD2;
+    public static final int GL_FRAMEBUFFER_ATTACHMENT_TEXTURE_CUBE_MAP_FACE = 0x8CD3;
+    public static final int GL_COLOR_ATTACHMENT0 = 0x8CE0;
+    public static final int GL_DEPTH_ATTACHMENT = 0x8D00;
+    public static final int GL_STENCIL_ATTACHMENT = 0x8D20;
+    public static final int GL_NONE = 0x0;
+    public static final int GL_FRAMEBUFFER_COMPLETE = 0x8CD5;
+    public static final int GL_FRAMEBUFFER_INCOMPLETE_ATTACHMENT = 0x8CD6;
+    public static final int GL_FRAMEBUFFER_INCOMPLETE_MISSING_ATTACHMENT = 0x8CD7;
+    public static final int GL_FRAMEBUFFER_INCOMPLETE_DIMENSIONS = 0x8CD9;
+    public static final int GL_FRAMEBUFFER_UNSUPPORTED = 0x8CDD;
+    public static final int GL_FRAMEBUFFER_BINDING = 0x8CA6;
+    public static final int GL_RENDERBUFFER_BINDING = 0x8CA7;
+    public static final int GL_MAX_RENDERBUFFER_SIZE = 0x84E8;
+    public static final int GL_INVALID_FRAMEBUFFER_OPERATION = 0x506;
+
+    public static void glActiveTexture(int a0) {
+        GlRecorder.dispatch(GlRecorder.Api.GLES20, "glActiveTexture", a0);
+    }
+
+    public static void glAttachShader(int a0, int a1) {
+        GlRecorder.dispatch(GlRecorder.Api.GLES20, "glAttachShader", a0, a1);
+    }
+
+    public static void glBindAttribLocation(int a0, int a1, String a2) {
+        GlRecorder.dispatch(GlRecorder.Api.GLES20, "glBindAttribLocation", a0, a1, a2);
+    }
+
+    public static void glBindBuffer(int a0, int a1) {
+        GlRecorder.dispatch(GlRecorder.Api.GLES20, "glBindBuffer", a0, a1);
+    }
+
+    public static void glBindFramebuffer(int a0, int a1) {
+        GlRecorder.dispatch(GlRecorder.Api.GLES20, "glBindFramebuffer", a0, a1);
+    }
+
+    public static void glBindRenderbuffer(int a0, int a1) {
+        GlRecorder.dispatch(GlRecorder.Api.GLES20, "glBindRenderbuffer", a0, a1);
+    }
+
+    public static void glBindTexture(int a0, int a1) {
+        GlRecorder.dispatch(GlRecorder.Api.GLES20, "glBindTexture", a0, a1);
+    }
+
+    public static void glBlendColor(float a0, float a1, float a2, float a3) {
+        GlRecorder.dispatch(GlRecorder.Api.GLES20, "glBlendColor", a0, a1, a2, a3);
+    }
+
+    public static void glBlendEquation(int a0) {
+        GlRecorder.dispatch(GlRecorder.Api.GLES20, "glBlendEquation", a0);
+    }
+
+    public static void glBlendEquationSeparate(int a0, int a1) {
+        GlRecorder.dispatch(GlRecorder.Api.GLES20, "glBlendEquationSeparate", a0, a1);
+    }
+
+    public static void glBlendFunc(int a0, int a1) {
+        GlRecorder.dispatch(GlRecorder.Api.GLES20, "glBlendFunc", a0, a1);
+    }
+
+    public static void glBlendFuncSeparate(int a0, int a1, int a2, int a3) {
+        GlRecorder.dispatch(GlRecorder.Api.GLES20, "glBlendFuncSeparate", a0, a1, a2, a3);
+    }
+
+    public static void glBufferData(int a0, int a1, Buffer a2, int a3) {
+        GlRecorder.dispatch(GlRecorder.Api.GLES20, "glBufferData", a0, a1, a2, a3);
+    }
+
+    public static void glBufferSubData(int a0, int a1, int a2, Buffer a3) {
+        GlRecorder.dispatch(GlRecorder.Api.GLES20, "glBufferSubData", a0, a1, a2, a3);
+    }
+
+    public static int glCheckFramebufferStatus(int a0) {
+        return GlRecorder.toInt(GlRecorder.dispatch(GlRecorder.Api.GLES20, "glCheckFramebufferStatus", a0));
+    }
+
+    public static void glClear(int a0) {
+        GlRecorder.dispatch(GlRecorder.Api.GLES20, "glClear", a0);
+    }
+
+    public static void glClearColor(float a0, float a1, float a2, float a3) {
+        GlRecorder.dispatch(GlRecorder.Api.GLES20, "glClearColor", a0, a1, a2, a3);
+    }
+
+    public static void glClearDepthf(float a0) {
+        GlRecorder.dispatch(GlRecorder.Api.GLES20, "glClearDepthf", a0);
+    }
+
+    public static void glClearStencil(int a0) {
+        GlRecorder.dispatch(GlRecorder.Api.GLES20, "glClearStencil", a0);
+    }
+
+    public static void glColorMask(boolean a0, boolean a1, boolean a2, boolean a3) {
+        GlRecorder.dispatch(GlRecorder.Api.GLES20, "glColorMask", a0, a1, a2, a3);
+    }
+
+    public static void glCompileShader(int a0) {
+        GlRecorder.dispatch(GlRecorder.Api.GLES20, "glCompileShader", a0);
+    }
+
+    public static void glCompressedTexImage2D(int a0, int a1, int a2, int a3, int a4, int a5, int a6, Buffer a7) {
+        GlRecorder.dispatch(GlRecorder.Api.GLES20, "glCompressedTexImage2D", a0, a1, a2, a3, a4, a5, a6, a7);
+    }
+
+    public static void glCompressedTexSubImage2D(int a0, int a1, int a2, int a3, int a4, int a5, int a6, int a7, Buffer a8) {
+        GlRecorder.dispatch(GlRecorder.Api.GLES20, "glCompressedTexSubImage2D", a0, a1, a2, a3, a4, a5, a6, a7, a8);
+    }
+
+    public static void glCopyTexImage2D(int a0, int a1, int a2, int a3, int a4, int a5, int a6, int a7) {
+        GlRecorder.dispatch(GlRecorder.Api.GLES20, "glCopyTexImage2D", a0, a1, a2, a3, a4, a5, a6, a7);
+    }
+
+    public static void glCopyTexSubImage2D(int a0, int a1, int a2, int a3, int a4, int a5, int a6, int a7) {
+        GlRecorder.dispatch(GlRecorder.Api.GLES20, "glCopyTexSubImage2D", a0, a1, a2, a3, a4, a5, a6, a7);
+    }
+
+    public static int glCreateProgram() {
+        return GlRecorder.toInt(GlRecorder.dispatch(GlRecorder.Api.GLES20, "glCreateProgram"));
+    }
+
+    public static int glCreateShader(int a0) {
+        return GlRecorder.toInt(GlRecorder.dispatch(GlRecorder.Api.GLES20, "glCreateShader", a0));
+    }
+
+    public static void glCullFace(int a0) {
+        GlRecorder.dispatch(GlRecorder.Api.GLES20, "glCullFace", a0);
+    }
+
+    public static void glDeleteBuffers(int a0, int[] a1, int a2) {
+        GlRecorder.dispatch(GlRecorder.Api.GLES20, "glDeleteBuffers", a0, a1, a2);
+    }
+
+    public static void glDeleteBuffers(int a0, IntBuffer a1) {
+        GlRecorder.dispatch(GlRecorder.Api.GLES20, "glDeleteBuffers", a0, a1);
+    }
+
+    public static void glDeleteFramebuffers(int a0, int[] a1, int a2) {
+        GlRecorder.dispatch(GlRecorder.Api.GLES20, "glDeleteFramebuffers", a0, a1, a2);
+    }
+
+    public static void glDeleteFramebuffers(int a0, IntBuffer a1) {
+        GlRecorder.dispatch(GlRecorder.Api.GLES20, "glDeleteFramebuffers", a0, a1);
+    }
+
+    public static void glDeleteProgram(int a0) {
+        GlRecorder.dispatch(GlRecorder.Api.GLES20, "glDeleteProgram", a0);
+    }
+
+    public static void glDeleteRenderbuffers(int a0, int[] a1, int a2) {
+        GlRecorder.dispatch(GlRecorder.Api.GLES20, "glDeleteRenderbuffers", a0, a1, a2);
+    }
+
+    public static void glDeleteRenderbuffers(int a0, IntBuffer a1) {
+        GlRecorder.dispatch(GlRecorder.Api.GLES20, "glDeleteRenderbuffers", a0, a1);
+    }
+
+    public static void glDeleteShader(int a0) {
+        GlRecorder.dispatch(GlRecorder.Api.GLES20, "glDeleteShader", a0);
+    }
+
+    public static void glDeleteTextures(int a0, int[] a1, int a2) {
+        GlRecorder.dispatch(GlRecorder.Api.GLES20, "glDeleteTextures", a0, a1, a2);
+    }
+
+    public static void glDeleteTextures(int a0, IntBuffer a1) {
+        GlRecorder.dispatch(GlRecorder.Api.GLES20, "glDeleteTextures", a0, a1);
+    }
+
+    public static void glDepthFunc(int a0) {
+        GlRecorder.dispatch(GlRecorder.Api.GLES20, "glDepthFunc", a0);
+    }
+
+    public static void glDepthMask(boolean a0) {
+        GlRecorder.dispatch(GlRecorder.Api.GLES20, "glDepthMask", a0);
+    }
+
+    public static void glDepthRangef(float a0, float a1) {
+        GlRecorder.dispatch(GlRecorder.Api.GLES20, "glDepthRangef", a0, a1);
+    }
+
+    public static void glDetachShader(int a0, int a1) {
+        GlRecorder.dispatch(GlRecorder.Api.GLES20, "glDetachShader", a0, a1);
+    }
+
+    public static void glDisable(int a0) {
+        GlRecorder.dispatch(GlRecorder.Api.GLES20, "glDisable", a0);
+    }
+
+    public static void glDisableVertexAttribArray(int a0) {
+        GlRecorder.dispatch(GlRecorder.Api.GLES20, "glDisableVertexAttribArray", a0);
+    }
+
+    public static void glDrawArrays(int a0, int a1, int a2) {
+        GlRecorder.dispatch(GlRecorder.Api.GLES20, "glDrawArrays", a0, a1, a2);
+    }
+
+    public static void glDrawElements(int a0, int a1, int a2, int a3) {
+        GlRecorder.dispatch(GlRecorder.Api.GLES20, "glDrawElements", a0, a1, a2, a3);
+    }
+
+    public static void glDrawElements(int a0, int a1, int a2, Buffer a3) {
+        GlRecorder.dispatch(GlRecorder.Api.GLES20, "glDrawElements", a0, a1, a2, a3);
+    }
+
+    public static void glEnable(int a0) {
+        GlRecorder.dispatch(GlRecorder.Api.GLES20, "glEnable", a0);
+    }
+
+    public static void glEnableVertexAttribArray(int a0) {
+        GlRecorder.dispatch(GlRecorder.Api.GLES20, "glEnableVertexAttribArray", a0);
+    }
+
+    public static void glFinish() {
+        GlRecorder.dispatch(GlRecorder.Api.GLES20, "glFinish");
+    }
+
+    public static void glFlush() {
+        GlRecorder.dispatch(GlRecorder.Api.GLES20, "glFlush");
+    }
+
+    public static void glFramebufferRenderbuffer(int a0, int a1, int a2, int a3) {
+        GlRecorder.dispatch(GlRecorder.Api.GLES20, "glFramebufferRenderbuffer", a0, a1, a2, a3);
+    }
+
+    public static void glFramebufferTexture2D(int a0, int a1, int a2, int a3, int a4) {
+        GlRecorder.dispatch(GlRecorder.Api.GLES20, "glFramebufferTexture2D", a0, a1, a2, a3, a4);
+    }
+
+    public static void glFrontFace(int a0) {
+        GlRecorder.dispatch(GlRecorder.Api.GLES20, "glFrontFace", a0);
+    }
+
+    public static void glGenBuffers(int a0, int[] a1, int a2) {
+        GlRecorder.dispatch(GlRecorder.Api.GLES20, "glGenBuffers", a0, a1, a2);
+    }
+
+    public static void glGenBuffers(int a0, IntBuffer a1) {
+        GlRecorder.dispatch(GlRecorder.Api.GLES20, "glGenBuffers", a0, a1);
+    }
+
+    public static void glGenerateMipmap(int a0) {
+        GlRecorder.dispatch(GlRecorder.Api.GLES20, "glGenerateMipmap", a0);
+    }
+
+    public static void glGenFramebuffers(int a0, int[] a1, int a2) {
+        GlRecorder.dispatch(GlRecorder.Api.GLES20, "glGenFramebuffers", a0, a1, a2);
+    }
+
+    public static void glGenFramebuffers(int a0, IntBuffer a1) {
+        GlRecorder.dispatch(GlRecorder.Api.GLES20, "glGenFramebuffers", a0, a1);
+    }
+
+    public static void glGenRenderbuffers(int a0, int[] a1, int a2) {
+        GlRecorder.dispatch(GlRecorder.Api.GLES20, "glGenRenderbuffers", a0, a1, a2);
+    }
+
+    public static void glGenRenderbuffers(int a0, IntBuffer a1) {
+        GlRecorder.dispatch(GlRecorder.Api.GLES20, "glGenRenderbuffers", a0, a1);
+    }
+
+    public static void glGenTextures(int a0, int[] a1, int a2) {
+        GlRecorder.dispatch(GlRecorder.Api.GLES20, "glGenTextures", a0, a1, a2);
+    }
+
+    public static void glGenTextures(int a0, IntBuffer a1) {
+        GlRecorder.dispatch(GlRecorder.Api.GLES20, "glGenTextures", a0, a1);
+    }
+
+    public static void glGetActiveAttrib(int a0, int a1, int a2, int[] a3, int a4, int[] a5, int a6, int[] a7, int a8, byte[] a9, int a10) {
+        GlRecorder.dispatch(GlRecorder.Api.GLES20, "glGetActiveAttrib", a0, a1, a2, a3, a4, a5, a6, a7, a8, a9, a10);
+    }
+
+    public static void glGetActiveAttrib(int a0, int a1, int a2, IntBuffer a3, IntBuffer a4, IntBuffer a5, byte a6) {
+        GlRecorder.dispatch(GlRecorder.Api.GLES20, "glGetActiveAttrib", a0, a1, a2, a3, a4, a5, a6);
+    }
+
+    public static void glGetActiveUniform(int a0, int a1, int a2, int[] a3, int a4, int[] a5, int a6, int[] a7, int a8, byte[] a9, int a10) {
+        GlRecorder.dispatch(GlRecorder.Api.GLES20, "glGetActiveUniform", a0, a1, a2, a3, a4, a5, a6, a7, a8, a9, a10);
+    }
+
+    public static void glGetActiveUniform(int a0, int a1, int a2, IntBuffer a3, IntBuffer a4, IntBuffer a5, byte a6) {
+        GlRecorder.dispatch(GlRecorder.Api.GLES20, "glGetActiveUniform", a0, a1, a2, a3, a4, a5, a6);
+    }
+
+    public static void glGetAttachedShaders(int a0, int a1, int[] a2, int a3, int[] a4, int a5) {
+        GlRecorder.dispatch(GlRecorder.Api.GLES20, "glGetAttachedShaders", a0, a1, a2, a3, a4, a5);
+    }
+
+    public static void glGetAttachedShaders(int a0, int a1, IntBuffer a2, IntBuffer a3) {
+        GlRecorder.dispatch(GlRecorder.Api.GLES20, "glGetAttachedShaders", a0, a1, a2, a3);
+    }
+
+    public static int glGetAttribLocation(int a0, String a1) {
+        return GlRecorder.toInt(GlRecorder.dispatch(GlRecorder.Api.GLES20, "glGetAttribLocation", a0, a1));
+    }
+
+    public static void glGetBooleanv(int a0, boolean[] a1, int a2) {
+        GlRecorder.dispatch(GlRecorder.Api.GLES20, "glGetBooleanv", a0, a1, a2);
+    }
+
+    public static void glGetBooleanv(int a0, IntBuffer a1) {
+        GlRecorder.dispatch(GlRecorder.Api.GLES20, "glGetBooleanv", a0, a1);
+    }
+
+    public static void glGetBufferParameteriv(int a0, int a1, int[] a2, int a3) {
+        GlRecorder.dispatch(GlRecorder.Api.GLES20, "glGetBufferParameteriv", a0, a1, a2, a3);
+    }
+
+    public static void glGetBufferParameteriv(int a0, int a1, IntBuffer a2) {
+        GlRecorder.dispatch(GlRecorder.Api.GLES20, "glGetBufferParameteriv", a0, a1, a2);
+    }
+
+    public static int glGetError() {
+        return GlRecorder.toInt(GlRecorder.dispatch(GlRecorder.Api.GLES20, "glGetError"));
+    }
+
+    public static void glGetFloatv(int a0, float[] a1, int a2) {
+        GlRecorder.dispatch(GlRecorder.Api.GLES20, "glGetFloatv", a0, a1, a2);
+    }
+
+    public static void glGetFloatv(int a0, FloatBuffer a1) {
+        GlRecorder.dispatch(GlRecorder.Api.GLES20, "glGetFloatv", a0, a1);
+    }
+
+    public static void glGetFramebufferAttachmentParameteriv(int a0, int a1, int a2, int[] a3, int a4) {
+        GlRecorder.dispatch(GlRecorder.Api.GLES20, "glGetFramebufferAttachmentParameteriv", a0, a1, a2, a3, a4);
+    }
+
+    public static void glGetFramebufferAttachmentParameteriv(int a0, int a1, int a2, IntBuffer a3) {
+        GlRecorder.dispatch(GlRecorder.Api.GLES20, "glGetFramebufferAttachmentParameteriv", a0, a1, a2, a3);
+    }
+
+    public static void glGetIntegerv(int a0, int[] a1, int a2) {
+        GlRecorder.dispatch(GlRecorder.Api.GLES20, "glGetIntegerv", a0, a1, a2);
+    }
+
+    public static void glGetIntegerv(int a0, IntBuffer a1) {
+        GlRecorder.dispatch(GlRecorder.Api.GLES20, "glGetIntegerv", a0, a1);
+    }
+
+    public static void glGetProgramiv(int a0, int a1, int[] a2, int a3) {
+        GlRecorder.dispatch(GlRecorder.Api.GLES20, "glGetProgramiv", a0, a1, a2, a3);
+    }
+
+    public static void glGetProgramiv(int a0, int a1, IntBuffer a2) {
+        GlRecorder.dispatch(GlRecorder.Api.GLES20, "glGetProgramiv", a0, a1, a2);
+    }
+
+    public static String glGetProgramInfoLog(int a0) {
+        return (String) GlRecorder.dispatch(GlRecorder.Api.GLES20, "glGetProgramInfoLog", a0);
+    }
+
+    public static void glGetRenderbufferParameteriv(int a0, int a1, int[] a2, int a3) {
+        GlRecorder.dispatch(GlRecorder.Api.GLES20, "glGetRenderbufferParameteriv", a0, a1, a2, a3);
+    }
+
+    public static void glGetRenderbufferParameteriv(int a0, int a1, IntBuffer a2) {
+        GlRecorder.dispatch(GlRecorder.Api.GLES20, "glGetRenderbufferParameteriv", a0, a1, a2);
+    }
+
+    public static void glGetShaderiv(int a0, int a1, int[] a2, int a3) {
+        GlRecorder.dispatch(GlRecorder.Api.GLES20, "glGetShaderiv", a0, a1, a2, a3);
+    }
+
+    public static void glGetShaderiv(int a0, int a1, IntBuffer a2) {
+        GlRecorder.dispatch(GlRecorder.Api.GLES20, "glGetShaderiv", a0, a1, a2);
+    }
+
+    public static String glGetShaderInfoLog(int a0) {
+        return (String) GlRecorder.dispatch(GlRecorder.Api.GLES20, "glGetShaderInfoLog", a0);
+    }
+
+    public static void glGetShaderPrecisionFormat(int a0, int a1, int[] a2, int a3, int[] a4, int a5) {
+        GlRecorder.dispatch(GlRecorder.Api.GLES20, "glGetShaderPrecisionFormat", a0, a1, a2, a3, a4, a5);
+    }
+
+    public static void glGetShaderPrecisionFormat(int a0, int a1, IntBuffer a2, IntBuffer a3) {
+        GlRecorder.dispatch(GlRecorder.Api.GLES20, "glGetShaderPrecisionFormat", a0, a1, a2, a3);
+    }
+
+    public static void glGetShaderSource(int a0, int a1, int[] a2, int a3, byte[] a4, int a5) {
+        GlRecorder.dispatch(GlRecorder.Api.GLES20, "glGetShaderSource", a0, a1, a2, a3, a4, a5);
+    }
+
+    public static void glGetShaderSource(int a0, int a1, IntBuffer a2, byte a3) {
+        GlRecorder.dispatch(GlRecorder.Api.GLES20, "glGetShaderSource", a0, a1, a2, a3);
+    }
+
+    public static String glGetString(int a0) {
+        return (String) GlRecorder.dispatch(GlRecorder.Api.GLES20, "glGetString", a0);
+    }
+
+    public static void glGetTexParameterfv(int a0, int a1, float[] a2, int a3) {
+        GlRecorder.dispatch(GlRecorder.Api.GLES20, "glGetTexParameterfv", a0, a1, a2, a3);
+    }
+
+    public static void glGetTexParameterfv(int a0, int a1, FloatBuffer a2) {
+        GlRecorder.dispatch(GlRecorder.Api.GLES20, "glGetTexParameterfv", a0, a1, a2);
+    }
+
+    public static void glGetTexParameteriv(int a0, int a1, int[] a2, int a3) {
+        GlRecorder.dispatch(GlRecorder.Api.GLES20, "glGetTexParameteriv", a0, a1, a2, a3);
+    }
+
+    public static void glGetTexParameteriv(int a0, int a1, IntBuffer a2) {
+        GlRecorder.dispatch(GlRecorder.Api.GLES20, "glGetTexParameteriv", a0, a1, a2);
+    }
+
+    public static void glGetUniformfv(int a0, int a1, float[] a2, int a3) {
+        GlRecorder.dispatch(GlRecorder.Api.GLES20, "glGetUniformfv", a0, a1, a2, a3);
+    }
+
+    public static void glGetUniformfv(int a0, int a1, FloatBuffer a2) {
+        GlRecorder.dispatch(GlRecorder.Api.GLES20, "glGetUniformfv", a0, a1, a2);
+    }
+
+    public static void glGetUniformiv(int a0, int a1, int[] a2, int a3) {
+        GlRecorder.dispatch(GlRecorder.Api.GLES20, "glGetUniformiv", a0, a1, a2, a3);
+    }
+
+    public static void glGetUniformiv(int a0, int a1, IntBuffer a2) {
+        GlRecorder.dispatch(GlRecorder.Api.GLES20, "glGetUniformiv", a0, a1, a2);
+    }
+
+    public static int glGetUniformLocation(int a0, String a1) {
+        return GlRecorder.toInt(GlRecorder.dispatch(GlRecorder.Api.GLES20, "glGetUniformLocation", a0, a1));
+    }
+
+    public static void glGetVertexAttribfv(int a0, int a1, float[] a2, int a3) {
+        GlRecorder.dispatch(GlRecorder.Api.GLES20, "glGetVertexAttribfv", a0, a1, a2, a3);
+    }
+
+    public static void glGetVertexAttribfv(int a0, int a1, FloatBuffer a2) {
+        GlRecorder.dispatch(GlRecorder.Api.GLES20, "glGetVertexAttribfv", a0, a1, a2);
+    }
+
+    public static void glGetVertexAttribiv(int a0, int a1, int[] a2, int a3) {
+        GlRecorder.dispatch(GlRecorder.Api.GLES20, "glGetVertexAttribiv", a0, a1, a2, a3);
+    }
+
+    public static void glGetVertexAttribiv(int a0, int a1, IntBuffer a2) {
+        GlRecorder.dispatch(GlRecorder.Api.GLES20, "glGetVertexAttribiv", a0, a1, a2);
+    }
+
+    public static void glHint(int a0, int a1) {
+        GlRecorder.dispatch(GlRecorder.Api.GLES20, "glHint", a0, a1);
+    }
+
+    public static boolean glIsBuffer(int a0) {
+        return GlRecorder.toInt(GlRecorder.dispatch(GlRecorder.Api.GLES20, "glIsBuffer", a0)) != 0;
+    }
+
+    public static boolean glIsEnabled(int a0) {
+        return GlRecorder.toInt(GlRecorder.dispatch(GlRecorder.Api.GLES20, "glIsEnabled", a0)) != 0;
+    }
+
+    public static boolean glIsFramebuffer(int a0) {
+        return GlRecorder.toInt(GlRecorder.dispatch(GlRecorder.Api.GLES20, "glIsFramebuffer", a0)) != 0;
+    }
+
+    public static boolean glIsProgram(int a0) {
+        return GlRecorder.toInt(GlRecorder.dispatch(GlRecorder.Api.GLES20, "glIsProgram", a0)) != 0;
+    }
+
+    public static boolean glIsRenderbuffer(int a0) {
+        return GlRecorder.toInt(GlRecorder.dispatch(GlRecorder.Api.GLES20, "glIsRenderbuffer", a0)) != 0;
+    }
+
+    public static boolean glIsShader(int a0) {
+        return GlRecorder.toInt(GlRecorder.dispatch(GlRecorder.Api.GLES20, "glIsShader", a0)) != 0;
+    }
+
+    public static boolean glIsTexture(int a0) {
+        return GlRecorder.toInt(GlRecorder.dispatch(GlRecorder.Api.GLES20, "glIsTexture", a0)) != 0;
+    }
+
+    public static void glLineWidth(float a0) {
+        GlRecorder.dispatch(GlRecorder.Api.GLES20, "glLineWidth", a0);
+    }
+
+    public static void glLinkProgram(int a0) {
+        GlRecorder.dispatch(GlRecorder.Api.GLES20, "glLinkProgram", a0);
+    }
+
+    public static void glPixelStorei(int a0, int a1) {
+        GlRecorder.dispatch(GlRecorder.Api.GLES20, "glPixelStorei", a0, a1);
+    }
+
+    public static void glPolygonOffset(float a0, float a1) {
+        GlRecorder.dispatch(GlRecorder.Api.GLES20, "glPolygonOffset", a0, a1);
+    }
+
+    public static void glReadPixels(int a0, int a1, int a2, int a3, int a4, int a5, Buffer a6) {
+        GlRecorder.dispatch(GlRecorder.Api.GLES20, "glReadPixels", a0, a1, a2, a3, a4, a5, a6);
+    }
+
+    public static void glReleaseShaderCompiler() {
+        GlRecorder.dispatch(GlRecorder.Api.GLES20, "glReleaseShaderCompiler");
+    }
+
+    public static void glRenderbufferStorage(int a0, int a1, int a2, int a3) {
+        GlRecorder.dispatch(GlRecorder.Api.GLES20, "glRenderbufferStorage", a0, a1, a2, a3);
+    }
+
+    public static void glSampleCoverage(float a0, boolean a1) {
+        GlRecorder.dispatch(GlRecorder.Api.GLES20, "glSampleCoverage", a0, a1);
+    }
+
+    public static void glScissor(int a0, int a1, int a2, int a3) {
+        GlRecorder.dispatch(GlRecorder.Api.GLES20, "glScissor", a0, a1, a2, a3);
+    }
+
+    public static void glShaderBinary(int a0, int[] a1, int a2, int a3, Buffer a4, int a5) {
+        GlRecorder.dispatch(GlRecorder.Api.GLES20, "glShaderBinary", a0, a1, a2, a3, a4, a5);
+    }
+
+    public static void glShaderBinary(int a0, IntBuffer a1, int a2, Buffer a3, int a4) {
+        GlRecorder.dispatch(GlRecorder.Api.GLES20, "glShaderBinary", a0, a1, a2, a3, a4);
+    }
+
+    public static void glShaderSource(int a0, String a1) {
+        GlRecorder.dispatch(GlRecorder.Api.GLES20, "glShaderSource", a0, a1);
+    }
+
+    public static void glStencilFunc(int a0, int a1, int a2) {
+        GlRecorder.dispatch(GlRecorder.Api.GLES20, "glStencilFunc", a0, a1, a2);
+    }
+
+    public static void glStencilFuncSeparate(int a0, int a1, int a2, int a3) {
+        GlRecorder.dispatch(GlRecorder.Api.GLES20, "glStencilFuncSeparate", a0, a1, a2, a3);
+    }
+
+    public static void glStencilMask(int a0) {
+        GlRecorder.dispatch(GlRecorder.Api.GLES20, "glStencilMask", a0);
+    }
+
+    public static void glStencilMaskSeparate(int a0, int a1) {
+        GlRecorder.dispatch(GlRecorder.Api.GLES20, "glStencilMaskSeparate", a0, a1);
+    }
+
+    public static void glStencilOp(int a0, int a1, int a2) {
+        GlRecorder.dispatch(GlRecorder.Api.GLES20, "glStencilOp", a0, a1, a2);
+    }
+
+    public static void glStencilOpSeparate(int a0, int a1, int a2, int a3) {
+        GlRecorder.dispatch(GlRecorder.Api.GLES20, "glStencilOpSeparate", a0, a1, a2, a3);
+    }
+
+    public static void glTexImage2D(int a0, int a1, int a2, int a3, int a4, int a5, int a6, int a7, Buffer a8) {
+        GlRecorder.dispatch(GlRecorder.Api.GLES20, "glTexImage2D", a0, a1, a2, a3, a4, a5, a6, a7, a8);
+    }
+
+    public static void glTexParameterf(int a0, int a1, float a2) {
+        GlRecorder.dispatch(GlRecorder.Api.GLES20, "glTexParameterf", a0, a1, a2);
+    }
+
+    public static void glTexParameterfv(int a0, int a1, float[] a2, int a3) {
+        GlRecorder.dispatch(GlRecorder.Api.GLES20, "glTexParameterfv", a0, a1, a2, a3);
+    }
+
+    public static void glTexParameterfv(int a0, int a1, FloatBuffer a2) {
+        GlRecorder.dispatch(GlRecorder.Api.GLES20, "glTexParameterfv", a0, a1, a2);
+    }
+
+    public static void glTexParameteri(int a0, int a1, int a2) {
+        GlRecorder.dispatch(GlRecorder.Api.GLES20, "glTexParameteri", a0, a1, a2);
+    }
+
+    public static void glTexParameteriv(int a0, int a1, int[] a2, int a3) {
+        GlRecorder.dispatch(GlRecorder.Api.GLES20, "glTexParameteriv", a0, a1, a2, a3);
+    }
+
+    public static void glTexParameteriv(int a0, int a1, IntBuffer a2) {
+        GlRecorder.dispatch(GlRecorder.Api.GLES20, "glTexParameteriv", a0, a1, a2);
+    }
+
+    public static void glTexSubImage2D(int a0, int a1, int a2, int a3, int a4, int a5, int a6, int a7, Buffer a8) {
+        GlRecorder.dispatch(GlRecorder.Api.GLES20, "glTexSubImage2D", a0, a1, a2, a3, a4, a5, a6, a7, a8);
+    }
+
+    public static void glUniform1f(int a0, float a1) {
+        GlRecorder.dispatch(GlRecorder.Api.GLES20, "glUniform1f", a0, a1);
+    }
+
+    public static void glUniform1fv(int a0, int a1, float[] a2, int a3) {
+        GlRecorder.dispatch(GlRecorder.Api.GLES20, "glUniform1fv", a0, a1, a2, a3);
+    }
+
+    public static void glUniform1fv(int a0, int a1, FloatBuffer a2) {
+        GlRecorder.dispatch(GlRecorder.Api.GLES20, "glUniform1fv", a0, a1, a2);
+    }
+
+    public static void glUniform1i(int a0, int a1) {
+        GlRecorder.dispatch(GlRecorder.Api.GLES20, "glUniform1i", a0, a1);
+    }
+
+    public static void glUniform1iv(int a0, int a1, int[] a2, int a3) {
+        GlRecorder.dispatch(GlRecorder.Api.GLES20, "glUniform1iv", a0, a1, a2, a3);
+    }
+
+    public static void glUniform1iv(int a0, int a1, IntBuffer a2) {
+        GlRecorder.dispatch(GlRecorder.Api.GLES20, "glUniform1iv", a0, a1, a2);
+    }
+
+    public static void glUniform2f(int a0, float a1, float a2) {
+        GlRecorder.dispatch(GlRecorder.Api.GLES20, "glUniform2f", a0, a1, a2);
+    }
+
+    public static void glUniform2fv(int a0, int a1, float[] a2, int a3) {
+        GlRecorder.dispatch(GlRecorder.Api.GLES20, "glUniform2fv", a0, a1, a2, a3);
+    }
+
+    public static void glUniform2fv(int a0, int a1, FloatBuffer a2) {
+        GlRecorder.dispatch(GlRecorder.Api.GLES20, "glUniform2fv", a0, a1, a2);
+    }
+
+    public static void glUniform2i(int a0, int a1, int a2) {
+        GlRecorder.dispatch(GlRecorder.Api.GLES20, "glUniform2i", a0, a1, a2);
+    }
+
+    public static void glUniform2iv(int a0, int a1, int[] a2, int a3) {
+        GlRecorder.dispatch(GlRecorder.Api.GLES20, "glUniform2iv", a0, a1, a2, a3);
+    }
+
+    public static void glUniform2iv(int a0, int a1, IntBuffer a2) {
+        GlRecorder.dispatch(GlRecorder.Api.GLES20, "glUniform2iv", a0, a1, a2);
+    }
+
+    public static void glUniform3f(int a0, float a1, float a2, float a3) {
+        GlRecorder.dispatch(GlRecorder.Api.GLES20, "glUniform3f", a0, a1, a2, a3);
+    }
+
+    public static void glUniform3fv(int a0, int a1, float[] a2, int a3) {
+        GlRecorder.dispatch(GlRecorder.Api.GLES20, "glUniform3fv", a0, a1, a2, a3);
+    }
+
+    public static void glUniform3fv(int a0, int a1, FloatBuffer a2) {
+        GlRecorder.dispatch(GlRecorder.Api.GLES20, "glUniform3fv", a0, a1, a2);
+    }
+
+    public static void glUniform3i(int a0, int a1, int a2, int a3) {
+        GlRecorder.dispatch(GlRecorder.Api.GLES20, "glUniform3i", a0, a1, a2, a3);
+    }
+
+    public static void glUniform3iv(int a0, int a1, int[] a2, int a3) {
+        GlRecorder.dispatch(GlRecorder.Api.GLES20, "glUniform3iv", a0, a1, a2, a3);
+    }
+
+    public static void glUniform3iv(int a0, int a1, IntBuffer a2) {
+        GlRecorder.dispatch(GlRecorder.Api.GLES20, "glUniform3iv", a0, a1, a2);
+    }
+
+    public static void glUniform4f(int a0, float a1, float a2, float a3, float a4) {
+        GlRecorder.dispatch(GlRecorder.Api.GLES20, "glUniform4f", a0, a1, a2, a3, a4);
+    }
+
+    public static void glUniform4fv(int a0, int a1, float[] a2, int a3) {
+        GlRecorder.dispatch(GlRecorder.Api.GLES20, "glUniform4fv", a0, a1, a2, a3);
+    }
+
+    public static void glUniform4fv(int a0, int a1, FloatBuffer a2) {
+        GlRecorder.dispatch(GlRecorder.Api.GLES20, "glUniform4fv", a0, a1, a2);
+    }
+
+    public static void glUniform4i(int a0, int a1, int a2, int a3, int a4) {
+        GlRecorder.dispatch(GlRecorder.Api.GLES20, "glUniform4i", a0, a1, a2, a3, a4);
+    }
+
+    public static void glUniform4iv(int a0, int a1, int[] a2, int a3) {
+        GlRecorder.dispatch(GlRecorder.Api.GLES20, "glUniform4iv", a0, a1, a2, a3);
+    }
+
+    public static void glUniform4iv(int a0, int a1, IntBuffer a2) {
+        GlRecorder.dispatch(GlRecorder.Api.GLES20, "glUniform4iv", a0, a1, a2);
+    }
+
+    public static void glUniformMatrix2fv(int a0, int a1, boolean a2, float[] a3, int a4) {
+        GlRecorder.dispatch(GlRecorder.Api.GLES20, "glUniformMatrix2fv", a0, a1, a2, a3, a4);
+    }
+
+    public static void glUniformMatrix2fv(int a0, int a1, boolean a2, FloatBuffer a3) {
+        GlRecorder.dispatch(GlRecorder.Api.GLES20, "glUniformMatrix2fv", a0, a1, a2, a3);
+    }
+
+    public static void glUniformMatrix3fv(int a0, int a1, boolean a2, float[] a3, int a4) {
+        GlRecorder.dispatch(GlRecorder.Api.GLES20, "glUniformMatrix3fv", a0, a1, a2, a3, a4);
+    }
+
+    public static void glUniformMatrix3fv(int a0, int a1, boolean a2, FloatBuffer a3) {
+        GlRecorder.dispatch(GlRecorder.Api.GLES20, "glUniformMatrix3fv", a0, a1, a2, a3);
+    }
+
+    public static void glUniformMatrix4fv(int a0, int a1, boolean a2, float[] a3, int a4) {
+        GlRecorder.dispatch(GlRecorder.Api.GLES20, "glUniformMatrix4fv", a0, a1, a2, a3, a4);
+    }
+
+    public static void glUniformMatrix4fv(int a0, int a1, boolean a2, FloatBuffer a3) {
+        GlRecorder.dispatch(GlRecorder.Api.GLES20, "glUniformMatrix4fv", a0, a1, a2, a3);
+    }
+
+    public static void glUseProgram(int a0) {
+        GlRecorder.dispatch(GlRecorder.Api.GLES20, "glUseProgram", a0);
+    }
+
+    public static void glValidateProgram(int a0) {
+        GlRecorder.dispatch(GlRecorder.Api.GLES20, "glValidateProgram", a0);
+    }
+
+    public static void glVertexAttrib1f(int a0, float a1) {
+        GlRecorder.dispatch(GlRecorder.Api.GLES20, "glVertexAttrib1f", a0, a1);
+    }
+
+    public static void glVertexAttrib1fv(int a0, float[] a1, int a2) {
+        GlRecorder.dispatch(GlRecorder.Api.GLES20, "glVertexAttrib1fv", a0, a1, a2);
+    }
+
+    public static void glVertexAttrib1fv(int a0, FloatBuffer a1) {
+        GlRecorder.dispatch(GlRecorder.Api.GLES20, "glVertexAttrib1fv", a0, a1);
+    }
+
+    public static void glVertexAttrib2f(int a0, float a1, float a2) {
+        GlRecorder.dispatch(GlRecorder.Api.GLES20, "glVertexAttrib2f", a0, a1, a2);
+    }
+
+    public static void glVertexAttrib2fv(int a0, float[] a1, int a2) {
+        GlRecorder.dispatch(GlRecorder.Api.GLES20, "glVertexAttrib2fv", a0, a1, a2);
+    }
+
+    public static void glVertexAttrib2fv(int a0, FloatBuffer a1) {
+        GlRecorder.dispatch(GlRecorder.Api.GLES20, "glVertexAttrib2fv", a0, a1);
+    }
+
+    public static void glVertexAttrib3f(int a0, float a1, float a2, float a3) {
+        GlRecorder.dispatch(GlRecorder.Api.GLES20, "glVertexAttrib3f", a0, a1, a2, a3);
+    }
+
+    public static void glVertexAttrib3fv(int a0, float[] a1, int a2) {
+        GlRecorder.dispatch(GlRecorder.Api.GLES20, "glVertexAttrib3fv", a0, a1, a2);
+    }
+
+    public static void glVertexAttrib3fv(int a0, FloatBuffer a1) {
+        GlRecorder.dispatch(GlRecorder.Api.GLES20, "glVertexAttrib3fv", a0, a1);
+    }
+
+    public static void glVertexAttrib4f(int a0, float a1, float a2, float a3, float a4) {
+        GlRecorder.dispatch(GlRecorder.Api.GLES20, "glVertexAttrib4f", a0, a1, a2, a3, a4);
+    }
+
+    public static void glVertexAttrib4fv(int a0, float[] a1, int a2) {
+        GlRecorder.dispatch(GlRecorder.Api.GLES20, "glVertexAttrib4fv", a0, a1, a2);
+    }
+
+    public static void glVertexAttrib4fv(int a0, FloatBuffer a1) {
+        GlRecorder.dispatch(GlRecorder.Api.GLES20, "glVertexAttrib4fv", a0, a1);
+    }
+
+    public static void glVertexAttribPointer(int a0, int a1, int a2, boolean a3, int a4, int a5) {
+        GlRecorder.dispatch(GlRecorder.Api.GLES20, "glVertexAttribPointer", a0, a1, a2, a3, a4, a5);
+    }
+
+    public static void glVertexAttribPointer(int a0, int a1, int a2, boolean a3, int a4, Buffer a5) {
+        GlRecorder.dispatch(GlRecorder.Api.GLES20, "glVertexAttribPointer", a0, a1, a2, a3, a4, a5);
+    }
+
+    public static void glViewport(int a0, int a1, int a2, int a3) {
+        GlRecorder.dispatch(GlRecorder.Api.GLES20, "glViewport", a0, a1, a2, a3);
+    }
+}
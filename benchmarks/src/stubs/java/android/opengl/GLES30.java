@@ -0,0 +1,29 @@
+package android.opengl;
+
+import java.nio.Buffer;
+import java.nio.IntBuffer;
+
+import com.google.vr.sdk.samples.treasurehunt.benchmarks.gl.GlRecorder;
+
+/**
+ * Headless GLES30: only the program binary calls the app uses. Calls go to the
+ * installed GlRecorder.
+ */
+public class GLES30 extends GLES20 {
+    public static final int GL_PROGRAM_BINARY_RETRIEVABLE_HINT = 0x8257;
+    public static final int GL_PROGRAM_BINARY_LENGTH = 0x8741;
+    public static final int GL_NUM_PROGRAM_BINARY_FORMATS = 0x87FE;
+    public static final int GL_PROGRAM_BINARY_FORMATS = 0x87FF;
+
+    public static void glGetProgramBinary(int a0, int a1, IntBuffer a2, IntBuffer a3, Buffer a4) {
+        GlRecorder.dispatch(GlRecorder.Api.GLES20, "glGetProgramBinary", a0, a1, a2, a3, a4);
+    }
+
+    public static void glProgramBinary(int a0, int a1, Buffer a2, int a3) {
+        GlRecorder.dispatch(GlRecorder.Api.GLES20, "glProgramBinary", a0, a1, a2, a3);
+    }
+
+    public static void glProgramParameteri(int a0, int a1, int a2) {
+        GlRecorder.dispatch(GlRecorder.Api.GLES20, "glProgramParameteri", a0, a1, a2);
+    }
+}
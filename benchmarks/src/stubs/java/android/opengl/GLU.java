@@ -0,0 +1,16 @@
+package android.opengl;
+
+import javax.microedition.khronos.opengles.GL10;
+
+public class GLU {
+    /**
+     * Same matrix as the platform version, applied through gl so it gets recorded.
+     */
+    public static void gluLookAt(GL10 gl, float eyeX, float eyeY, float eyeZ,
+                                 float centerX, float centerY, float centerZ,
+                                 float upX, float upY, float upZ) {
+        float[] m = new float[16];
+        Matrix.setLookAtM(m, 0, eyeX, eyeY, eyeZ, centerX, centerY, centerZ, upX, upY, upZ);
+        gl.glMultMatrixf(m, 0);
+    }
+}
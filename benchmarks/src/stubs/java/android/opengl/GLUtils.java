@@ -0,0 +1,11 @@
+package android.opengl;
+
+import android.graphics.Bitmap;
+
+import com.google.vr.sdk.samples.treasurehunt.benchmarks.gl.GlRecorder;
+
+public final class GLUtils {
+    public static void texImage2D(int target, int level, Bitmap bitmap, int border) {
+        GlRecorder.dispatch(GlRecorder.Api.GLUTILS, "texImage2D", target, level, bitmap, border);
+    }
+}
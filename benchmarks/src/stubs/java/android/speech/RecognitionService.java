@@ -0,0 +1,4 @@
+package android.speech;
+
+public abstract class RecognitionService {
+}
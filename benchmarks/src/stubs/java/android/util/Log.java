@@ -0,0 +1,44 @@
+package android.util;
+
+/**
+ * Benchmark stand-in: drops all output unless -Dbench.log=true, so logging
+ * in the code under test costs about what it costs on a device with logcat filtered.
+ */
+public final class Log {
+    private static final boolean ENABLED = Boolean.getBoolean("bench.log");
+
+    public static int v(String tag, String msg) {
+        return print("V", tag, msg);
+    }
+
+    public static int d(String tag, String msg) {
+        return print("D", tag, msg);
+    }
+
+    public static int i(String tag, String msg) {
+        return print("I", tag, msg);
+    }
+
+    public static int w(String tag, String msg) {
+        return print("W", tag, msg);
+    }
+
+    public static int w(String tag, String msg, Throwable tr) {
+        return print("W", tag, msg + ": " + tr);
+    }
+
+    public static int e(String tag, String msg) {
+        return print("E", tag, msg);
+    }
+
+    public static int e(String tag, String msg, Throwable tr) {
+        return print("E", tag, msg + ": " + tr);
+    }
+
+    private static int print(String level, String tag, String msg) {
+        if (ENABLED) {
+            System.err.println(level + "/" + tag + ": " + msg);
+        }
+        return 0;
+    }
+}
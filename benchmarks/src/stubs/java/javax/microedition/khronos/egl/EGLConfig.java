@@ -0,0 +1,4 @@
+package javax.microedition.khronos.egl;
+
+public abstract class EGLConfig {
+}
@@ -0,0 +1,4 @@
+package javax.microedition.khronos.opengles;
+
+public interface GL {
+}
@@ -0,0 +1,217 @@
+package javax.microedition.khronos.opengles;
+
+import java.nio.Buffer;
+import java.nio.FloatBuffer;
+import java.nio.IntBuffer;
+
+/**
+ * Stand-in for the OpenGL ES 1.0 interface. GlRecorder.gl() implements it for the render benchmarks.
+ */
+public interface GL10 extends GL {
+    int GL_ALIASED_LINE_WIDTH_RANGE = 0x846E;
+    int GL_ALIASED_POINT_SIZE_RANGE = 0x846D;
+    int GL_AMBIENT = 0x1200;
+    int GL_BACK = 0x0405;
+    int GL_BLEND = 0x0BE2;
+    int GL_BYTE = 0x1400;
+    int GL_CCW = 0x0901;
+    int GL_CLAMP_TO_EDGE = 0x812F;
+    int GL_COLOR_ARRAY = 0x8076;
+    int GL_COLOR_BUFFER_BIT = 0x4000;
+    int GL_COLOR_MATERIAL = 0x0B57;
+    int GL_CONSTANT_ATTENUATION = 0x1207;
+    int GL_CULL_FACE = 0x0B44;
+    int GL_DEPTH_BUFFER_BIT = 0x0100;
+    int GL_DEPTH_TEST = 0x0B71;
+    int GL_DIFFUSE = 0x1201;
+    int GL_EMISSION = 0x1600;
+    int GL_EXP = 0x0800;
+    int GL_EXP2 = 0x0801;
+    int GL_EXTENSIONS = 0x1F03;
+    int GL_FIXED = 0x140C;
+    int GL_FLAT = 0x1D00;
+    int GL_FLOAT = 0x1406;
+    int GL_FOG = 0x0B60;
+    int GL_FOG_COLOR = 0x0B66;
+    int GL_FOG_END = 0x0B64;
+    int GL_FOG_MODE = 0x0B65;
+    int GL_FOG_START = 0x0B63;
+    int GL_LESS = 0x0201;
+    int GL_LIGHT0 = 0x4000;
+    int GL_LIGHT7 = 0x4007;
+    int GL_LIGHTING = 0x0B50;
+    int GL_LINEAR = 0x2601;
+    int GL_LINEAR_ATTENUATION = 0x1208;
+    int GL_LINEAR_MIPMAP_NEAREST = 0x2701;
+    int GL_LINES = 1;
+    int GL_LINE_LOOP = 2;
+    int GL_LINE_SMOOTH = 0x0B20;
+    int GL_LINE_STRIP = 3;
+    int GL_MAX_LIGHTS = 0x0D31;
+    int GL_MAX_TEXTURE_SIZE = 0x0D33;
+    int GL_MAX_TEXTURE_UNITS = 0x84E2;
+    int GL_MODELVIEW = 0x1700;
+    int GL_MODULATE = 0x2100;
+    int GL_NEAREST = 0x2600;
+    int GL_NORMAL_ARRAY = 0x8075;
+    int GL_NO_ERROR = 0x0000;
+    int GL_ONE_MINUS_SRC_ALPHA = 0x0303;
+    int GL_POINTS = 0;
+    int GL_POINT_SMOOTH = 0x0B10;
+    int GL_POSITION = 0x1203;
+    int GL_PROJECTION = 0x1701;
+    int GL_QUADRATIC_ATTENUATION = 0x1209;
+    int GL_RENDERER = 0x1F01;
+    int GL_REPEAT = 0x2901;
+    int GL_SHORT = 0x1402;
+    int GL_SMOOTH = 0x1D01;
+    int GL_SMOOTH_LINE_WIDTH_RANGE = 0x0B22;
+    int GL_SMOOTH_POINT_SIZE_RANGE = 0x0B12;
+    int GL_SPECULAR = 0x1202;
+    int GL_SPOT_CUTOFF = 0x1206;
+    int GL_SPOT_DIRECTION = 0x1204;
+    int GL_SPOT_EXPONENT = 0x1205;
+    int GL_SRC_ALPHA = 0x0302;
+    int GL_TEXTURE = 0x1702;
+    int GL_TEXTURE0 = 0x84C0;
+    int GL_TEXTURE_2D = 0x0DE1;
+    int GL_TEXTURE_COORD_ARRAY = 0x8078;
+    int GL_TEXTURE_ENV = 0x2300;
+    int GL_TEXTURE_ENV_MODE = 0x2200;
+    int GL_TEXTURE_MAG_FILTER = 0x2800;
+    int GL_TEXTURE_MIN_FILTER = 0x2801;
+    int GL_TEXTURE_WRAP_S = 0x2802;
+    int GL_TEXTURE_WRAP_T = 0x2803;
+    int GL_TRIANGLES = 4;
+    int GL_TRIANGLE_FAN = 6;
+    int GL_TRIANGLE_STRIP = 5;
+    int GL_UNSIGNED_BYTE = 0x1401;
+    int GL_UNSIGNED_SHORT = 0x1403;
+    int GL_VENDOR = 0x1F00;
+    int GL_VERSION = 0x1F02;
+    int GL_VERTEX_ARRAY = 0x8074;
+
+    void glActiveTexture(int texture);
+    void glAlphaFunc(int func, float ref);
+    void glAlphaFuncx(int func, int ref);
+    void glBindTexture(int target, int texture);
+    void glBlendFunc(int sfactor, int dfactor);
+    void glClear(int mask);
+    void glClearColor(float red, float green, float blue, float alpha);
+    void glClearColorx(int red, int green, int blue, int alpha);
+    void glClearDepthf(float depth);
+    void glClearDepthx(int depth);
+    void glClearStencil(int s);
+    void glClientActiveTexture(int texture);
+    void glColor4f(float red, float green, float blue, float alpha);
+    void glColor4x(int red, int green, int blue, int alpha);
+    void glColorMask(boolean red, boolean green, boolean blue, boolean alpha);
+    void glColorPointer(int size, int type, int stride, Buffer pointer);
+    void glCompressedTexImage2D(int target, int level, int internalformat, int width, int height, int border, int imageSize, Buffer data);
+    void glCompressedTexSubImage2D(int target, int level, int xoffset, int yoffset, int width, int height, int format, int imageSize, Buffer data);
+    void glCopyTexImage2D(int target, int level, int internalformat, int x, int y, int width, int height, int border);
+    void glCopyTexSubImage2D(int target, int level, int xoffset, int yoffset, int x, int y, int width, int height);
+    void glCullFace(int mode);
+    void glDeleteTextures(int n, int[] textures, int offset);
+    void glDeleteTextures(int n, IntBuffer textures);
+    void glDepthFunc(int func);
+    void glDepthMask(boolean flag);
+    void glDepthRangef(float zNear, float zFar);
+    void glDepthRangex(int zNear, int zFar);
+    void glDisable(int cap);
+    void glDisableClientState(int array);
+    void glDrawArrays(int mode, int first, int count);
+    void glDrawElements(int mode, int count, int type, Buffer indices);
+    void glEnable(int cap);
+    void glEnableClientState(int array);
+    void glFinish();
+    void glFlush();
+    void glFogf(int pname, float param);
+    void glFogfv(int pname, float[] params, int offset);
+    void glFogfv(int pname, FloatBuffer params);
+    void glFogx(int pname, int param);
+    void glFogxv(int pname, int[] params, int offset);
+    void glFogxv(int pname, IntBuffer params);
+    void glFrontFace(int mode);
+    void glFrustumf(float left, float right, float bottom, float top, float zNear, float zFar);
+    void glFrustumx(int left, int right, int bottom, int top, int zNear, int zFar);
+    void glGenTextures(int n, int[] textures, int offset);
+    void glGenTextures(int n, IntBuffer textures);
+    int glGetError();
+    void glGetIntegerv(int pname, int[] params, int offset);
+    void glGetIntegerv(int pname, IntBuffer params);
+    String glGetString(int name);
+    void glHint(int target, int mode);
+    void glLightModelf(int pname, float param);
+    void glLightModelfv(int pname, float[] params, int offset);
+    void glLightModelfv(int pname, FloatBuffer params);
+    void glLightModelx(int pname, int param);
+    void glLightModelxv(int pname, int[] params, int offset);
+    void glLightModelxv(int pname, IntBuffer params);
+    void glLightf(int light, int pname, float param);
+    void glLightfv(int light, int pname, float[] params, int offset);
+    void glLightfv(int light, int pname, FloatBuffer params);
+    void glLightx(int light, int pname, int param);
+    void glLightxv(int light, int pname, int[] params, int offset);
+    void glLightxv(int light, int pname, IntBuffer params);
+    void glLineWidth(float width);
+    void glLineWidthx(int width);
+    void glLoadIdentity();
+    void glLoadMatrixf(float[] m, int offset);
+    void glLoadMatrixf(FloatBuffer m);
+    void glLoadMatrixx(int[] m, int offset);
+    void glLoadMatrixx(IntBuffer m);
+    void glLogicOp(int opcode);
+    void glMaterialf(int face, int pname, float param);
+    void glMaterialfv(int face, int pname, float[] params, int offset);
+    void glMaterialfv(int face, int pname, FloatBuffer params);
+    void glMaterialx(int face, int pname, int param);
+    void glMaterialxv(int face, int pname, int[] params, int offset);
+    void glMaterialxv(int face, int pname, IntBuffer params);
+    void glMatrixMode(int mode);
+    void glMultMatrixf(float[] m, int offset);
+    void glMultMatrixf(FloatBuffer m);
+    void glMultMatrixx(int[] m, int offset);
+    void glMultMatrixx(IntBuffer m);
+    void glMultiTexCoord4f(int target, float s, float t, float r, float q);
+    void glMultiTexCoord4x(int target, int s, int t, int r, int q);
+    void glNormal3f(float nx, float ny, float nz);
+    void glNormal3x(int nx, int ny, int nz);
+    void glNormalPointer(int type, int stride, Buffer pointer);
+    void glOrthof(float left, float right, float bottom, float top, float zNear, float zFar);
+    void glOrthox(int left, int right, int bottom, int top, int zNear, int zFar);
+    void glPixelStorei(int pname, int param);
+    void glPointSize(float size);
+    void glPointSizex(int size);
+    void glPolygonOffset(float factor, float units);
+    void glPolygonOffsetx(int factor, int units);
+    void glPopMatrix();
+    void glPushMatrix();
+    void glReadPixels(int x, int y, int width, int height, int format, int type, Buffer pixels);
+    void glRotatef(float angle, float x, float y, float z);
+    void glRotatex(int angle, int x, int y, int z);
+    void glSampleCoverage(float value, boolean invert);
+    void glSampleCoveragex(int value, boolean invert);
+    void glScalef(float x, float y, float z);
+    void glScalex(int x, int y, int z);
+    void glScissor(int x, int y, int width, int height);
+    void glShadeModel(int mode);
+    void glStencilFunc(int func, int ref, int mask);
+    void glStencilMask(int mask);
+    void glStencilOp(int fail, int zfail, int zpass);
+    void glTexCoordPointer(int size, int type, int stride, Buffer pointer);
+    void glTexEnvf(int target, int pname, float param);
+    void glTexEnvfv(int target, int pname, float[] params, int offset);
+    void glTexEnvfv(int target, int pname, FloatBuffer params);
+    void glTexEnvx(int target, int pname, int param);
+    void glTexEnvxv(int target, int pname, int[] params, int offset);
+    void glTexEnvxv(int target, int pname, IntBuffer params);
+    void glTexImage2D(int target, int level, int internalformat, int width, int height, int border, int format, int type, Buffer pixels);
+    void glTexParameterf(int target, int pname, float param);
+    void glTexParameterx(int target, int pname, int param);
+    void glTexSubImage2D(int target, int level, int xoffset, int yoffset, int width, int height, int format, int type, Buffer pixels);
+    void glTranslatef(float x, float y, float z);
+    void glTranslatex(int x, int y, int z);
+    void glVertexPointer(int size, int type, int stride, Buffer pointer);
+    void glViewport(int x, int y, int width, int height);
+}
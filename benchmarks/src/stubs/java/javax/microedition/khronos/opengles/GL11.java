@@ -0,0 +1,9 @@
+package javax.microedition.khronos.opengles;
+
+public interface GL11 extends GL10 {
+    int GL_FALSE = 0;
+    int GL_TRUE = 1;
+    int GL_GENERATE_MIPMAP = 0x8191;
+    int GL_SHADE_MODEL = 0x0B54;
+    int GL_TEXTURE_2D = 0x0DE1;
+}
@@ -0,0 +1,402 @@
+package com.google.vr.sdk.samples.treasurehunt;
+
+import android.opengl.GLES20;
+import android.opengl.Matrix;
+import android.util.Log;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import min3d.core.Workers;
+
+/**
+ * Point lights for GLES20 shaders, binned into view-space clusters so each fragment only shades
+ * the lights that can reach it.
+ * <p>
+ * <p>The view is cut into TILES_X by TILES_Y tiles across and SLICES depth slices, spaced
+ * logarithmically between the near and far planes. Once per frame, from the view between the
+ * eyes, each light's bounding sphere is tested against the clusters and its bit is set in every
+ * cluster it overlaps. The slices are binned in parallel on Workers. The bits go to the GPU as
+ * one RGBA texel per cluster, so up to MAX_LIGHTS lights are drawn per frame, or fewer if the
+ * GPU has less uniform room. With more lights in view, the ones nearest the viewer are kept.
+ * <p>
+ * <p>Tiles are laid out in view-space tangents rather than screen pixels, over the union of both
+ * eyes' fields of view, so one binning serves both eyes. Lights are widened by EYE_MARGIN to
+ * cover the eyes' offset from the center view.
+ * <p>
+ * <p>Programs opt in by declaring the uniforms in cluster_fragment.shader; MeshRenderer sets them
+ * when it binds such a program. Their light arrays take two fragment uniform vectors per light,
+ * and GLES 2.0 only promises 16 vectors in all, so supportedLights() works out how many fit on
+ * this GPU. Build the program with shaderDefines() so its arrays match.
+ */
+public class ClusteredLights {
+
+    public static final int TILES_X = 8;
+    public static final int TILES_Y = 8;
+    public static final int SLICES = 16;
+    // a bit each in a cluster's RGBA texel
+    public static final int MAX_LIGHTS = 32;
+
+    private static final String TAG = "ClusteredLights";
+
+    // the cluster uniforms, with some to spare for the compiler's constants
+    private static final int RESERVED_UNIFORM_VECTORS = 4;
+
+    private static final int CLUSTERS = TILES_X * TILES_Y * SLICES;
+    private static final int TEXTURE_UNIT = 1;
+    private static final int SLICES_PER_TASK = 4;
+    private static final float EYE_MARGIN = 0.05f;
+
+    private final float near;
+    private final float far;
+    private final float depthScale;
+    private final float depthOffset;
+    private final int maxLights;
+
+    private final List<Light> lights = new ArrayList<Light>();
+
+    // this frame's lights: world and center-view positions, radius in w
+    private final Light[] frameLights;
+    private final float[] frameScores;
+    private final float[] viewSpheres;
+    private int frameCount;
+
+    // per cluster, a bit per frame light
+    private final int[] masks = new int[CLUSTERS];
+    private final int[] uploadedMasks = new int[CLUSTERS];
+    private final ByteBuffer texels = ByteBuffer.allocateDirect(CLUSTERS * 4).order(ByteOrder.nativeOrder());
+    private int texture;
+    private boolean uploaded;
+
+    // tangent bounds of the tiles, and of the eyes seen since the last frame
+    private float minTanX = -1f;
+    private float minTanY = -1f;
+    private float maxTanX = 1f;
+    private float maxTanY = 1f;
+    private float eyeMinTanX = Float.MAX_VALUE;
+    private float eyeMinTanY = Float.MAX_VALUE;
+    private float eyeMaxTanX = -Float.MAX_VALUE;
+    private float eyeMaxTanY = -Float.MAX_VALUE;
+
+    // the current eye's uniforms
+    private final float[] eyePosRange;
+    private final float[] eyeColors;
+    private final float[] world = new float[4];
+    private final float[] eye = new float[4];
+
+    private final Workers.RangeTask binSlices = new Workers.RangeTask() {
+        @Override
+        public void run(int from, int to) {
+            for (int slice = from; slice < to; slice++) {
+                bin(slice);
+            }
+        }
+    };
+
+    /**
+     * @param near      the projection's near plane
+     * @param far       the projection's far plane; nothing beyond it is lit
+     * @param maxLights lights drawn per frame, 1 to MAX_LIGHTS, eg supportedLights()
+     */
+    public ClusteredLights(float near, float far, int maxLights) {
+        if (maxLights < 1 || maxLights > MAX_LIGHTS) {
+            throw new IllegalArgumentException("maxLights " + maxLights + " is outside 1 to " + MAX_LIGHTS);
+        }
+        this.near = near;
+        this.far = far;
+        this.maxLights = maxLights;
+        depthScale = SLICES / (float) Math.log(far / near);
+        depthOffset = -(float) Math.log(near) * depthScale;
+        frameLights = new Light[maxLights];
+        frameScores = new float[maxLights];
+        viewSpheres = new float[maxLights * 4];
+        eyePosRange = new float[maxLights * 4];
+        eyeColors = new float[maxLights * 4];
+    }
+
+    /**
+     * How many lights a clustered program's uniform arrays can hold on this GPU, at most
+     * MAX_LIGHTS. Below 1 there's no room for them, and programs should light the plain way.
+     * Needs the GL context.
+     */
+    public static int supportedLights() {
+        int[] vectors = new int[1];
+        GLES20.glGetIntegerv(GLES20.GL_MAX_FRAGMENT_UNIFORM_VECTORS, vectors, 0);
+        int lights = Math.min(MAX_LIGHTS, (vectors[0] - RESERVED_UNIFORM_VECTORS) / 2);
+        Log.i(TAG, vectors[0] + " fragment uniform vectors, room for " + lights + " lights");
+        return lights;
+    }
+
+    /**
+     * Defines for MeshRenderer.program() that size a clustered program's arrays to these lights
+     */
+    public String shaderDefines() {
+        return "#define MAX_LIGHTS " + maxLights + "\n";
+    }
+
+    public int getMaxLights() {
+        return maxLights;
+    }
+
+    /**
+     * Adds a point light. Its reach falls smoothly to nothing at the radius.
+     */
+    public Light add(float x, float y, float z, float radius, float r, float g, float b) {
+        Light light = new Light();
+        light.setPosition(x, y, z);
+        light.setRadius(radius);
+        light.setColor(r, g, b);
+        lights.add(light);
+        return light;
+    }
+
+    public void remove(Light light) {
+        lights.remove(light);
+    }
+
+    public int size() {
+        return lights.size();
+    }
+
+    /**
+     * Lights drawn this frame
+     */
+    public int getFrameLightCount() {
+        return frameCount;
+    }
+
+    /**
+     * Picks and bins this frame's lights. Call once per frame on the GL thread, with the view
+     * between the eyes.
+     */
+    public void prepareFrame(float[] centerView) {
+        // tiles span what the eyes looked through last frame
+        if (eyeMinTanX <= eyeMaxTanX) {
+            minTanX = eyeMinTanX;
+            minTanY = eyeMinTanY;
+            maxTanX = eyeMaxTanX;
+            maxTanY = eyeMaxTanY;
+            eyeMinTanX = eyeMinTanY = Float.MAX_VALUE;
+            eyeMaxTanX = eyeMaxTanY = -Float.MAX_VALUE;
+        }
+
+        selectLights(centerView);
+        Workers.forRange(SLICES, SLICES_PER_TASK, binSlices);
+        upload();
+    }
+
+    /**
+     * Works out the lights' uniforms for one eye. Call before drawing the eye.
+     */
+    public void prepareEye(float[] view, float[] perspective) {
+        // x / depth spans (-1 + p[8]) / p[0] to (1 + p[8]) / p[0], likewise y
+        eyeMinTanX = Math.min(eyeMinTanX, (-1 + perspective[8]) / perspective[0]);
+        eyeMaxTanX = Math.max(eyeMaxTanX, (1 + perspective[8]) / perspective[0]);
+        eyeMinTanY = Math.min(eyeMinTanY, (-1 + perspective[9]) / perspective[5]);
+        eyeMaxTanY = Math.max(eyeMaxTanY, (1 + perspective[9]) / perspective[5]);
+
+        for (int i = 0; i < frameCount; i++) {
+            Light light = frameLights[i];
+            world[0] = light.x;
+            world[1] = light.y;
+            world[2] = light.z;
+            world[3] = 1;
+            Matrix.multiplyMV(eye, 0, view, 0, world, 0);
+            eyePosRange[i * 4] = eye[0];
+            eyePosRange[i * 4 + 1] = eye[1];
+            eyePosRange[i * 4 + 2] = eye[2];
+            eyePosRange[i * 4 + 3] = light.radius;
+            eyeColors[i * 4] = light.r;
+            eyeColors[i * 4 + 1] = light.g;
+            eyeColors[i * 4 + 2] = light.b;
+            eyeColors[i * 4 + 3] = 1;
+        }
+    }
+
+    /**
+     * Sets a clustered program's light uniforms and binds the cluster texture. Called by
+     * MeshRenderer when it switches to such a program.
+     */
+    void apply(MeshRenderer.Program program) {
+        if (frameCount > 0) {
+            GLES20.glUniform4fv(program.lightPosRange, frameCount, eyePosRange, 0);
+            GLES20.glUniform4fv(program.lightColor, frameCount, eyeColors, 0);
+        }
+        GLES20.glUniform4f(program.clusterTan, minTanX, minTanY,
+                TILES_X / (maxTanX - minTanX), TILES_Y / (maxTanY - minTanY));
+        GLES20.glUniform2f(program.clusterDepth, depthScale, depthOffset);
+
+        GLES20.glActiveTexture(GLES20.GL_TEXTURE0 + TEXTURE_UNIT);
+        GLES20.glBindTexture(GLES20.GL_TEXTURE_2D, texture);
+        GLES20.glActiveTexture(GLES20.GL_TEXTURE0);
+        GLES20.glUniform1i(program.lightClusters, TEXTURE_UNIT);
+    }
+
+    /**
+     * Deletes the cluster texture. Call on the GL thread while the context is alive.
+     */
+    public void release() {
+        if (texture != 0) {
+            GLES20.glDeleteTextures(1, new int[]{texture}, 0);
+            texture = 0;
+        }
+    }
+
+    //
+
+    /**
+     * Keeps the lights that reach into the view, nearest first if there are too many.
+     */
+    private void selectLights(float[] centerView) {
+        frameCount = 0;
+        for (int i = 0; i < lights.size(); i++) {
+            Light light = lights.get(i);
+            if (!light.enabled) {
+                continue;
+            }
+            world[0] = light.x;
+            world[1] = light.y;
+            world[2] = light.z;
+            world[3] = 1;
+            Matrix.multiplyMV(eye, 0, centerView, 0, world, 0);
+            float radius = light.radius + EYE_MARGIN;
+            float depth = -eye[2];
+            if (depth + radius < near || depth - radius > far) {
+                continue;
+            }
+            float score = (float) Math.sqrt(eye[0] * eye[0] + eye[1] * eye[1] + eye[2] * eye[2]) - radius;
+            if (frameCount == maxLights && score >= frameScores[frameCount - 1]) {
+                continue;
+            }
+
+            // insertion into the short sorted list
+            int j = frameCount < maxLights ? frameCount++ : frameCount - 1;
+            while (j > 0 && frameScores[j - 1] > score) {
+                frameScores[j] = frameScores[j - 1];
+                frameLights[j] = frameLights[j - 1];
+                System.arraycopy(viewSpheres, (j - 1) * 4, viewSpheres, j * 4, 4);
+                j--;
+            }
+            frameScores[j] = score;
+            frameLights[j] = light;
+            viewSpheres[j * 4] = eye[0];
+            viewSpheres[j * 4 + 1] = eye[1];
+            viewSpheres[j * 4 + 2] = depth;
+            viewSpheres[j * 4 + 3] = radius;
+        }
+    }
+
+    /**
+     * Sets the bits of one slice's clusters. Slices share nothing, so they run in parallel.
+     */
+    private void bin(int slice) {
+        int base = slice * TILES_X * TILES_Y;
+        Arrays.fill(masks, base, base + TILES_X * TILES_Y, 0);
+
+        float sliceNear = near * (float) Math.pow(far / near, (double) slice / SLICES);
+        float sliceFar = near * (float) Math.pow(far / near, (double) (slice + 1) / SLICES);
+        float tilesPerTanX = TILES_X / (maxTanX - minTanX);
+        float tilesPerTanY = TILES_Y / (maxTanY - minTanY);
+
+        for (int i = 0; i < frameCount; i++) {
+            float x = viewSpheres[i * 4];
+            float y = viewSpheres[i * 4 + 1];
+            float depth = viewSpheres[i * 4 + 2];
+            float radius = viewSpheres[i * 4 + 3];
+            float d0 = Math.max(sliceNear, depth - radius);
+            float d1 = Math.min(sliceFar, depth + radius);
+            if (d0 > d1) {
+                continue;
+            }
+
+            // the sphere's box, seen between d0 and d1, spans these tangents
+            float tanX0 = Math.min((x - radius) / d0, (x - radius) / d1);
+            float tanX1 = Math.max((x + radius) / d0, (x + radius) / d1);
+            float tanY0 = Math.min((y - radius) / d0, (y - radius) / d1);
+            float tanY1 = Math.max((y + radius) / d0, (y + radius) / d1);
+            int tx0 = Math.max(0, (int) Math.floor((tanX0 - minTanX) * tilesPerTanX));
+            int tx1 = Math.min(TILES_X - 1, (int) Math.floor((tanX1 - minTanX) * tilesPerTanX));
+            int ty0 = Math.max(0, (int) Math.floor((tanY0 - minTanY) * tilesPerTanY));
+            int ty1 = Math.min(TILES_Y - 1, (int) Math.floor((tanY1 - minTanY) * tilesPerTanY));
+
+            int bit = 1 << i;
+            for (int ty = ty0; ty <= ty1; ty++) {
+                for (int tx = tx0; tx <= tx1; tx++) {
+                    masks[base + ty * TILES_X + tx] |= bit;
+                }
+            }
+        }
+    }
+
+    private void upload() {
+        if (texture == 0) {
+            final int[] ids = new int[1];
+            GLES20.glGenTextures(1, ids, 0);
+            texture = ids[0];
+            GLES20.glBindTexture(GLES20.GL_TEXTURE_2D, texture);
+            GLES20.glTexParameteri(GLES20.GL_TEXTURE_2D, GLES20.GL_TEXTURE_MIN_FILTER, GLES20.GL_NEAREST);
+            GLES20.glTexParameteri(GLES20.GL_TEXTURE_2D, GLES20.GL_TEXTURE_MAG_FILTER, GLES20.GL_NEAREST);
+            GLES20.glTexParameteri(GLES20.GL_TEXTURE_2D, GLES20.GL_TEXTURE_WRAP_S, GLES20.GL_CLAMP_TO_EDGE);
+            GLES20.glTexParameteri(GLES20.GL_TEXTURE_2D, GLES20.GL_TEXTURE_WRAP_T, GLES20.GL_CLAMP_TO_EDGE);
+            uploaded = false;
+            Log.i(TAG, "Cluster texture " + TILES_X * TILES_Y + "x" + SLICES);
+        }
+        // a still viewer with still lights sends nothing
+        if (uploaded && Arrays.equals(masks, uploadedMasks)) {
+            return;
+        }
+
+        texels.position(0);
+        for (int mask : masks) {
+            texels.put((byte) mask).put((byte) (mask >> 8)).put((byte) (mask >> 16)).put((byte) (mask >>> 24));
+        }
+        texels.position(0);
+        GLES20.glBindTexture(GLES20.GL_TEXTURE_2D, texture);
+        if (uploaded) {
+            GLES20.glTexSubImage2D(GLES20.GL_TEXTURE_2D, 0, 0, 0, TILES_X * TILES_Y, SLICES,
+                    GLES20.GL_RGBA, GLES20.GL_UNSIGNED_BYTE, texels);
+        } else {
+            GLES20.glTexImage2D(GLES20.GL_TEXTURE_2D, 0, GLES20.GL_RGBA, TILES_X * TILES_Y, SLICES, 0,
+                    GLES20.GL_RGBA, GLES20.GL_UNSIGNED_BYTE, texels);
+            uploaded = true;
+        }
+        System.arraycopy(masks, 0, uploadedMasks, 0, CLUSTERS);
+    }
+
+    /**
+     * A point light, in world space. Colors are linear, 1 is full brightness.
+     */
+    public static final class Light {
+        private float x;
+        private float y;
+        private float z;
+        private float radius;
+        private float r;
+        private float g;
+        private float b;
+        private boolean enabled = true;
+
+        public void setPosition(float x, float y, float z) {
+            this.x = x;
+            this.y = y;
+            this.z = z;
+        }
+
+        public void setRadius(float radius) {
+            this.radius = radius;
+        }
+
+        public void setColor(float r, float g, float b) {
+            this.r = r;
+            this.g = g;
+            this.b = b;
+        }
+
+        public void setEnabled(boolean enabled) {
+            this.enabled = enabled;
+        }
+    }
+}
@@ -0,0 +1,331 @@
+package com.google.vr.sdk.samples.treasurehunt;
+
+import android.opengl.Matrix;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+
+import min3d.mesh.TriangleBvh;
+
+/**
+ * Finds what the viewer is looking at by casting the gaze ray against the scene's meshes.
+ * <p>
+ * <p>Each target is a mesh's TriangleBvh, built once when the mesh loads, placed by a model
+ * matrix. The targets sit under a small scene-level tree of world-space boxes. Its shape is built
+ * when targets are added or removed; every pick only refits the boxes to where the targets are
+ * now, so moving targets stay cheap. The ray is tested against the scene tree nearest box first,
+ * and only targets whose box it enters are transformed into and searched.
+ * <p>
+ * <p>pick() runs once per frame with the view between the eyes; both eyes, and input handlers
+ * such as the trigger, read the result.
+ */
+public class GazePicker {
+
+    private static final Comparator<Target> BY_CENTER_X = new Comparator<Target>() {
+        @Override
+        public int compare(Target a, Target b) {
+            return Float.compare(a.bounds[0] + a.bounds[3], b.bounds[0] + b.bounds[3]);
+        }
+    };
+
+    private static final Comparator<Target> BY_CENTER_Z = new Comparator<Target>() {
+        @Override
+        public int compare(Target a, Target b) {
+            return Float.compare(a.bounds[2] + a.bounds[5], b.bounds[2] + b.bounds[5]);
+        }
+    };
+
+    private final List<Target> targets = new ArrayList<Target>();
+    private boolean dirty;
+
+    // scene tree: per node a box (min xyz, max xyz); leaves hold one target, inner nodes two children
+    private float[] nodeBounds = new float[0];
+    private int[] nodeLeft = new int[0];
+    private Target[] nodeTarget = new Target[0];
+    private int nodeCount;
+    private int[] stack = new int[64];
+
+    private final TriangleBvh.Hit hit = new TriangleBvh.Hit();
+    private final float[] inverseView = new float[16];
+    private final float[] worldRay = new float[8];
+    private final float[] localRay = new float[8];
+    private final float[] corner = new float[4];
+    private final float[] worldCorner = new float[4];
+
+    private float maxDistance = Float.MAX_VALUE;
+    private Target picked;
+    private int pickedTriangle = -1;
+    private float pickedDistance;
+    private long pickNanos;
+
+    public void setMaxDistance(float maxDistance) {
+        this.maxDistance = maxDistance;
+    }
+
+    /**
+     * Adds a mesh that can be looked at. The model array is kept, not copied, so the target
+     * follows later changes to it.
+     */
+    public Target add(String name, TriangleBvh bvh, float[] model) {
+        Target target = new Target(name, bvh, model);
+        targets.add(target);
+        dirty = true;
+        return target;
+    }
+
+    public void remove(Target target) {
+        if (targets.remove(target)) {
+            dirty = true;
+            if (picked == target) {
+                picked = null;
+                pickedTriangle = -1;
+            }
+        }
+    }
+
+    /**
+     * Casts the gaze ray, straight ahead from the viewer, and keeps the nearest hit.
+     *
+     * @param centerView the view between the eyes (head view times camera)
+     * @return whether anything was hit
+     */
+    public boolean pick(float[] centerView) {
+        long start = System.nanoTime();
+        picked = null;
+        pickedTriangle = -1;
+        pickedDistance = maxDistance;
+
+        if (!targets.isEmpty() && Matrix.invertM(inverseView, 0, centerView, 0)) {
+            // the eye's origin and its -z axis, in world space
+            worldRay[0] = inverseView[12];
+            worldRay[1] = inverseView[13];
+            worldRay[2] = inverseView[14];
+            worldRay[3] = 1;
+            worldRay[4] = -inverseView[8];
+            worldRay[5] = -inverseView[9];
+            worldRay[6] = -inverseView[10];
+            worldRay[7] = 0;
+
+            refit();
+            traverse();
+        }
+
+        pickNanos = System.nanoTime() - start;
+        return picked != null;
+    }
+
+    /**
+     * The target looked at, or null
+     */
+    public Target getTarget() {
+        return picked;
+    }
+
+    /**
+     * Triangle of the target's mesh that was hit, or -1
+     */
+    public int getTriangle() {
+        return pickedTriangle;
+    }
+
+    /**
+     * From the eye to the hit, in world units
+     */
+    public float getDistance() {
+        return pickedDistance;
+    }
+
+    /**
+     * How long the last pick() took
+     */
+    public long getPickNanos() {
+        return pickNanos;
+    }
+
+    //
+
+    /**
+     * Brings every target's world box up to date, and the scene tree's boxes with them
+     */
+    private void refit() {
+        for (int i = 0; i < targets.size(); i++) {
+            targets.get(i).updateBounds(corner, worldCorner);
+        }
+        if (dirty) {
+            build();
+            dirty = false;
+        }
+        // children always come after their parent, so walking back fills parents last
+        for (int node = nodeCount - 1; node >= 0; node--) {
+            int b = node * 6;
+            if (nodeTarget[node] != null) {
+                System.arraycopy(nodeTarget[node].bounds, 0, nodeBounds, b, 6);
+            } else {
+                int l = nodeLeft[node] * 6;
+                int r = l + 6;
+                for (int k = 0; k < 3; k++) {
+                    nodeBounds[b + k] = Math.min(nodeBounds[l + k], nodeBounds[r + k]);
+                    nodeBounds[b + 3 + k] = Math.max(nodeBounds[l + 3 + k], nodeBounds[r + 3 + k]);
+                }
+            }
+        }
+    }
+
+    private void build() {
+        int capacity = Math.max(1, 2 * targets.size() - 1);
+        if (nodeLeft.length < capacity) {
+            nodeBounds = new float[capacity * 6];
+            nodeLeft = new int[capacity];
+            nodeTarget = new Target[capacity];
+        }
+        Arrays.fill(nodeTarget, null);
+        Target[] sorted = targets.toArray(new Target[targets.size()]);
+        nodeCount = 1;
+        build(0, sorted, 0, sorted.length, 0);
+    }
+
+    /**
+     * Halves by box center along x then z in turn; the scene is spread over the ground
+     */
+    private void build(int node, Target[] sorted, int from, int to, int depth) {
+        if (to - from == 1) {
+            nodeTarget[node] = sorted[from];
+            return;
+        }
+        nodeTarget[node] = null;
+        Arrays.sort(sorted, from, to, depth % 2 == 0 ? BY_CENTER_X : BY_CENTER_Z);
+        int mid = (from + to) >>> 1;
+        int left = nodeCount;
+        nodeCount += 2;
+        nodeLeft[node] = left;
+        build(left, sorted, from, mid, depth + 1);
+        build(left + 1, sorted, mid, to, depth + 1);
+    }
+
+    private void traverse() {
+        float ox = worldRay[0];
+        float oy = worldRay[1];
+        float oz = worldRay[2];
+        float dx = worldRay[4];
+        float dy = worldRay[5];
+        float dz = worldRay[6];
+        float ix = 1f / dx;
+        float iy = 1f / dy;
+        float iz = 1f / dz;
+
+        if (stack.length < nodeCount) {
+            stack = new int[nodeCount];
+        }
+        int top = 0;
+        stack[top++] = 0;
+        while (top > 0) {
+            int node = stack[--top];
+            if (entry(node, ox, oy, oz, ix, iy, iz) > pickedDistance) {
+                continue;
+            }
+            Target target = nodeTarget[node];
+            if (target != null) {
+                test(target);
+                continue;
+            }
+            int left = nodeLeft[node];
+            float tl = entry(left, ox, oy, oz, ix, iy, iz);
+            float tr = entry(left + 1, ox, oy, oz, ix, iy, iz);
+            // nearer child searched first, so it can shorten the ray for the other
+            if (tl <= tr) {
+                stack[top++] = left + 1;
+                stack[top++] = left;
+            } else {
+                stack[top++] = left;
+                stack[top++] = left + 1;
+            }
+        }
+    }
+
+    /**
+     * Casts the ray in target's space. Model transforms are affine, so distances along the
+     * transformed ray are the same as along the world ray.
+     */
+    private void test(Target target) {
+        if (!Matrix.invertM(target.inverse, 0, target.model, 0)) {
+            return;
+        }
+        Matrix.multiplyMV(localRay, 0, target.inverse, 0, worldRay, 0);
+        Matrix.multiplyMV(localRay, 4, target.inverse, 0, worldRay, 4);
+        if (target.bvh.intersect(localRay[0], localRay[1], localRay[2], localRay[4], localRay[5], localRay[6],
+                pickedDistance, hit)) {
+            picked = target;
+            pickedTriangle = hit.triangle;
+            pickedDistance = hit.distance;
+        }
+    }
+
+    /**
+     * Where the ray enters node's box, or Float.MAX_VALUE if it misses
+     */
+    private float entry(int node, float ox, float oy, float oz, float ix, float iy, float iz) {
+        int b = node * 6;
+        float t0 = (nodeBounds[b] - ox) * ix;
+        float t1 = (nodeBounds[b + 3] - ox) * ix;
+        float near = Math.min(t0, t1);
+        float far = Math.max(t0, t1);
+        t0 = (nodeBounds[b + 1] - oy) * iy;
+        t1 = (nodeBounds[b + 4] - oy) * iy;
+        near = Math.max(near, Math.min(t0, t1));
+        far = Math.min(far, Math.max(t0, t1));
+        t0 = (nodeBounds[b + 2] - oz) * iz;
+        t1 = (nodeBounds[b + 5] - oz) * iz;
+        near = Math.max(near, Math.min(t0, t1));
+        far = Math.min(far, Math.max(t0, t1));
+        if (near > far || far < 0) {
+            return Float.MAX_VALUE;
+        }
+        return Math.max(near, 0);
+    }
+
+    /**
+     * A mesh in the scene that can be looked at.
+     */
+    public static final class Target {
+        private final String name;
+        private final TriangleBvh bvh;
+        private final float[] model;
+        private final float[] localBounds = new float[6];
+        private final float[] bounds = new float[6];
+        private final float[] inverse = new float[16];
+
+        Target(String name, TriangleBvh bvh, float[] model) {
+            this.name = name;
+            this.bvh = bvh;
+            this.model = model;
+            bvh.bounds(localBounds);
+        }
+
+        public String getName() {
+            return name;
+        }
+
+        /**
+         * World box around the mesh's box's corners as the model matrix places them
+         */
+        void updateBounds(float[] corner, float[] worldCorner) {
+            for (int k = 0; k < 3; k++) {
+                bounds[k] = Float.MAX_VALUE;
+                bounds[3 + k] = -Float.MAX_VALUE;
+            }
+            for (int c = 0; c < 8; c++) {
+                corner[0] = localBounds[(c & 1) == 0 ? 0 : 3];
+                corner[1] = localBounds[(c & 2) == 0 ? 1 : 4];
+                corner[2] = localBounds[(c & 4) == 0 ? 2 : 5];
+                corner[3] = 1;
+                Matrix.multiplyMV(worldCorner, 0, model, 0, corner, 0);
+                for (int k = 0; k < 3; k++) {
+                    bounds[k] = Math.min(bounds[k], worldCorner[k]);
+                    bounds[3 + k] = Math.max(bounds[3 + k], worldCorner[k]);
+                }
+            }
+        }
+    }
+}
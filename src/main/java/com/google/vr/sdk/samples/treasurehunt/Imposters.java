@@ -0,0 +1,265 @@
+package com.google.vr.sdk.samples.treasurehunt;
+
+import android.opengl.GLES20;
+import android.opengl.Matrix;
+import android.util.Log;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ConcurrentLinkedQueue;
+
+import min3d.core.VertexLayout;
+import min3d.core.Vertices;
+import min3d.mesh.ImposterBaker;
+import min3d.objectPrimitives.Rectangle;
+
+/**
+ * Draws far-away props as single camera-facing quads.
+ * <p>
+ * <p>Each prop's atlas is baked by ImposterBaker, which renders the prop from several angles
+ * around its vertical axis. Nothing is baked up front: whoever first loads the prop's mesh, eg a
+ * WorldStreamer loader, bakes it from the same data and hands it over with Prop.setAtlas(). The
+ * texture is then kept for as long as the Imposters, and its bytes are reported by
+ * getAtlasBytes() so they can be counted against a memory budget. When a prop is further than the
+ * switch distance from the eye, its full record is hidden and a two-triangle quad is drawn in its place.
+ * The quad is turned about the vertical to face the eye and textured with the view rendered from
+ * the nearest angle. A small hysteresis band around the switch distance stops props flickering
+ * between the two.
+ * <p>
+ * <p>The quad geometry comes from min3d's Rectangle, with its uvs moved to each view's tile.
+ * Model matrices are assumed to be translation and uniform scale, as in this scene.
+ */
+public class Imposters {
+
+    private static final String TAG = "Imposters";
+
+    private static final float HYSTERESIS = 0.1f;
+    private static final VertexLayout QUAD_LAYOUT = new VertexLayout(true, false, false);
+
+    private final MeshRenderer meshRenderer;
+    private final MeshRenderer.Program program;
+    private float switchDistance;
+
+    private final List<Prop> props = new ArrayList<Prop>();
+    private final ConcurrentLinkedQueue<Prop> baked = new ConcurrentLinkedQueue<Prop>();
+    private long atlasBytes;
+
+    private final float[] tileUv = new float[4];
+
+    /**
+     * @param program        draws a textured quad, eg imposter_vertex / imposter_fragment
+     * @param switchDistance props further than this from the eye are drawn as imposters
+     */
+    public Imposters(MeshRenderer meshRenderer, MeshRenderer.Program program, float switchDistance) {
+        this.meshRenderer = meshRenderer;
+        this.program = program;
+        this.switchDistance = switchDistance;
+    }
+
+    public void setSwitchDistance(float switchDistance) {
+        this.switchDistance = switchDistance;
+    }
+
+    /**
+     * Adds a prop with no atlas yet. Until one is set the prop is always drawn in full.
+     *
+     * @param model the prop's model matrix, read every update
+     */
+    public Prop add(String name, float[] model) {
+        Prop prop = new Prop(this, name, model);
+        props.add(prop);
+        return prop;
+    }
+
+    /**
+     * Call once per frame on the GL thread with the eye's world position, before
+     * MeshRenderer.prepareFrame(). Uploads finished atlases, then picks full or imposter for
+     * each prop.
+     */
+    public void update(float eyeX, float eyeY, float eyeZ) {
+        Prop ready;
+        while ((ready = baked.poll()) != null) {
+            upload(ready);
+        }
+
+        for (int i = 0; i < props.size(); i++) {
+            Prop prop = props.get(i);
+            if (prop.record == null) {
+                continue;
+            }
+            ImposterBaker.Atlas atlas = prop.atlas;
+            float[] m = prop.model;
+            float scale = (float) Math.sqrt(m[0] * m[0] + m[1] * m[1] + m[2] * m[2]);
+            float cx = m[12] + atlas.centerX * scale;
+            float cy = m[13] + atlas.centerY * scale;
+            float cz = m[14] + atlas.centerZ * scale;
+            float dx = eyeX - cx;
+            float dy = eyeY - cy;
+            float dz = eyeZ - cz;
+            float distance = (float) Math.sqrt(dx * dx + dy * dy + dz * dz);
+
+            float threshold = switchDistance * (prop.far ? 1f - HYSTERESIS : 1f + HYSTERESIS);
+            prop.far = distance > threshold;
+            if (prop.fullRecord != null) {
+                prop.fullRecord.setVisible(!prop.far);
+            }
+            prop.record.setVisible(prop.far);
+            if (!prop.far) {
+                continue;
+            }
+
+            prop.record.setMesh(prop.views[atlas.nearestView(dx, dz)]);
+            float[] billboard = prop.record.getModel();
+            Matrix.setIdentityM(billboard, 0);
+            Matrix.translateM(billboard, 0, cx, cy, cz);
+            Matrix.rotateM(billboard, 0, (float) Math.toDegrees(Math.atan2(dx, dz)), 0, 1, 0);
+            Matrix.scaleM(billboard, 0, scale, scale, scale);
+        }
+    }
+
+    /**
+     * Bytes held by uploaded atlas textures, mipmaps included
+     */
+    public long getAtlasBytes() {
+        return atlasBytes;
+    }
+
+    /**
+     * Deletes the atlas textures and quads. Call on the GL thread while the context is alive.
+     */
+    public void release() {
+        for (int i = 0; i < props.size(); i++) {
+            Prop prop = props.get(i);
+            if (prop.texture != 0) {
+                GLES20.glDeleteTextures(1, new int[]{prop.texture}, 0);
+                prop.texture = 0;
+            }
+            if (prop.record != null) {
+                meshRenderer.remove(prop.record);
+                prop.record = null;
+            }
+            if (prop.views != null) {
+                for (MeshRenderer.Mesh view : prop.views) {
+                    view.release();
+                }
+            }
+        }
+        atlasBytes = 0;
+    }
+
+    //
+
+    private void upload(Prop prop) {
+        ImposterBaker.Atlas atlas = prop.atlas;
+
+        ByteBuffer rgba = ByteBuffer.allocateDirect(atlas.pixels.length * 4).order(ByteOrder.nativeOrder());
+        for (int argb : atlas.pixels) {
+            rgba.put((byte) (argb >> 16)).put((byte) (argb >> 8)).put((byte) argb).put((byte) (argb >>> 24));
+        }
+        rgba.position(0);
+
+        final int[] ids = new int[1];
+        GLES20.glGenTextures(1, ids, 0);
+        prop.texture = ids[0];
+        GLES20.glBindTexture(GLES20.GL_TEXTURE_2D, prop.texture);
+        GLES20.glTexImage2D(GLES20.GL_TEXTURE_2D, 0, GLES20.GL_RGBA, atlas.width, atlas.height, 0,
+                GLES20.GL_RGBA, GLES20.GL_UNSIGNED_BYTE, rgba);
+        GLES20.glGenerateMipmap(GLES20.GL_TEXTURE_2D);
+        GLES20.glTexParameteri(GLES20.GL_TEXTURE_2D, GLES20.GL_TEXTURE_MIN_FILTER, GLES20.GL_LINEAR_MIPMAP_LINEAR);
+        GLES20.glTexParameteri(GLES20.GL_TEXTURE_2D, GLES20.GL_TEXTURE_MAG_FILTER, GLES20.GL_LINEAR);
+        GLES20.glTexParameteri(GLES20.GL_TEXTURE_2D, GLES20.GL_TEXTURE_WRAP_S, GLES20.GL_CLAMP_TO_EDGE);
+        GLES20.glTexParameteri(GLES20.GL_TEXTURE_2D, GLES20.GL_TEXTURE_WRAP_T, GLES20.GL_CLAMP_TO_EDGE);
+
+        // One quad per view, sized to the baked square around the bounding sphere
+        Rectangle quad = new Rectangle(2 * atlas.radius, 2 * atlas.radius, 1, 1);
+        int vertexCount = quad.vertices().size();
+        float[] positions = new float[vertexCount * 3];
+        float[] uvs = new float[vertexCount * 2];
+        for (int v = 0; v < vertexCount; v++) {
+            positions[v * 3] = quad.points().getPropertyX(v);
+            positions[v * 3 + 1] = quad.points().getPropertyY(v);
+            positions[v * 3 + 2] = quad.points().getPropertyZ(v);
+        }
+        int[] indices = new int[quad.faces().size() * 3];
+        for (int i = 0; i < indices.length; i++) {
+            indices[i] = quad.faces().buffer().get(i);
+        }
+
+        prop.views = new MeshRenderer.Mesh[atlas.views];
+        for (int view = 0; view < atlas.views; view++) {
+            atlas.tileUv(view, tileUv);
+            for (int v = 0; v < vertexCount; v++) {
+                uvs[v * 2] = tileUv[0] + quad.uvs().getPropertyU(v) * (tileUv[2] - tileUv[0]);
+                uvs[v * 2 + 1] = tileUv[1] + quad.uvs().getPropertyV(v) * (tileUv[3] - tileUv[1]);
+            }
+            MeshRenderer.Mesh mesh = MeshRenderer.Mesh.fromVertices(
+                    Vertices.fromArrays(QUAD_LAYOUT, positions, null, uvs), indices);
+            mesh.setTexture(prop.texture);
+            prop.views[view] = mesh;
+        }
+
+        prop.record = meshRenderer.add(prop.name + " imposter", prop.views[0], program, new float[16]);
+        prop.record.setVisible(false);
+        // the pixels live on in the texture, with a third more for the mipmaps
+        long bytes = (long) atlas.width * atlas.height * 4 * 4 / 3;
+        atlasBytes += bytes;
+        Log.i(TAG, "Uploaded " + prop.name + " atlas: " + bytes / 1024 + "KB, " + atlasBytes / 1024 + "KB in all");
+        atlas.releasePixels();
+    }
+
+    /**
+     * A prop that may be drawn as an imposter.
+     */
+    public static final class Prop {
+        private final Imposters owner;
+        private final String name;
+        private final float[] model;
+        private volatile ImposterBaker.Atlas atlas;
+        private MeshRenderer.Mesh[] views;
+        private int texture;
+        private MeshRenderer.Record record;
+        private MeshRenderer.Record fullRecord;
+        private boolean far;
+
+        Prop(Imposters owner, String name, float[] model) {
+            this.owner = owner;
+            this.name = name;
+            this.model = model;
+        }
+
+        /**
+         * True until an atlas has been set. Any thread.
+         */
+        public boolean needsAtlas() {
+            return atlas == null;
+        }
+
+        /**
+         * Hands over the prop's baked atlas, to be uploaded at the next update. Any thread; later
+         * atlases are ignored.
+         */
+        public synchronized void setAtlas(ImposterBaker.Atlas atlas) {
+            if (this.atlas == null) {
+                this.atlas = atlas;
+                owner.baked.add(this);
+            }
+        }
+
+        /**
+         * The record that draws the prop in full, hidden while the imposter is shown. May be
+         * null, eg while the full mesh isn't loaded.
+         */
+        public void setFullRecord(MeshRenderer.Record fullRecord) {
+            this.fullRecord = fullRecord;
+            if (fullRecord != null && far) {
+                fullRecord.setVisible(false);
+            }
+        }
+
+        public boolean isFar() {
+            return far;
+        }
+    }
+}
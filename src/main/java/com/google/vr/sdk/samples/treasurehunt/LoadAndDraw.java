@@ -42,12 +42,22 @@ public class LoadAndDraw implements Runnable {
     private InputStream inStream;
     private InputStream vertexShaderStream;
     private InputStream fragmentShaderStream;
+    private ProgramCache programCache;
     public boolean laodFinish; //load obj ready
 
     LoadAndDraw(InputStream inputStream,InputStream vertex_shader_stream,InputStream fragment_shader_stream){
+        this(inputStream, vertex_shader_stream, fragment_shader_stream, new ProgramCache(null));
+    }
+
+    /**
+     * Shares programs with everything else built from programCache.
+     */
+    LoadAndDraw(InputStream inputStream,InputStream vertex_shader_stream,InputStream fragment_shader_stream,
+                ProgramCache programCache){
         inStream = inputStream;
         vertexShaderStream = vertex_shader_stream;
         fragmentShaderStream = fragment_shader_stream;
+        this.programCache = programCache;
         modelWell = new float[16];
     }
 
@@ -97,20 +107,14 @@ public class LoadAndDraw implements Runnable {
         wellTextures.position(0);
 
         ByteBuffer bbWellIndices = ByteBuffer.allocateDirect(well_indices.length * 4);
-        bbWellTextures.order(ByteOrder.nativeOrder());
-        wellIndices = bbWellTextures.asIntBuffer();
+        bbWellIndices.order(ByteOrder.nativeOrder());
+        wellIndices = bbWellIndices.asIntBuffer();
         wellIndices.put(well_indices);
         wellIndices.position(0);
 
 
-        int wellVertexShader = loadGLShader(GLES20.GL_VERTEX_SHADER, vertexShaderStream);
-        int wellFragmentShader = loadGLShader(GLES20.GL_FRAGMENT_SHADER, fragmentShaderStream);
-
         // generate program
-        wellProgram = GLES20.glCreateProgram();
-        GLES20.glAttachShader(wellProgram, wellVertexShader);
-        GLES20.glAttachShader(wellProgram, wellFragmentShader);
-        GLES20.glLinkProgram(wellProgram);
+        wellProgram = programCache.program(ReadRawFile(vertexShaderStream), ReadRawFile(fragmentShaderStream));
         GLES20.glUseProgram(wellProgram);
 
         checkGLError("Well program");
@@ -173,27 +177,4 @@ public class LoadAndDraw implements Runnable {
             throw new RuntimeException(label + ": glError " + error);
         }
     }
-    private int loadGLShader(int type, InputStream inputfile) {
-        String code = ReadRawFile(inputfile);
-        int shader = GLES20.glCreateShader(type);
-        GLES20.glShaderSource(shader, code);
-        GLES20.glCompileShader(shader);
-
-        // Get the compilation status.
-        final int[] compileStatus = new int[1];
-        GLES20.glGetShaderiv(shader, GLES20.GL_COMPILE_STATUS, compileStatus, 0);
-
-        // If the compilation failed, delete the shader.
-        if (compileStatus[0] == 0) {
-            Log.e("Load and Draw", "Error compiling shader: " + GLES20.glGetShaderInfoLog(shader));
-            GLES20.glDeleteShader(shader);
-            shader = 0;
-        }
-
-        if (shader == 0) {
-            throw new RuntimeException("Error creating shader.");
-        }
-
-        return shader;
-    }
 }
@@ -0,0 +1,926 @@
+package com.google.vr.sdk.samples.treasurehunt;
+
+import android.content.res.Resources;
+import android.opengl.GLES20;
+import android.opengl.Matrix;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.nio.Buffer;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.FloatBuffer;
+import java.nio.IntBuffer;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import min3d.core.DrawStats;
+import min3d.core.LodSelector;
+import min3d.core.VertexLayout;
+import min3d.core.Vertices;
+
+/**
+ * Draws a list of mesh / program / transform records with GLES20.
+ * <p>
+ * <p>Programs come from a ProgramCache, so a shader pair is built once however many meshes
+ * use it, and their attribute and uniform locations are looked up once. Records are drawn
+ * sorted by program, then mesh, so each program is bound once per eye and a mesh shared by
+ * consecutive records is bound once. Attribute arrays are only enabled or disabled when the
+ * set being read changes. A mesh's data goes into GL buffer objects the first time it's drawn,
+ * so later draws, both eyes' included, don't resubmit it; Mesh.release() deletes them.
+ * <p>
+ * <p>Stereo frames are split in two: prepareFrame() does the per-object work once, and
+ * drawEye() replays the resulting draw list per eye with the eye's matrices.
+ * <p>
+ * <p>Meshes may carry coarser index lists (see Mesh.setLods()). prepareFrame() picks one per
+ * record from its size on screen, using the field of view of the last eye drawn.
+ * <p>
+ * <p>Shaders share one interface: attributes a_Position, a_Normal, a_TextureCoord and
+ * a_Color, uniforms u_Model, u_MVMatrix, u_MVP, u_LightPos and u_MaterialColor. A program may
+ * leave any of them out. A mesh's texture, if it has one, is bound to unit 0.
+ * <p>
+ * <p>A mesh may be split into sub-meshes, contiguous ranges of its index list with a texture
+ * and u_MaterialColor each (see Mesh.setSubMeshes()), eg one per OBJ material. Each range is
+ * one draw call, and its texture and color are only set when they differ from the last draw's.
+ * <p>
+ * <p>Programs that declare ClusteredLights' uniforms (see cluster_fragment.shader) are lit by
+ * the lights set with setLights(), which are binned in prepareFrame().
+ */
+public class MeshRenderer {
+
+    static final int POSITION = 0;
+    static final int NORMAL = 1;
+    static final int TEXTURE_COORD = 2;
+    static final int COLOR = 3;
+    static final int NUM_ATTRIBUTES = 4;
+
+    private static final String[] ATTRIBUTE_NAMES = {"a_Position", "a_Normal", "a_TextureCoord", "a_Color"};
+
+    private static final float[] WHITE = {1, 1, 1, 1};
+
+    private static final Comparator<Record> BY_PROGRAM_AND_MESH = new Comparator<Record>() {
+        @Override
+        public int compare(Record a, Record b) {
+            if (a.program.id != b.program.id) {
+                return a.program.id < b.program.id ? -1 : 1;
+            }
+            return a.mesh.id < b.mesh.id ? -1 : a.mesh.id == b.mesh.id ? 0 : 1;
+        }
+    };
+
+    private final Resources resources;
+    private final ProgramCache programCache;
+    private final DrawStats drawStats;
+
+    private final Map<String, Program> programs = new HashMap<String, Program>();
+    private final Map<String, Integer> statsIds = new HashMap<String, Integer>();
+
+    private final List<Record> records = new ArrayList<Record>();
+    private boolean sorted = true;
+
+    // the prepared frame: visible records in draw order, their attribute sets and
+    // model-view matrices for the center view
+    private Record[] frameRecords = new Record[0];
+    private int[] frameMasks = new int[0];
+    private float[] centerModelViews = new float[0];
+    private int frameCount;
+
+    private LodSelector lodSelector = new LodSelector();
+    private ClusteredLights lights;
+    private float tanHalfFovY = 1f;
+
+    private final float[] inverseCenterView = new float[16];
+    private final float[] eyeFromCenter = new float[16];
+    private final float[] modelView = new float[16];
+    private final float[] modelViewProjection = new float[16];
+    private int enabledAttributes;
+
+    /**
+     * @param drawStats counts each record's draws, may be null
+     */
+    public MeshRenderer(Resources resources, ProgramCache programCache, DrawStats drawStats) {
+        this.resources = resources;
+        this.programCache = programCache;
+        this.drawStats = drawStats;
+    }
+
+    /**
+     * Returns the program for a pair of raw shader resources, building it on first use.
+     * Needs the GL context.
+     */
+    public Program program(int vertexShaderResId, int fragmentShaderResId) {
+        return program(vertexShaderResId, fragmentShaderResId, "");
+    }
+
+    /**
+     * As program(int, int), with defines (eg "#define MAX_LIGHTS 6\n") put ahead of both sources
+     */
+    public Program program(int vertexShaderResId, int fragmentShaderResId, String defines) {
+        String key = vertexShaderResId + ":" + fragmentShaderResId + ":" + defines;
+        Program program = programs.get(key);
+        if (program == null) {
+            program = new Program(programCache.program(
+                    defines + readRawTextFile(vertexShaderResId), defines + readRawTextFile(fragmentShaderResId)));
+            programs.put(key, program);
+        }
+        return program;
+    }
+
+    /**
+     * Adds a record to draw. The transform array is kept, not copied, so later changes to it
+     * show up in the next draw. Records with the same name share one DrawStats entry, so a
+     * record removed and added again keeps counting where it left off.
+     */
+    public Record add(String name, Mesh mesh, Program program, float[] model) {
+        Record record = new Record(this, mesh, program, model, statsId(name));
+        records.add(record);
+        sorted = false;
+        return record;
+    }
+
+    public void remove(Record record) {
+        records.remove(record);
+    }
+
+    public int size() {
+        return records.size();
+    }
+
+    public void setLodSelector(LodSelector lodSelector) {
+        this.lodSelector = lodSelector;
+    }
+
+    /**
+     * Lights for clustered programs, may be null
+     */
+    public void setLights(ClusteredLights lights) {
+        this.lights = lights;
+    }
+
+    /**
+     * Draws every visible record for one view. For stereo, use prepareFrame() once and
+     * drawEye() per eye instead.
+     */
+    public void draw(float[] view, float[] perspective, float[] lightPosInEyeSpace) {
+        prepareFrame(view);
+        drawEye(view, perspective, lightPosInEyeSpace);
+    }
+
+    /**
+     * Does the per-frame half of drawing: sorts, picks visible records, works out their
+     * attribute sets, and multiplies each model matrix by the frame's view once.
+     * <p>
+     * <p>centerView is the view between the eyes (head view times camera). drawEye() then only
+     * offsets each model-view by the eye's difference from it, which for GVR's eye views is a
+     * translation.
+     */
+    public void prepareFrame(float[] centerView) {
+        if (!sorted) {
+            Collections.sort(records, BY_PROGRAM_AND_MESH);
+            sorted = true;
+        }
+
+        int n = records.size();
+        if (frameRecords.length < n) {
+            frameRecords = new Record[n];
+            frameMasks = new int[n];
+            centerModelViews = new float[n * 16];
+        }
+
+        frameCount = 0;
+        boolean clustered = false;
+        for (int i = 0; i < n; i++) {
+            Record r = records.get(i);
+            if (!r.visible) {
+                continue;
+            }
+            clustered |= r.program.lightClusters >= 0;
+            int mask = 0;
+            for (int a = 0; a < NUM_ATTRIBUTES; a++) {
+                int location = r.program.attributes[a];
+                if (location >= 0 && r.mesh.buffers[a] != null) {
+                    mask |= 1 << location;
+                }
+            }
+            Matrix.multiplyMM(centerModelViews, frameCount * 16, centerView, 0, r.model, 0);
+            if (r.mesh.lodIndices != null) {
+                selectLod(r, frameCount * 16);
+            }
+            frameRecords[frameCount] = r;
+            frameMasks[frameCount] = mask;
+            frameCount++;
+        }
+
+        if (!Matrix.invertM(inverseCenterView, 0, centerView, 0)) {
+            Matrix.setIdentityM(inverseCenterView, 0);
+        }
+
+        // lights are only binned for frames that draw with them
+        if (lights != null && clustered) {
+            lights.prepareFrame(centerView);
+        }
+    }
+
+    /**
+     * Replays the frame prepared by prepareFrame() for one eye. Only the view-dependent
+     * uniforms differ between eyes.
+     */
+    public void drawEye(float[] view, float[] perspective, float[] lightPosInEyeSpace) {
+        tanHalfFovY = 1f / perspective[5];
+        Matrix.multiplyMM(eyeFromCenter, 0, view, 0, inverseCenterView, 0);
+        boolean translationOnly = isTranslation(eyeFromCenter);
+        if (lights != null) {
+            lights.prepareEye(view, perspective);
+        }
+
+        Program current = null;
+        Mesh boundMesh = null;
+        int boundArrayBuffer = -1;
+        int boundElementBuffer = -1;
+        int boundTexture = 0;
+        float[] boundColor = null;
+        int boundColorOffset = 0;
+        for (int i = 0; i < frameCount; i++) {
+            Record r = frameRecords[i];
+            if (drawStats != null) {
+                drawStats.begin(r.statsId);
+            }
+
+            if (r.program != current) {
+                current = r.program;
+                boundMesh = null;
+                boundColor = null;
+                GLES20.glUseProgram(current.id);
+                GLES20.glUniform3fv(current.lightPos, 1, lightPosInEyeSpace, 0);
+                if (lights != null && current.lightClusters >= 0) {
+                    lights.apply(current);
+                }
+            }
+
+            if (translationOnly) {
+                offsetModelView(centerModelViews, i * 16, eyeFromCenter);
+            } else {
+                Matrix.multiplyMM(modelView, 0, eyeFromCenter, 0, centerModelViews, i * 16);
+            }
+            Matrix.multiplyMM(modelViewProjection, 0, perspective, 0, modelView, 0);
+            GLES20.glUniformMatrix4fv(current.model, 1, false, r.model, 0);
+            GLES20.glUniformMatrix4fv(current.modelView, 1, false, modelView, 0);
+            GLES20.glUniformMatrix4fv(current.modelViewProjection, 1, false, modelViewProjection, 0);
+
+            // consecutive records sharing a mesh keep its pointers
+            Mesh mesh = r.mesh;
+            if (mesh != boundMesh) {
+                mesh.upload();
+                for (int a = 0; a < NUM_ATTRIBUTES; a++) {
+                    int location = current.attributes[a];
+                    if (location >= 0 && mesh.buffers[a] != null) {
+                        if (mesh.bufferNames[a] != boundArrayBuffer) {
+                            GLES20.glBindBuffer(GLES20.GL_ARRAY_BUFFER, mesh.bufferNames[a]);
+                            boundArrayBuffer = mesh.bufferNames[a];
+                        }
+                        GLES20.glVertexAttribPointer(location, mesh.sizes[a], mesh.types[a], mesh.normalized[a],
+                                mesh.strides[a], Math.max(mesh.offsets[a], 0));
+                    }
+                }
+                // attributes the program reads but the mesh lacks stay disabled
+                enableAttributes(frameMasks[i]);
+                boundMesh = mesh;
+            }
+
+            int textureBinds = 0;
+            int indexCount = 0;
+            if (mesh.indices != null) {
+                int elementBuffer = r.lodLevel > 0 ? mesh.lodBufferNames[r.lodLevel - 1] : mesh.indexBufferName;
+                if (elementBuffer != boundElementBuffer) {
+                    GLES20.glBindBuffer(GLES20.GL_ELEMENT_ARRAY_BUFFER, elementBuffer);
+                    boundElementBuffer = elementBuffer;
+                }
+            }
+            int[] rangeCounts = mesh.rangeCounts != null ? mesh.rangeCounts[r.lodLevel] : null;
+            if (rangeCounts == null) {
+                if (mesh.texture != 0 && mesh.texture != boundTexture) {
+                    GLES20.glBindTexture(GLES20.GL_TEXTURE_2D, mesh.texture);
+                    boundTexture = mesh.texture;
+                    textureBinds = 1;
+                }
+                if (current.materialColor >= 0 && (boundColor != WHITE || boundColorOffset != 0)) {
+                    GLES20.glUniform4fv(current.materialColor, 1, WHITE, 0);
+                    boundColor = WHITE;
+                    boundColorOffset = 0;
+                }
+
+                if (r.lodLevel > 0) {
+                    indexCount = mesh.lodIndexCounts[r.lodLevel - 1];
+                    GLES20.glDrawElements(GLES20.GL_TRIANGLES, indexCount, GLES20.GL_UNSIGNED_INT, 0);
+                } else if (mesh.indices != null) {
+                    indexCount = mesh.indexCount;
+                    GLES20.glDrawElements(GLES20.GL_TRIANGLES, indexCount, GLES20.GL_UNSIGNED_INT, 0);
+                } else {
+                    GLES20.glDrawArrays(GLES20.GL_TRIANGLES, 0, mesh.vertexCount);
+                }
+            } else {
+                int first = 0;
+                for (int s = 0; s < rangeCounts.length; s++) {
+                    int count = rangeCounts[s];
+                    if (count == 0) {
+                        continue;
+                    }
+                    int texture = mesh.rangeTextures[s];
+                    if (texture != 0 && texture != boundTexture) {
+                        GLES20.glBindTexture(GLES20.GL_TEXTURE_2D, texture);
+                        boundTexture = texture;
+                        textureBinds++;
+                    }
+                    if (current.materialColor >= 0 && (boundColor != mesh.rangeColors || boundColorOffset != s * 4)) {
+                        GLES20.glUniform4fv(current.materialColor, 1, mesh.rangeColors, s * 4);
+                        boundColor = mesh.rangeColors;
+                        boundColorOffset = s * 4;
+                    }
+                    GLES20.glDrawElements(GLES20.GL_TRIANGLES, count, GLES20.GL_UNSIGNED_INT, first * 4);
+                    first += count;
+                    indexCount += count;
+                }
+            }
+
+            if (drawStats != null) {
+                drawStats.end(r.statsId, mesh.vertexCount, indexCount, mesh.bytes, textureBinds);
+            }
+        }
+
+        // leave no arrays enabled or buffers bound for whoever draws next (eg the distortion pass)
+        enableAttributes(0);
+        GLES20.glBindBuffer(GLES20.GL_ARRAY_BUFFER, 0);
+        GLES20.glBindBuffer(GLES20.GL_ELEMENT_ARRAY_BUFFER, 0);
+    }
+
+    /**
+     * Forgets looked-up programs, eg after the GL context was lost. The GL objects
+     * belong to the ProgramCache.
+     */
+    public void releasePrograms() {
+        programs.clear();
+        enabledAttributes = 0;
+    }
+
+    //
+
+    private int statsId(String name) {
+        if (drawStats == null) {
+            return -1;
+        }
+        Integer id = statsIds.get(name);
+        if (id == null) {
+            id = drawStats.register(name);
+            statsIds.put(name, id);
+        }
+        return id;
+    }
+
+    /**
+     * Picks the record's level of detail from its bounding sphere's size on screen. The sphere
+     * is scaled by the length of the model matrix's first column, ie assumes uniform scale.
+     */
+    private void selectLod(Record r, int modelViewOffset) {
+        float[] mv = centerModelViews;
+        Mesh mesh = r.mesh;
+        float x = mv[modelViewOffset] * mesh.centerX + mv[modelViewOffset + 4] * mesh.centerY
+                + mv[modelViewOffset + 8] * mesh.centerZ + mv[modelViewOffset + 12];
+        float y = mv[modelViewOffset + 1] * mesh.centerX + mv[modelViewOffset + 5] * mesh.centerY
+                + mv[modelViewOffset + 9] * mesh.centerZ + mv[modelViewOffset + 13];
+        float z = mv[modelViewOffset + 2] * mesh.centerX + mv[modelViewOffset + 6] * mesh.centerY
+                + mv[modelViewOffset + 10] * mesh.centerZ + mv[modelViewOffset + 14];
+        float distance = (float) Math.sqrt(x * x + y * y + z * z);
+
+        float[] m = r.model;
+        float scale = (float) Math.sqrt(m[0] * m[0] + m[1] * m[1] + m[2] * m[2]);
+        float size = LodSelector.projectedSize(mesh.radius * scale, distance, tanHalfFovY);
+        r.lodLevel = lodSelector.select(size, r.lodLevel, mesh.lodIndices.length);
+    }
+
+    private static boolean isTranslation(float[] m) {
+        final float eps = 1e-5f;
+        return Math.abs(m[0] - 1) < eps && Math.abs(m[5] - 1) < eps && Math.abs(m[10] - 1) < eps
+                && Math.abs(m[1]) < eps && Math.abs(m[2]) < eps && Math.abs(m[4]) < eps
+                && Math.abs(m[6]) < eps && Math.abs(m[8]) < eps && Math.abs(m[9]) < eps
+                && Math.abs(m[3]) < eps && Math.abs(m[7]) < eps && Math.abs(m[11]) < eps && Math.abs(m[15] - 1) < eps;
+    }
+
+    /**
+     * modelView = translation * src, for a translation-only matrix: 12 multiply-adds
+     * instead of a full product.
+     */
+    private void offsetModelView(float[] src, int offset, float[] translation) {
+        float tx = translation[12];
+        float ty = translation[13];
+        float tz = translation[14];
+        for (int c = 0; c < 16; c += 4) {
+            float w = src[offset + c + 3];
+            modelView[c] = src[offset + c] + tx * w;
+            modelView[c + 1] = src[offset + c + 1] + ty * w;
+            modelView[c + 2] = src[offset + c + 2] + tz * w;
+            modelView[c + 3] = w;
+        }
+    }
+
+    private void enableAttributes(int mask) {
+        int changed = enabledAttributes ^ mask;
+        for (int location = 0; changed != 0; location++, changed >>>= 1) {
+            if ((changed & 1) == 0) {
+                continue;
+            }
+            if ((mask & (1 << location)) != 0) {
+                GLES20.glEnableVertexAttribArray(location);
+            } else {
+                GLES20.glDisableVertexAttribArray(location);
+            }
+        }
+        enabledAttributes = mask;
+    }
+
+    private String readRawTextFile(int resId) {
+        InputStream inputStream = resources.openRawResource(resId);
+        try {
+            BufferedReader reader = new BufferedReader(new InputStreamReader(inputStream));
+            StringBuilder sb = new StringBuilder();
+            String line;
+            while ((line = reader.readLine()) != null) {
+                sb.append(line).append("\n");
+            }
+            reader.close();
+            return sb.toString();
+        } catch (IOException e) {
+            throw new RuntimeException("Error reading shader " + resId, e);
+        }
+    }
+
+    /**
+     * A linked program with its attribute and uniform locations (-1 where unused).
+     */
+    public static final class Program {
+        final int id;
+        final int[] attributes = new int[NUM_ATTRIBUTES];
+        final int model;
+        final int modelView;
+        final int modelViewProjection;
+        final int lightPos;
+        final int materialColor;
+        final int lightPosRange;
+        final int lightColor;
+        final int lightClusters;
+        final int clusterTan;
+        final int clusterDepth;
+
+        Program(int id) {
+            this.id = id;
+            for (int a = 0; a < NUM_ATTRIBUTES; a++) {
+                attributes[a] = GLES20.glGetAttribLocation(id, ATTRIBUTE_NAMES[a]);
+            }
+
+            model = GLES20.glGetUniformLocation(id, "u_Model");
+            modelView = GLES20.glGetUniformLocation(id, "u_MVMatrix");
+            modelViewProjection = GLES20.glGetUniformLocation(id, "u_MVP");
+            lightPos = GLES20.glGetUniformLocation(id, "u_LightPos");
+            materialColor = GLES20.glGetUniformLocation(id, "u_MaterialColor");
+            lightPosRange = GLES20.glGetUniformLocation(id, "u_LightPosRange");
+            lightColor = GLES20.glGetUniformLocation(id, "u_LightColor");
+            lightClusters = GLES20.glGetUniformLocation(id, "u_LightClusters");
+            clusterTan = GLES20.glGetUniformLocation(id, "u_ClusterTan");
+            clusterDepth = GLES20.glGetUniformLocation(id, "u_ClusterDepth");
+        }
+    }
+
+    /**
+     * Vertex attribute buffers and optional 32-bit indices, drawn as triangles.
+     */
+    public static final class Mesh {
+        // meshes are built on loader threads too
+        private static final AtomicInteger nextId = new AtomicInteger();
+
+        // sort key, unique per mesh
+        final int id = nextId.getAndIncrement();
+        final Buffer[] buffers = new Buffer[NUM_ATTRIBUTES];
+        final int[] sizes = new int[NUM_ATTRIBUTES];
+        final int[] types = new int[NUM_ATTRIBUTES];
+        final boolean[] normalized = new boolean[NUM_ATTRIBUTES];
+        final int[] strides = new int[NUM_ATTRIBUTES];
+        final int vertexCount;
+        IntBuffer indices;
+        int indexCount;
+        int bytes;
+
+        // LOD 1, 2, ...; the full index list is LOD 0
+        IntBuffer[] lodIndices;
+        int[] lodIndexCounts;
+
+        // GL texture on unit 0, or 0 for none
+        int texture;
+
+        // sub-meshes: index count per range for each level (null for a level drawn whole),
+        // and per range a texture and an RGBA color
+        int[][] rangeCounts;
+        int[] rangeTextures;
+        float[] rangeColors;
+
+        // GL buffer objects, made from the client buffers above the first time the mesh is
+        // drawn, so each draw (two a frame in stereo) reads GPU memory instead of the driver
+        // copying the arrays again. Interleaved attributes share one buffer: offsets holds each
+        // one's byte offset into it, or -1 for an attribute with a buffer of its own.
+        ByteBuffer interleaved;
+        int interleavedBytes;
+        final int[] offsets = {-1, -1, -1, -1};
+        final int[] bufferNames = new int[NUM_ATTRIBUTES];
+        int indexBufferName;
+        int[] lodBufferNames;
+        private int[] glBuffers;
+
+        // bounding sphere, in model space
+        float centerX;
+        float centerY;
+        float centerZ;
+        float radius;
+
+        private Mesh(int vertexCount) {
+            this.vertexCount = vertexCount;
+        }
+
+        /**
+         * Interleaved min3d vertices with an index list.
+         */
+        public static Mesh fromVertices(Vertices vertices, int[] indices) {
+            VertexLayout layout = vertices.layout();
+            int stride = layout.stride();
+            Mesh mesh = new Mesh(vertices.size());
+
+            mesh.set(POSITION, vertices.attributeBuffer(layout.positionOffset()), 3, GLES20.GL_FLOAT, false, stride);
+            if (layout.hasNormals()) {
+                // Packed byte normals are normalized back to [-1,1] by GL.
+                mesh.set(NORMAL, vertices.attributeBuffer(layout.normalOffset()), 3, layout.normalGlType(),
+                        layout.packedNormals(), stride);
+            }
+            if (layout.hasUvs()) {
+                mesh.set(TEXTURE_COORD, vertices.attributeBuffer(layout.uvOffset()), 2, layout.uvGlType(), false, stride);
+            }
+            if (layout.hasColors()) {
+                mesh.set(COLOR, vertices.attributeBuffer(layout.colorOffset()), 4, GLES20.GL_UNSIGNED_BYTE, true, stride);
+            }
+            mesh.interleaved = vertices.interleavedBuffer();
+            mesh.interleavedBytes = vertices.size() * stride;
+            mesh.offsets[POSITION] = layout.positionOffset();
+            mesh.offsets[NORMAL] = layout.normalOffset();
+            mesh.offsets[TEXTURE_COORD] = layout.uvOffset();
+            mesh.offsets[COLOR] = layout.colorOffset();
+            mesh.bytes = vertices.size() * stride;
+            mesh.indices = intBuffer(indices);
+            mesh.indexCount = indices.length;
+            mesh.bytes += indices.length * 4;
+
+            ByteBuffer interleaved = vertices.attributeBuffer(layout.positionOffset());
+            float[] positions = new float[vertices.size() * 3];
+            for (int i = 0; i < vertices.size(); i++) {
+                positions[i * 3] = interleaved.getFloat(i * stride);
+                positions[i * 3 + 1] = interleaved.getFloat(i * stride + 4);
+                positions[i * 3 + 2] = interleaved.getFloat(i * stride + 8);
+            }
+            mesh.setBounds(positions);
+            return mesh;
+        }
+
+        /**
+         * Unindexed float arrays: xyz positions, xyz normals and RGBA colors. Normals and
+         * colors may be null.
+         */
+        public static Mesh fromArrays(float[] positions, float[] normals, float[] colors) {
+            Mesh mesh = new Mesh(positions.length / 3);
+            mesh.set(POSITION, floatBuffer(positions), 3, GLES20.GL_FLOAT, false, 0);
+            mesh.bytes = positions.length * 4;
+            mesh.setBounds(positions);
+            if (normals != null) {
+                mesh.set(NORMAL, floatBuffer(normals), 3, GLES20.GL_FLOAT, false, 0);
+                mesh.bytes += normals.length * 4;
+            }
+            if (colors != null) {
+                mesh.set(COLOR, floatBuffer(colors), 4, GLES20.GL_FLOAT, false, 0);
+                mesh.bytes += colors.length * 4;
+            }
+            return mesh;
+        }
+
+        /**
+         * Same buffers as this mesh, with the color attribute replaced.
+         */
+        public Mesh withColors(float[] colors) {
+            Mesh mesh = new Mesh(vertexCount);
+            for (int a = 0; a < NUM_ATTRIBUTES; a++) {
+                mesh.set(a, buffers[a], sizes[a], types[a], normalized[a], strides[a]);
+                mesh.offsets[a] = offsets[a];
+            }
+            mesh.interleaved = interleaved;
+            mesh.interleavedBytes = interleavedBytes;
+            mesh.set(COLOR, floatBuffer(colors), 4, GLES20.GL_FLOAT, false, 0);
+            mesh.indices = indices;
+            mesh.indexCount = indexCount;
+            mesh.bytes = bytes;
+            mesh.lodIndices = lodIndices;
+            mesh.lodIndexCounts = lodIndexCounts;
+            mesh.texture = texture;
+            mesh.rangeCounts = rangeCounts;
+            mesh.rangeTextures = rangeTextures;
+            mesh.rangeColors = rangeColors;
+            mesh.centerX = centerX;
+            mesh.centerY = centerY;
+            mesh.centerZ = centerZ;
+            mesh.radius = radius;
+            return mesh;
+        }
+
+        /**
+         * Sets coarser index lists into the same vertices, eg from MeshSimplifier, drawn as
+         * the mesh gets smaller on screen. Only for indexed meshes. Call before the mesh is
+         * first drawn; building them is fine on any thread.
+         *
+         * @param levels LOD 1, 2, ...
+         */
+        public void setLods(int[][] levels) {
+            if (indices == null) {
+                throw new IllegalStateException("LODs need an indexed mesh");
+            }
+            lodIndices = new IntBuffer[levels.length];
+            lodIndexCounts = new int[levels.length];
+            for (int l = 0; l < levels.length; l++) {
+                lodIndices[l] = intBuffer(levels[l]);
+                lodIndexCounts[l] = levels[l].length;
+                bytes += levels[l].length * 4;
+            }
+            if (rangeCounts != null) {
+                rangeCounts = Arrays.copyOf(rangeCounts, levels.length + 1);
+            }
+        }
+
+        /**
+         * As setLods(), with each level split into the same sub-meshes as the full index list.
+         * Call after setSubMeshes().
+         *
+         * @param levelRangeCounts per level, the index count of each sub-mesh in turn
+         */
+        public void setLods(int[][] levels, int[][] levelRangeCounts) {
+            if (rangeCounts == null) {
+                throw new IllegalStateException("Set the sub-meshes first");
+            }
+            setLods(levels);
+            for (int l = 0; l < levels.length; l++) {
+                checkRanges(levelRangeCounts[l], levels[l].length);
+                rangeCounts[l + 1] = levelRangeCounts[l];
+            }
+        }
+
+        /**
+         * Splits the index list into sub-meshes drawn one after the other, each with its own
+         * texture and color (see setMaterial()). They start untextured and white. Only for
+         * indexed meshes. LODs set earlier are drawn whole unless there's a single sub-mesh;
+         * use setLods(levels, levelRangeCounts) to split them. Call before the mesh is first drawn.
+         *
+         * @param counts the index count of each sub-mesh in turn; they must add up to the whole list
+         */
+        public void setSubMeshes(int[] counts) {
+            if (indices == null) {
+                throw new IllegalStateException("Sub-meshes need an indexed mesh");
+            }
+            checkRanges(counts, indexCount);
+            rangeCounts = new int[lodIndices != null ? lodIndices.length + 1 : 1][];
+            rangeCounts[0] = counts;
+            if (counts.length == 1) {
+                // a single range covers each LOD whole too
+                for (int l = 1; l < rangeCounts.length; l++) {
+                    rangeCounts[l] = new int[] {lodIndexCounts[l - 1]};
+                }
+            }
+            rangeTextures = new int[counts.length];
+            rangeColors = new float[counts.length * 4];
+            Arrays.fill(rangeColors, 1);
+        }
+
+        /**
+         * Texture bound to unit 0, or 0 for none, and u_MaterialColor while a sub-mesh is
+         * drawn. The renderer doesn't own the texture.
+         */
+        public void setMaterial(int subMesh, int texture, float r, float g, float b, float a) {
+            rangeTextures[subMesh] = texture;
+            rangeColors[subMesh * 4] = r;
+            rangeColors[subMesh * 4 + 1] = g;
+            rangeColors[subMesh * 4 + 2] = b;
+            rangeColors[subMesh * 4 + 3] = a;
+        }
+
+        public int getSubMeshCount() {
+            return rangeTextures != null ? rangeTextures.length : 1;
+        }
+
+        private void checkRanges(int[] counts, int total) {
+            if (rangeTextures != null && counts.length != rangeTextures.length) {
+                throw new IllegalArgumentException(counts.length + " sub-meshes, expected " + rangeTextures.length);
+            }
+            int sum = 0;
+            for (int count : counts) {
+                sum += count;
+            }
+            if (sum != total) {
+                throw new IllegalArgumentException("Sub-meshes cover " + sum + " of " + total + " indices");
+            }
+        }
+
+        /**
+         * Texture bound to unit 0 while the mesh is drawn. The renderer doesn't own it.
+         */
+        public void setTexture(int texture) {
+            this.texture = texture;
+        }
+
+        public int getVertexCount() {
+            return vertexCount;
+        }
+
+        public int getIndexCount() {
+            return indexCount;
+        }
+
+        /**
+         * Deletes the GL buffer objects made when the mesh was first drawn, eg when a streamed
+         * mesh is evicted. GL thread only. Drawing the mesh again uploads it again.
+         */
+        public void release() {
+            if (glBuffers != null) {
+                GLES20.glDeleteBuffers(glBuffers.length, glBuffers, 0);
+                glBuffers = null;
+            }
+        }
+
+        /**
+         * Copies the vertex and index data into GL buffer objects, once. GL thread only.
+         */
+        void upload() {
+            if (glBuffers != null) {
+                return;
+            }
+            int count = (interleaved != null ? 1 : 0) + (indices != null ? 1 : 0)
+                    + (lodIndices != null ? lodIndices.length : 0);
+            for (int a = 0; a < NUM_ATTRIBUTES; a++) {
+                if (buffers[a] != null && offsets[a] < 0) {
+                    count++;
+                }
+            }
+            glBuffers = new int[count];
+            GLES20.glGenBuffers(count, glBuffers, 0);
+
+            int next = 0;
+            int interleavedName = 0;
+            if (interleaved != null) {
+                interleavedName = glBuffers[next++];
+                bufferData(GLES20.GL_ARRAY_BUFFER, interleavedName, interleaved, interleavedBytes);
+            }
+            for (int a = 0; a < NUM_ATTRIBUTES; a++) {
+                if (buffers[a] == null) {
+                    continue;
+                }
+                if (offsets[a] >= 0) {
+                    bufferNames[a] = interleavedName;
+                } else {
+                    bufferNames[a] = glBuffers[next++];
+                    bufferData(GLES20.GL_ARRAY_BUFFER, bufferNames[a], buffers[a],
+                            buffers[a] instanceof ByteBuffer ? buffers[a].limit() : buffers[a].limit() * 4);
+                }
+            }
+            if (indices != null) {
+                indexBufferName = glBuffers[next++];
+                bufferData(GLES20.GL_ELEMENT_ARRAY_BUFFER, indexBufferName, indices, indexCount * 4);
+            }
+            if (lodIndices != null) {
+                lodBufferNames = new int[lodIndices.length];
+                for (int l = 0; l < lodIndices.length; l++) {
+                    lodBufferNames[l] = glBuffers[next++];
+                    bufferData(GLES20.GL_ELEMENT_ARRAY_BUFFER, lodBufferNames[l], lodIndices[l], lodIndexCounts[l] * 4);
+                }
+            }
+            GLES20.glBindBuffer(GLES20.GL_ARRAY_BUFFER, 0);
+            GLES20.glBindBuffer(GLES20.GL_ELEMENT_ARRAY_BUFFER, 0);
+        }
+
+        private static void bufferData(int target, int name, Buffer data, int bytes) {
+            data.position(0);
+            GLES20.glBindBuffer(target, name);
+            GLES20.glBufferData(target, bytes, data, GLES20.GL_STATIC_DRAW);
+        }
+
+        private void set(int attribute, Buffer buffer, int size, int type, boolean normalize, int stride) {
+            offsets[attribute] = -1;
+            buffers[attribute] = buffer;
+            sizes[attribute] = size;
+            types[attribute] = type;
+            normalized[attribute] = normalize;
+            strides[attribute] = stride;
+        }
+
+        private void setBounds(float[] positions) {
+            float minX = Float.MAX_VALUE, minY = Float.MAX_VALUE, minZ = Float.MAX_VALUE;
+            float maxX = -Float.MAX_VALUE, maxY = -Float.MAX_VALUE, maxZ = -Float.MAX_VALUE;
+            for (int i = 0; i < positions.length; i += 3) {
+                minX = Math.min(minX, positions[i]);
+                maxX = Math.max(maxX, positions[i]);
+                minY = Math.min(minY, positions[i + 1]);
+                maxY = Math.max(maxY, positions[i + 1]);
+                minZ = Math.min(minZ, positions[i + 2]);
+                maxZ = Math.max(maxZ, positions[i + 2]);
+            }
+            if (positions.length == 0) {
+                return;
+            }
+            centerX = (minX + maxX) / 2;
+            centerY = (minY + maxY) / 2;
+            centerZ = (minZ + maxZ) / 2;
+            float radius2 = 0;
+            for (int i = 0; i < positions.length; i += 3) {
+                float dx = positions[i] - centerX;
+                float dy = positions[i + 1] - centerY;
+                float dz = positions[i + 2] - centerZ;
+                radius2 = Math.max(radius2, dx * dx + dy * dy + dz * dz);
+            }
+            radius = (float) Math.sqrt(radius2);
+        }
+
+        private static IntBuffer intBuffer(int[] data) {
+            ByteBuffer bb = ByteBuffer.allocateDirect(data.length * 4);
+            bb.order(ByteOrder.nativeOrder());
+            IntBuffer buffer = bb.asIntBuffer();
+            buffer.put(data);
+            buffer.position(0);
+            return buffer;
+        }
+
+        private static FloatBuffer floatBuffer(float[] data) {
+            ByteBuffer bb = ByteBuffer.allocateDirect(data.length * 4);
+            bb.order(ByteOrder.nativeOrder());
+            FloatBuffer buffer = bb.asFloatBuffer();
+            buffer.put(data);
+            buffer.position(0);
+            return buffer;
+        }
+    }
+
+    /**
+     * One thing to draw: a mesh, the program that shades it and its model matrix.
+     */
+    public static final class Record {
+        private final MeshRenderer renderer;
+        Mesh mesh;
+        Program program;
+        final float[] model;
+        final int statsId;
+        boolean visible = true;
+        int lodLevel;
+
+        Record(MeshRenderer renderer, Mesh mesh, Program program, float[] model, int statsId) {
+            this.renderer = renderer;
+            this.mesh = mesh;
+            this.program = program;
+            this.model = model;
+            this.statsId = statsId;
+        }
+
+        public void setMesh(Mesh mesh) {
+            if (mesh != this.mesh) {
+                this.mesh = mesh;
+                lodLevel = 0;
+                renderer.sorted = false;
+            }
+        }
+
+        public void setProgram(Program program) {
+            if (program != this.program) {
+                this.program = program;
+                renderer.sorted = false;
+            }
+        }
+
+        public void setVisible(boolean visible) {
+            this.visible = visible;
+        }
+
+        public float[] getModel() {
+            return model;
+        }
+
+        /**
+         * Level of detail picked by the last prepareFrame(); 0 is full detail
+         */
+        public int getLodLevel() {
+            return lodLevel;
+        }
+    }
+}
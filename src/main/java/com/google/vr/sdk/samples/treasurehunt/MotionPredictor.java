@@ -0,0 +1,122 @@
+package com.google.vr.sdk.samples.treasurehunt;
+
+/**
+ * Extrapolates where the viewer will be from where they have recently been.
+ * <p>
+ * <p>Keeps the last few positions and fits a velocity to the ones inside a short window by
+ * least squares, so a single jittery head transform doesn't swing the prediction. Call from
+ * one thread.
+ */
+public class MotionPredictor {
+
+    private static final int CAPACITY = 32;
+    private static final long DEFAULT_WINDOW_NANOS = 500000000L;
+
+    private final long[] times = new long[CAPACITY];
+    private final float[] positions = new float[CAPACITY * 3];
+    private final float[] velocity = new float[3];
+    private int count;
+    private int newest = -1;
+    private long windowNanos = DEFAULT_WINDOW_NANOS;
+
+    /**
+     * How far back samples count towards the velocity. Shorter reacts faster to turns,
+     * longer is steadier.
+     */
+    public void setWindow(long nanos) {
+        windowNanos = Math.max(1, nanos);
+    }
+
+    /**
+     * Records the position at a time, eg once per frame. Times must not go backwards.
+     */
+    public void add(long nanos, float x, float y, float z) {
+        newest = (newest + 1) % CAPACITY;
+        times[newest] = nanos;
+        positions[newest * 3] = x;
+        positions[newest * 3 + 1] = y;
+        positions[newest * 3 + 2] = z;
+        count = Math.min(count + 1, CAPACITY);
+        fitVelocity();
+    }
+
+    public void reset() {
+        count = 0;
+        newest = -1;
+        velocity[0] = velocity[1] = velocity[2] = 0;
+    }
+
+    /**
+     * Units per second; zero until there are two samples.
+     */
+    public float[] getVelocity(float[] out) {
+        out[0] = velocity[0];
+        out[1] = velocity[1];
+        out[2] = velocity[2];
+        return out;
+    }
+
+    /**
+     * Position expected after the given number of seconds from the newest sample, assuming
+     * constant velocity.
+     */
+    public float[] predict(float seconds, float[] out) {
+        if (count == 0) {
+            out[0] = out[1] = out[2] = 0;
+            return out;
+        }
+        int p = newest * 3;
+        out[0] = positions[p] + velocity[0] * seconds;
+        out[1] = positions[p + 1] + velocity[1] * seconds;
+        out[2] = positions[p + 2] + velocity[2] * seconds;
+        return out;
+    }
+
+    //
+
+    private void fitVelocity() {
+        long now = times[newest];
+        int n = 0;
+        double st = 0;
+        double sx = 0;
+        double sy = 0;
+        double sz = 0;
+        for (int i = 0, s = newest; i < count; i++, s = (s + CAPACITY - 1) % CAPACITY) {
+            if (now - times[s] > windowNanos) {
+                break;
+            }
+            st += (times[s] - now) * 1e-9;
+            sx += positions[s * 3];
+            sy += positions[s * 3 + 1];
+            sz += positions[s * 3 + 2];
+            n++;
+        }
+        if (n < 2) {
+            velocity[0] = velocity[1] = velocity[2] = 0;
+            return;
+        }
+
+        double mt = st / n;
+        double mx = sx / n;
+        double my = sy / n;
+        double mz = sz / n;
+        double tt = 0;
+        double tx = 0;
+        double ty = 0;
+        double tz = 0;
+        for (int i = 0, s = newest; i < n; i++, s = (s + CAPACITY - 1) % CAPACITY) {
+            double dt = (times[s] - now) * 1e-9 - mt;
+            tt += dt * dt;
+            tx += dt * (positions[s * 3] - mx);
+            ty += dt * (positions[s * 3 + 1] - my);
+            tz += dt * (positions[s * 3 + 2] - mz);
+        }
+        if (tt == 0) {
+            velocity[0] = velocity[1] = velocity[2] = 0;
+            return;
+        }
+        velocity[0] = (float) (tx / tt);
+        velocity[1] = (float) (ty / tt);
+        velocity[2] = (float) (tz / tt);
+    }
+}
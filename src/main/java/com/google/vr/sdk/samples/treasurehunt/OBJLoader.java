@@ -1,5 +1,9 @@
 package com.google.vr.sdk.samples.treasurehunt;
 import android.speech.RecognitionService;
+import android.util.Log;
+
+import min3d.mesh.NormalGenerator;
+import min3d.mesh.VertexCacheOptimizer;
 
 import java.util.ArrayList;
 import java.util.Arrays;
@@ -12,18 +16,33 @@ import java.util.regex.Pattern;
  */
 
 public class OBJLoader {
+    private static final String TAG = "OBJLoader";
+
     private String objectData;
     private List<Float> verts;
     private List<Float> vertNormals;
     private List<Float> textures;
     public Unpacked unpacked;
 
+    private float[] vertices;
+    private float[] normals;
+    private float[] textureCoords;
+    private int[] indices;
+
+    // usemtl names in first-use order; null for faces before any usemtl
+    private final List<String> materialNames = new ArrayList<>();
+    private final HashMap<String, Integer> materialIds = new HashMap<>();
+    private String materialLibrary;
+    private List<SubMesh> subMeshes;
+
     class Unpacked {
         List<Float> verts;
         List<Float> norms;
         List<Float> textures;
         HashMap<String, Integer> hashIndices;
         List<Integer> indices;
+        // material id per triangle
+        List<Integer> materials;
         int index = 0;
 
         public Unpacked() {
@@ -32,40 +51,55 @@ public class OBJLoader {
             textures = new ArrayList<>();
             hashIndices = new HashMap<>();
             indices = new ArrayList<>();
+            materials = new ArrayList<>();
         }
     }
-    public float[] getVertices(){
-        float[] res;
-        res = new float[unpacked.verts.size()];
-        for (int ii = 0;ii<unpacked.verts.size();ii++){
-            res[ii] = unpacked.verts.get(ii);
+
+    /**
+     * The triangles of one material: a contiguous range of the index list.
+     */
+    public static final class SubMesh {
+        /**
+         * The usemtl name, or null for faces before any usemtl
+         */
+        public final String material;
+        public final int firstIndex;
+        public final int indexCount;
+
+        SubMesh(String material, int firstIndex, int indexCount) {
+            this.material = material;
+            this.firstIndex = firstIndex;
+            this.indexCount = indexCount;
         }
-        return res;
+    }
+
+    public float[] getVertices(){
+        return vertices;
     }
     public float[] getNormals(){
-        float[] res;
-        res = new float[unpacked.norms.size()];
-        for (int i = 0;i<res.length;i++){
-            res[i] = unpacked.norms.get(i);
-        }
-        return res;
+        return normals;
     }
     public float[] getTexture(){
-        float[] res;
-        res = new float[unpacked.textures.size()];
-        for (int i = 0;i<res.length;i++){
-            res[i] = unpacked.textures.get(i);
-        }
-        return res;
+        return textureCoords;
     }
     public int[] getIndex(){
-        int[] res;
-        res = new int[unpacked.indices.size()];
-        for (int i=0;i<res.length;i++){
-            res[i] = unpacked.indices.get(i);
-        }
-        return res;
+        return indices;
+    }
+
+    /**
+     * The index list's ranges, one per material, in the order the file first uses them
+     */
+    public List<SubMesh> getSubMeshes() {
+        return subMeshes;
+    }
+
+    /**
+     * The file named by the first mtllib line, or null
+     */
+    public String getMaterialLibrary() {
+        return materialLibrary;
     }
+
     public OBJLoader(String data) {
         objectData = data;
 
@@ -79,7 +113,10 @@ public class OBJLoader {
         Pattern NORMAL_RE = Pattern.compile("^vn\\s");
         Pattern TEXTURE_RE = Pattern.compile("^vt\\s");
         Pattern FACE_RE = Pattern.compile("^f\\s");
+        Pattern USE_MATERIAL_RE = Pattern.compile("^usemtl\\s");
+        Pattern MATERIAL_LIB_RE = Pattern.compile("^mtllib\\s");
         String WHITESPACE_RE = "\\s+";
+        String material = null;
 
         for (int i = 0; i < lines.length; i++) {
             String line = lines[i].trim();
@@ -98,17 +135,25 @@ public class OBJLoader {
                 for (String element: elements) {
                     textures.add(Float.valueOf(element));
                 }
+            } else if (USE_MATERIAL_RE.matcher(line).find()) {
+                material = elements.length > 0 ? elements[0] : null;
+            } else if (MATERIAL_LIB_RE.matcher(line).find()) {
+                if (materialLibrary == null && elements.length > 0) {
+                    materialLibrary = elements[0];
+                }
             } else if (FACE_RE.matcher(line).find()) {
-                boolean quad = false;
+                Integer materialId = materialIds.get(material);
+                if (materialId == null) {
+                    materialId = materialNames.size();
+                    materialIds.put(material, materialId);
+                    materialNames.add(material);
+                }
+                int firstIndex = unpacked.indices.size();
+                int[] corners = new int[elements.length];
 
                 for (int j = 0, eleLen = elements.length; j < eleLen; j++) {
-                    if(j == 3 && !quad) {
-                        j = 2;
-                        quad = true;
-                    }
-
                     if(unpacked.hashIndices.containsKey(elements[j])) {
-                        unpacked.indices.add(unpacked.hashIndices.get(elements[j]));
+                        corners[j] = unpacked.hashIndices.get(elements[j]);
                     } else {
                         String[] vertex = elements[j].split("/");
 
@@ -128,16 +173,89 @@ public class OBJLoader {
                         }
 
                         unpacked.hashIndices.put(elements[j], unpacked.index);
-                        unpacked.indices.add(unpacked.index);
+                        corners[j] = unpacked.index;
                         unpacked.index++;
 
                     }
+                }
 
-                    if(j == 3 && quad) {
-                        unpacked.indices.add(unpacked.hashIndices.get(elements[0]));
-                    }
+                // a fan, so quads and larger polygons come out as whole triangles
+                for (int j = 2; j < corners.length; j++) {
+                    unpacked.indices.add(corners[0]);
+                    unpacked.indices.add(corners[j - 1]);
+                    unpacked.indices.add(corners[j]);
+                }
+
+                for (int t = firstIndex; t < unpacked.indices.size(); t += 3) {
+                    unpacked.materials.add(materialId);
                 }
             }
         }
+
+        optimizeCacheOrder();
+    }
+
+    /**
+     * Flattens the unpacked lists, grouping triangles by material into one range each,
+     * reordering each range for post-transform vertex cache reuse and vertices into
+     * first-use order.
+     */
+    private void optimizeCacheOrder() {
+        int vertexCount = unpacked.index;
+        int[] unordered = new int[unpacked.indices.size()];
+        for (int i = 0; i < unordered.length; i++) {
+            unordered[i] = unpacked.indices.get(i);
+        }
+        float before = VertexCacheOptimizer.acmr(unordered, vertexCount, VertexCacheOptimizer.DEFAULT_CACHE_SIZE);
+
+        // a stable counting sort of the triangles by material
+        int numMaterials = materialNames.size();
+        int[] starts = new int[numMaterials + 1];
+        for (int t = 0; t < unpacked.materials.size(); t++) {
+            starts[unpacked.materials.get(t) + 1] += 3;
+        }
+        for (int m = 0; m < numMaterials; m++) {
+            starts[m + 1] += starts[m];
+        }
+        int[] ordered = new int[unordered.length];
+        int[] next = Arrays.copyOf(starts, numMaterials);
+        for (int t = 0; t < unpacked.materials.size(); t++) {
+            int m = unpacked.materials.get(t);
+            System.arraycopy(unordered, t * 3, ordered, next[m], 3);
+            next[m] += 3;
+        }
+
+        subMeshes = new ArrayList<>(numMaterials);
+        for (int m = 0; m < numMaterials; m++) {
+            int count = starts[m + 1] - starts[m];
+            int[] range = Arrays.copyOfRange(ordered, starts[m], starts[m + 1]);
+            range = VertexCacheOptimizer.optimizeTriangleOrder(range, vertexCount, VertexCacheOptimizer.DEFAULT_CACHE_SIZE);
+            System.arraycopy(range, 0, ordered, starts[m], count);
+            subMeshes.add(new SubMesh(materialNames.get(m), starts[m], count));
+        }
+
+        float after = VertexCacheOptimizer.acmr(ordered, vertexCount, VertexCacheOptimizer.DEFAULT_CACHE_SIZE);
+        int[] remap = VertexCacheOptimizer.optimizeVertexFetch(ordered, vertexCount);
+
+        indices = ordered;
+        vertices = VertexCacheOptimizer.remapVertexData(toArray(unpacked.verts), 3, remap);
+        normals = VertexCacheOptimizer.remapVertexData(toArray(unpacked.norms), 3, remap);
+        if (normals.length == 0 && vertexCount > 0) {
+            // no vn lines in the file
+            normals = NormalGenerator.smoothNormals(vertices, indices, vertexCount);
+        }
+        textureCoords = VertexCacheOptimizer.remapVertexData(toArray(unpacked.textures), 2, remap);
+
+        Log.i(TAG, "Vertex cache ACMR " + before + " -> " + after
+                + " (" + vertexCount + " vertices, " + ordered.length / 3 + " triangles, "
+                + numMaterials + " materials)");
+    }
+
+    private static float[] toArray(List<Float> list) {
+        float[] res = new float[list.size()];
+        for (int i = 0; i < res.length; i++) {
+            res[i] = list.get(i);
+        }
+        return res;
     }
 }
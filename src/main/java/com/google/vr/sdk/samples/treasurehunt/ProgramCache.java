@@ -0,0 +1,258 @@
+package com.google.vr.sdk.samples.treasurehunt;
+
+import android.opengl.GLES20;
+import android.opengl.GLES30;
+import android.util.Log;
+
+import java.io.Closeable;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.UnsupportedEncodingException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.IntBuffer;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Compiles and links GLES20 programs once per distinct pair of shader sources.
+ * <p>
+ * <p>Programs and shaders are keyed by a SHA-1 of their source, so identical shaders loaded from
+ * different places share one GL object. When the context can hand out program binaries, linked
+ * programs are also written to a directory and reloaded from there on the next cold start,
+ * skipping compile and link. Binaries are keyed by driver too, and a binary the driver
+ * rejects is rebuilt from source.
+ * <p>
+ * <p>Programs belong to one GL context: make a new cache when the surface is recreated.
+ */
+public class ProgramCache {
+
+    private static final String TAG = "ProgramCache";
+
+    private final File binaryDir;
+    private final Map<String, Integer> programs = new HashMap<String, Integer>();
+    private final Map<String, Integer> shaders = new HashMap<String, Integer>();
+
+    private Boolean binariesSupported;
+    private String driver;
+
+    /**
+     * @param binaryDir where linked program binaries are kept, or null to not persist them
+     */
+    public ProgramCache(File binaryDir) {
+        this.binaryDir = binaryDir;
+    }
+
+    /**
+     * Returns a linked program for the sources, building it on first use. Needs the GL context.
+     */
+    public int program(String vertexSource, String fragmentSource) {
+        String key = hash(vertexSource, "\0", fragmentSource);
+        Integer cached = programs.get(key);
+        if (cached != null) {
+            return cached;
+        }
+
+        long start = System.nanoTime();
+        File binary = binaryFile(key);
+        int program = binary != null && binary.exists() ? loadBinary(binary) : 0;
+        if (program != 0) {
+            Log.i(TAG, "Loaded program binary in " + (System.nanoTime() - start) / 1000 + "us");
+        } else {
+            program = link(shader(GLES20.GL_VERTEX_SHADER, vertexSource),
+                    shader(GLES20.GL_FRAGMENT_SHADER, fragmentSource), binary != null);
+            Log.i(TAG, "Built program from source in " + (System.nanoTime() - start) / 1000 + "us");
+            if (binary != null) {
+                saveBinary(program, binary);
+            }
+        }
+
+        programs.put(key, program);
+        return program;
+    }
+
+    /**
+     * Deletes every program and shader. Call on the GL thread while the context is alive.
+     */
+    public void release() {
+        for (Integer program : programs.values()) {
+            GLES20.glDeleteProgram(program);
+        }
+        for (Integer shader : shaders.values()) {
+            GLES20.glDeleteShader(shader);
+        }
+        programs.clear();
+        shaders.clear();
+    }
+
+    //
+
+    private int shader(int type, String source) {
+        String key = hash(source);
+        Integer cached = shaders.get(key);
+        if (cached != null) {
+            return cached;
+        }
+
+        int shader = GLES20.glCreateShader(type);
+        GLES20.glShaderSource(shader, source);
+        GLES20.glCompileShader(shader);
+
+        final int[] compileStatus = new int[1];
+        GLES20.glGetShaderiv(shader, GLES20.GL_COMPILE_STATUS, compileStatus, 0);
+        if (compileStatus[0] == 0) {
+            Log.e(TAG, "Error compiling shader: " + GLES20.glGetShaderInfoLog(shader));
+            GLES20.glDeleteShader(shader);
+            throw new RuntimeException("Error creating shader.");
+        }
+
+        shaders.put(key, shader);
+        return shader;
+    }
+
+    private static int link(int vertexShader, int fragmentShader, boolean retrievable) {
+        int program = GLES20.glCreateProgram();
+        GLES20.glAttachShader(program, vertexShader);
+        GLES20.glAttachShader(program, fragmentShader);
+        if (retrievable) {
+            GLES30.glProgramParameteri(program, GLES30.GL_PROGRAM_BINARY_RETRIEVABLE_HINT, GLES20.GL_TRUE);
+        }
+        GLES20.glLinkProgram(program);
+
+        if (!linked(program)) {
+            Log.e(TAG, "Error linking program: " + GLES20.glGetProgramInfoLog(program));
+            GLES20.glDeleteProgram(program);
+            throw new RuntimeException("Error linking program.");
+        }
+        return program;
+    }
+
+    private static boolean linked(int program) {
+        final int[] linkStatus = new int[1];
+        GLES20.glGetProgramiv(program, GLES20.GL_LINK_STATUS, linkStatus, 0);
+        return linkStatus[0] != 0;
+    }
+
+    /**
+     * Program binaries need GLES30's entry points, so an ES 3.0+ context with at least one
+     * binary format. The Java bindings don't expose the ES2-only OES extension functions.
+     */
+    private boolean binariesSupported() {
+        if (binariesSupported == null) {
+            String version = GLES20.glGetString(GLES20.GL_VERSION);
+            boolean supported = false;
+            if (version != null && version.startsWith("OpenGL ES ") && version.length() > 10
+                    && Character.isDigit(version.charAt(10)) && version.charAt(10) >= '3') {
+                final int[] formats = new int[1];
+                GLES20.glGetIntegerv(GLES30.GL_NUM_PROGRAM_BINARY_FORMATS, formats, 0);
+                supported = formats[0] > 0;
+            }
+            binariesSupported = supported;
+            driver = GLES20.glGetString(GLES20.GL_RENDERER) + "\n" + version;
+            Log.i(TAG, "Program binaries " + (supported ? "supported" : "not supported") + " (" + version + ")");
+        }
+        return binariesSupported;
+    }
+
+    private File binaryFile(String key) {
+        if (binaryDir == null || !binariesSupported()) {
+            return null;
+        }
+        return new File(binaryDir, hash(driver, "\0", key) + ".bin");
+    }
+
+    private int loadBinary(File file) {
+        DataInputStream in = null;
+        try {
+            in = new DataInputStream(new FileInputStream(file));
+            int format = in.readInt();
+            byte[] data = new byte[(int) file.length() - 4];
+            in.readFully(data);
+
+            ByteBuffer buffer = ByteBuffer.allocateDirect(data.length).order(ByteOrder.nativeOrder());
+            buffer.put(data).position(0);
+            int program = GLES20.glCreateProgram();
+            GLES30.glProgramBinary(program, format, buffer, data.length);
+            if (linked(program)) {
+                return program;
+            }
+            GLES20.glDeleteProgram(program);
+        } catch (IOException e) {
+            Log.w(TAG, "Could not read " + file, e);
+        } finally {
+            close(in);
+        }
+
+        // stale or corrupt: rebuild from source
+        file.delete();
+        return 0;
+    }
+
+    private static void saveBinary(int program, File file) {
+        final int[] length = new int[1];
+        GLES20.glGetProgramiv(program, GLES30.GL_PROGRAM_BINARY_LENGTH, length, 0);
+        if (length[0] <= 0) {
+            return;
+        }
+
+        ByteBuffer buffer = ByteBuffer.allocateDirect(length[0]).order(ByteOrder.nativeOrder());
+        IntBuffer written = IntBuffer.allocate(1);
+        IntBuffer format = IntBuffer.allocate(1);
+        GLES30.glGetProgramBinary(program, length[0], written, format, buffer);
+        byte[] data = new byte[written.get(0)];
+        buffer.get(data);
+
+        DataOutputStream out = null;
+        File tmp = new File(file.getPath() + ".tmp");
+        try {
+            file.getParentFile().mkdirs();
+            out = new DataOutputStream(new FileOutputStream(tmp));
+            out.writeInt(format.get(0));
+            out.write(data);
+            out.close();
+            out = null;
+            if (!tmp.renameTo(file)) {
+                tmp.delete();
+            }
+        } catch (IOException e) {
+            Log.w(TAG, "Could not write " + file, e);
+            tmp.delete();
+        } finally {
+            close(out);
+        }
+    }
+
+    private static void close(Closeable c) {
+        if (c != null) {
+            try {
+                c.close();
+            } catch (IOException e) {
+                // nothing to do
+            }
+        }
+    }
+
+    static String hash(String... parts) {
+        try {
+            MessageDigest sha1 = MessageDigest.getInstance("SHA-1");
+            for (String part : parts) {
+                sha1.update(part.getBytes("UTF-8"));
+            }
+            StringBuilder sb = new StringBuilder(40);
+            for (byte b : sha1.digest()) {
+                sb.append(Character.forDigit((b >> 4) & 0xF, 16)).append(Character.forDigit(b & 0xF, 16));
+            }
+            return sb.toString();
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        } catch (UnsupportedEncodingException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+}
@@ -31,16 +31,29 @@ import com.google.vr.sdk.base.HeadTransform;
 import com.google.vr.sdk.base.Viewport;
 
 import java.io.BufferedReader;
+import java.io.File;
 import java.io.IOException;
 import java.io.InputStream;
 import java.io.InputStreamReader;
-import java.nio.ByteBuffer;
-import java.nio.ByteOrder;
 import java.nio.FloatBuffer;
 import java.nio.IntBuffer;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
 
 import javax.microedition.khronos.egl.EGLConfig;
 
+import min3d.core.DrawStats;
+import min3d.core.FrameStats;
+import min3d.core.VertexLayout;
+import min3d.core.Vertices;
+import min3d.mesh.ImposterBaker;
+import min3d.mesh.LightBaker;
+import min3d.mesh.MeshSimplifier;
+import min3d.mesh.TriangleBvh;
+import objTools.Models.Material;
+import objTools.Tools.MTLReader;
+
 /**
  * A Google VR sample application.
  * </p><p>
@@ -66,76 +79,76 @@ public class TreasureHuntActivity extends GvrActivity implements GvrView.StereoR
     private static final float CAMERA_Z = 0.01f;
     private static final float TIME_DELTA = 0.3f;
 
-    private static final float YAW_LIMIT = 0.12f;
-    private static final float PITCH_LIMIT = 0.12f;
-
-    private static final int COORDS_PER_VERTEX = 3;
+    // Props are static, so their lighting is baked into vertex colors on load: float position,
+    // RGBA byte color.
+    private static final VertexLayout BAKED_LAYOUT = new VertexLayout(false, false, true);
+    private static final float BAKE_AMBIENT = 0.3f;
+    private static final int BAKE_OCCLUSION_RAYS = 16;
+    private static final float BAKE_OCCLUSION_DISTANCE = 20f;
 
     // We keep the light always position just above the user.
     private static final float[] LIGHT_POS_IN_WORLD_SPACE = new float[]{0.0f, 2.0f, 0.0f, 1.0f};
+    // The scene light reaches across the whole view, both when baked and as a clustered light.
+    private static final float LIGHT_RADIUS = Z_FAR;
 
-    // Convenience vector for extracting the position from a matrix via multiplication.
-    private static final float[] POS_MATRIX_MULTIPLY_VEC = {0, 0, 0, 1.0f};
+    // The viewer walks as a capsule this wide, and climbs ledges up to a step high.
+    private static final float BODY_RADIUS = 2f;
+    private static final float STEP_HEIGHT = 2f;
+    private static final float WALK_SPEED = 1f / 15;
 
     private static final float MIN_MODEL_DISTANCE = 3.0f;
     private static final float MAX_MODEL_DISTANCE = 7.0f;
 
-    private static final String OBJECT_SOUND_FILE = "cube_sound.wav";
-    private static final String SUCCESS_SOUND_FILE = "success.wav";
+    // How often frame timings are logged
+    private static final long FRAME_STATS_LOG_INTERVAL_MS = 5000;
+    // Items listed per metric in the draw cost report
+    private static final int DRAW_STATS_TOP_N = 4;
 
-    private final float[] lightPosInEyeSpace = new float[4];
+    // Scene meshes are streamed in by cell, ahead of where the viewer is heading.
+    private static final float STREAM_CELL_SIZE = 64f;
+    private static final long STREAM_MEMORY_BUDGET = 32 * 1024 * 1024;
+    private static final float STREAM_RESIDENT_RADIUS = 300f;
+    private static final float STREAM_HORIZON_SECONDS = 5f;
 
-    private FloatBuffer floorVertices;
-    private FloatBuffer floorColors;
-    private FloatBuffer floorNormals;
+    // Props further than this are drawn as camera-facing quads from a baked atlas.
+    private static final float IMPOSTER_DISTANCE = 200f;
+    private static final int IMPOSTER_VIEWS = 8;
+    private static final int IMPOSTER_TILE_SIZE = 128;
+    // Props' flat gray, baked into their vertex colors and imposters
+    private static final int PROP_COLOR = 0xFF808080;
 
-    private FloatBuffer cubeVertices;
-    private FloatBuffer cubeColors;
-    private FloatBuffer cubeFoundColors;
-    private FloatBuffer cubeNormals;
+    private static final String OBJECT_SOUND_FILE = "cube_sound.wav";
+    private static final String SUCCESS_SOUND_FILE = "success.wav";
 
-    private FloatBuffer wellVertices;
-    private FloatBuffer wellTextures;
-    private FloatBuffer wellNormals;
-    private IntBuffer wellIndices;
+    private final float[] lightPosInEyeSpace = new float[4];
 
-    private FloatBuffer bedVertices;
-    private FloatBuffer bedTextures;
-    private FloatBuffer bedNormals;
-    private IntBuffer bedIndices;
+    private final FrameStats frameStats = new FrameStats();
+    private final DrawStats drawStats = new DrawStats();
+
+    private ProgramCache programCache;
+    private MeshRenderer meshRenderer;
+    private MeshRenderer.Mesh cubeMesh;
+    private MeshRenderer.Mesh cubeFoundMesh;
+    private MeshRenderer.Record cubeRecord;
+    private WorldStreamer worldStreamer;
+    private Imposters imposters;
+    private ClusteredLights clusteredLights;
+    private GazePicker gazePicker;
+    private GazePicker.Target cubeTarget;
+    private WalkCollider walkCollider;
 
     private FloatBuffer houseVertices;
     private FloatBuffer houseTextures;
     private FloatBuffer houseNormals;
     private IntBuffer houseIndices;
 
-    private int cubeProgram;
-    private int floorProgram;
-
-    private int cubePositionParam;
-    private int cubeNormalParam;
-    private int cubeColorParam;
-    private int cubeModelParam;
-    private int cubeModelViewParam;
-    private int cubeModelViewProjectionParam;
-    private int cubeLightPosParam;
-
-    private int floorPositionParam;
-    private int floorNormalParam;
-    private int floorColorParam;
-    private int floorModelParam;
-    private int floorModelViewParam;
-    private int floorModelViewProjectionParam;
-    private int floorLightPosParam;
-
     private float[] camera;
     private float[] view;
     private float[] headView;
-    private float[] modelViewProjection;
-    private float[] modelView;
+    private float[] centerView;
     private float[] modelFloor;
+    private float[] eyePosition;
 
-    private float[] tempPosition;
     private float[] headRotation;
 
     private float objectDistance = MAX_MODEL_DISTANCE / 2.0f;
@@ -148,33 +161,6 @@ public class TreasureHuntActivity extends GvrActivity implements GvrView.StereoR
     private volatile int successSourceId = GvrAudioEngine.INVALID_ID;
     private Context ctx;
 
-    private int wellProgram;
-    private int wellPositionParam;
-    private int wellNormalParam;
-    private int wellTextureParam;
-    private int wellModelParam;
-    private int wellModelViewParam;
-    private int wellModelViewProjectionParam;
-    private int wellLightPosParam;
-    //  private Object3dContainer wellObj3D;
-    private float[] well_vertices;
-    private float[] well_normals;
-    private float[] well_textures;
-    private int[] well_indices;
-
-    private int bedProgram;
-    private int bedPositionParam;
-    private int bedNormalParam;
-    private int bedTextureParam;
-    private int bedModelParam;
-    private int bedModelViewParam;
-    private int bedModelViewProjectionParam;
-    private int bedLightPosParam;
-    private float[] bed_vertices;
-    private float[] bed_normals;
-    private float[] bed_textures;
-    private int[] bed_indices;
-
     private float[] house_vertices;
     private float[] house_normals;
     private float[] house_textures;
@@ -185,37 +171,6 @@ public class TreasureHuntActivity extends GvrActivity implements GvrView.StereoR
 
 //  ObjObject myObjObject;
 
-    /**
-     * Converts a raw text file, saved as a resource, into an OpenGL ES shader.
-     *
-     * @param type  The type of shader we will be creating.
-     * @param resId The resource ID of the raw text file about to be turned into a shader.
-     * @return The shader object handler.
-     */
-    private int loadGLShader(int type, int resId) {
-        String code = readRawTextFile(resId);
-        int shader = GLES20.glCreateShader(type);
-        GLES20.glShaderSource(shader, code);
-        GLES20.glCompileShader(shader);
-
-        // Get the compilation status.
-        final int[] compileStatus = new int[1];
-        GLES20.glGetShaderiv(shader, GLES20.GL_COMPILE_STATUS, compileStatus, 0);
-
-        // If the compilation failed, delete the shader.
-        if (compileStatus[0] == 0) {
-            Log.e(TAG, "Error compiling shader: " + GLES20.glGetShaderInfoLog(shader));
-            GLES20.glDeleteShader(shader);
-            shader = 0;
-        }
-
-        if (shader == 0) {
-            throw new RuntimeException("Error creating shader.");
-        }
-
-        return shader;
-    }
-
     /**
      * Checks if we've had an error inside of OpenGL ES, and if so what that error is.
      *
@@ -245,14 +200,13 @@ public class TreasureHuntActivity extends GvrActivity implements GvrView.StereoR
         modelHouse = new float[16];
         camera = new float[16];
         view = new float[16];
-        modelViewProjection = new float[16];
-        modelView = new float[16];
         modelFloor = new float[16];
-        tempPosition = new float[4];
         // Model first appears directly in front of user.
         modelPosition = new float[]{0.0f, 0.0f, -MAX_MODEL_DISTANCE / 2.0f};
         headRotation = new float[4];
         headView = new float[16];
+        centerView = new float[16];
+        eyePosition = new float[3];
         vibrator = (Vibrator) getSystemService(Context.VIBRATOR_SERVICE);
 
         // Initialize 3D audio engine.
@@ -293,6 +247,15 @@ public class TreasureHuntActivity extends GvrActivity implements GvrView.StereoR
     @Override
     public void onRendererShutdown() {
         Log.i(TAG, "onRendererShutdown");
+        if (worldStreamer != null) {
+            worldStreamer.shutdown();
+        }
+        if (imposters != null) {
+            imposters.release();
+        }
+        if (clusteredLights != null) {
+            clusteredLights.release();
+        }
     }
 
     @Override
@@ -311,236 +274,60 @@ public class TreasureHuntActivity extends GvrActivity implements GvrView.StereoR
     @Override
     public void onSurfaceCreated(EGLConfig config) {
         Log.i(TAG, "onSurfaceCreated");
+        frameStats.enabled(true);
+        frameStats.logInterval(FRAME_STATS_LOG_INTERVAL_MS);
+        drawStats.enabled(true);
         GLES20.glClearColor(0.1f, 0.1f, 0.1f, 0.5f); // Dark background so text shows up bed.
 
-        ByteBuffer bbVertices = ByteBuffer.allocateDirect(WorldLayoutData.CUBE_COORDS.length * 4);
-        bbVertices.order(ByteOrder.nativeOrder());
-        cubeVertices = bbVertices.asFloatBuffer();
-        cubeVertices.put(WorldLayoutData.CUBE_COORDS);
-        cubeVertices.position(0);
-
-        ByteBuffer bbColors = ByteBuffer.allocateDirect(WorldLayoutData.CUBE_COLORS.length * 4);
-        bbColors.order(ByteOrder.nativeOrder());
-        cubeColors = bbColors.asFloatBuffer();
-        cubeColors.put(WorldLayoutData.CUBE_COLORS);
-        cubeColors.position(0);
-
-        ByteBuffer bbFoundColors =
-                ByteBuffer.allocateDirect(WorldLayoutData.CUBE_FOUND_COLORS.length * 4);
-        bbFoundColors.order(ByteOrder.nativeOrder());
-        cubeFoundColors = bbFoundColors.asFloatBuffer();
-        cubeFoundColors.put(WorldLayoutData.CUBE_FOUND_COLORS);
-        cubeFoundColors.position(0);
-
-        ByteBuffer bbNormals = ByteBuffer.allocateDirect(WorldLayoutData.CUBE_NORMALS.length * 4);
-        bbNormals.order(ByteOrder.nativeOrder());
-        cubeNormals = bbNormals.asFloatBuffer();
-        cubeNormals.put(WorldLayoutData.CUBE_NORMALS);
-        cubeNormals.position(0);
-
-        // load well obj
-        InputStream wellObjFile;
-        wellObjFile = this.getResources().openRawResource(R.raw.cartoon_well_obj);
-        InputStream wellVertexShaderSrc;
-        wellVertexShaderSrc =this.getResources().openRawResource(R.raw.well_vertex_shader);
-        InputStream wellFragmentShaderSrc;
-        wellFragmentShaderSrc = this.getResources().openRawResource(R.raw.well_fragment_shader);
-//        Thread loadwell = new Thread(wellObj = new LoadAndDraw(wellObjFile,wellVertexShaderSrc,wellFragmentShaderSrc));
-//        loadwell.start();
-        InputStream bedObjFile;
-        bedObjFile = this.getResources().openRawResource(R.raw.cartoonmedhouse1_obj);
+        // A new surface means a new GL context: programs from the last one are gone.
+        programCache = new ProgramCache(new File(getCacheDir(), "programs"));
+        meshRenderer = new MeshRenderer(getResources(), programCache, drawStats);
+        MeshRenderer.Program litColorProgram = meshRenderer.program(R.raw.light_vertex, R.raw.passthrough_fragment);
+        MeshRenderer.Program gridProgram = meshRenderer.program(R.raw.light_vertex, R.raw.grid_fragment);
+        MeshRenderer.Program bakedProgram = meshRenderer.program(R.raw.baked_vertex, R.raw.passthrough_fragment);
+        MeshRenderer.Program imposterProgram = meshRenderer.program(R.raw.imposter_vertex, R.raw.imposter_fragment);
+        checkGLError("Programs");
+
+        // GPUs with too few fragment uniforms for even one clustered light keep the plain light path
+        int clusteredLightCount = ClusteredLights.supportedLights();
+        clusteredLights = null;
+        if (clusteredLightCount > 0) {
+            clusteredLights = new ClusteredLights(Z_NEAR, Z_FAR, clusteredLightCount);
+            clusteredLights.add(LIGHT_POS_IN_WORLD_SPACE[0], LIGHT_POS_IN_WORLD_SPACE[1],
+                    LIGHT_POS_IN_WORLD_SPACE[2], LIGHT_RADIUS, 1f, 1f, 1f);
+        }
+        meshRenderer.setLights(clusteredLights);
+        // The cube moves and spins, so it's the one mesh lit per pixel rather than baked
+        MeshRenderer.Program cubeProgram = clusteredLights != null
+                ? meshRenderer.program(R.raw.cluster_vertex, R.raw.cluster_fragment, clusteredLights.shaderDefines())
+                : litColorProgram;
+
+        cubeMesh = MeshRenderer.Mesh.fromArrays(
+                WorldLayoutData.CUBE_COORDS, WorldLayoutData.CUBE_NORMALS, WorldLayoutData.CUBE_COLORS);
+        cubeFoundMesh = cubeMesh.withColors(WorldLayoutData.CUBE_FOUND_COLORS);
+        cubeRecord = meshRenderer.add("cube", cubeMesh, cubeProgram, modelCube);
+
+        // The gaze is picked against the meshes themselves; props join when they load.
+        gazePicker = new GazePicker();
+        gazePicker.setMaxDistance(Z_FAR);
+        int[] cubeIndices = new int[WorldLayoutData.CUBE_COORDS.length / 3];
+        for (int i = 0; i < cubeIndices.length; i++) {
+            cubeIndices[i] = i;
+        }
+        cubeTarget = gazePicker.add("cube", new TriangleBvh(WorldLayoutData.CUBE_COORDS, cubeIndices), modelCube);
+
+        meshRenderer.add("floor", MeshRenderer.Mesh.fromArrays(
+                WorldLayoutData.FLOOR_COORDS, WorldLayoutData.FLOOR_NORMALS, WorldLayoutData.FLOOR_COLORS),
+                gridProgram, modelFloor);
 
-//
-//    ResourceLoader resourceLoader = ResourceLoader.getResourceLoader();
-//    myObjObject = resourceLoader.loadObjObject(wellObjFile,"cartoon_well","cartoon_well");
-
-
-        String data = null;
-        data = myReadRawFile(wellObjFile);
-        Log.i("ObjLoader","Load well finished!");
-        OBJLoader objLoader = new OBJLoader(data);
-        well_vertices = objLoader.getVertices();
-        well_normals = objLoader.getNormals();
-        well_textures = objLoader.getTexture();
-        well_indices = objLoader.getIndex();
-
-        // well buffer
-        ByteBuffer bbWellVertices = ByteBuffer.allocateDirect(well_vertices.length * 4);
-        bbWellVertices.order(ByteOrder.nativeOrder());
-        wellVertices = bbWellVertices.asFloatBuffer();
-        wellVertices.put(well_vertices);
-        wellVertices.position(0);
-
-        ByteBuffer bbWellNormals = ByteBuffer.allocateDirect(well_normals.length * 4);
-        bbWellNormals.order(ByteOrder.nativeOrder());
-        wellNormals = bbWellNormals.asFloatBuffer();
-        wellNormals.put(well_normals);
-        wellNormals.position(0);
-
-        ByteBuffer bbWellTextures = ByteBuffer.allocateDirect(well_textures.length * 4);
-        bbWellTextures.order(ByteOrder.nativeOrder());
-        wellTextures = bbWellTextures.asFloatBuffer();
-        wellTextures.put(well_textures);
-        wellTextures.position(0);
-
-        ByteBuffer bbWellIndices = ByteBuffer.allocateDirect(well_indices.length * 4);
-        bbWellTextures.order(ByteOrder.nativeOrder());
-        wellIndices = bbWellTextures.asIntBuffer();
-        wellIndices.put(well_indices);
-        wellIndices.position(0);
-
-        int wellVertexShader = loadGLShader(GLES20.GL_VERTEX_SHADER, R.raw.well_vertex_shader);
-        int wellFragmentShader = loadGLShader(GLES20.GL_FRAGMENT_SHADER, R.raw.well_fragment_shader);
-
-        // load bed
-
-        data = null;
-        data = myReadRawFile(bedObjFile);
-        Log.i("ObjLoader","Load bed finished!");
-        objLoader = new OBJLoader(data);
-        bed_vertices = objLoader.getVertices();
-        bed_normals = objLoader.getNormals();
-        bed_indices = objLoader.getIndex();
-        bed_textures = objLoader.getTexture();
-
-        // bed buffer
-        ByteBuffer bbBedVertices = ByteBuffer.allocateDirect(bed_vertices.length * 4);
-        bbBedVertices.order(ByteOrder.nativeOrder());
-        bedVertices = bbBedVertices.asFloatBuffer();
-        bedVertices.put(bed_vertices);
-        bedVertices.position(0);
-
-        ByteBuffer bbBedNormals = ByteBuffer.allocateDirect(bed_normals.length * 4);
-        bbBedNormals.order(ByteOrder.nativeOrder());
-        bedNormals = bbBedNormals.asFloatBuffer();
-        bedNormals.put(bed_normals);
-        bedNormals.position(0);
-
-        ByteBuffer bbBedTextures = ByteBuffer.allocateDirect(bed_textures.length * 4);
-        bbBedTextures.order(ByteOrder.nativeOrder());
-        bedTextures = bbBedTextures.asFloatBuffer();
-        bedTextures.put(bed_textures);
-        bedTextures.position(0);
-
-        ByteBuffer bbBedIndices = ByteBuffer.allocateDirect(bed_indices.length * 4);
-        bbBedTextures.order(ByteOrder.nativeOrder());
-        bedIndices = bbBedTextures.asIntBuffer();
-        bedIndices.put(bed_indices);
-        bedIndices.position(0);
-
-        int bedVertexShader = loadGLShader(GLES20.GL_VERTEX_SHADER, R.raw.well_vertex_shader);
-        int bedFragmentShader = loadGLShader(GLES20.GL_FRAGMENT_SHADER, R.raw.well_fragment_shader);
-
-
-//    bedVertices = (myObjObject.getBuffer(MeshObject.BUFFER_TYPE.BUFFER_TYPE_VERTEX));
-//    bedNormals = (myObjObject.getBuffer(MeshObject.BUFFER_TYPE.BUFFER_TYPE_NORMALS));
-//    bedTextures = (myObjObject.getBuffer(MeshObject.BUFFER_TYPE.BUFFER_TYPE_VERTEX));
-
-        // make a floor
-        ByteBuffer bbFloorVertices = ByteBuffer.allocateDirect(WorldLayoutData.FLOOR_COORDS.length * 4);
-        bbFloorVertices.order(ByteOrder.nativeOrder());
-        floorVertices = bbFloorVertices.asFloatBuffer();
-        floorVertices.put(WorldLayoutData.FLOOR_COORDS);
-        floorVertices.position(0);
-
-        ByteBuffer bbFloorNormals = ByteBuffer.allocateDirect(WorldLayoutData.FLOOR_NORMALS.length * 4);
-        bbFloorNormals.order(ByteOrder.nativeOrder());
-        floorNormals = bbFloorNormals.asFloatBuffer();
-        floorNormals.put(WorldLayoutData.FLOOR_NORMALS);
-        floorNormals.position(0);
-
-        ByteBuffer bbFloorColors = ByteBuffer.allocateDirect(WorldLayoutData.FLOOR_COLORS.length * 4);
-        bbFloorColors.order(ByteOrder.nativeOrder());
-        floorColors = bbFloorColors.asFloatBuffer();
-        floorColors.put(WorldLayoutData.FLOOR_COLORS);
-        floorColors.position(0);
-
-        int vertexShader = loadGLShader(GLES20.GL_VERTEX_SHADER, R.raw.light_vertex);
-        int gridShader = loadGLShader(GLES20.GL_FRAGMENT_SHADER, R.raw.grid_fragment);
-        int passthroughShader = loadGLShader(GLES20.GL_FRAGMENT_SHADER, R.raw.passthrough_fragment);
-//    int objVertexShader = loadGLShader(GLES20.GL_VERTEX_SHADER,R.raw.obj_vertex);
-//    int objFragementShader = loadGLShader(GLES20.GL_FRAGMENT_SHADER,R.raw.obj_fragment);
-        cubeProgram = GLES20.glCreateProgram();
-        GLES20.glAttachShader(cubeProgram, vertexShader);
-        GLES20.glAttachShader(cubeProgram, passthroughShader);
-        GLES20.glLinkProgram(cubeProgram);
-        GLES20.glUseProgram(cubeProgram);
-
-        checkGLError("Cube program");
-
-        cubePositionParam = GLES20.glGetAttribLocation(cubeProgram, "a_Position");
-        cubeNormalParam = GLES20.glGetAttribLocation(cubeProgram, "a_Normal");
-        cubeColorParam = GLES20.glGetAttribLocation(cubeProgram, "a_Color");
-
-        cubeModelParam = GLES20.glGetUniformLocation(cubeProgram, "u_Model");
-        cubeModelViewParam = GLES20.glGetUniformLocation(cubeProgram, "u_MVMatrix");
-        cubeModelViewProjectionParam = GLES20.glGetUniformLocation(cubeProgram, "u_MVP");
-        cubeLightPosParam = GLES20.glGetUniformLocation(cubeProgram, "u_LightPos");
-
-        checkGLError("Cube program params");
-
-        // well program
-        wellProgram = GLES20.glCreateProgram();
-        GLES20.glAttachShader(wellProgram, wellVertexShader);
-        GLES20.glAttachShader(wellProgram, wellFragmentShader);
-        GLES20.glLinkProgram(wellProgram);
-        GLES20.glUseProgram(wellProgram);
-
-        checkGLError("Well program");
-
-        wellPositionParam = GLES20.glGetAttribLocation(wellProgram, "a_Position");
-        wellNormalParam = GLES20.glGetAttribLocation(wellProgram, "a_Normal");
-        wellTextureParam = GLES20.glGetAttribLocation(wellProgram, "a_TextureCoord");
-
-        wellModelParam = GLES20.glGetUniformLocation(wellProgram, "u_Model");
-        wellModelViewParam = GLES20.glGetUniformLocation(wellProgram, "u_MVMatrix");
-        wellModelViewProjectionParam = GLES20.glGetUniformLocation(wellProgram, "u_MVP");
-        wellLightPosParam = GLES20.glGetUniformLocation(wellProgram, "u_LightPos");
-
-        checkGLError("Well program params");
-
-        // bed program
-        bedProgram = GLES20.glCreateProgram();
-        GLES20.glAttachShader(bedProgram, bedVertexShader);
-        GLES20.glAttachShader(bedProgram, bedFragmentShader);
-        GLES20.glLinkProgram(bedProgram);
-        GLES20.glUseProgram(bedProgram);
-
-        checkGLError("Bed program");
-
-        bedPositionParam = GLES20.glGetAttribLocation(bedProgram, "a_Position");
-        bedNormalParam = GLES20.glGetAttribLocation(bedProgram, "a_Normal");
-        bedTextureParam = GLES20.glGetAttribLocation(bedProgram, "a_TextureCoord");
-
-        bedModelParam = GLES20.glGetUniformLocation(bedProgram, "u_Model");
-        bedModelViewParam = GLES20.glGetUniformLocation(bedProgram, "u_MVMatrix");
-        bedModelViewProjectionParam = GLES20.glGetUniformLocation(bedProgram, "u_MVP");
-        bedLightPosParam = GLES20.glGetUniformLocation(bedProgram, "u_LightPos");
-
-        checkGLError("Bed program param");
-
-        floorProgram = GLES20.glCreateProgram();
-        GLES20.glAttachShader(floorProgram, vertexShader);
-        GLES20.glAttachShader(floorProgram, gridShader);
-        GLES20.glLinkProgram(floorProgram);
-        GLES20.glUseProgram(floorProgram);
-
-        checkGLError("Floor program");
-
-        floorModelParam = GLES20.glGetUniformLocation(floorProgram, "u_Model");
-        floorModelViewParam = GLES20.glGetUniformLocation(floorProgram, "u_MVMatrix");
-        floorModelViewProjectionParam = GLES20.glGetUniformLocation(floorProgram, "u_MVP");
-        floorLightPosParam = GLES20.glGetUniformLocation(floorProgram, "u_LightPos");
-
-        floorPositionParam = GLES20.glGetAttribLocation(floorProgram, "a_Position");
-        floorNormalParam = GLES20.glGetAttribLocation(floorProgram, "a_Normal");
-        floorColorParam = GLES20.glGetAttribLocation(floorProgram, "a_Color");
-
-        checkGLError("Floor program params");
 
         Matrix.setIdentityM(modelFloor, 0);
         Matrix.translateM(modelFloor, 0, 0, -floorDepth, 0); // Floor appears below user.
 
+        // The viewer stands on the floor, eye high; props become walls when they load.
+        walkCollider = new WalkCollider(BODY_RADIUS, floorDepth, STEP_HEIGHT);
+        walkCollider.setFloor(modelFloor);
+
         // Avoid any delays during start-up due to decoding of sound files.
         new Thread(
                 new Runnable() {
@@ -583,9 +370,264 @@ public class TreasureHuntActivity extends GvrActivity implements GvrView.StereoR
 
         updateModelPosition();
 
+        // The well and the house load in the background once the viewer is near or heading their way.
+        if (worldStreamer != null) {
+            worldStreamer.shutdown();
+        }
+        worldStreamer = new WorldStreamer(
+                STREAM_CELL_SIZE, STREAM_MEMORY_BUDGET, STREAM_RESIDENT_RADIUS, STREAM_HORIZON_SECONDS);
+        imposters = new Imposters(meshRenderer, imposterProgram, IMPOSTER_DISTANCE);
+        addProp("well", R.raw.cartoon_well_obj, bakedProgram, modelWell);
+        addProp("bed", R.raw.cartoonmedhouse1_obj, bakedProgram, modelBed);
+
         checkGLError("onSurfaceCreated");
     }
 
+    /**
+     * Loads an OBJ resource into an indexed mesh with simplified LODs, with the scene light and
+     * ambient occlusion baked into its vertex colors. The first load also bakes the prop's
+     * imposter from the same colors, tinted by the materials. Slow: runs on a WorldStreamer
+     * loader thread.
+     */
+    private LoadedMesh loadMesh(int resId, float[] model, Imposters.Prop imposter) {
+        OBJLoader objLoader = new OBJLoader(myReadRawFile(getResources().openRawResource(resId)));
+        float[] positions = objLoader.getVertices();
+        int[] indices = objLoader.getIndex();
+
+        // the props are only translated, so the light is moved into their space the same way
+        LightBaker baker = new LightBaker(positions, objLoader.getNormals(), indices);
+        baker.addLight(LIGHT_POS_IN_WORLD_SPACE[0] - model[12], LIGHT_POS_IN_WORLD_SPACE[1] - model[13],
+                LIGHT_POS_IN_WORLD_SPACE[2] - model[14], LIGHT_RADIUS, 1f, 1f, 1f);
+        baker.ambient(BAKE_AMBIENT);
+        baker.occlusion(BAKE_OCCLUSION_RAYS, BAKE_OCCLUSION_DISTANCE);
+        int[] colors = baker.bake(PROP_COLOR);
+        float[][] diffuse = loadDiffuseColors(objLoader);
+        if (imposter.needsAtlas()) {
+            bakeImposter(imposter, positions, indices, tint(colors, indices, objLoader.getSubMeshes(), diffuse));
+        }
+
+        Vertices vertices = Vertices.fromArrays(BAKED_LAYOUT, positions, null, null, colors);
+        MeshRenderer.Mesh mesh = MeshRenderer.Mesh.fromVertices(vertices, indices);
+        // the baked colors follow from position and normal, so the normals mark their seams
+        float[] normals = objLoader.getNormals();
+        List<OBJLoader.SubMesh> subMeshes = objLoader.getSubMeshes();
+        if (subMeshes.size() <= 1) {
+            mesh.setLods(MeshSimplifier.simplify(positions, indices, positions.length / 3,
+                    normals, 3, MeshSimplifier.DEFAULT_RATIOS));
+        } else {
+            setSubMeshLods(mesh, positions, normals, indices, subMeshes);
+        }
+        setMaterials(mesh, objLoader.getSubMeshes(), diffuse);
+        // the baker's ray-casting tree is kept for gaze picking and collision
+        return new LoadedMesh(mesh, baker.bvh());
+    }
+
+    /**
+     * Splits the mesh into its material ranges and simplifies each range on its own, so every
+     * LOD keeps the same ranges
+     */
+    private static void setSubMeshLods(MeshRenderer.Mesh mesh, float[] positions, float[] normals,
+                                       int[] indices, List<OBJLoader.SubMesh> subMeshes) {
+        int ranges = subMeshes.size();
+        int levels = MeshSimplifier.DEFAULT_RATIOS.length;
+        int[] counts = new int[ranges];
+        int[][][] rangeLods = new int[ranges][][];
+        int[] levelLengths = new int[levels];
+        for (int s = 0; s < ranges; s++) {
+            OBJLoader.SubMesh subMesh = subMeshes.get(s);
+            counts[s] = subMesh.indexCount;
+            int[] range = Arrays.copyOfRange(indices, subMesh.firstIndex, subMesh.firstIndex + subMesh.indexCount);
+            rangeLods[s] = MeshSimplifier.simplify(positions, range, positions.length / 3,
+                    normals, 3, MeshSimplifier.DEFAULT_RATIOS);
+            for (int l = 0; l < levels; l++) {
+                levelLengths[l] += rangeLods[s][l].length;
+            }
+        }
+        mesh.setSubMeshes(counts);
+
+        int[][] lods = new int[levels][];
+        int[][] lodCounts = new int[levels][ranges];
+        for (int l = 0; l < levels; l++) {
+            lods[l] = new int[levelLengths[l]];
+            int offset = 0;
+            for (int s = 0; s < ranges; s++) {
+                int[] level = rangeLods[s][l];
+                System.arraycopy(level, 0, lods[l], offset, level.length);
+                lodCounts[l][s] = level.length;
+                offset += level.length;
+            }
+        }
+        mesh.setLods(lods, lodCounts);
+    }
+
+    /**
+     * Reads each material range's diffuse color from the OBJ's library if it's shipped as a raw
+     * resource (eg cartoon_well.mtl as R.raw.cartoon_well_mtl).
+     *
+     * @return One Kd per OBJLoader sub-mesh, null where a material has none, or null if the
+     * library can't be found
+     */
+    private float[][] loadDiffuseColors(OBJLoader objLoader) {
+        String library = objLoader.getMaterialLibrary();
+        if (library == null) {
+            return null;
+        }
+        int resId = getResources().getIdentifier(library.replace('.', '_'), "raw", getPackageName());
+        if (resId == 0) {
+            Log.i(TAG, "No raw resource for material library " + library);
+            return null;
+        }
+        Map<String, Material> materials = MTLReader.load(library, getResources().openRawResource(resId));
+        List<OBJLoader.SubMesh> subMeshes = objLoader.getSubMeshes();
+        float[][] diffuse = new float[subMeshes.size()][];
+        for (int s = 0; s < diffuse.length; s++) {
+            Material material = materials.get(subMeshes.get(s).material);
+            diffuse[s] = material != null ? material.getDiffuseColor() : null;
+        }
+        return diffuse;
+    }
+
+    /**
+     * Tints each material range by its diffuse color. The props aren't textured, so no range
+     * binds a texture.
+     */
+    private static void setMaterials(MeshRenderer.Mesh mesh, List<OBJLoader.SubMesh> subMeshes,
+                                     float[][] diffuse) {
+        if (diffuse == null) {
+            return;
+        }
+        if (mesh.getSubMeshCount() == 1) {
+            // one material: tint the whole mesh through a single range
+            mesh.setSubMeshes(new int[] {mesh.indexCount});
+        }
+        for (int s = 0; s < diffuse.length; s++) {
+            float[] kd = diffuse[s];
+            if (kd != null) {
+                mesh.setMaterial(s, 0, kd[0], kd[1], kd[2], 1f);
+            }
+        }
+    }
+
+    /**
+     * Multiplies the baked colors by the diffuse color of the range each vertex is drawn in, as
+     * the baked shader does with u_MaterialColor
+     */
+    private static int[] tint(int[] colors, int[] indices, List<OBJLoader.SubMesh> subMeshes,
+                              float[][] diffuse) {
+        int[] tinted = colors.clone();
+        if (diffuse == null) {
+            return tinted;
+        }
+        for (int s = 0; s < diffuse.length; s++) {
+            float[] kd = diffuse[s];
+            if (kd == null) {
+                continue;
+            }
+            OBJLoader.SubMesh subMesh = subMeshes.get(s);
+            for (int i = subMesh.firstIndex; i < subMesh.firstIndex + subMesh.indexCount; i++) {
+                int v = indices[i];
+                int argb = colors[v];
+                int r = Math.min(255, Math.round(((argb >> 16) & 0xFF) * kd[0]));
+                int g = Math.min(255, Math.round(((argb >> 8) & 0xFF) * kd[1]));
+                int b = Math.min(255, Math.round((argb & 0xFF) * kd[2]));
+                tinted[v] = (argb & 0xFF000000) | (r << 16) | (g << 8) | b;
+            }
+        }
+        return tinted;
+    }
+
+    private static final class LoadedMesh {
+        final MeshRenderer.Mesh mesh;
+        final TriangleBvh bvh;
+
+        LoadedMesh(MeshRenderer.Mesh mesh, TriangleBvh bvh) {
+            this.mesh = mesh;
+            this.bvh = bvh;
+        }
+    }
+
+    /**
+     * Streams an OBJ prop in by its position, with an imposter for when it's far away.
+     */
+    private void addProp(String name, int resId, MeshRenderer.Program program, float[] model) {
+        Imposters.Prop imposter = imposters.add(name, model);
+        worldStreamer.add(model[12], model[14], new StreamedMesh(name, resId, program, model, imposter));
+    }
+
+    /**
+     * An OBJ mesh that WorldStreamer loads off the GL thread and adds to the meshRenderer
+     * when it's ready.
+     */
+    private class StreamedMesh implements WorldStreamer.Asset {
+        private final String name;
+        private final int resId;
+        private final MeshRenderer.Program program;
+        private final float[] model;
+        private final Imposters.Prop imposter;
+        private MeshRenderer.Mesh mesh;
+        private TriangleBvh bvh;
+        private MeshRenderer.Record record;
+        private GazePicker.Target target;
+        private WalkCollider.Body body;
+
+        StreamedMesh(String name, int resId, MeshRenderer.Program program, float[] model,
+                     Imposters.Prop imposter) {
+            this.name = name;
+            this.resId = resId;
+            this.program = program;
+            this.model = model;
+            this.imposter = imposter;
+        }
+
+        @Override
+        public long load() {
+            LoadedMesh loaded = loadMesh(resId, model, imposter);
+            mesh = loaded.mesh;
+            bvh = loaded.bvh;
+            return mesh.bytes;
+        }
+
+        @Override
+        public void attach() {
+            record = meshRenderer.add(name, mesh, program, model);
+            imposter.setFullRecord(record);
+            target = gazePicker.add(name, bvh, model);
+            body = walkCollider.add(bvh, model);
+        }
+
+        @Override
+        public void evict() {
+            if (record != null) {
+                imposter.setFullRecord(null);
+                meshRenderer.remove(record);
+                record = null;
+                gazePicker.remove(target);
+                target = null;
+                walkCollider.remove(body);
+                body = null;
+                mesh.release();
+            }
+            mesh = null;
+            bvh = null;
+        }
+    }
+
+    /**
+     * Renders a prop's imposter atlas from its vertex colors, which should already hold the
+     * baked light and the material tint, so the imposter matches the full mesh. A failed bake
+     * is logged and left for the prop's next load.
+     */
+    private static void bakeImposter(Imposters.Prop imposter, float[] positions, int[] indices, int[] colors) {
+        try {
+            long start = System.nanoTime();
+            imposter.setAtlas(ImposterBaker.bake(positions, indices,
+                    IMPOSTER_VIEWS, IMPOSTER_TILE_SIZE, colors));
+            Log.i(TAG, "Baked imposter in " + (System.nanoTime() - start) / 1000000 + "ms");
+        } catch (RuntimeException e) {
+            Log.w(TAG, "Could not bake imposter", e);
+        }
+    }
+
     /**
      * Updates the cube model position.
      */
@@ -606,29 +648,6 @@ public class TreasureHuntActivity extends GvrActivity implements GvrView.StereoR
         checkGLError("updateCubePosition");
     }
 
-    /**
-     * Converts a raw text file into a string.
-     *
-     * @param resId The resource ID of the raw text file about to be turned into a shader.
-     * @return The context of the text file, or null in case of error.
-     */
-    private String readRawTextFile(int resId) {
-        InputStream inputStream = getResources().openRawResource(resId);
-        try {
-            BufferedReader reader = new BufferedReader(new InputStreamReader(inputStream));
-            StringBuilder sb = new StringBuilder();
-            String line;
-            while ((line = reader.readLine()) != null) {
-                sb.append(line).append("\n");
-            }
-            reader.close();
-            return sb.toString();
-        } catch (IOException e) {
-            e.printStackTrace();
-        }
-        return null;
-    }
-
     float posx = 0;
     float posz = 0;
 
@@ -639,17 +658,36 @@ public class TreasureHuntActivity extends GvrActivity implements GvrView.StereoR
      */
     @Override
     public void onNewFrame(HeadTransform headTransform) {
+        frameStats.beginFrame();
+        frameStats.beginPhase(FrameStats.SCENE_UPDATE);
         setCubeRotation();
         setObjMove();
         float[] forward = new float[3];
         headTransform.getForwardVector(forward,0);
-        posx+=forward[0]/15;
-        posy+=forward[1]/15;
-        posz += forward[2]/15;
+        // Walk the way the head faces, around the props and along the ground.
+        eyePosition[0] = posx;
+        eyePosition[1] = posy;
+        eyePosition[2] = posz;
+        walkCollider.walk(eyePosition, forward[0] * WALK_SPEED, forward[2] * WALK_SPEED);
+        posx = eyePosition[0];
+        posy = eyePosition[1];
+        posz = eyePosition[2];
         // Build the camera matrix and apply it to the ModelView.
         Matrix.setLookAtM(camera, 0, posx, posy, posz, 2*posx, 2*posy, 2*posz, 0.0f, 1.0f, 0.0f);
 
         headTransform.getHeadView(headView, 0);
+        Matrix.multiplyMM(centerView, 0, headView, 0, camera, 0);
+
+        gazePicker.pick(centerView);
+        cubeRecord.setMesh(isLookingAtObject() ? cubeFoundMesh : cubeMesh);
+
+        // cached imposter atlases outlive their cells, so they're charged to the streamer's budget
+        worldStreamer.setPinnedBytes(imposters.getAtlasBytes());
+        worldStreamer.update(System.nanoTime(), posx, posy, posz);
+        imposters.update(posx, posy, posz);
+
+        // Per-object work for both eyes, done once from the view between them.
+        meshRenderer.prepareFrame(centerView);
 
         // Update the 3d audio engine with the most recent head rotation.
         headTransform.getQuaternion(headRotation, 0);
@@ -659,6 +697,7 @@ public class TreasureHuntActivity extends GvrActivity implements GvrView.StereoR
         gvrAudioEngine.update();
 
         checkGLError("onReadyToDraw");
+        frameStats.endPhase(FrameStats.SCENE_UPDATE);
     }
 
     protected void setCubeRotation() {
@@ -675,6 +714,8 @@ public class TreasureHuntActivity extends GvrActivity implements GvrView.StereoR
      */
     @Override
     public void onDrawEye(Eye eye) {
+        int phase = eye.getType() == Eye.Type.RIGHT ? FrameStats.RIGHT_EYE : FrameStats.LEFT_EYE;
+        frameStats.beginPhase(phase);
         GLES20.glEnable(GLES20.GL_DEPTH_TEST);
         GLES20.glClear(GLES20.GL_COLOR_BUFFER_BIT | GLES20.GL_DEPTH_BUFFER_BIT);
 
@@ -686,139 +727,33 @@ public class TreasureHuntActivity extends GvrActivity implements GvrView.StereoR
         // Set the position of the light
         Matrix.multiplyMV(lightPosInEyeSpace, 0, view, 0, LIGHT_POS_IN_WORLD_SPACE, 0);
 
-        // Build the ModelView and ModelViewProjection matrices
-        // for calculating cube position and light.
         float[] perspective = eye.getPerspective(Z_NEAR, Z_FAR);
-        Matrix.multiplyMM(modelView, 0, view, 0, modelCube, 0);
-        Matrix.multiplyMM(modelViewProjection, 0, perspective, 0, modelView, 0);
-        drawCube();
-
-        // Set modelView for the floor, so we draw floor in the correct location
-        Matrix.multiplyMM(modelView, 0, view, 0, modelFloor, 0);
-        Matrix.multiplyMM(modelViewProjection, 0, perspective, 0, modelView, 0);
-        drawFloor();
-
-//        wellObj.setPosition(0,0,100);
-//        wellObj.draw(lightPosInEyeSpace,view,perspective);
-        Matrix.multiplyMM(modelView, 0, view, 0, modelWell, 0);
-        Matrix.multiplyMM(modelViewProjection, 0, perspective, 0, modelView, 0);
-        drawWell();
-
-        Matrix.multiplyMM(modelView,0,view,0,modelBed,0);
-        Matrix.multiplyMM(modelViewProjection,0,perspective,0,modelView,0);
-        drawBed();
+        meshRenderer.drawEye(view, perspective, lightPosInEyeSpace);
+        checkGLError("Drawing meshes");
 
+        frameStats.endPhase(phase);
     }
 
     @Override
     public void onFinishFrame(Viewport viewport) {
-    }
-
-    public void drawWell() {
-        GLES20.glUseProgram(wellProgram);
-        GLES20.glUniform3fv(wellLightPosParam, 1, lightPosInEyeSpace, 0);
-
-        GLES20.glUniformMatrix4fv(wellModelParam, 1, false, modelWell, 0);
-        GLES20.glUniformMatrix4fv(wellModelViewParam, 1, false, modelView, 0);
-        GLES20.glUniformMatrix4fv(wellModelViewProjectionParam, 1, false, modelViewProjection, 0);
-
-        GLES20.glVertexAttribPointer(wellPositionParam, COORDS_PER_VERTEX, GLES20.GL_FLOAT, false, 0, wellVertices);
-        GLES20.glVertexAttribPointer(wellNormalParam, 3, GLES20.GL_FLOAT, false, 0, wellNormals);
-        GLES20.glVertexAttribPointer(wellTextureParam, 2, GLES20.GL_FLOAT, false, 0, wellTextures);
-
-        GLES20.glEnableVertexAttribArray(wellPositionParam);
-        GLES20.glEnableVertexAttribArray(wellNormalParam);
-        GLES20.glEnableVertexAttribArray(wellTextureParam);
-
-        GLES20.glDrawElements(GLES20.GL_TRIANGLES, well_indices.length , GLES20.GL_UNSIGNED_INT, wellIndices);
-//        GLES20.glDrawArrays(GLES20.GL_TRIANGLES,0,well_vertices.length);
-        checkGLError("Drawing well");
-    }
-    public void drawBed(){
-        GLES20.glUseProgram(bedProgram);
-        GLES20.glUniform3fv(bedLightPosParam, 1, lightPosInEyeSpace, 0);
-
-        GLES20.glUniformMatrix4fv(bedModelParam, 1, false, modelBed, 0);
-        GLES20.glUniformMatrix4fv(bedModelViewParam, 1, false, modelView, 0);
-        GLES20.glUniformMatrix4fv(bedModelViewProjectionParam, 1, false, modelViewProjection, 0);
-
-        GLES20.glVertexAttribPointer(bedPositionParam, COORDS_PER_VERTEX, GLES20.GL_FLOAT, false, 0, bedVertices);
-        GLES20.glVertexAttribPointer(bedNormalParam, 3, GLES20.GL_FLOAT, false, 0, bedNormals);
-        GLES20.glVertexAttribPointer(bedTextureParam, 2, GLES20.GL_FLOAT, false, 0, bedTextures);
-
-        GLES20.glEnableVertexAttribArray(bedPositionParam);
-        GLES20.glEnableVertexAttribArray(bedNormalParam);
-        GLES20.glEnableVertexAttribArray(bedTextureParam);
-
-        GLES20.glDrawElements(GLES20.GL_TRIANGLES, bed_indices.length , GLES20.GL_UNSIGNED_INT, bedIndices);
-//        GLES20.glDrawArrays(GLES20.GL_TRIANGLES,0,bed_vertices.length);
-        checkGLError("Drawing bed");
+        if (drawStats.endFrame()) {
+            drawStats.logReport(DRAW_STATS_TOP_N);
+        }
+        frameStats.endFrame();
     }
 
     /**
-     * Draw the cube.
-     * <p>
-     * <p>We've set all of our transformation matrices. Now we simply pass them into the shader.
+     * Frame timings of the render thread; summarize() from any thread.
      */
-    public void drawCube() {
-        GLES20.glUseProgram(cubeProgram);
-
-        GLES20.glUniform3fv(cubeLightPosParam, 1, lightPosInEyeSpace, 0);
-
-        // Set the Model in the shader, used to calculate lighting
-        GLES20.glUniformMatrix4fv(cubeModelParam, 1, false, modelCube, 0);
-
-        // Set the ModelView in the shader, used to calculate lighting
-        GLES20.glUniformMatrix4fv(cubeModelViewParam, 1, false, modelView, 0);
-
-        // Set the position of the cube
-        GLES20.glVertexAttribPointer(
-                cubePositionParam, COORDS_PER_VERTEX, GLES20.GL_FLOAT, false, 0, cubeVertices);
-
-        // Set the ModelViewProjection matrix in the shader.
-        GLES20.glUniformMatrix4fv(cubeModelViewProjectionParam, 1, false, modelViewProjection, 0);
-
-        // Set the normal positions of the cube, again for shading
-        GLES20.glVertexAttribPointer(cubeNormalParam, 3, GLES20.GL_FLOAT, false, 0, cubeNormals);
-        GLES20.glVertexAttribPointer(cubeColorParam, 4, GLES20.GL_FLOAT, false, 0,
-                isLookingAtObject() ? cubeFoundColors : cubeColors);
-
-        // Enable vertex arrays
-        GLES20.glEnableVertexAttribArray(cubePositionParam);
-        GLES20.glEnableVertexAttribArray(cubeNormalParam);
-        GLES20.glEnableVertexAttribArray(cubeColorParam);
-
-        GLES20.glDrawArrays(GLES20.GL_TRIANGLES, 0, 36);
-        checkGLError("Drawing cube");
+    public FrameStats getFrameStats() {
+        return frameStats;
     }
 
     /**
-     * Draw the floor.
-     * <p>
-     * <p>This feeds in data for the floor into the shader. Note that this doesn't feed in data about
-     * position of the light, so if we rewrite our code to draw the floor first, the lighting might
-     * look strange.
+     * Per-mesh draw costs; read from the render thread.
      */
-    public void drawFloor() {
-        GLES20.glUseProgram(floorProgram);
-
-        // Set ModelView, MVP, position, normals, and color.
-        GLES20.glUniform3fv(floorLightPosParam, 1, lightPosInEyeSpace, 0);
-        GLES20.glUniformMatrix4fv(floorModelParam, 1, false, modelFloor, 0);
-        GLES20.glUniformMatrix4fv(floorModelViewParam, 1, false, modelView, 0);
-        GLES20.glUniformMatrix4fv(floorModelViewProjectionParam, 1, false, modelViewProjection, 0);
-        GLES20.glVertexAttribPointer(
-                floorPositionParam, COORDS_PER_VERTEX, GLES20.GL_FLOAT, false, 0, floorVertices);
-        GLES20.glVertexAttribPointer(floorNormalParam, 3, GLES20.GL_FLOAT, false, 0, floorNormals);
-        GLES20.glVertexAttribPointer(floorColorParam, 4, GLES20.GL_FLOAT, false, 0, floorColors);
-
-        GLES20.glEnableVertexAttribArray(floorPositionParam);
-        GLES20.glEnableVertexAttribArray(floorNormalParam);
-        GLES20.glEnableVertexAttribArray(floorColorParam);
-
-        GLES20.glDrawArrays(GLES20.GL_TRIANGLES, 0, 24);
-
-        checkGLError("drawing floor");
+    public DrawStats getDrawStats() {
+        return drawStats;
     }
 
     /**
@@ -870,19 +805,12 @@ public class TreasureHuntActivity extends GvrActivity implements GvrView.StereoR
     }
 
     /**
-     * Check if user is looking at object by calculating where the object is in eye-space.
+     * Check if user is looking at the cube, from this frame's gaze pick.
      *
      * @return true if the user is looking at the object.
      */
     private boolean isLookingAtObject() {
-        // Convert object space to camera space. Use the headView from onNewFrame.
-        Matrix.multiplyMM(modelView, 0, headView, 0, modelCube, 0);
-        Matrix.multiplyMV(tempPosition, 0, modelView, 0, POS_MATRIX_MULTIPLY_VEC, 0);
-
-        float pitch = (float) Math.atan2(tempPosition[1], -tempPosition[2]);
-        float yaw = (float) Math.atan2(tempPosition[0], -tempPosition[2]);
-
-        return Math.abs(pitch) < PITCH_LIMIT && Math.abs(yaw) < YAW_LIMIT;
+        return gazePicker.getTarget() == cubeTarget;
     }
     private String myReadRawFile(InputStream inputStream){
         try {
@@ -0,0 +1,415 @@
+package com.google.vr.sdk.samples.treasurehunt;
+
+import android.opengl.Matrix;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import min3d.mesh.TriangleBvh;
+
+/**
+ * Keeps the walking viewer out of the scene's meshes and on the ground.
+ * <p>
+ * <p>The viewer's body is a vertical capsule from a step's height above the feet up to the eye.
+ * walk() moves it in substeps shorter than half its radius, so it can't pass through a wall
+ * within one frame, and after each substep pushes it back out of any triangle it overlaps.
+ * Only the part of the push across the wall is applied, so the viewer slides along walls
+ * instead of stopping. Then the feet are stood on the highest surface under the eye, or on the
+ * floor plane: up at once when it's within a step, down at most a step per walk() when it's
+ * lower, so drops read as short falls.
+ * <p>
+ * <p>Bodies are a mesh's TriangleBvh, built once when the mesh loads, placed by a model matrix
+ * that must be rigid (rotation and translation only), as the props' are. A body's world box and
+ * inverse model are worked out when it's added, and again only after moved(). Bodies are filed
+ * by their boxes in a grid of square cells over x and z. walk() gathers the bodies in the cells
+ * around the capsule, and gathers again only once the capsule leaves the gathered area, then
+ * searches just the ones whose box it reaches. So the cost follows what's around the viewer, not
+ * the size of the scene.
+ */
+public class WalkCollider {
+
+    // push-out passes per substep, for corners where two walls meet
+    private static final int MAX_RESOLVES = 4;
+    private static final float DEFAULT_CELL_SIZE = 32f;
+    // bodies spanning more cells than this are always gathered instead
+    private static final int MAX_CELLS_PER_BODY = 256;
+
+    private final float radius;
+    private final float eyeHeight;
+    private final float stepHeight;
+    private final float skin;
+    private final float cellSize;
+
+    private final Map<Long, List<Body>> grid = new HashMap<Long, List<Body>>();
+    private final List<Body> largeBodies = new ArrayList<Body>();
+    private final List<Body> movedBodies = new ArrayList<Body>();
+    private float[] floorModel;
+
+    // bodies filed in the cells around the last gathered area, which spans these
+    private final List<Body> candidates = new ArrayList<Body>();
+    private float gatheredMinX;
+    private float gatheredMinZ;
+    private float gatheredMaxX = -Float.MAX_VALUE;
+    private float gatheredMaxZ = -Float.MAX_VALUE;
+    private int gatherStamp;
+
+    private final TriangleBvh.Hit hit = new TriangleBvh.Hit();
+    private final float[] local = new float[8];
+    private final float[] world = new float[8];
+    private final float[] corner = new float[4];
+    private final float[] worldCorner = new float[4];
+
+    // nearest contact found by nearest(), in world space
+    private float contactDistance;
+    private float contactX;
+    private float contactZ;
+
+    private long walkNanos;
+
+    /**
+     * @param radius     how far the body keeps from walls
+     * @param eyeHeight  from the feet to the eye
+     * @param stepHeight highest ledge walked up without stopping
+     */
+    public WalkCollider(float radius, float eyeHeight, float stepHeight) {
+        this(radius, eyeHeight, stepHeight, DEFAULT_CELL_SIZE);
+    }
+
+    /**
+     * @param cellSize side of a grid cell; about the size of the smaller bodies works well
+     */
+    public WalkCollider(float radius, float eyeHeight, float stepHeight, float cellSize) {
+        this.radius = radius;
+        this.eyeHeight = eyeHeight;
+        this.stepHeight = stepHeight;
+        this.skin = radius * 0.01f;
+        this.cellSize = cellSize;
+    }
+
+    /**
+     * Sets the floor, the y = 0 plane of model, which is kept, not copied. Nothing is walked
+     * below it.
+     */
+    public void setFloor(float[] model) {
+        floorModel = model;
+    }
+
+    /**
+     * Adds a mesh to walk around. The model array is kept, not copied; after changing it, call
+     * moved() so the body follows.
+     */
+    public Body add(TriangleBvh bvh, float[] model) {
+        Body body = new Body(bvh, model);
+        body.update(corner, worldCorner);
+        file(body);
+        return body;
+    }
+
+    public void remove(Body body) {
+        unfile(body);
+        if (body.moved) {
+            movedBodies.remove(body);
+            body.moved = false;
+        }
+    }
+
+    /**
+     * Marks a body's model matrix as changed. Its box is worked out again at the next walk().
+     */
+    public void moved(Body body) {
+        if (!body.moved) {
+            body.moved = true;
+            movedBodies.add(body);
+        }
+    }
+
+    /**
+     * Walks the eye by dx, dz, sliding along what it bumps into, then stands it on the ground.
+     *
+     * @param eye the eye's position, xyz, updated in place
+     */
+    public void walk(float[] eye, float dx, float dz) {
+        long start = System.nanoTime();
+        for (int i = 0; i < movedBodies.size(); i++) {
+            Body body = movedBodies.get(i);
+            unfile(body);
+            body.update(corner, worldCorner);
+            file(body);
+            body.moved = false;
+        }
+        movedBodies.clear();
+
+        float x = eye[0];
+        float z = eye[2];
+        float bottom = eye[1] - eyeHeight + stepHeight + radius;
+        float top = Math.max(bottom, eye[1]);
+
+        float length = (float) Math.sqrt(dx * dx + dz * dz);
+        int steps = Math.max(1, (int) Math.ceil(length / (radius / 2)));
+        for (int step = 0; step < steps; step++) {
+            x += dx / steps;
+            z += dz / steps;
+            for (int pass = 0; pass < MAX_RESOLVES; pass++) {
+                if (!nearest(x, bottom, top, z, radius)) {
+                    break;
+                }
+                // the push is across the wall only, so the rest of the step slides along it
+                float cx = x - contactX;
+                float cz = z - contactZ;
+                float across = (float) Math.sqrt(cx * cx + cz * cz);
+                if (contactDistance == 0 || across < skin) {
+                    // already through a triangle, eg a prop that loaded around the viewer,
+                    // or against something level: no way out sideways, so it isn't held
+                    break;
+                }
+                // out until the contact is a radius away, keeping its height on the capsule
+                float rise = contactDistance * contactDistance - across * across;
+                float push = Math.min(radius, (float) Math.sqrt(radius * radius - rise) - across + skin);
+                x += cx / across * push;
+                z += cz / across * push;
+            }
+        }
+
+        eye[0] = x;
+        eye[2] = z;
+        float feet = eye[1] - eyeHeight;
+        float ground = ground(x, feet + stepHeight, z);
+        eye[1] = (ground >= feet ? ground : Math.max(ground, feet - stepHeight)) + eyeHeight;
+
+        walkNanos = System.nanoTime() - start;
+    }
+
+    /**
+     * How long the last walk() took
+     */
+    public long getWalkNanos() {
+        return walkNanos;
+    }
+
+    //
+
+    /**
+     * Finds the mesh point nearest the vertical segment at x, z from bottom to top, if any is
+     * within maxDistance, into the contact fields
+     */
+    private boolean nearest(float x, float bottom, float top, float z, float maxDistance) {
+        gather(x, z, maxDistance);
+        contactDistance = maxDistance;
+        boolean found = false;
+        world[0] = x;
+        world[1] = bottom;
+        world[2] = z;
+        world[3] = 1;
+        world[4] = x;
+        world[5] = top;
+        world[6] = z;
+        world[7] = 1;
+        for (int i = 0; i < candidates.size(); i++) {
+            Body body = candidates.get(i);
+            if (!body.reaches(x, bottom, top, z, contactDistance)) {
+                continue;
+            }
+            Matrix.multiplyMV(local, 0, body.inverse, 0, world, 0);
+            Matrix.multiplyMV(local, 4, body.inverse, 0, world, 4);
+            if (body.bvh.closest(local[0], local[1], local[2], local[4], local[5], local[6],
+                    contactDistance, hit)) {
+                found = true;
+                // rigid, so distances carry over; only the mesh point goes back to world space
+                contactDistance = hit.distance;
+                corner[0] = hit.x;
+                corner[1] = hit.y;
+                corner[2] = hit.z;
+                corner[3] = 1;
+                Matrix.multiplyMV(worldCorner, 0, body.model, 0, corner, 0);
+                contactX = worldCorner[0];
+                contactZ = worldCorner[2];
+            }
+        }
+        return found;
+    }
+
+    /**
+     * Height of the highest surface at x, z no higher than from, or the floor's
+     */
+    private float ground(float x, float from, float z) {
+        gather(x, z, 0);
+        float ground = floorModel != null ? floorModel[13] : -Float.MAX_VALUE;
+        world[0] = x;
+        world[1] = from;
+        world[2] = z;
+        world[3] = 1;
+        world[4] = 0;
+        world[5] = -1;
+        world[6] = 0;
+        world[7] = 0;
+        for (int i = 0; i < candidates.size(); i++) {
+            Body body = candidates.get(i);
+            float depth = from - Math.max(ground, body.bounds[1]);
+            if (depth <= 0 || !body.reaches(x, from - depth, from, z, 0)) {
+                continue;
+            }
+            Matrix.multiplyMV(local, 0, body.inverse, 0, world, 0);
+            Matrix.multiplyMV(local, 4, body.inverse, 0, world, 4);
+            if (body.bvh.intersect(local[0], local[1], local[2], local[4], local[5], local[6],
+                    depth, hit)) {
+                ground = from - hit.distance;
+            }
+        }
+        return ground;
+    }
+
+    /**
+     * Makes candidates hold every body filed within reach of x, z. The area gathered is padded,
+     * so a capsule moving a little stays inside it and nothing is gathered again.
+     */
+    private void gather(float x, float z, float reach) {
+        if (x - reach >= gatheredMinX && x + reach <= gatheredMaxX
+                && z - reach >= gatheredMinZ && z + reach <= gatheredMaxZ) {
+            return;
+        }
+        float margin = reach + radius + cellSize / 2;
+        gatheredMinX = x - margin;
+        gatheredMinZ = z - margin;
+        gatheredMaxX = x + margin;
+        gatheredMaxZ = z + margin;
+
+        gatherStamp++;
+        candidates.clear();
+        for (int i = 0; i < largeBodies.size(); i++) {
+            candidates.add(largeBodies.get(i));
+        }
+        int ix1 = cell(gatheredMaxX);
+        int iz1 = cell(gatheredMaxZ);
+        for (int ix = cell(gatheredMinX); ix <= ix1; ix++) {
+            for (int iz = cell(gatheredMinZ); iz <= iz1; iz++) {
+                List<Body> filed = grid.get(key(ix, iz));
+                if (filed == null) {
+                    continue;
+                }
+                for (int i = 0; i < filed.size(); i++) {
+                    Body body = filed.get(i);
+                    // a body spanning several cells is gathered once
+                    if (body.gatherStamp != gatherStamp) {
+                        body.gatherStamp = gatherStamp;
+                        candidates.add(body);
+                    }
+                }
+            }
+        }
+    }
+
+    /**
+     * Files a body in every cell its box covers
+     */
+    private void file(Body body) {
+        body.cellX0 = cell(body.bounds[0]);
+        body.cellZ0 = cell(body.bounds[2]);
+        body.cellX1 = cell(body.bounds[3]);
+        body.cellZ1 = cell(body.bounds[5]);
+        long cells = ((long) body.cellX1 - body.cellX0 + 1) * ((long) body.cellZ1 - body.cellZ0 + 1);
+        if (cells > MAX_CELLS_PER_BODY) {
+            largeBodies.add(body);
+        } else {
+            for (int ix = body.cellX0; ix <= body.cellX1; ix++) {
+                for (int iz = body.cellZ0; iz <= body.cellZ1; iz++) {
+                    Long key = key(ix, iz);
+                    List<Body> filed = grid.get(key);
+                    if (filed == null) {
+                        filed = new ArrayList<Body>(2);
+                        grid.put(key, filed);
+                    }
+                    filed.add(body);
+                }
+            }
+        }
+        forgetGathered();
+    }
+
+    private void unfile(Body body) {
+        if (!largeBodies.remove(body)) {
+            for (int ix = body.cellX0; ix <= body.cellX1; ix++) {
+                for (int iz = body.cellZ0; iz <= body.cellZ1; iz++) {
+                    Long key = key(ix, iz);
+                    List<Body> filed = grid.get(key);
+                    if (filed != null) {
+                        filed.remove(body);
+                        if (filed.isEmpty()) {
+                            grid.remove(key);
+                        }
+                    }
+                }
+            }
+        }
+        forgetGathered();
+    }
+
+    private void forgetGathered() {
+        gatheredMaxX = -Float.MAX_VALUE;
+        gatheredMaxZ = -Float.MAX_VALUE;
+        candidates.clear();
+    }
+
+    private int cell(float coordinate) {
+        return (int) Math.floor(coordinate / cellSize);
+    }
+
+    private static Long key(int ix, int iz) {
+        return ((long) ix << 32) | (iz & 0xFFFFFFFFL);
+    }
+
+    /**
+     * A mesh in the scene that can't be walked through.
+     */
+    public static final class Body {
+        private final TriangleBvh bvh;
+        private final float[] model;
+        private final float[] localBounds = new float[6];
+        private final float[] bounds = new float[6];
+        private final float[] inverse = new float[16];
+        private boolean moved;
+        private int cellX0;
+        private int cellZ0;
+        private int cellX1;
+        private int cellZ1;
+        private int gatherStamp;
+
+        Body(TriangleBvh bvh, float[] model) {
+            this.bvh = bvh;
+            this.model = model;
+            bvh.bounds(localBounds);
+        }
+
+        /**
+         * World box and inverse model from the model matrix as it is now
+         */
+        void update(float[] corner, float[] worldCorner) {
+            Matrix.invertM(inverse, 0, model, 0);
+            for (int k = 0; k < 3; k++) {
+                bounds[k] = Float.MAX_VALUE;
+                bounds[3 + k] = -Float.MAX_VALUE;
+            }
+            for (int c = 0; c < 8; c++) {
+                corner[0] = localBounds[(c & 1) == 0 ? 0 : 3];
+                corner[1] = localBounds[(c & 2) == 0 ? 1 : 4];
+                corner[2] = localBounds[(c & 4) == 0 ? 2 : 5];
+                corner[3] = 1;
+                Matrix.multiplyMV(worldCorner, 0, model, 0, corner, 0);
+                for (int k = 0; k < 3; k++) {
+                    bounds[k] = Math.min(bounds[k], worldCorner[k]);
+                    bounds[3 + k] = Math.max(bounds[3 + k], worldCorner[k]);
+                }
+            }
+        }
+
+        /**
+         * Whether the vertical segment at x, z from bottom to top comes within distance of the box
+         */
+        boolean reaches(float x, float bottom, float top, float z, float distance) {
+            return x >= bounds[0] - distance && x <= bounds[3] + distance
+                    && z >= bounds[2] - distance && z <= bounds[5] + distance
+                    && top >= bounds[1] - distance && bottom <= bounds[4] + distance;
+        }
+    }
+}
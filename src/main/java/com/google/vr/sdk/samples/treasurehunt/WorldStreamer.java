@@ -0,0 +1,404 @@
+package com.google.vr.sdk.samples.treasurehunt;
+
+import android.util.Log;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadFactory;
+
+/**
+ * Loads scene assets ahead of the viewer and drops them again when memory runs short.
+ * <p>
+ * <p>The ground plane is cut into square cells and each asset belongs to the cell under its
+ * position. Every frame the viewer's position goes into a MotionPredictor. A few times a second
+ * the streamer works out the path the viewer is expected to take over the next few seconds and
+ * wants every cell within the resident radius of that path, nearest along the path first.
+ * Wanted cells are loaded on background threads, then attached on the GL thread a few per frame
+ * so a burst of completed loads can't stall one frame.
+ * <p>
+ * <p>Attached cells count their bytes against a budget, along with any pinned bytes the caller
+ * reports for memory held outside the cells. Over budget, the cells farthest from the viewer that
+ * are no longer wanted are evicted first; wanted cells are never evicted.
+ * <p>
+ * <p>A cell whose load throws is retried while it stays wanted, waiting twice as long after each
+ * failure up to a cap. Once the viewer leaves it the count is forgotten, so coming back, or
+ * freeing memory for it, starts again from a prompt retry.
+ * <p>
+ * <p>The loader threads are separate from min3d's Workers pool. Loaders may split their own work
+ * with Workers.forRange(), which also runs inline if an asset happens to load on a pool thread.
+ */
+public class WorldStreamer {
+
+    /**
+     * Something that can be loaded into the scene and dropped again.
+     */
+    public interface Asset {
+        /**
+         * Reads and decodes the asset on a loader thread. No GL calls.
+         *
+         * @return bytes held once loaded
+         */
+        long load() throws Exception;
+
+        /**
+         * Makes the loaded asset drawable. Called on the GL thread.
+         */
+        void attach();
+
+        /**
+         * Stops drawing the asset, if attached, and drops what load() made. Called on the
+         * GL thread.
+         */
+        void evict();
+    }
+
+    private static final String TAG = "WorldStreamer";
+
+    private static final int LOADER_THREADS = 2;
+    private static final int MAX_ATTACH_PER_FRAME = 1;
+    private static final long PLAN_INTERVAL_NANOS = 100000000L;
+    private static final long RETRY_NANOS = 1000000000L;
+    private static final long MAX_RETRY_NANOS = 30000000000L;
+
+    private static final int IDLE = 0;
+    private static final int LOADING = 1;
+    private static final int RESIDENT = 2;
+    private static final int FAILED = 3;
+
+    private static final Comparator<Cell> BY_SCORE = new Comparator<Cell>() {
+        @Override
+        public int compare(Cell a, Cell b) {
+            return Float.compare(a.score, b.score);
+        }
+    };
+
+    private final float cellSize;
+    private final long memoryBudget;
+    private float residentRadius;
+    private float horizonSeconds;
+
+    private final Map<Long, Cell> cellMap = new HashMap<Long, Cell>();
+    private final List<Cell> cells = new ArrayList<Cell>();
+    private final List<Cell> wanted = new ArrayList<Cell>();
+    private final ConcurrentLinkedQueue<Cell> loaded = new ConcurrentLinkedQueue<Cell>();
+    private final ExecutorService loader;
+
+    private final MotionPredictor predictor = new MotionPredictor();
+    private final float[] predicted = new float[3];
+    private float viewerX;
+    private float viewerZ;
+    private long now;
+    private long nextPlan;
+    private int inFlight;
+    private long residentBytes;
+    private long pinnedBytes;
+    private boolean warnedOverBudget;
+
+    /**
+     * @param cellSize       side of a cell in world units
+     * @param memoryBudget   bytes that attached cells may hold before far ones are evicted
+     * @param residentRadius cells within this distance of the expected path are loaded
+     * @param horizonSeconds how far ahead the path is extrapolated
+     */
+    public WorldStreamer(float cellSize, long memoryBudget, float residentRadius, float horizonSeconds) {
+        this.cellSize = cellSize;
+        this.memoryBudget = memoryBudget;
+        this.residentRadius = residentRadius;
+        this.horizonSeconds = horizonSeconds;
+        loader = Executors.newFixedThreadPool(LOADER_THREADS, new ThreadFactory() {
+            private int count;
+
+            @Override
+            public synchronized Thread newThread(Runnable r) {
+                Thread thread = new Thread(r, "world-loader-" + count++);
+                thread.setDaemon(true);
+                thread.setPriority(Thread.MIN_PRIORITY);
+                return thread;
+            }
+        });
+    }
+
+    public void setResidentRadius(float residentRadius) {
+        this.residentRadius = residentRadius;
+    }
+
+    public void setHorizon(float seconds) {
+        horizonSeconds = seconds;
+    }
+
+    /**
+     * Adds an asset at a world position. Only x and z pick the cell. Call on the GL thread.
+     */
+    public void add(float x, float z, Asset asset) {
+        int ix = (int) Math.floor(x / cellSize);
+        int iz = (int) Math.floor(z / cellSize);
+        Long key = ((long) ix << 32) | (iz & 0xFFFFFFFFL);
+        Cell cell = cellMap.get(key);
+        if (cell == null) {
+            cell = new Cell((ix + 0.5f) * cellSize, (iz + 0.5f) * cellSize);
+            cellMap.put(key, cell);
+            cells.add(cell);
+        }
+        // a cell loaded without the new asset is reloaded whole next time it's wanted
+        if (cell.state == RESIDENT) {
+            evict(cell);
+        } else if (cell.state == LOADING) {
+            cell.stale = true;
+        } else if (cell.state == FAILED) {
+            cell.failures = 0;
+            cell.state = IDLE;
+        }
+        cell.assets.add(asset);
+        nextPlan = 0;
+    }
+
+    /**
+     * Call once per frame on the GL thread with the viewer's world position, before drawing.
+     * Attaches finished loads, and every so often replans what should be resident.
+     */
+    public void update(long nanos, float x, float y, float z) {
+        predictor.add(nanos, x, y, z);
+        viewerX = x;
+        viewerZ = z;
+        now = nanos;
+
+        for (int i = 0; i < MAX_ATTACH_PER_FRAME; i++) {
+            Cell cell = loaded.poll();
+            if (cell == null) {
+                break;
+            }
+            inFlight--;
+            finishLoad(cell);
+        }
+
+        if (nanos >= nextPlan) {
+            nextPlan = nanos + PLAN_INTERVAL_NANOS;
+            plan();
+        }
+    }
+
+    /**
+     * Sets bytes held outside the cells, eg caches built while loading them, that count against
+     * the budget too. Cells are evicted to make room at the next replan. Call on the GL thread.
+     */
+    public void setPinnedBytes(long bytes) {
+        pinnedBytes = bytes;
+    }
+
+    /**
+     * Bytes held by attached cells
+     */
+    public long getResidentBytes() {
+        return residentBytes;
+    }
+
+    public int getResidentCells() {
+        int n = 0;
+        for (int i = 0; i < cells.size(); i++) {
+            if (cells.get(i).state == RESIDENT) {
+                n++;
+            }
+        }
+        return n;
+    }
+
+    public int getPendingLoads() {
+        return inFlight;
+    }
+
+    /**
+     * Stops the loader threads. Loads still running finish but are never attached.
+     */
+    public void shutdown() {
+        loader.shutdownNow();
+    }
+
+    //
+
+    private void plan() {
+        predictor.predict(horizonSeconds, predicted);
+        float ax = viewerX;
+        float az = viewerZ;
+        float dx = predicted[0] - ax;
+        float dz = predicted[2] - az;
+        float pathLength2 = dx * dx + dz * dz;
+        float pathLength = (float) Math.sqrt(pathLength2);
+        // a cell counts as near the path when any part of it is
+        float reach = residentRadius + cellSize * 0.7071f;
+
+        wanted.clear();
+        for (int i = 0; i < cells.size(); i++) {
+            Cell cell = cells.get(i);
+            float t = 0;
+            if (pathLength2 > 0) {
+                t = ((cell.x - ax) * dx + (cell.z - az) * dz) / pathLength2;
+                t = Math.max(0, Math.min(1, t));
+            }
+            float ox = cell.x - (ax + t * dx);
+            float oz = cell.z - (az + t * dz);
+            float offPath = (float) Math.sqrt(ox * ox + oz * oz);
+
+            cell.wanted = offPath <= reach;
+            // distance travelled along the path, then off it
+            cell.score = t * pathLength + offPath;
+            if (cell.state == FAILED && (!cell.wanted || now >= cell.retryAt)) {
+                if (!cell.wanted) {
+                    cell.failures = 0;
+                }
+                cell.state = IDLE;
+            }
+            if (cell.wanted && cell.state == IDLE) {
+                wanted.add(cell);
+            }
+        }
+
+        Collections.sort(wanted, BY_SCORE);
+        for (int i = 0; i < wanted.size() && inFlight < LOADER_THREADS; i++) {
+            startLoad(wanted.get(i));
+        }
+
+        evictOverBudget();
+    }
+
+    private void startLoad(final Cell cell) {
+        cell.state = LOADING;
+        inFlight++;
+        final Asset[] assets = cell.assets.toArray(new Asset[cell.assets.size()]);
+        loader.execute(new Runnable() {
+            @Override
+            public void run() {
+                long start = System.nanoTime();
+                long bytes = 0;
+                boolean ok = true;
+                try {
+                    for (Asset asset : assets) {
+                        bytes += asset.load();
+                    }
+                } catch (Exception e) {
+                    Log.w(TAG, "Could not load cell at " + cell.x + "," + cell.z, e);
+                    ok = false;
+                }
+                cell.bytes = bytes;
+                cell.loadOk = ok;
+                cell.loadNanos = System.nanoTime() - start;
+                loaded.add(cell);
+            }
+        });
+    }
+
+    private void finishLoad(Cell cell) {
+        if (cell.stale) {
+            for (Asset asset : cell.assets) {
+                asset.evict();
+            }
+            cell.stale = false;
+            cell.state = IDLE;
+            nextPlan = 0;
+            return;
+        }
+        if (!cell.loadOk) {
+            for (Asset asset : cell.assets) {
+                asset.evict();
+            }
+            // back off while it stays wanted: 1s, 2s, 4s... up to the cap
+            long delay = RETRY_NANOS << Math.min(cell.failures, 5);
+            cell.failures++;
+            cell.retryAt = now + Math.min(delay, MAX_RETRY_NANOS);
+            cell.state = FAILED;
+            return;
+        }
+        if (!cell.wanted && pinnedBytes + residentBytes + cell.bytes > memoryBudget) {
+            // the viewer turned away while it loaded, and there's no room for it
+            for (Asset asset : cell.assets) {
+                asset.evict();
+            }
+            cell.state = IDLE;
+            return;
+        }
+
+        for (Asset asset : cell.assets) {
+            asset.attach();
+        }
+        cell.failures = 0;
+        cell.state = RESIDENT;
+        residentBytes += cell.bytes;
+        Log.i(TAG, "Attached cell at " + cell.x + "," + cell.z + ": " + cell.bytes / 1024 + "KB, loaded in "
+                + cell.loadNanos / 1000000 + "ms, resident " + residentBytes / 1024 + "KB");
+        evictOverBudget();
+    }
+
+    private void evictOverBudget() {
+        while (pinnedBytes + residentBytes > memoryBudget) {
+            Cell farthest = null;
+            float farthestDistance = -1;
+            for (int i = 0; i < cells.size(); i++) {
+                Cell cell = cells.get(i);
+                if (cell.state != RESIDENT || cell.wanted) {
+                    continue;
+                }
+                float dx = cell.x - viewerX;
+                float dz = cell.z - viewerZ;
+                float distance = dx * dx + dz * dz;
+                if (distance > farthestDistance) {
+                    farthestDistance = distance;
+                    farthest = cell;
+                }
+            }
+            if (farthest == null) {
+                if (!warnedOverBudget) {
+                    Log.w(TAG, "Wanted cells alone hold " + residentBytes / 1024 + "KB and "
+                            + pinnedBytes / 1024 + "KB is pinned, over the " + memoryBudget / 1024 + "KB budget");
+                    warnedOverBudget = true;
+                }
+                return;
+            }
+            evict(farthest);
+        }
+        warnedOverBudget = false;
+    }
+
+    private void evict(Cell cell) {
+        for (Asset asset : cell.assets) {
+            asset.evict();
+        }
+        residentBytes -= cell.bytes;
+        cell.state = IDLE;
+        // a load may have failed for want of the memory just freed
+        for (int i = 0; i < cells.size(); i++) {
+            Cell failed = cells.get(i);
+            if (failed.state == FAILED) {
+                failed.retryAt = Math.min(failed.retryAt, now);
+            }
+        }
+        Log.i(TAG, "Evicted cell at " + cell.x + "," + cell.z + ", resident " + residentBytes / 1024 + "KB");
+    }
+
+    private static final class Cell {
+        final float x;
+        final float z;
+        final List<Asset> assets = new ArrayList<Asset>(2);
+        int state = IDLE;
+        boolean wanted;
+        boolean stale;
+        float score;
+        int failures;
+        long retryAt;
+
+        // written by the loader thread before the cell is queued on loaded
+        long bytes;
+        boolean loadOk;
+        long loadNanos;
+
+        Cell(float x, float z) {
+            this.x = x;
+            this.z = z;
+        }
+    }
+}
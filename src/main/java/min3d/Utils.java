@@ -80,4 +80,59 @@ public class Utils
 		buffer.position(0);
 		return buffer;
 	}
+
+	/**
+	 * Converts a float to IEEE 754 half-precision bits (round-half-up).
+	 * Used for compact half-float vertex attributes.
+	 */
+	public static short floatToHalf(float $f)
+	{
+		int bits = Float.floatToIntBits($f);
+		int sign = (bits >>> 16) & 0x8000;
+		int rawExp = (bits >>> 23) & 0xff;
+		int mant = bits & 0x7fffff;
+		
+		if (rawExp == 0xff) { // Inf, NaN
+			return (short)(sign | 0x7c00 | (mant != 0 ? 0x200 : 0));
+		}
+		
+		int exp = rawExp - 127 + 15;
+		
+		if (exp >= 31) { // overflow
+			return (short)(sign | 0x7c00);
+		}
+		if (exp <= 0) // subnormal, or too small
+		{
+			if (exp < -10) return (short)sign;
+			mant |= 0x800000;
+			int shift = 14 - exp;
+			int h = mant >> shift;
+			if (((mant >> (shift - 1)) & 1) != 0) h++;
+			return (short)(sign | h);
+		}
+		
+		int h = (exp << 10) | (mant >> 13);
+		if ((mant & 0x1000) != 0) h++; // (a carry into the exponent is still correct)
+		return (short)(sign | h);
+	}
+	
+	/**
+	 * Converts IEEE 754 half-precision bits back to a float
+	 */
+	public static float halfToFloat(short $h)
+	{
+		int h = $h & 0xffff;
+		int sign = (h & 0x8000) << 16;
+		int exp = (h >>> 10) & 0x1f;
+		int mant = h & 0x3ff;
+		
+		if (exp == 0) {
+			float f = mant * (1f / (1 << 24));
+			return (sign != 0) ? -f : f;
+		}
+		if (exp == 31) {
+			return Float.intBitsToFloat(sign | 0x7f800000 | (mant << 13));
+		}
+		return Float.intBitsToFloat(sign | ((exp + 127 - 15) << 23) | (mant << 13));
+	}
 }
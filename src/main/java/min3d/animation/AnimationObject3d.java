@@ -4,6 +4,7 @@ import min3d.core.FacesBufferedList;
 import min3d.core.Object3d;
 import min3d.core.TextureList;
 import min3d.core.Vertices;
+import min3d.math.Vec3;
 
 public class AnimationObject3d extends Object3d {
 	private int numFrames;
@@ -18,6 +19,8 @@ public class AnimationObject3d extends Object3d {
 	private String currentFrameName;
 	private int loopStartIndex;
 	private boolean loop = false;
+	private float[] interpolatedVerts;
+	private float[] interpolatedNormals;
 
 	public AnimationObject3d(int $maxVertices, int $maxFaces, int $numFrames) {
 		super($maxVertices, $maxFaces);
@@ -107,22 +110,19 @@ public class AnimationObject3d extends Object3d {
 		float[] nextNormals = nextFrame.getNormals();
 		int numVerts = currentVerts.length;
 		
-		float[] interPolatedVerts = new float[numVerts];
-		float[] interPolatedNormals = new float[numVerts];
-
-		for (int i = 0; i < numVerts; i += 3) {
-			interPolatedVerts[i] = currentVerts[i] + interpolation * (nextVerts[i] - currentVerts[i]);
-			interPolatedVerts[i + 1] = currentVerts[i + 1] + interpolation * (nextVerts[i + 1] - currentVerts[i + 1]);
-			interPolatedVerts[i + 2] = currentVerts[i + 2] + interpolation 	* (nextVerts[i + 2] - currentVerts[i + 2]);
-			interPolatedNormals[i] = currentNormals[i] + interpolation * (nextNormals[i] - currentNormals[i]);
-			interPolatedNormals[i + 1] = currentNormals[i + 1] + interpolation * (nextNormals[i + 1] - currentNormals[i + 1]);
-			interPolatedNormals[i + 2] = currentNormals[i + 2] + interpolation * (nextNormals[i + 2] - currentNormals[i + 2]);
+		// Scratch arrays are reused across frames
+		if (interpolatedVerts == null || interpolatedVerts.length != numVerts) {
+			interpolatedVerts = new float[numVerts];
+			interpolatedNormals = new float[numVerts];
 		}
 
+		Vec3.lerpAll(currentVerts, nextVerts, interpolation, interpolatedVerts, numVerts);
+		Vec3.lerpAll(currentNormals, nextNormals, interpolation, interpolatedNormals, numVerts);
+
 		interpolation += fps * (currentTime - startTime) / 1000;
 		
-		vertices().overwriteNormals(interPolatedNormals);
-		vertices().overwriteVerts(interPolatedVerts);
+		vertices().overwriteNormals(interpolatedNormals);
+		vertices().overwriteVerts(interpolatedVerts);
 	
 		if (interpolation > 1) {
 			interpolation = 0;
@@ -1,5 +1,7 @@
 package min3d.animation;
 
+import min3d.math.Vec3;
+import min3d.mesh.NormalGenerator;
 import min3d.vos.Number3d;
 
 public class KeyFrame {
@@ -44,7 +46,6 @@ public class KeyFrame {
 		int len = indices.length;
 		int vi = 0;
 		int ii = 0;
-		int normalIndex = 0;
 		
 		for(int i=0; i<len; i++)
 		{
@@ -54,45 +55,14 @@ public class KeyFrame {
 			vertices[vi++] = compressed[ii + 2];
 		}
 		
-		normals = new float[vertices.length];
-		int vertLen = vertices.length;
-		
-		for(int i=0; i<vertLen; i+=9)
-		{
-			Number3d normal = calculateFaceNormal(
-					new Number3d(vertices[i], vertices[i+1], vertices[i+2]),
-					new Number3d(vertices[i+3], vertices[i+4], vertices[i+5]),
-					new Number3d(vertices[i+6], vertices[i+7], vertices[i+8])
-					);
-			normals[normalIndex++] = normal.x;
-			normals[normalIndex++] = normal.y;
-			normals[normalIndex++] = normal.z;
-			normals[normalIndex++] = normal.x;
-			normals[normalIndex++] = normal.y;
-			normals[normalIndex++] = normal.z;
-			normals[normalIndex++] = normal.x;
-			normals[normalIndex++] = normal.y;
-			normals[normalIndex++] = normal.z;
-		}
+		// Per-corner, smoothed on the shared (compressed) vertices
+		normals = NormalGenerator.creasedNormals(compressed, indices, compressed.length / 3,
+				NormalGenerator.DEFAULT_CREASE_DEGREES);
 	}
 	
 	public Number3d calculateFaceNormal(Number3d v1, Number3d v2, Number3d v3)
 	{
-		Number3d vector1 = Number3d.subtract(v2, v1);
-		Number3d vector2 = Number3d.subtract(v3, v1);
-		
-		Number3d normal = new Number3d();
-		normal.x = (vector1.y * vector2.z) - (vector1.z * vector2.y);
-		normal.y = -((vector2.z * vector1.x) - (vector2.x * vector1.z));
-		normal.z = (vector1.x * vector2.y) - (vector1.y * vector2.x);
-		
-		double normFactor = Math.sqrt((normal.x * normal.x) + (normal.y * normal.y) + (normal.z * normal.z));
-		
-		normal.x /= normFactor;
-		normal.y /= normFactor;
-		normal.z /= normFactor;
-		
-		return normal;
+		return Vec3.faceNormalInto(v1, v2, v3, new Number3d());
 	}
 	
 	public KeyFrame clone()
@@ -13,6 +13,12 @@ public class Color4BufferList
 
 	private ByteBuffer _b;
 	private int _numElements;
+
+	// Both in bytes. Non-default only when viewing an interleaved buffer
+	private int _stride = PROPERTIES_PER_ELEMENT;
+	private int _offset = 0;
+	
+	private boolean _shared;
 	
 	public Color4BufferList(ByteBuffer $b, int $size)
 	{
@@ -28,6 +34,33 @@ public class Color4BufferList
 		_b.order(ByteOrder.nativeOrder());
 	}
 	
+	/**
+	 * Strided view onto an interleaved vertex buffer (see VertexLayout).
+	 * Stride and offset are in bytes.
+	 */
+	Color4BufferList(ByteBuffer $interleaved, int $strideBytes, int $offsetBytes) /*package-private*/
+	{
+		_b = $interleaved.duplicate();
+		_b.order($interleaved.order());
+		_b.position(0);
+		_stride = $strideBytes;
+		_offset = $offsetBytes;
+	}
+	
+	/**
+	 * Marks the list as shared between objects (see Vertices.share()). From then on
+	 * it can't be changed or cleared; clone() it for a copy that can.
+	 */
+	public void share()
+	{
+		_shared = true;
+	}
+	
+	public boolean isShared()
+	{
+		return _shared;
+	}
+	
 	/**
 	 * The number of items in the list. 
 	 */
@@ -36,13 +69,21 @@ public class Color4BufferList
 		return _numElements;
 	}
 	
+	/**
+	 * Used by Vertices when re-wrapping an already-populated interleaved buffer
+	 */
+	void size(int $size) /*package-private*/
+	{
+		_numElements = $size;
+	}
+	
 	/**
 	 * The _maximum_ number of items that the list can hold, as defined on instantiation.
 	 * (Not to be confused with the Buffer's capacity)
 	 */
 	public int capacity()
 	{
-		return _b.capacity() / PROPERTIES_PER_ELEMENT;
+		return _b.capacity() / _stride;
 	}
 	
 	/**
@@ -50,18 +91,19 @@ public class Color4BufferList
 	 */
 	public void clear()
 	{
+		if (_shared) return;
 		_b.clear();
 	}
 
 	public Color4 getAsColor4(int $index)
 	{
-		_b.position($index * PROPERTIES_PER_ELEMENT);
+		_b.position(_offset + $index * _stride);
 		return new Color4( _b.get(), _b.get(), _b.get(), _b.get() );
 	}
 	
 	public void putInColor4(int $index, Color4 $color4)
 	{
-		_b.position($index * PROPERTIES_PER_ELEMENT);
+		_b.position(_offset + $index * _stride);
 		$color4.r = (short)_b.get();
 		$color4.g = (short)_b.get();
 		$color4.b = (short)_b.get();
@@ -70,22 +112,22 @@ public class Color4BufferList
 
 	public short getPropertyR(int $index)
 	{
-		_b.position($index * PROPERTIES_PER_ELEMENT);
+		_b.position(_offset + $index * _stride);
 		return (short)_b.get();
 	}
 	public short getPropertyG(int $index)
 	{
-		_b.position($index * PROPERTIES_PER_ELEMENT + 1);
+		_b.position(_offset + $index * _stride + 1);
 		return (short)_b.get();
 	}
 	public float getPropertyB(int $index)
 	{
-		_b.position($index * PROPERTIES_PER_ELEMENT + 2);
+		_b.position(_offset + $index * _stride + 2);
 		return (short)_b.get();
 	}
 	public float getPropertyA(int $index)
 	{
-		_b.position($index * PROPERTIES_PER_ELEMENT + 3);
+		_b.position(_offset + $index * _stride + 3);
 		return (short)_b.get();
 	}
 	
@@ -105,7 +147,8 @@ public class Color4BufferList
 	
 	public void set(int $index, Color4 $c)
 	{
-		_b.position($index * PROPERTIES_PER_ELEMENT);
+		checkNotShared();
+		_b.position(_offset + $index * _stride);
 		_b.put((byte)$c.r);
 		_b.put((byte)$c.g);
 		_b.put((byte)$c.b);
@@ -116,7 +159,8 @@ public class Color4BufferList
 
 	public void set(int $index, short $r, short $g, short $b, short $a)
 	{
-		_b.position($index * PROPERTIES_PER_ELEMENT);
+		checkNotShared();
+		_b.position(_offset + $index * _stride);
 		_b.put((byte)$r);
 		_b.put((byte)$g);
 		_b.put((byte)$b);
@@ -125,22 +169,26 @@ public class Color4BufferList
 	
 	public void setPropertyR(int $index, short $r)
 	{
-		_b.position($index * PROPERTIES_PER_ELEMENT);
+		checkNotShared();
+		_b.position(_offset + $index * _stride);
 		_b.put((byte)$r);
 	}
 	public void setPropertyG(int $index, short $g)
 	{
-		_b.position($index * PROPERTIES_PER_ELEMENT + 1);
+		checkNotShared();
+		_b.position(_offset + $index * _stride + 1);
 		_b.put((byte)$g);
 	}
 	public void setPropertyB(int $index, short $b)
 	{
-		_b.position($index * PROPERTIES_PER_ELEMENT + 2);
+		checkNotShared();
+		_b.position(_offset + $index * _stride + 2);
 		_b.put((byte)$b);
 	}
 	public void setPropertyA(int $index, short $a)
 	{
-		_b.position($index * PROPERTIES_PER_ELEMENT + 3);
+		checkNotShared();
+		_b.position(_offset + $index * _stride + 3);
 		_b.put((byte)$a);
 	}
 	
@@ -151,10 +199,36 @@ public class Color4BufferList
 		return _b;
 	}
 	
+	/**
+	 * True when this list is a view onto an interleaved buffer, 
+	 * in which case buffer() can't be handed to GL with a stride of 0.
+	 */
+	public boolean isStrided()
+	{
+		return _stride != PROPERTIES_PER_ELEMENT || _offset != 0;
+	}
+	
+	/**
+	 * Clones always come back tightly packed, even when cloned from a strided view
+	 */
 	public Color4BufferList clone()
 	{
-		_b.position(0);
-		Color4BufferList c = new Color4BufferList(_b, size());
+		if (! isStrided())
+		{
+			_b.position(0);
+			Color4BufferList c = new Color4BufferList(_b, size());
+			return c;
+		}
+		
+		Color4BufferList c = new Color4BufferList(capacity());
+		for (int i = 0; i < size(); i++) {
+			c.add(getPropertyR(i), getPropertyG(i), (short)getPropertyB(i), (short)getPropertyA(i));
+		}
 		return c;
 	}
+	
+	void checkNotShared() /*package-private*/
+	{
+		if (_shared) throw new Error("Shared vertices can't be changed; clone() them first");
+	}
 }
@@ -0,0 +1,238 @@
+package min3d.core;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+
+import min3d.Min3d;
+import android.util.Log;
+
+/**
+ * Per-draw-item cost counters, summed over a window of frames.
+ *
+ * Register each thing that gets drawn (an Object3d, a hand-drawn mesh) once to get
+ * an id. Bracket its submission with begin() / end(), and report what was bound
+ * and drawn. At the end of each window the totals move to a "last window" set,
+ * which top() and report() read.
+ *
+ * Recording never allocates once items are registered. Call everything from the
+ * render thread. When disabled, begin() / end() are a field check.
+ */
+public class DrawStats
+{
+	public static final int VERTICES = 0;
+	public static final int INDICES = 1;
+	public static final int BYTES_BOUND = 2;
+	public static final int TEXTURE_BINDS = 3;
+	public static final int CPU_NANOS = 4;
+	public static final int DRAWS = 5;
+	public static final int NUM_METRICS = 6;
+
+	public static final int DEFAULT_WINDOW_FRAMES = 300;
+
+	private static final String[] METRIC_NAMES = { "vertices", "indices", "bytes", "texBinds", "cpuNs", "draws" };
+
+	private ArrayList<String> _names;
+	private long[][] _current;
+	private long[][] _window;
+	private long[] _beginNanos;
+
+	private boolean _enabled;
+	private int _windowFrames;
+	private int _frames;
+	private int _lastWindowFrames;
+
+	public DrawStats()
+	{
+		_names = new ArrayList<String>();
+		_current = new long[NUM_METRICS][16];
+		_window = new long[NUM_METRICS][16];
+		_beginNanos = new long[16];
+		_windowFrames = DEFAULT_WINDOW_FRAMES;
+	}
+
+	public boolean enabled()
+	{
+		return _enabled;
+	}
+
+	public void enabled(boolean $b)
+	{
+		_enabled = $b;
+	}
+
+	/**
+	 * Frames per window
+	 */
+	public int windowFrames()
+	{
+		return _windowFrames;
+	}
+
+	public void windowFrames(int $frames)
+	{
+		_windowFrames = Math.max(1, $frames);
+	}
+
+	/**
+	 * Frames that the last completed window covered; 0 before the first one completes
+	 */
+	public int lastWindowFrames()
+	{
+		return _lastWindowFrames;
+	}
+
+	/**
+	 * Returns the id to pass to begin() / end(). Registering the same name twice
+	 * gives two ids.
+	 */
+	public int register(String $name)
+	{
+		int id = _names.size();
+		_names.add($name);
+
+		if (id == _beginNanos.length)
+		{
+			int capacity = id * 2;
+			for (int m = 0; m < NUM_METRICS; m++) {
+				_current[m] = Arrays.copyOf(_current[m], capacity);
+				_window[m] = Arrays.copyOf(_window[m], capacity);
+			}
+			_beginNanos = Arrays.copyOf(_beginNanos, capacity);
+		}
+		return id;
+	}
+
+	public int size()
+	{
+		return _names.size();
+	}
+
+	public String name(int $id)
+	{
+		return _names.get($id);
+	}
+
+	//
+
+	public void begin(int $id)
+	{
+		if (! _enabled) return;
+		_beginNanos[$id] = System.nanoTime();
+	}
+
+	/**
+	 * Ends the item's submission started with begin().
+	 *
+	 * @param $vertices			Vertices drawn
+	 * @param $indices			Indices drawn (0 for non-indexed draws)
+	 * @param $bytesBound		Vertex and index bytes bound for the draw
+	 * @param $textureBinds		glBindTexture calls made for it
+	 */
+	public void end(int $id, int $vertices, int $indices, int $bytesBound, int $textureBinds)
+	{
+		if (! _enabled) return;
+		long[][] c = _current;
+		c[CPU_NANOS][$id] += System.nanoTime() - _beginNanos[$id];
+		c[VERTICES][$id] += $vertices;
+		c[INDICES][$id] += $indices;
+		c[BYTES_BOUND][$id] += $bytesBound;
+		c[TEXTURE_BINDS][$id] += $textureBinds;
+		c[DRAWS][$id]++;
+	}
+
+	/**
+	 * Call once per frame; closes the window every windowFrames() frames.
+	 * 
+	 * @return true when this call closed a window
+	 */
+	public boolean endFrame()
+	{
+		if (! _enabled) return false;
+		if (++_frames < _windowFrames) return false;
+
+		long[][] swap = _window;
+		_window = _current;
+		_current = swap;
+		for (int m = 0; m < NUM_METRICS; m++) {
+			Arrays.fill(_current[m], 0);
+		}
+		_lastWindowFrames = _frames;
+		_frames = 0;
+		return true;
+	}
+
+	public void reset()
+	{
+		for (int m = 0; m < NUM_METRICS; m++) {
+			Arrays.fill(_current[m], 0);
+			Arrays.fill(_window[m], 0);
+		}
+		_frames = 0;
+		_lastWindowFrames = 0;
+	}
+
+	//
+
+	/**
+	 * Item's total for $metric over the last window
+	 */
+	public long value(int $metric, int $id)
+	{
+		return _window[$metric][$id];
+	}
+
+	/**
+	 * Fills $out with the ids of the most expensive items by $metric over the last
+	 * window, most expensive first. Items that cost nothing are left out.
+	 *
+	 * @return number of ids written (at most $out.length)
+	 */
+	public int top(int $metric, int[] $out)
+	{
+		if ($out.length == 0) return 0;
+		long[] values = _window[$metric];
+		int n = 0;
+
+		for (int id = 0; id < _names.size(); id++)
+		{
+			long v = values[id];
+			if (v == 0) continue;
+			if (n == $out.length && v <= values[$out[n - 1]]) continue;
+
+			// insertion into the sorted prefix
+			int i = (n < $out.length) ? n++ : n - 1;
+			while (i > 0 && values[$out[i - 1]] < v) {
+				$out[i] = $out[i - 1];
+				i--;
+			}
+			$out[i] = id;
+		}
+		return n;
+	}
+
+	/**
+	 * Multi-line table of the top $n items by each metric, per-frame averages. Allocates; meant for logging.
+	 */
+	public String report(int $n)
+	{
+		int frames = Math.max(1, _lastWindowFrames);
+		int[] top = new int[$n];
+		StringBuilder sb = new StringBuilder();
+		sb.append("Draw costs over ").append(_lastWindowFrames).append(" frames, per frame:");
+
+		for (int m = 0; m < NUM_METRICS; m++)
+		{
+			int count = top(m, top);
+			sb.append("\n  ").append(METRIC_NAMES[m]).append(':');
+			for (int i = 0; i < count; i++) {
+				sb.append(' ').append(_names.get(top[i])).append('=').append(_window[m][top[i]] / frames);
+			}
+		}
+		return sb.toString();
+	}
+
+	public void logReport(int $n)
+	{
+		Log.i(Min3d.TAG, report($n));
+	}
+}
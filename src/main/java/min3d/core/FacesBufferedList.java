@@ -18,6 +18,8 @@ public class FacesBufferedList
 	private int _renderSubsetLength = 1;
 	private boolean _renderSubsetEnabled = false;
 	
+	private boolean _shared = false;
+	
 	public FacesBufferedList(ShortBuffer $b, int $size)
 	{
 		ByteBuffer bb = ByteBuffer.allocateDirect($b.limit() * BYTES_PER_PROPERTY); 
@@ -52,11 +54,26 @@ public class FacesBufferedList
 		return _b.capacity() / PROPERTIES_PER_ELEMENT;
 	}
 	
+	/**
+	 * Marks the list as shared between objects (see Primitives). From then on 
+	 * it can't be changed or cleared; clone() it for a copy that can.
+	 */
+	public void share()
+	{
+		_shared = true;
+	}
+	
+	public boolean isShared()
+	{
+		return _shared;
+	}
+	
 	/**
 	 * Clear object in preparation for garbage collection
 	 */
 	public void clear()
 	{
+		if (_shared) return;
 		_b.clear();
 	}
 
@@ -128,6 +145,7 @@ public class FacesBufferedList
 	
 	public void add(Face $f)
 	{
+		if (_shared) throw new Error("Shared faces can't be changed; clone() them first");
 		set( _numElements, $f );
 		_numElements++;
 	}
@@ -138,12 +156,14 @@ public class FacesBufferedList
 	
 	public void add(short $a, short $b, short $c)
 	{
+		if (_shared) throw new Error("Shared faces can't be changed; clone() them first");
 		set(_numElements, $a, $b, $c);
 		_numElements++;
 	}
 	
 	public void set(int $index, Face $face)
 	{
+		if (_shared) throw new Error("Shared faces can't be changed; clone() them first");
 		_b.position($index * PROPERTIES_PER_ELEMENT);
 		_b.put($face.a);
 		_b.put($face.b);
@@ -152,6 +172,7 @@ public class FacesBufferedList
 
 	public void set(int $index, short $a, short $b, short $c)
 	{
+		if (_shared) throw new Error("Shared faces can't be changed; clone() them first");
 		_b.position($index * PROPERTIES_PER_ELEMENT);
 		_b.put($a);
 		_b.put($b);
@@ -160,16 +181,19 @@ public class FacesBufferedList
 	
 	public void setPropertyA(int $index, short $a)
 	{
+		if (_shared) throw new Error("Shared faces can't be changed; clone() them first");
 		_b.position($index * PROPERTIES_PER_ELEMENT);
 		_b.put($a);
 	}
 	public void setPropertyB(int $index, short $b)
 	{
+		if (_shared) throw new Error("Shared faces can't be changed; clone() them first");
 		_b.position($index * PROPERTIES_PER_ELEMENT + 1);
 		_b.put($b);
 	}
 	public void setPropertyC(int $index, short $c)
 	{
+		if (_shared) throw new Error("Shared faces can't be changed; clone() them first");
 		_b.position($index * PROPERTIES_PER_ELEMENT + 2);
 		_b.put($c);
 	}
@@ -0,0 +1,317 @@
+package min3d.core;
+
+import java.util.Arrays;
+
+import min3d.Min3d;
+import android.util.Log;
+
+/**
+ * Per-frame timing, split into phases, kept for the last N frames.
+ *
+ * The render thread brackets each frame with beginFrame() / endFrame() and
+ * each phase with beginPhase() / endPhase(). A phase can be entered several
+ * times per frame (eg, animation per object); its times add up.
+ *
+ * Frames are written into a ring buffer and published with a single volatile
+ * write, so any thread can summarize() without locking the render thread.
+ * A reader that races the writer drops the frames that were overwritten while
+ * it copied.
+ *
+ * When disabled, each call is one field check.
+ */
+public class FrameStats
+{
+	public static final int SCENE_UPDATE = 0;
+	public static final int ANIMATION = 1;
+	public static final int CULL = 2;
+	public static final int SORT = 3;
+	public static final int SUBMIT = 4;
+	public static final int LEFT_EYE = 5;
+	public static final int RIGHT_EYE = 6;
+	public static final int NUM_PHASES = 7;
+
+	/**
+	 * Index of the whole frame (beginFrame to endFrame) in Summary's arrays
+	 */
+	public static final int FRAME = NUM_PHASES;
+
+	/**
+	 * Display rates that dropped frames are counted against
+	 */
+	public static final int[] REFRESH_RATES = { 60, 72, 90 };
+
+	public static final int DEFAULT_CAPACITY = 256;
+
+	private static final String[] PHASE_NAMES = { "update", "anim", "cull", "sort", "submit", "left", "right", "frame" };
+
+	// per frame: phase times, whole frame time, interval since previous beginFrame
+	private static final int INTERVAL = NUM_PHASES + 1;
+	private static final int STRIDE = NUM_PHASES + 2;
+
+	private final long[] _ring;
+	private final int _mask;
+	private volatile long _published;
+
+	private volatile boolean _enabled;
+	private boolean _recording;
+	private int _slot;
+	private long _frameStart;
+	private long _lastFrameStart;
+	private final long[] _phaseStart = new long[NUM_PHASES];
+
+	private long _logIntervalMs;
+	private long _lastLog;
+	private Summary _logSummary;
+
+	/**
+	 * @param $capacity		Frames kept, rounded up to a power of two
+	 */
+	public FrameStats(int $capacity)
+	{
+		int capacity = Integer.highestOneBit(Math.max(2, $capacity) - 1) << 1;
+		_ring = new long[capacity * STRIDE];
+		_mask = capacity - 1;
+	}
+
+	public FrameStats()
+	{
+		this(DEFAULT_CAPACITY);
+	}
+
+	public boolean enabled()
+	{
+		return _enabled;
+	}
+
+	/**
+	 * Takes effect at the next beginFrame().
+	 */
+	public void enabled(boolean $b)
+	{
+		_enabled = $b;
+	}
+
+	/**
+	 * Logs a one-line summary from endFrame() every $ms milliseconds. 0 turns logging off.
+	 */
+	public void logInterval(long $ms)
+	{
+		_logIntervalMs = $ms;
+		_lastLog = System.currentTimeMillis();
+	}
+
+	public int capacity()
+	{
+		return _mask + 1;
+	}
+
+	/**
+	 * Total frames recorded since creation or reset()
+	 */
+	public long frameCount()
+	{
+		return _published;
+	}
+
+	/**
+	 * Forgets recorded frames. Call from the render thread.
+	 */
+	public void reset()
+	{
+		_published = 0;
+		_lastFrameStart = 0;
+		_recording = false;
+	}
+
+	//
+
+	public void beginFrame()
+	{
+		_recording = _enabled;
+		if (! _recording) return;
+
+		long now = System.nanoTime();
+		_slot = (int)(_published & _mask) * STRIDE;
+		Arrays.fill(_ring, _slot, _slot + STRIDE, 0);
+		_ring[_slot + INTERVAL] = _lastFrameStart == 0 ? 0 : now - _lastFrameStart;
+		_frameStart = _lastFrameStart = now;
+	}
+
+	public void beginPhase(int $phase)
+	{
+		if (! _recording) return;
+		_phaseStart[$phase] = System.nanoTime();
+	}
+
+	public void endPhase(int $phase)
+	{
+		if (! _recording) return;
+		_ring[_slot + $phase] += System.nanoTime() - _phaseStart[$phase];
+	}
+
+	public void endFrame()
+	{
+		if (! _recording) return;
+		_recording = false;
+
+		_ring[_slot + FRAME] = System.nanoTime() - _frameStart;
+		_published = _published + 1;
+
+		if (_logIntervalMs > 0)
+		{
+			long now = System.currentTimeMillis();
+			if (now - _lastLog >= _logIntervalMs)
+			{
+				_lastLog = now;
+				if (_logSummary == null) _logSummary = new Summary(capacity());
+				Log.i(Min3d.TAG, summarize(_logSummary).toString());
+			}
+		}
+	}
+
+	//
+
+	/**
+	 * Fills $out from the frames currently in the ring. Safe from any thread; reuse
+	 * $out between calls to avoid allocating.
+	 */
+	public Summary summarize(Summary $out)
+	{
+		long end = _published;
+		int n = (int)Math.min(end, Math.min(capacity(), $out._frames.length / STRIDE));
+		long first = end - n;
+
+		for (long f = first; f < end; f++) {
+			System.arraycopy(_ring, (int)(f & _mask) * STRIDE, $out._frames, (int)(f - first) * STRIDE, STRIDE);
+		}
+
+		// frames the writer lapped while we copied are unreliable
+		long lapped = _published - capacity() + 1;
+		int skip = (int)Math.max(0, Math.min(n, lapped - first));
+
+		$out.compute(skip, n);
+		return $out;
+	}
+
+	public Summary summarize()
+	{
+		return summarize(new Summary(capacity()));
+	}
+
+	/**
+	 * Rolling statistics over the frames in the ring. Times are in milliseconds.
+	 * Arrays are indexed by phase, with FRAME for the whole frame.
+	 */
+	public static class Summary
+	{
+		/**
+		 * Frames summarized
+		 */
+		public int frames;
+
+		/**
+		 * Frames per second from the average begin-to-begin interval
+		 */
+		public float fps;
+
+		public final float[] meanMs = new float[NUM_PHASES + 1];
+		public final float[] p50Ms = new float[NUM_PHASES + 1];
+		public final float[] p95Ms = new float[NUM_PHASES + 1];
+		public final float[] p99Ms = new float[NUM_PHASES + 1];
+
+		/**
+		 * Vsyncs missed at each of REFRESH_RATES, judging by begin-to-begin intervals
+		 */
+		public final int[] dropped = new int[REFRESH_RATES.length];
+
+		private final long[] _frames;
+		private final long[] _sorted;
+
+		public Summary(int $capacity)
+		{
+			_frames = new long[$capacity * STRIDE];
+			_sorted = new long[$capacity];
+		}
+
+		private void compute(int $from, int $to)
+		{
+			frames = $to - $from;
+			Arrays.fill(meanMs, 0);
+			Arrays.fill(p50Ms, 0);
+			Arrays.fill(p95Ms, 0);
+			Arrays.fill(p99Ms, 0);
+			Arrays.fill(dropped, 0);
+			fps = 0;
+			if (frames == 0) return;
+
+			for (int phase = 0; phase <= FRAME; phase++)
+			{
+				long sum = 0;
+				for (int i = 0; i < frames; i++) {
+					_sorted[i] = _frames[($from + i) * STRIDE + phase];
+					sum += _sorted[i];
+				}
+				Arrays.sort(_sorted, 0, frames);
+				meanMs[phase] = sum / (float)frames / 1e6f;
+				p50Ms[phase] = percentile(0.50f) / 1e6f;
+				p95Ms[phase] = percentile(0.95f) / 1e6f;
+				p99Ms[phase] = percentile(0.99f) / 1e6f;
+			}
+
+			long intervalSum = 0;
+			int intervals = 0;
+			for (int i = 0; i < frames; i++)
+			{
+				long interval = _frames[($from + i) * STRIDE + INTERVAL];
+				if (interval == 0) continue;
+				intervalSum += interval;
+				intervals++;
+
+				for (int r = 0; r < REFRESH_RATES.length; r++)
+				{
+					long budget = 1000000000L / REFRESH_RATES[r];
+					// an interval of k vsyncs means k - 1 were missed
+					long vsyncs = (interval + budget / 2) / budget;
+					if (vsyncs > 1) dropped[r] += vsyncs - 1;
+				}
+			}
+			if (intervals > 0) {
+				fps = intervals * 1e9f / intervalSum;
+			}
+		}
+
+		private long percentile(float $p)
+		{
+			int i = (int)Math.ceil($p * frames) - 1;
+			return _sorted[Math.max(0, Math.min(frames - 1, i))];
+		}
+
+		/**
+		 * Compact single line, eg for logcat
+		 */
+		@Override
+		public String toString()
+		{
+			StringBuilder sb = new StringBuilder(200);
+			sb.append("frames ").append(frames)
+				.append(", fps ").append(Math.round(fps))
+				.append(", frame p50/p95/p99 ").append(ms(p50Ms[FRAME])).append('/').append(ms(p95Ms[FRAME])).append('/').append(ms(p99Ms[FRAME]))
+				.append(" ms, dropped");
+			for (int r = 0; r < REFRESH_RATES.length; r++) {
+				sb.append(' ').append(REFRESH_RATES[r]).append("Hz:").append(dropped[r]);
+			}
+			sb.append(", mean");
+			for (int phase = 0; phase < NUM_PHASES; phase++) {
+				if (meanMs[phase] > 0) sb.append(' ').append(PHASE_NAMES[phase]).append(' ').append(ms(meanMs[phase]));
+			}
+			Runtime rt = Runtime.getRuntime();
+			sb.append(" ms, heap ").append((rt.totalMemory() - rt.freeMemory()) / 1048576).append("MB");
+			return sb.toString();
+		}
+
+		private static String ms(float $ms)
+		{
+			return Float.toString(Math.round($ms * 100) / 100f);
+		}
+	}
+}
@@ -0,0 +1,92 @@
+package min3d.core;
+
+import java.nio.ByteBuffer;
+
+import min3d.Utils;
+import min3d.vos.Uv;
+
+/**
+ * UvBufferList view over texture coordinates stored as two 16-bit half-floats
+ * inside an interleaved vertex buffer.
+ * 
+ * OpenGL ES 1.x has no half-float texcoord type, so this only works with the 
+ * GLES20 attribute path (VertexLayout.GL_HALF_FLOAT_OES).
+ * buffer() is not meaningful here; bind through Vertices.attributeBuffer() instead.
+ */
+public class HalfFloatUvBufferList extends UvBufferList
+{
+	private ByteBuffer _bytes;
+	private int _strideBytes;
+	private int _offsetBytes;
+	
+	HalfFloatUvBufferList(ByteBuffer $interleaved, int $strideBytes, int $offsetBytes) /*package-private*/
+	{
+		super($interleaved, $strideBytes, $offsetBytes);
+		
+		_bytes = $interleaved.duplicate();
+		_bytes.order($interleaved.order());
+		_strideBytes = $strideBytes;
+		_offsetBytes = $offsetBytes;
+	}
+	
+	@Override
+	public Uv getAsUv(int $index)
+	{
+		return new Uv( getPropertyU($index), getPropertyV($index) );
+	}
+	
+	@Override
+	public void putInUv(int $index, Uv $uv)
+	{
+		$uv.u = getPropertyU($index);
+		$uv.v = getPropertyV($index);
+	}
+
+	@Override
+	public float getPropertyU(int $index)
+	{
+		return Utils.halfToFloat(_bytes.getShort(_offsetBytes + $index * _strideBytes));
+	}
+	@Override
+	public float getPropertyV(int $index)
+	{
+		return Utils.halfToFloat(_bytes.getShort(_offsetBytes + $index * _strideBytes + 2));
+	}
+	
+	//
+	
+	@Override
+	public void set(int $index, Uv $uv)
+	{
+		checkNotShared();
+		set($index, $uv.u, $uv.v);
+	}
+
+	@Override
+	public void set(int $index, float $u, float $v)
+	{
+		checkNotShared();
+		int i = _offsetBytes + $index * _strideBytes;
+		_bytes.putShort(i, Utils.floatToHalf($u));
+		_bytes.putShort(i + 2, Utils.floatToHalf($v));
+	}
+	
+	@Override
+	public void setPropertyU(int $index, float $u)
+	{
+		checkNotShared();
+		_bytes.putShort(_offsetBytes + $index * _strideBytes, Utils.floatToHalf($u));
+	}
+	@Override
+	public void setPropertyV(int $index, float $v)
+	{
+		checkNotShared();
+		_bytes.putShort(_offsetBytes + $index * _strideBytes + 2, Utils.floatToHalf($v));
+	}
+	
+	@Override
+	public boolean isStrided()
+	{
+		return true;
+	}
+}
@@ -0,0 +1,107 @@
+package min3d.core;
+
+import min3d.vos.Light;
+import min3d.vos.LightType;
+
+/**
+ * Picks the lights that matter most to an object, for when a scene has more
+ * lights than GL_LIGHT0..7.
+ *
+ * A light's relevance is how brightly it can light the nearest point of the
+ * object's bounding sphere: its ambient plus diffuse brightness over its
+ * attenuation at that distance. Directional lights always come first.
+ * Positional lights whose spot cone misses the sphere, and hidden lights,
+ * are left out altogether.
+ *
+ * Positions are compared as given, ie in the space the lights are set in,
+ * which for a Renderer is world space.
+ *
+ * Allocation-free; select() costs one pass over the lights.
+ */
+public class LightSelector
+{
+	private final int _max;
+	private final float[] _scores;
+
+	/**
+	 * @param $max	Most lights select() returns
+	 */
+	public LightSelector(int $max)
+	{
+		_max = $max;
+		_scores = new float[$max];
+	}
+
+	public int max()
+	{
+		return _max;
+	}
+
+	/**
+	 * Writes the most relevant of $lights[0..$count) into $out, most relevant
+	 * first, and returns how many it wrote.
+	 *
+	 * @param $x, $y, $z	Object's bounding sphere center
+	 * @param $radius		Object's bounding sphere radius; 0 treats it as a point
+	 */
+	public int select(Light[] $lights, int $count, float $x, float $y, float $z, float $radius, Light[] $out)
+	{
+		int n = 0;
+		for (int i = 0; i < $count; i++)
+		{
+			Light light = $lights[i];
+			float score = relevance(light, $x, $y, $z, $radius);
+			if (score <= 0) continue;
+			if (n == _max && score <= _scores[n - 1]) continue;
+
+			// insertion into the short sorted list
+			int j = (n < _max) ? n++ : n - 1;
+			while (j > 0 && _scores[j - 1] < score) {
+				_scores[j] = _scores[j - 1];
+				$out[j] = $out[j - 1];
+				j--;
+			}
+			_scores[j] = score;
+			$out[j] = light;
+		}
+		return n;
+	}
+
+	/**
+	 * How brightly $light can light a sphere; 0 if it can't.
+	 */
+	public static float relevance(Light $light, float $x, float $y, float $z, float $radius)
+	{
+		if (! $light.isVisible()) return 0;
+
+		float brightness = (
+			$light.ambient.r() + $light.ambient.g() + $light.ambient.b() +
+			$light.diffuse.r() + $light.diffuse.g() + $light.diffuse.b()) / (6 * 255f);
+		if (brightness <= 0) return 0;
+
+		if ($light.type() == LightType.DIRECTIONAL) return Float.MAX_VALUE;
+
+		float dx = $x - $light.position.getX();
+		float dy = $y - $light.position.getY();
+		float dz = $z - $light.position.getZ();
+		float centerDistance = (float)Math.sqrt(dx*dx + dy*dy + dz*dz);
+		float d = Math.max(0, centerDistance - $radius);
+
+		float cutoff = $light.spotCutoffAngle();
+		if (cutoff < 180 && d > 0)
+		{
+			// outside the cone widened by the sphere's angular radius
+			float ux = $light.direction.getX(), uy = $light.direction.getY(), uz = $light.direction.getZ();
+			float len = (float)Math.sqrt(ux*ux + uy*uy + uz*uz);
+			if (len > 0)
+			{
+				double angle = Math.acos(Math.max(-1, Math.min(1, (dx*ux + dy*uy + dz*uz) / (centerDistance * len))));
+				double spread = Math.asin(Math.min(1, $radius / centerDistance));
+				if (angle - spread > Math.toRadians(cutoff)) return 0;
+			}
+		}
+
+		float attenuation = $light.attenuationConstant() + $light.attenuationLinear() * d + $light.attenuationQuadratic() * d * d;
+		return brightness / Math.max(attenuation, 1e-6f);
+	}
+}
@@ -0,0 +1,85 @@
+package min3d.core;
+
+/**
+ * Picks a discrete level of detail from how big an object looks on screen.
+ *
+ * Size is the fraction of the viewport height that the object's bounding
+ * sphere covers (see projectedSize()). Level 0 is full detail; level i is
+ * used once the size drops below thresholds[i - 1].
+ *
+ * Switching has hysteresis: an object only moves to a coarser level once it
+ * is $hysteresis (as a fraction) below the threshold, and only back to a
+ * finer one once it is as far above it. An object hovering at a threshold
+ * distance doesn't flicker between levels.
+ *
+ * Stateless and allocation-free; the caller keeps each object's current level.
+ */
+public class LodSelector
+{
+	/**
+	 * LOD 1 below a quarter of the screen height, LOD 2 below a tenth, LOD 3 below 4%
+	 */
+	public static final float[] DEFAULT_THRESHOLDS = { 0.25f, 0.1f, 0.04f };
+
+	public static final float DEFAULT_HYSTERESIS = 0.15f;
+
+	private final float[] _thresholds;
+	private final float _hysteresis;
+
+	/**
+	 * @param $thresholds	Decreasing screen sizes; level i + 1 is used below $thresholds[i]
+	 * @param $hysteresis	Fraction of a threshold to overshoot before switching
+	 */
+	public LodSelector(float[] $thresholds, float $hysteresis)
+	{
+		_thresholds = $thresholds.clone();
+		_hysteresis = $hysteresis;
+	}
+
+	public LodSelector()
+	{
+		this(DEFAULT_THRESHOLDS, DEFAULT_HYSTERESIS);
+	}
+
+	/**
+	 * Number of levels, including full detail
+	 */
+	public int levels()
+	{
+		return _thresholds.length + 1;
+	}
+
+	/**
+	 * Returns the level to draw, given the one drawn last frame.
+	 *
+	 * @param $size			From projectedSize()
+	 * @param $current		Last frame's level
+	 * @param $maxLevel		Coarsest level the object has
+	 */
+	public int select(float $size, int $current, int $maxLevel)
+	{
+		int max = Math.min($maxLevel, _thresholds.length);
+		int level = Math.max(0, Math.min($current, max));
+
+		while (level < max && $size < _thresholds[level] * (1f - _hysteresis)) {
+			level++;
+		}
+		while (level > 0 && $size > _thresholds[level - 1] * (1f + _hysteresis)) {
+			level--;
+		}
+		return level;
+	}
+
+	/**
+	 * Fraction of the viewport height covered by a sphere.
+	 *
+	 * @param $radius			Bounding sphere radius, in world units
+	 * @param $distance			From the eye to the sphere's center
+	 * @param $tanHalfFovY		Tangent of half the vertical field of view
+	 */
+	public static float projectedSize(float $radius, float $distance, float $tanHalfFovY)
+	{
+		if ($distance <= $radius) return Float.MAX_VALUE;
+		return $radius / ($distance * $tanHalfFovY);
+	}
+}
@@ -1,106 +1,94 @@
 package min3d.core;
 
 import java.util.ArrayList;
-import java.util.HashMap;
 
 import android.util.Log;
 
 import min3d.Min3d;
+import min3d.interfaces.IDirtyManaged;
+import min3d.interfaces.IDirtyParent;
 import min3d.vos.Light;
 
-public class ManagedLightList 
+/**
+ * The scene's lights. There is no limit on how many; the Renderer binds
+ * up to NUM_GLLIGHTS of them to GL_LIGHT0..7 at a time, picking the ones
+ * that matter most to each object (see LightSelector).
+ *
+ * Lights that change are listed here as they go dirty, once each, so the
+ * Renderer only visits those rather than every light every frame. A light
+ * belongs to one list at a time.
+ */
+public class ManagedLightList implements IDirtyParent
 {
 	// List of Light objects
 	private ArrayList<Light> _lights;
 
-	// Map Light objects to GL_LIGHT indices
-	private HashMap<Light, Integer> _lightToGlIndex;
+	// The same lights, for iterating without allocating. Rebuilt on change.
+	private Light[] _array;
 
-	// 'Pool' of available GL_LIGHT id's
-	private ArrayList<Integer> _availGlIndices;
+	// Set when lights are added or removed, cleared by Renderer
+	private boolean _changed;
 
-	// Array of which GL_LIGHTS are enabled, where index corresponds to
-	// GL_LIGHT[index]
-	private boolean[] _glIndexEnabled;
+	// Lights gone dirty since the Renderer last looked
+	private Light[] _dirty = new Light[8];
+	private int _dirtyCount;
 
-	// Array of dirty flags, where index corresponds to GL_LIGHT[index]
-	private boolean[] _glIndexEnabledDirty;
-
-	// "GL index" here means an int from 0 to 8 that corresponds to
-	// the int constants GL10.GL_LIGHT0 to GL10.GL_LIGHT7
-
-	public ManagedLightList() 
+	public ManagedLightList()
 	{
 		reset();
 	}
 
-	public void reset() 
+	public void reset()
 	{
 		Log.i(Min3d.TAG, "ManagedLightList.reset()");
 
-		_availGlIndices = new ArrayList<Integer>();
-		for (int i = 0; i < Renderer.NUM_GLLIGHTS; i++) {
-			_availGlIndices.add(i);
+		if (_lights != null) {
+			for (int i = 0; i < _lights.size(); i++) {
+				_lights.get(i).parent(null, 0);
+			}
 		}
-
-		_lightToGlIndex = new HashMap<Light, Integer>();
-
-		_glIndexEnabled = new boolean[Renderer.NUM_GLLIGHTS];
-		_glIndexEnabledDirty = new boolean[Renderer.NUM_GLLIGHTS];
-		for (int i = 0; i < Renderer.NUM_GLLIGHTS; i++) {
-			_glIndexEnabled[i] = false;
-			_glIndexEnabledDirty[i] = true;
-		}
-
 		_lights = new ArrayList<Light>();
+		_array = new Light[0];
+		_changed = true;
+		clearDirty();
 	}
 
-	public boolean add(Light $light) 
+	public boolean add(Light $light)
 	{
 		if (_lights.contains($light)) {
 			return false;
 		}
 
-		if (_lights.size() > Renderer.NUM_GLLIGHTS)
-			throw new Error("Exceeded maximum number of Lights");
-
 		boolean result = _lights.add($light);
+		_array = null;
+		_changed = true;
+		$light.parent(this, 0);
 
-		int glIndex = _availGlIndices.remove(0);
-
-		_lightToGlIndex.put($light, glIndex);
-
-		_glIndexEnabled[glIndex] = true;
-		_glIndexEnabledDirty[glIndex] = true;
-		
 		return result;
 	}
 
-	public void remove(Light $light) 
+	public void remove(Light $light)
 	{
 		boolean result = _lights.remove($light);
 
 		if (!result) return;
 
-		int glIndex = _lightToGlIndex.get($light);
-		
-		_availGlIndices.add(glIndex);
-
-		_glIndexEnabled[glIndex] = false;
-		_glIndexEnabledDirty[glIndex] = true;
+		$light.parent(null, 0);
+		_array = null;
+		_changed = true;
 	}
 
-	public void removeAll() 
+	public void removeAll()
 	{
 		reset();
 	}
 
-	public int size() 
+	public int size()
 	{
 		return _lights.size();
 	}
 
-	public Light get(int $index) 
+	public Light get(int $index)
 	{
 		return _lights.get($index);
 	}
@@ -109,41 +97,68 @@ public class ManagedLightList
 		return (Light[]) _lights.toArray(new Light[_lights.size()]);
 	}
 
+	/**
+	 * Used by Renderer. Shared, don't modify; valid until the next add or remove.
+	 */
+	Light[] array() /* package-private */
+	{
+		if (_array == null) {
+			_array = toArray();
+		}
+		return _array;
+	}
+
 	/**
 	 * Used by Renderer
 	 */
-	int getGlIndexByLight(Light $light) /* package-private */
+	boolean changed() /* package-private */
 	{
-		return _lightToGlIndex.get($light);
+		return _changed;
 	}
 
 	/**
 	 * Used by Renderer
 	 */
-	Light getLightByGlIndex(int $glIndex) /* package-private */
+	void clearChanged() /* package-private */
+	{
+		_changed = false;
+	}
+
+	public void onDirty(IDirtyManaged $child, int $bits)
 	{
-		for (int i = 0; i < _lights.size(); i++) 
-		{
-			Light light = _lights.get(i);
-			if (_lightToGlIndex.get(light) == $glIndex)
-				return light;
+		if (_dirtyCount == _dirty.length) {
+			Light[] grown = new Light[_dirty.length * 2];
+			System.arraycopy(_dirty, 0, grown, 0, _dirtyCount);
+			_dirty = grown;
 		}
-		return null;
+		_dirty[_dirtyCount++] = (Light)$child;
+	}
+
+	/**
+	 * Used by Renderer. Lights that went dirty since clearDirty(), each once;
+	 * the first dirtyCount() are valid.
+	 */
+	Light[] dirty() /* package-private */
+	{
+		return _dirty;
 	}
 
 	/**
 	 * Used by Renderer
 	 */
-	boolean[] glIndexEnabledDirty() /* package-private */
+	int dirtyCount() /* package-private */
 	{
-		return _glIndexEnabledDirty;
+		return _dirtyCount;
 	}
 
 	/**
 	 * Used by Renderer
 	 */
-	boolean[] glIndexEnabled() /* package-private */
+	void clearDirty() /* package-private */
 	{
-		return _glIndexEnabled;
+		for (int i = 0; i < _dirtyCount; i++) {
+			_dirty[i] = null;
+		}
+		_dirtyCount = 0;
 	}
 }
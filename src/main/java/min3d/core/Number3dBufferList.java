@@ -3,6 +3,7 @@ package min3d.core;
 import java.nio.ByteBuffer;
 import java.nio.ByteOrder;
 import java.nio.FloatBuffer;
+import java.nio.IntBuffer;
 
 import min3d.vos.Number3d;
 
@@ -13,6 +14,17 @@ public class Number3dBufferList
 
 	private FloatBuffer _b;
 	private int _numElements = 0;
+
+	// Both in floats. Non-default only when viewing an interleaved buffer
+	private int _stride = PROPERTIES_PER_ELEMENT;
+	private int _offset = 0;
+	
+	// The same bytes as _b, for strided overwrite(); ints carry the other
+	// attributes' bytes through unchanged, whatever their type
+	private IntBuffer _bits;
+	private int[] _scratch;
+	
+	private boolean _shared;
 	
 	public Number3dBufferList(FloatBuffer $b, int $size)
 	{
@@ -32,6 +44,36 @@ public class Number3dBufferList
 		_b  = bb.asFloatBuffer();
 	}
 	
+	/**
+	 * Strided view onto an interleaved vertex buffer (see VertexLayout).
+	 * Stride and offset are in bytes, and must be 4-byte aligned.
+	 */
+	Number3dBufferList(ByteBuffer $interleaved, int $strideBytes, int $offsetBytes) /*package-private*/
+	{
+		ByteBuffer bb = $interleaved.duplicate();
+		bb.order($interleaved.order());
+		bb.position(0);
+		
+		_b = bb.asFloatBuffer();
+		_bits = bb.asIntBuffer();
+		_stride = $strideBytes / BYTES_PER_PROPERTY;
+		_offset = $offsetBytes / BYTES_PER_PROPERTY;
+	}
+	
+	/**
+	 * Marks the list as shared between objects (see Vertices.share()). From then on
+	 * it can't be changed or cleared; clone() it for a copy that can.
+	 */
+	public void share()
+	{
+		_shared = true;
+	}
+	
+	public boolean isShared()
+	{
+		return _shared;
+	}
+	
 	/**
 	 * The number of items in the list. 
 	 */
@@ -40,13 +82,21 @@ public class Number3dBufferList
 		return _numElements;
 	}
 	
+	/**
+	 * Used by Vertices when re-wrapping an already-populated interleaved buffer
+	 */
+	void size(int $size) /*package-private*/
+	{
+		_numElements = $size;
+	}
+	
 	/**
 	 * The _maximum_ number of items that the list can hold, as defined on instantiation.
 	 * (Not to be confused with the Buffer's capacity)
 	 */
 	public int capacity()
 	{
-		return _b.capacity() / PROPERTIES_PER_ELEMENT;
+		return _b.capacity() / _stride;
 	}
 	
 	/**
@@ -54,6 +104,7 @@ public class Number3dBufferList
 	 */
 	public void clear()
 	{
+		if (_shared) return;
 		_b.clear();
 	}
 	
@@ -61,13 +112,13 @@ public class Number3dBufferList
 	
 	public Number3d getAsNumber3d(int $index)
 	{
-		_b.position($index * PROPERTIES_PER_ELEMENT);
+		_b.position(_offset + $index * _stride);
 		return new Number3d( _b.get(), _b.get(), _b.get() );
 	}
 	
 	public void putInNumber3d(int $index, Number3d $number3d)
 	{
-		_b.position($index * PROPERTIES_PER_ELEMENT);
+		_b.position(_offset + $index * _stride);
 		$number3d.x = _b.get();
 		$number3d.y = _b.get();
 		$number3d.z = _b.get();
@@ -75,17 +126,17 @@ public class Number3dBufferList
 	
 	public float getPropertyX(int $index)
 	{
-		_b.position($index * PROPERTIES_PER_ELEMENT);
+		_b.position(_offset + $index * _stride);
 		return _b.get();
 	}
 	public float getPropertyY(int $index)
 	{
-		_b.position($index * PROPERTIES_PER_ELEMENT + 1);
+		_b.position(_offset + $index * _stride + 1);
 		return _b.get();
 	}
 	public float getPropertyZ(int $index)
 	{
-		_b.position($index * PROPERTIES_PER_ELEMENT + 2);
+		_b.position(_offset + $index * _stride + 2);
 		return _b.get();
 	}
 	
@@ -105,7 +156,8 @@ public class Number3dBufferList
 	
 	public void set(int $index, Number3d $n)
 	{
-		_b.position($index * PROPERTIES_PER_ELEMENT);
+		checkNotShared();
+		_b.position(_offset + $index * _stride);
 		_b.put($n.x);
 		_b.put($n.y);
 		_b.put($n.z);
@@ -113,7 +165,8 @@ public class Number3dBufferList
 
 	public void set(int $index, float $x, float $y, float $z)
 	{
-		_b.position($index * PROPERTIES_PER_ELEMENT);
+		checkNotShared();
+		_b.position(_offset + $index * _stride);
 		_b.put($x);
 		_b.put($y);
 		_b.put($z);
@@ -121,17 +174,20 @@ public class Number3dBufferList
 	
 	public void setPropertyX(int $index, float $x)
 	{
-		_b.position($index * PROPERTIES_PER_ELEMENT);
+		checkNotShared();
+		_b.position(_offset + $index * _stride);
 		_b.put($x);
 	}
 	public void setPropertyY(int $index, float $y)
 	{
-		_b.position($index * PROPERTIES_PER_ELEMENT + 1);
+		checkNotShared();
+		_b.position(_offset + $index * _stride + 1);
 		_b.put($y);
 	}
 	public void setPropertyZ(int $index, float $z)
 	{
-		_b.position($index * PROPERTIES_PER_ELEMENT + 2);
+		checkNotShared();
+		_b.position(_offset + $index * _stride + 2);
 		_b.put($z);
 	}
 	
@@ -144,14 +200,62 @@ public class Number3dBufferList
 	
 	public void overwrite(float[] $newVals)
 	{
-		_b.position(0);
-		_b.put($newVals);
+		checkNotShared();
+		if (! isStrided())
+		{
+			_b.position(0);
+			_b.put($newVals);
+			return;
+		}
+		
+		// One bulk read and one bulk write of the whole span: element by element
+		// puts cost a bounds check and position update per float.
+		int count = $newVals.length / PROPERTIES_PER_ELEMENT;
+		if (count == 0) return;
+		int span = (count - 1) * _stride + PROPERTIES_PER_ELEMENT;
+		if (_scratch == null || _scratch.length < span) _scratch = new int[span];
+		
+		_bits.position(_offset);
+		_bits.get(_scratch, 0, span);
+		for (int i = 0, j = 0; i < $newVals.length; i += PROPERTIES_PER_ELEMENT, j += _stride) {
+			_scratch[j] = Float.floatToRawIntBits($newVals[i]);
+			_scratch[j+1] = Float.floatToRawIntBits($newVals[i+1]);
+			_scratch[j+2] = Float.floatToRawIntBits($newVals[i+2]);
+		}
+		_bits.position(_offset);
+		_bits.put(_scratch, 0, span);
+	}
+	
+	/**
+	 * True when this list is a view onto an interleaved buffer, 
+	 * in which case buffer() can't be handed to GL with a stride of 0.
+	 */
+	public boolean isStrided()
+	{
+		return _stride != PROPERTIES_PER_ELEMENT || _offset != 0;
 	}
 	
+	/**
+	 * Clones always come back tightly packed, even when cloned from a strided view
+	 */
 	public Number3dBufferList clone()
 	{
-		_b.position(0);
-		Number3dBufferList c = new Number3dBufferList(_b, size());
+		if (! isStrided())
+		{
+			_b.position(0);
+			Number3dBufferList c = new Number3dBufferList(_b, size());
+			return c;
+		}
+		
+		Number3dBufferList c = new Number3dBufferList(capacity());
+		for (int i = 0; i < size(); i++) {
+			c.add(getPropertyX(i), getPropertyY(i), getPropertyZ(i));
+		}
 		return c;
 	}
+	
+	void checkNotShared() /*package-private*/
+	{
+		if (_shared) throw new Error("Shared vertices can't be changed; clone() them first");
+	}
 }
@@ -7,6 +7,7 @@ import javax.microedition.khronos.opengles.GL10;
 import android.util.Log;
 
 import min3d.interfaces.IObject3dContainer;
+import min3d.mesh.MeshSimplifier;
 import min3d.vos.Color4;
 import min3d.vos.Number3d;
 import min3d.vos.RenderType;
@@ -50,10 +51,25 @@ public class Object3d
 	protected FacesBufferedList _faces;
 
 	protected boolean _animationEnabled = false;
+
+	// Coarser faces for LOD 1, 2, ...; _faces is LOD 0
+	private FacesBufferedList[] _lods;
+	private LodSelector _lodSelector;
+	private float _boundingRadius;
+	private int _lodLevel;
+
+	// Consecutive ranges of the faces, eg one per material; see subMeshes()
+	private int[] _subMeshFaces;
+	private int[][] _lodSubMeshFaces;		// per range, for LOD 1, 2, ...
+	private String[] _subMeshTextures;
+	private Color4[] _subMeshColors;
 	
 	private Scene _scene;
 	private IObject3dContainer _parent;
 
+	// Renderer's DrawStats id, assigned on first draw
+	int _drawStatsId = -1; /*package-private*/
+
 	/**
 	 * Maximum number of vertices and faces must be specified at instantiation.
 	 */
@@ -74,6 +90,20 @@ public class Object3d
 		_textures = new TextureList();
 	}
 	
+	/**
+	 * Stores vertex data in a single interleaved buffer (see VertexLayout).
+	 * The fixed-function Renderer has no half-float texcoord type, so $layout must use float uvs.
+	 */
+	public Object3d(int $maxVertices, int $maxFaces, VertexLayout $layout)
+	{
+		if ($layout.halfFloatUvs()) 
+			throw new Error("Half-float uvs are not supported by the OpenGL ES 1.x Renderer");
+		
+		_vertices = new Vertices($maxVertices, $layout);
+		_faces = new FacesBufferedList($maxFaces);
+		_textures = new TextureList();
+	}
+	
 	/**
 	 * This constructor is convenient for cloning purposes 
 	 */
@@ -104,6 +134,220 @@ public class Object3d
 	{
 		return _textures;
 	}
+
+	/**
+	 * Faces for the current level of detail; same as faces() when the object has no LODs
+	 */
+	public FacesBufferedList lodFaces()
+	{
+		return _lodLevel == 0 ? _faces : _lods[_lodLevel - 1];
+	}
+
+	/**
+	 * Gives the object coarser versions of its faces, which the Renderer draws instead
+	 * of faces() as the object gets smaller on screen. They index the same vertices.
+	 * 
+	 * Size on screen is judged from the distance between the camera and position(),
+	 * offset by the positions of the containers the object is in.
+	 *
+	 * @param $lods				LOD 1, 2, ...; null removes them
+	 * @param $boundingRadius	Radius around the object's origin that holds all its vertices, before scale()
+	 */
+	public void lods(FacesBufferedList[] $lods, float $boundingRadius, LodSelector $selector)
+	{
+		lods($lods, null, $boundingRadius, $selector);
+	}
+
+	/**
+	 * As lods(), for an object with sub-meshes
+	 *
+	 * @param $subMeshFaces		For each LOD, the face count of each sub-mesh range in it
+	 */
+	public void lods(FacesBufferedList[] $lods, int[][] $subMeshFaces, float $boundingRadius, LodSelector $selector)
+	{
+		if ($lods != null && _subMeshFaces != null && $subMeshFaces == null)
+			throw new Error("LODs of an object with sub-meshes need each level's range sizes");
+		
+		_lods = $lods;
+		_lodSubMeshFaces = $lods != null ? $subMeshFaces : null;
+		_boundingRadius = $boundingRadius;
+		_lodSelector = $selector;
+		_lodLevel = 0;
+	}
+
+	/**
+	 * Simplifies faces() into one LOD per entry of $ratios (fractions of the face count,
+	 * decreasing) and sets them with the default LodSelector. 
+	 * Slow for big meshes: call off the render thread, before the object is added to the scene.
+	 */
+	public void buildLods(float[] $ratios)
+	{
+		int numVertices = _vertices.size();
+		float[] positions = new float[numVertices * 3];
+		float radius2 = 0;
+		for (int i = 0; i < numVertices; i++)
+		{
+			float x = _vertices.points().getPropertyX(i);
+			float y = _vertices.points().getPropertyY(i);
+			float z = _vertices.points().getPropertyZ(i);
+			positions[i * 3] = x;
+			positions[i * 3 + 1] = y;
+			positions[i * 3 + 2] = z;
+			radius2 = Math.max(radius2, x*x + y*y + z*z);
+		}
+
+		int[] indices = new int[_faces.size() * FacesBufferedList.PROPERTIES_PER_ELEMENT];
+		for (int i = 0; i < indices.length; i++) {
+			indices[i] = _faces.buffer().get(i) & 0xFFFF;
+		}
+		int[] ranges = _subMeshFaces != null ? _subMeshFaces : new int[] { _faces.size() };
+
+		// normals, uvs and colors, so the levels keep their seams
+		int size = (_vertices.hasNormals() ? 3 : 0) + (_vertices.hasUvs() ? 2 : 0) + (_vertices.hasColors() ? 4 : 0);
+		float[] attributes = new float[numVertices * size];
+		for (int i = 0; i < numVertices; i++)
+		{
+			int a = i * size;
+			if (_vertices.hasNormals()) {
+				attributes[a++] = _vertices.normals().getPropertyX(i);
+				attributes[a++] = _vertices.normals().getPropertyY(i);
+				attributes[a++] = _vertices.normals().getPropertyZ(i);
+			}
+			if (_vertices.hasUvs()) {
+				attributes[a++] = _vertices.uvs().getPropertyU(i);
+				attributes[a++] = _vertices.uvs().getPropertyV(i);
+			}
+			if (_vertices.hasColors()) {
+				attributes[a++] = _vertices.colors().getPropertyR(i);
+				attributes[a++] = _vertices.colors().getPropertyG(i);
+				attributes[a++] = _vertices.colors().getPropertyB(i);
+				attributes[a++] = _vertices.colors().getPropertyA(i);
+			}
+		}
+
+		// each sub-mesh is simplified on its own, so every level keeps the same ranges
+		int[][][] rangeLevels = new int[ranges.length][][];
+		int[] levelFaces = new int[$ratios.length];
+		int first = 0;
+		for (int s = 0; s < ranges.length; s++)
+		{
+			int[] range = new int[ranges[s] * FacesBufferedList.PROPERTIES_PER_ELEMENT];
+			System.arraycopy(indices, first, range, 0, range.length);
+			first += range.length;
+			rangeLevels[s] = MeshSimplifier.simplify(positions, range, numVertices, attributes, size, $ratios);
+			for (int l = 0; l < $ratios.length; l++) {
+				levelFaces[l] += rangeLevels[s][l].length / FacesBufferedList.PROPERTIES_PER_ELEMENT;
+			}
+		}
+
+		FacesBufferedList[] lods = new FacesBufferedList[$ratios.length];
+		int[][] subMeshFaces = new int[$ratios.length][ranges.length];
+		for (int l = 0; l < $ratios.length; l++)
+		{
+			lods[l] = new FacesBufferedList(levelFaces[l]);
+			for (int s = 0; s < ranges.length; s++)
+			{
+				int[] level = rangeLevels[s][l];
+				for (int i = 0; i < level.length; i += 3) {
+					lods[l].add(level[i], level[i + 1], level[i + 2]);
+				}
+				subMeshFaces[l][s] = level.length / FacesBufferedList.PROPERTIES_PER_ELEMENT;
+			}
+		}
+		lods(lods, _subMeshFaces != null ? subMeshFaces : null, (float)Math.sqrt(radius2), new LodSelector());
+	}
+
+	public void buildLods()
+	{
+		buildLods(MeshSimplifier.DEFAULT_RATIOS);
+	}
+
+	public boolean hasLods()
+	{
+		return _lods != null;
+	}
+
+	/**
+	 * Level drawn last frame; 0 is full detail
+	 */
+	public int lodLevel()
+	{
+		return _lodLevel;
+	}
+
+	void lodLevel(int $level) /*package-private*/
+	{
+		_lodLevel = $level;
+	}
+
+	/**
+	 * Coarsest level available
+	 */
+	public int maxLodLevel()
+	{
+		return _lods == null ? 0 : _lods.length;
+	}
+
+	public LodSelector lodSelector()
+	{
+		return _lodSelector;
+	}
+
+	public float boundingRadius()
+	{
+		return _boundingRadius;
+	}
+
+	/**
+	 * Splits faces() into consecutive ranges, eg one per material, which the Renderer draws
+	 * one after another, each with its own color and texture (see subMeshMaterial()) in
+	 * place of defaultColor() and textures(). Removes any LODs; build them again after.
+	 *
+	 * @param $faceCounts	Faces in each range, in order; null removes the ranges
+	 */
+	public void subMeshes(int[] $faceCounts)
+	{
+		_subMeshFaces = $faceCounts;
+		_subMeshTextures = $faceCounts != null ? new String[$faceCounts.length] : null;
+		_subMeshColors = $faceCounts != null ? new Color4[$faceCounts.length] : null;
+		lods(null, null, 0, null);
+	}
+
+	/**
+	 * @param $textureId	TextureManager id to bind for the range, or null for none
+	 * @param $color		Color to draw the range with, or null for defaultColor()
+	 */
+	public void subMeshMaterial(int $subMesh, String $textureId, Color4 $color)
+	{
+		_subMeshTextures[$subMesh] = $textureId;
+		_subMeshColors[$subMesh] = $color;
+	}
+
+	/**
+	 * Number of sub-mesh ranges; 0 when the faces are drawn as one
+	 */
+	public int subMeshCount()
+	{
+		return _subMeshFaces == null ? 0 : _subMeshFaces.length;
+	}
+
+	/**
+	 * Faces in the range at the current level of detail, ie in lodFaces()
+	 */
+	public int subMeshFaces(int $subMesh)
+	{
+		return _lodLevel == 0 ? _subMeshFaces[$subMesh] : _lodSubMeshFaces[_lodLevel - 1][$subMesh];
+	}
+
+	public String subMeshTexture(int $subMesh)
+	{
+		return _subMeshTextures[$subMesh];
+	}
+
+	public Color4 subMeshColor(int $subMesh)
+	{
+		return _subMeshColors[$subMesh];
+	}
 	
 	/**
 	 * Determines if object will be rendered.
@@ -312,10 +556,14 @@ public class Object3d
 	 */
 	public void clear()
 	{
-		if (this.vertices().points() != null) 	this.vertices().points().clear();
-		if (this.vertices().uvs() != null) 		this.vertices().uvs().clear();
-		if (this.vertices().normals() != null) 	this.vertices().normals().clear();
-		if (this.vertices().colors() != null) 	this.vertices().colors().clear();
+		// shared geometry (see Primitives) belongs to every object using it
+		if (! _vertices.isShared())
+		{
+			if (this.vertices().points() != null) 	this.vertices().points().clear();
+			if (this.vertices().uvs() != null) 		this.vertices().uvs().clear();
+			if (this.vertices().normals() != null) 	this.vertices().normals().clear();
+			if (this.vertices().colors() != null) 	this.vertices().colors().clear();
+		}
 		if (_textures != null) 					_textures.clear();
 		
 		if (this.parent() != null) 				this.parent().removeChild(this);
@@ -485,6 +733,16 @@ public class Object3d
 		clone.scale().x = scale().x;
 		clone.scale().y = scale().y;
 		clone.scale().z = scale().z;
+
+		if (_subMeshFaces != null) {
+			clone.subMeshes(_subMeshFaces);
+			for (int i = 0; i < _subMeshFaces.length; i++) {
+				clone.subMeshMaterial(i, _subMeshTextures[i], _subMeshColors[i]);
+			}
+		}
+		if (_lods != null) {
+			clone.lods(_lods, _lodSubMeshFaces, _boundingRadius, _lodSelector);
+		}
 		
 		return clone;
 	}
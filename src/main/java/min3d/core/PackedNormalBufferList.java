@@ -0,0 +1,136 @@
+package min3d.core;
+
+import java.nio.ByteBuffer;
+
+import min3d.vos.Number3d;
+
+/**
+ * Number3dBufferList view over normals stored as three normalized GL_BYTEs 
+ * (plus one byte of padding) inside an interleaved vertex buffer.
+ * 
+ * Values are clamped to [-1,1] and quantized to 1/127 on the way in.
+ * buffer() is not meaningful here; bind through Vertices.attributeBuffer() instead.
+ */
+public class PackedNormalBufferList extends Number3dBufferList
+{
+	private static final float SCALE = 127f;
+	
+	private ByteBuffer _bytes;
+	private int _strideBytes;
+	private int _offsetBytes;
+	private byte[] _scratch;
+	
+	PackedNormalBufferList(ByteBuffer $interleaved, int $strideBytes, int $offsetBytes) /*package-private*/
+	{
+		super($interleaved, $strideBytes, $offsetBytes);
+		
+		_bytes = $interleaved.duplicate();
+		_bytes.order($interleaved.order());
+		_strideBytes = $strideBytes;
+		_offsetBytes = $offsetBytes;
+	}
+	
+	@Override
+	public Number3d getAsNumber3d(int $index)
+	{
+		return new Number3d( getPropertyX($index), getPropertyY($index), getPropertyZ($index) );
+	}
+	
+	@Override
+	public void putInNumber3d(int $index, Number3d $number3d)
+	{
+		$number3d.x = getPropertyX($index);
+		$number3d.y = getPropertyY($index);
+		$number3d.z = getPropertyZ($index);
+	}
+	
+	@Override
+	public float getPropertyX(int $index)
+	{
+		return _bytes.get(_offsetBytes + $index * _strideBytes) / SCALE;
+	}
+	@Override
+	public float getPropertyY(int $index)
+	{
+		return _bytes.get(_offsetBytes + $index * _strideBytes + 1) / SCALE;
+	}
+	@Override
+	public float getPropertyZ(int $index)
+	{
+		return _bytes.get(_offsetBytes + $index * _strideBytes + 2) / SCALE;
+	}
+	
+	//
+	
+	@Override
+	public void set(int $index, Number3d $n)
+	{
+		checkNotShared();
+		set($index, $n.x, $n.y, $n.z);
+	}
+
+	@Override
+	public void set(int $index, float $x, float $y, float $z)
+	{
+		checkNotShared();
+		int i = _offsetBytes + $index * _strideBytes;
+		_bytes.put(i, pack($x));
+		_bytes.put(i + 1, pack($y));
+		_bytes.put(i + 2, pack($z));
+	}
+	
+	@Override
+	public void setPropertyX(int $index, float $x)
+	{
+		checkNotShared();
+		_bytes.put(_offsetBytes + $index * _strideBytes, pack($x));
+	}
+	@Override
+	public void setPropertyY(int $index, float $y)
+	{
+		checkNotShared();
+		_bytes.put(_offsetBytes + $index * _strideBytes + 1, pack($y));
+	}
+	@Override
+	public void setPropertyZ(int $index, float $z)
+	{
+		checkNotShared();
+		_bytes.put(_offsetBytes + $index * _strideBytes + 2, pack($z));
+	}
+	
+	//
+	
+	@Override
+	public void overwrite(float[] $newVals)
+	{
+		checkNotShared();
+		// Bulk read, patch and bulk write the span, as Number3dBufferList does
+		int count = $newVals.length / PROPERTIES_PER_ELEMENT;
+		if (count == 0) return;
+		int span = (count - 1) * _strideBytes + PROPERTIES_PER_ELEMENT;
+		if (_scratch == null || _scratch.length < span) _scratch = new byte[span];
+		
+		_bytes.position(_offsetBytes);
+		_bytes.get(_scratch, 0, span);
+		for (int i = 0, j = 0; i < $newVals.length; i += PROPERTIES_PER_ELEMENT, j += _strideBytes) {
+			_scratch[j] = pack($newVals[i]);
+			_scratch[j+1] = pack($newVals[i+1]);
+			_scratch[j+2] = pack($newVals[i+2]);
+		}
+		_bytes.position(_offsetBytes);
+		_bytes.put(_scratch, 0, span);
+	}
+	
+	@Override
+	public boolean isStrided()
+	{
+		return true;
+	}
+	
+	private static byte pack(float $f)
+	{
+		if ($f > 1f) $f = 1f;
+		if ($f < -1f) $f = -1f;
+		return (byte)Math.round($f * SCALE);
+	}
+}
@@ -10,8 +10,10 @@ import javax.microedition.khronos.opengles.GL11;
 import min3d.Min3d;
 import min3d.Shared;
 import min3d.animation.AnimationObject3d;
+import min3d.vos.Color4;
 import min3d.vos.FrustumManaged;
 import min3d.vos.Light;
+import min3d.vos.Number3d;
 import min3d.vos.RenderType;
 import min3d.vos.TextureVo;
 import android.app.ActivityManager;
@@ -20,6 +22,7 @@ import android.graphics.Bitmap;
 import android.opengl.GLSurfaceView;
 import android.opengl.GLU;
 import android.opengl.GLUtils;
+import android.opengl.Matrix;
 import android.util.Log;
 
 
@@ -32,6 +35,16 @@ public class Renderer implements GLSurfaceView.Renderer
 	private TextureManager _textureManager;
 
 	private float _surfaceAspectRatio;
+	private float _tanHalfFovY = 1f; // for LOD selection
+	
+	// Lights: which scene light each GL_LIGHT holds. With more lights than
+	// GL_LIGHTs, each lit object gets the ones most relevant to it.
+	private Light[] _glLights = new Light[NUM_GLLIGHTS];
+	private Light[] _selectedLights = new Light[NUM_GLLIGHTS];
+	private LightSelector _lightSelector = new LightSelector(NUM_GLLIGHTS);
+	private boolean _lightsPerObject;
+	private float[] _viewMatrix = new float[16];
+	private float _originX, _originY, _originZ; // containers' summed positions, for light and LOD selection
 	
 	private IntBuffer _scratchIntBuffer;
 	private FloatBuffer _scratchFloatBuffer;
@@ -40,10 +53,9 @@ public class Renderer implements GLSurfaceView.Renderer
 
 	// stats-related
 	public static final int FRAMERATE_SAMPLEINTERVAL_MS = 1000; 
-	private boolean _logFps = false;
-	private long _frameCount = 0;
-	private float _fps = 0;
-	private long _timeLastSample;
+	private FrameStats _frameStats;
+	private FrameStats.Summary _fpsSummary;
+	private DrawStats _drawStats;
 	private ActivityManager _activityManager;
 	private ActivityManager.MemoryInfo _memoryInfo;
 
@@ -60,6 +72,9 @@ public class Renderer implements GLSurfaceView.Renderer
 		
 		_activityManager = (ActivityManager) Shared.context().getSystemService( Context.ACTIVITY_SERVICE );
 		_memoryInfo = new ActivityManager.MemoryInfo();
+		
+		_frameStats = new FrameStats();
+		_drawStats = new DrawStats();
 	}
 
 	public void onSurfaceCreated(GL10 $gl, EGLConfig eglConfig) 
@@ -91,14 +106,21 @@ public class Renderer implements GLSurfaceView.Renderer
 	
 	public void onDrawFrame(GL10 gl)
 	{
+		_frameStats.beginFrame();
+		
 		// Update 'model'
+		_frameStats.beginPhase(FrameStats.SCENE_UPDATE);
 		_scene.update();
+		_frameStats.endPhase(FrameStats.SCENE_UPDATE);
 		
 		// Update 'view'
+		_frameStats.beginPhase(FrameStats.SUBMIT);
 		drawSetup();
+		_frameStats.endPhase(FrameStats.SUBMIT);
 		drawScene();
 
-		if (_logFps) doFps();
+		_drawStats.endFrame();
+		_frameStats.endFrame();
 	}
 	
 	//
@@ -113,14 +135,32 @@ public class Renderer implements GLSurfaceView.Renderer
 	}
 
 	/**
-	 * Returns last sampled framerate (logFps must be set to true) 
+	 * Frame timings. Enable it (or logFps) to start recording.
+	 */
+	public FrameStats frameStats()
+	{
+		return _frameStats;
+	}
+
+	/**
+	 * Per-object draw costs. Enable it to start counting.
+	 */
+	public DrawStats drawStats()
+	{
+		return _drawStats;
+	}
+
+	/**
+	 * Returns framerate over the recorded frames (logFps or frameStats must be enabled) 
 	 */
 	public float fps()
 	{
-		return _fps;
+		if (_fpsSummary == null) _fpsSummary = new FrameStats.Summary(_frameStats.capacity());
+		return _frameStats.summarize(_fpsSummary).fps;
 	}
 	/**
-	 * Return available system memory in bytes
+	 * Return available system memory in bytes.
+	 * This is a synchronous system service call; don't call it every frame.
 	 */
 	public long availMem()
 	{
@@ -130,9 +170,13 @@ public class Renderer implements GLSurfaceView.Renderer
 	
 	protected void drawSetup()
 	{
+		// What changed in the scene since the last frame, as one int rather
+		// than asking each managed value
+		int dirty = _scene.dirtyBits();
+		
 		// View frustrum
 		
-		if (_scene.camera().frustum.isDirty()) {
+		if ((dirty & Scene.FRUSTUM) != 0) {
 			updateViewFrustrum();
 		}
 		 
@@ -145,10 +189,14 @@ public class Renderer implements GLSurfaceView.Renderer
 			_scene.camera().position.x,_scene.camera().position.y,_scene.camera().position.z,
 			_scene.camera().target.x,_scene.camera().target.y,_scene.camera().target.z,
 			_scene.camera().upAxis.x,_scene.camera().upAxis.y,_scene.camera().upAxis.z);
+		Matrix.setLookAtM(_viewMatrix, 0,
+			_scene.camera().position.x,_scene.camera().position.y,_scene.camera().position.z,
+			_scene.camera().target.x,_scene.camera().target.y,_scene.camera().target.z,
+			_scene.camera().upAxis.x,_scene.camera().upAxis.y,_scene.camera().upAxis.z);
 		
 		// Background color
 		
-		if (_scene.backgroundColor().isDirty())
+		if ((dirty & Scene.BACKGROUND) != 0)
 		{
 			_gl.glClearColor( 
 				(float)_scene.backgroundColor().r() / 255f, 
@@ -158,6 +206,23 @@ public class Renderer implements GLSurfaceView.Renderer
 			_scene.backgroundColor().clearDirtyFlag();
 		}
 		
+		// Fog
+		
+		if ((dirty & Scene.FOG) != 0)
+		{
+			if(_scene.fogEnabled() == true) {
+				_gl.glFogf(GL10.GL_FOG_MODE, _scene.fogType().glValue());
+				_gl.glFogf(GL10.GL_FOG_START, _scene.fogNear());
+				_gl.glFogf(GL10.GL_FOG_END, _scene.fogFar());
+				_gl.glFogfv(GL10.GL_FOG_COLOR, _scene.fogColor().toFloatBuffer() );
+				_gl.glEnable(GL10.GL_FOG);
+			} else {
+				_gl.glDisable(GL10.GL_FOG);
+			}
+		}
+		
+		_scene.clearDirtyBits();
+		
 		_gl.glClear(GL10.GL_COLOR_BUFFER_BIT | GL10.GL_DEPTH_BUFFER_BIT);
 		
 		drawSetupLights();
@@ -168,128 +233,158 @@ public class Renderer implements GLSurfaceView.Renderer
 	
 	protected void drawSetupLights()
 	{
-		// GL_LIGHTS enabled/disabled based on enabledDirty list
-		for (int glIndex = 0; glIndex < NUM_GLLIGHTS; glIndex++)
+		ManagedLightList list = _scene.lights();
+		Light[] lights = list.array();
+		int count = list.size();
+
+		// Lights removed from the scene give up their GL_LIGHTs
+		
+		if (list.changed())
 		{
-			if (_scene.lights().glIndexEnabledDirty()[glIndex] == true)
+			for (int slot = 0; slot < NUM_GLLIGHTS; slot++)
 			{
-				if (_scene.lights().glIndexEnabled()[glIndex] == true) 
-				{
-					_gl.glEnable(GL10.GL_LIGHT0 + glIndex);
-					
-					// make light's properties dirty to force update
-					_scene.lights().getLightByGlIndex(glIndex).setAllDirty();
-				} 
-				else 
-				{
-					_gl.glDisable(GL10.GL_LIGHT0 + glIndex);
+				if (_glLights[slot] != null && indexOf(lights, count, _glLights[slot]) < 0) {
+					unbindLight(slot);
 				}
-				
-				_scene.lights().glIndexEnabledDirty()[glIndex] = false; // clear dirtyflag
 			}
+			list.clearChanged();
 		}
 		
-		// Lights' properties 
+		// Only lights that changed are visited. Bound ones send the properties that changed;
+		// unbound ones are sent whole when they get bound, so they're just cleared.
 
-		Light[] lights = _scene.lights().toArray();
-		for (int i = 0; i < lights.length; i++)
+		Light[] dirty = list.dirty();
+		for (int i = 0; i < list.dirtyCount(); i++)
 		{
-			Light light = lights[i];
-			
-			if (light.isDirty()) // .. something has changed
+			int slot = indexOf(_glLights, NUM_GLLIGHTS, dirty[i]);
+			if (slot >= 0) {
+				uploadLight(slot, dirty[i], false);
+			} else {
+				dirty[i].clearDirtyFlag();
+			}
+		}
+		list.clearDirty();
+		
+		// When every light fits they stay bound, and objects don't choose
+		
+		_lightsPerObject = count > NUM_GLLIGHTS;
+		if (! _lightsPerObject)
+		{
+			for (int i = 0; i < count; i++)
 			{
-				// Check all of Light's properties for dirty 
-				
-				int glLightId = GL10.GL_LIGHT0 + _scene.lights().getGlIndexByLight(light);
-				
-				if (light.position.isDirty())
-				{
-					light.commitPositionAndTypeBuffer();
-					_gl.glLightfv(glLightId, GL10.GL_POSITION, light._positionAndTypeBuffer);
-					light.position.clearDirtyFlag();
-				}
-				if (light.ambient.isDirty()) 
-				{
-					light.ambient.commitToFloatBuffer();
-					_gl.glLightfv(glLightId, GL10.GL_AMBIENT, light.ambient.floatBuffer());
-					light.ambient.clearDirtyFlag();
-				}
-				if (light.diffuse.isDirty()) 
-				{
-					light.diffuse.commitToFloatBuffer();
-					_gl.glLightfv(glLightId, GL10.GL_DIFFUSE, light.diffuse.floatBuffer());
-					light.diffuse.clearDirtyFlag();
-				}
-				if (light.specular.isDirty())
-				{
-					light.specular.commitToFloatBuffer();
-					_gl.glLightfv(glLightId, GL10.GL_SPECULAR, light.specular.floatBuffer());
-					light.specular.clearDirtyFlag();
-				}
-				if (light.emissive.isDirty())
-				{
-					light.emissive.commitToFloatBuffer();
-					_gl.glLightfv(glLightId, GL10.GL_EMISSION, light.emissive.floatBuffer());
-					light.emissive.clearDirtyFlag();
+				if (indexOf(_glLights, NUM_GLLIGHTS, lights[i]) < 0) {
+					bindLight(indexOf(_glLights, NUM_GLLIGHTS, null), lights[i]);
 				}
+			}
+		}
+	}
 
-				if (light.direction.isDirty())
-				{
-					light.direction.commitToFloatBuffer();
-					_gl.glLightfv(glLightId, GL10.GL_SPOT_DIRECTION, light.direction.floatBuffer());
-					light.direction.clearDirtyFlag();
-				}
-				if (light._spotCutoffAngle.isDirty())
-				{
-					_gl.glLightf(glLightId, GL10.GL_SPOT_CUTOFF, light._spotCutoffAngle.get());
-				}
-				if (light._spotExponent.isDirty())
-				{
-					_gl.glLightf(glLightId, GL10.GL_SPOT_EXPONENT, light._spotExponent.get());
-				}
+	/**
+	 * Puts $light in GL_LIGHT0 + $slot and sends all its properties.
+	 * Positions are transformed by the current modelview, which must be the camera's.
+	 */
+	private void bindLight(int $slot, Light $light)
+	{
+		_glLights[$slot] = $light;
+		uploadLight($slot, $light, true);
+	}
 
-				if (light._isVisible.isDirty()) 
-				{
-					if (light.isVisible()) {
-						_gl.glEnable(glLightId);
-					} else {
-						_gl.glDisable(glLightId);
-					}
-					light._isVisible.clearDirtyFlag();
-				}
+	private void unbindLight(int $slot)
+	{
+		_glLights[$slot] = null;
+		_gl.glDisable(GL10.GL_LIGHT0 + $slot);
+	}
 
-				if (light._attenuation.isDirty())
-				{
-					_gl.glLightf(glLightId, GL10.GL_CONSTANT_ATTENUATION, light._attenuation.getX());
-					_gl.glLightf(glLightId, GL10.GL_LINEAR_ATTENUATION, light._attenuation.getY());
-					_gl.glLightf(glLightId, GL10.GL_QUADRATIC_ATTENUATION, light._attenuation.getZ());
-				}
-				
-				light.clearDirtyFlag();
+	/**
+	 * Sends $light's dirty properties, or all of them if $all, to GL_LIGHT0 + $slot
+	 */
+	private void uploadLight(int $slot, Light $light, boolean $all)
+	{
+		int glLightId = GL10.GL_LIGHT0 + $slot;
+		int bits = $all ? Light.ALL : $light.dirtyBits();
+		
+		if ((bits & Light.POSITION) != 0)
+		{
+			$light.commitPositionAndTypeBuffer();
+			_gl.glLightfv(glLightId, GL10.GL_POSITION, $light._positionAndTypeBuffer);
+		}
+		if ((bits & Light.AMBIENT) != 0) 
+		{
+			$light.ambient.commitToFloatBuffer();
+			_gl.glLightfv(glLightId, GL10.GL_AMBIENT, $light.ambient.floatBuffer());
+		}
+		if ((bits & Light.DIFFUSE) != 0) 
+		{
+			$light.diffuse.commitToFloatBuffer();
+			_gl.glLightfv(glLightId, GL10.GL_DIFFUSE, $light.diffuse.floatBuffer());
+		}
+		if ((bits & Light.SPECULAR) != 0)
+		{
+			$light.specular.commitToFloatBuffer();
+			_gl.glLightfv(glLightId, GL10.GL_SPECULAR, $light.specular.floatBuffer());
+		}
+		if ((bits & Light.EMISSIVE) != 0)
+		{
+			$light.emissive.commitToFloatBuffer();
+			_gl.glLightfv(glLightId, GL10.GL_EMISSION, $light.emissive.floatBuffer());
+		}
+
+		if ((bits & Light.DIRECTION) != 0)
+		{
+			$light.direction.commitToFloatBuffer();
+			_gl.glLightfv(glLightId, GL10.GL_SPOT_DIRECTION, $light.direction.floatBuffer());
+		}
+		if ((bits & Light.SPOT_CUTOFF) != 0)
+		{
+			_gl.glLightf(glLightId, GL10.GL_SPOT_CUTOFF, $light._spotCutoffAngle.get());
+		}
+		if ((bits & Light.SPOT_EXPONENT) != 0)
+		{
+			_gl.glLightf(glLightId, GL10.GL_SPOT_EXPONENT, $light._spotExponent.get());
+		}
+
+		if ((bits & Light.VISIBLE) != 0) 
+		{
+			if ($light.isVisible()) {
+				_gl.glEnable(glLightId);
+			} else {
+				_gl.glDisable(glLightId);
 			}
 		}
+
+		if ((bits & Light.ATTENUATION) != 0)
+		{
+			_gl.glLightf(glLightId, GL10.GL_CONSTANT_ATTENUATION, $light._attenuation.getX());
+			_gl.glLightf(glLightId, GL10.GL_LINEAR_ATTENUATION, $light._attenuation.getY());
+			_gl.glLightf(glLightId, GL10.GL_QUADRATIC_ATTENUATION, $light._attenuation.getZ());
+		}
+		
+		// clears the properties' flags with it
+		$light.clearDirtyFlag();
 	}
 
-	protected void drawScene()
+	private static int indexOf(Light[] $lights, int $count, Light $light)
 	{
-		if(_scene.fogEnabled() == true) {
-			_gl.glFogf(GL10.GL_FOG_MODE, _scene.fogType().glValue());
-			_gl.glFogf(GL10.GL_FOG_START, _scene.fogNear());
-			_gl.glFogf(GL10.GL_FOG_END, _scene.fogFar());
-			_gl.glFogfv(GL10.GL_FOG_COLOR, _scene.fogColor().toFloatBuffer() );
-			_gl.glEnable(GL10.GL_FOG);
-		} else {
-			_gl.glDisable(GL10.GL_FOG);
+		for (int i = 0; i < $count; i++) {
+			if ($lights[i] == $light) return i;
 		}
+		return -1;
+	}
 
+	protected void drawScene()
+	{
 		for (int i = 0; i < _scene.children().size(); i++)
 		{
 			Object3d o = _scene.children().get(i);
 			if(o.animationEnabled())
 			{
+				_frameStats.beginPhase(FrameStats.ANIMATION);
 				((AnimationObject3d)o).update();
+				_frameStats.endPhase(FrameStats.ANIMATION);
 			}
+			_frameStats.beginPhase(FrameStats.SUBMIT);
 			drawObject(o);
+			_frameStats.endPhase(FrameStats.SUBMIT);
 		}		
 	}
 	
@@ -301,13 +396,24 @@ public class Renderer implements GLSurfaceView.Renderer
 	{
 		if ($o.isVisible() == false) return;		
 
+		if (_drawStats.enabled()) {
+			if ($o._drawStatsId < 0) $o._drawStatsId = _drawStats.register($o.name() != null ? $o.name() : $o.getClass().getSimpleName());
+			_drawStats.begin($o._drawStatsId);
+		}
+
 		// Various per-object settings:
 		
 		// Normals
 
 		if ($o.hasNormals() && $o.normalsEnabled()) {
-			$o.vertices().normals().buffer().position(0);
-			_gl.glNormalPointer(GL10.GL_FLOAT, 0, $o.vertices().normals().buffer());
+			if ($o.vertices().isInterleaved()) {
+				VertexLayout layout = $o.vertices().layout();
+				_gl.glNormalPointer(layout.normalGlType(), layout.stride(), $o.vertices().attributeBuffer(layout.normalOffset()));
+			}
+			else {
+				$o.vertices().normals().buffer().position(0);
+				_gl.glNormalPointer(GL10.GL_FLOAT, 0, $o.vertices().normals().buffer());
+			}
 			_gl.glEnableClientState(GL10.GL_NORMAL_ARRAY);
 		}
 		else {
@@ -333,6 +439,9 @@ public class Renderer implements GLSurfaceView.Renderer
 		boolean useLighting = (_scene.lightingEnabled() && $o.hasNormals() && $o.normalsEnabled() && $o.lightingEnabled());
 		if (useLighting) {
 			_gl.glEnable(GL10.GL_LIGHTING);
+			if (_lightsPerObject) {
+				drawObject_lights($o);
+			}
 		} else {
 			_gl.glDisable(GL10.GL_LIGHTING);
 		}
@@ -347,8 +456,14 @@ public class Renderer implements GLSurfaceView.Renderer
 		// Colors: either per-vertex, or per-object
 
 		if ($o.hasVertexColors() && $o.vertexColorsEnabled()) {
-			$o.vertices().colors().buffer().position(0);
-			_gl.glColorPointer(4, GL10.GL_UNSIGNED_BYTE, 0, $o.vertices().colors().buffer());
+			if ($o.vertices().isInterleaved()) {
+				VertexLayout layout = $o.vertices().layout();
+				_gl.glColorPointer(4, GL10.GL_UNSIGNED_BYTE, layout.stride(), $o.vertices().attributeBuffer(layout.colorOffset()));
+			}
+			else {
+				$o.vertices().colors().buffer().position(0);
+				_gl.glColorPointer(4, GL10.GL_UNSIGNED_BYTE, 0, $o.vertices().colors().buffer());
+			}
 			_gl.glEnableClientState(GL10.GL_COLOR_ARRAY); 
 		}
 		else {
@@ -408,7 +523,7 @@ public class Renderer implements GLSurfaceView.Renderer
 		}
 		
 
-		drawObject_textures($o);
+		int textureBinds = drawObject_textures($o);
 
 		
 		// Matrix operations in modelview
@@ -425,35 +540,60 @@ public class Renderer implements GLSurfaceView.Renderer
 		
 		// Draw
 
-		$o.vertices().points().buffer().position(0);
-		_gl.glVertexPointer(3, GL10.GL_FLOAT, 0, $o.vertices().points().buffer());
+		if ($o.vertices().isInterleaved()) {
+			VertexLayout layout = $o.vertices().layout();
+			_gl.glVertexPointer(3, GL10.GL_FLOAT, layout.stride(), $o.vertices().attributeBuffer(layout.positionOffset()));
+		}
+		else {
+			$o.vertices().points().buffer().position(0);
+			_gl.glVertexPointer(3, GL10.GL_FLOAT, 0, $o.vertices().points().buffer());
+		}
 
+		int indices = 0;
 		if (! $o.ignoreFaces())
 		{
-			int pos, len;
+			if ($o.hasLods()) {
+				drawObject_selectLod($o);
+			}
+			FacesBufferedList faces = $o.lodFaces();
 			
-			if (! $o.faces().renderSubsetEnabled()) {
-				pos = 0;
-				len = $o.faces().size();
+			if ($o.subMeshCount() > 0 && ! faces.renderSubsetEnabled())
+			{
+				textureBinds += drawObject_subMeshes($o, faces);
+				indices = faces.size() * FacesBufferedList.PROPERTIES_PER_ELEMENT;
 			}
-			else {
-				pos = $o.faces().renderSubsetStartIndex() * FacesBufferedList.PROPERTIES_PER_ELEMENT;
-				len = $o.faces().renderSubsetLength();
+			else
+			{
+				int pos, len;
+				
+				if (! faces.renderSubsetEnabled()) {
+					pos = 0;
+					len = faces.size();
+				}
+				else {
+					pos = faces.renderSubsetStartIndex() * FacesBufferedList.PROPERTIES_PER_ELEMENT;
+					len = faces.renderSubsetLength();
+				}
+	
+				faces.buffer().position(pos);
+	
+				_gl.glDrawElements(
+						$o.renderType().glValue(),
+						len * FacesBufferedList.PROPERTIES_PER_ELEMENT, 
+						GL10.GL_UNSIGNED_SHORT, 
+						faces.buffer());
+				indices = len * FacesBufferedList.PROPERTIES_PER_ELEMENT;
 			}
-
-			$o.faces().buffer().position(pos);
-
-			_gl.glDrawElements(
-					$o.renderType().glValue(),
-					len * FacesBufferedList.PROPERTIES_PER_ELEMENT, 
-					GL10.GL_UNSIGNED_SHORT, 
-					$o.faces().buffer());
 		}
 		else
 		{
 			_gl.glDrawArrays($o.renderType().glValue(), 0, $o.vertices().size());
 		}
 		
+		if (_drawStats.enabled()) {
+			_drawStats.end($o._drawStatsId, $o.vertices().size(), indices, boundBytes($o) + indices * 2, textureBinds);
+		}
+		
 		//
 		// Recurse on children
 		//
@@ -462,11 +602,17 @@ public class Renderer implements GLSurfaceView.Renderer
 		{
 			Object3dContainer container = (Object3dContainer)$o;
 			
+			_originX += $o.position().x;
+			_originY += $o.position().y;
+			_originZ += $o.position().z;
 			for (int i = 0; i < container.children().size(); i++)
 			{
 				Object3d o = container.children().get(i);
 				drawObject(o);
 			}
+			_originX -= $o.position().x;
+			_originY -= $o.position().y;
+			_originZ -= $o.position().z;
 		}
 		
 		// Restore matrix
@@ -474,8 +620,148 @@ public class Renderer implements GLSurfaceView.Renderer
 		_gl.glPopMatrix();
 	}
 	
-	private void drawObject_textures(Object3d $o)
+	/**
+	 * Binds the lights most relevant to $o. Lights it shares with the last object
+	 * keep their GL_LIGHT, so only the difference is sent.
+	 */
+	private void drawObject_lights(Object3d $o)
+	{
+		ManagedLightList list = _scene.lights();
+		Number3d s = $o.scale();
+		float radius = $o.boundingRadius() * Math.max(Math.abs(s.x), Math.max(Math.abs(s.y), Math.abs(s.z)));
+		int n = _lightSelector.select(list.array(), list.size(),
+			_originX + $o.position().x, _originY + $o.position().y, _originZ + $o.position().z, radius, _selectedLights);
+
+		for (int slot = 0; slot < NUM_GLLIGHTS; slot++)
+		{
+			if (_glLights[slot] != null && indexOf(_selectedLights, n, _glLights[slot]) < 0) {
+				unbindLight(slot);
+			}
+		}
+
+		boolean viewLoaded = false;
+		for (int i = 0; i < n; i++)
+		{
+			if (indexOf(_glLights, NUM_GLLIGHTS, _selectedLights[i]) >= 0) continue;
+			
+			// light positions are set in world space, so under the camera alone
+			if (! viewLoaded) {
+				_gl.glPushMatrix();
+				_gl.glLoadMatrixf(_viewMatrix, 0);
+				viewLoaded = true;
+			}
+			bindLight(indexOf(_glLights, NUM_GLLIGHTS, null), _selectedLights[i]);
+		}
+		if (viewLoaded) {
+			_gl.glPopMatrix();
+		}
+	}
+	
+	/**
+	 * Picks $o's level of detail from its bounding sphere's size on screen
+	 */
+	private void drawObject_selectLod(Object3d $o)
+	{
+		Number3d cam = _scene.camera().position;
+		float dx = _originX + $o.position().x - cam.x;
+		float dy = _originY + $o.position().y - cam.y;
+		float dz = _originZ + $o.position().z - cam.z;
+		float distance = (float)Math.sqrt(dx*dx + dy*dy + dz*dz);
+		
+		Number3d s = $o.scale();
+		float scale = Math.max(Math.abs(s.x), Math.max(Math.abs(s.y), Math.abs(s.z)));
+		float size = LodSelector.projectedSize($o.boundingRadius() * scale, distance, _tanHalfFovY);
+		
+		$o.lodLevel($o.lodSelector().select(size, $o.lodLevel(), $o.maxLodLevel()));
+	}
+	
+	/**
+	 * Vertex bytes bound for $o's draw
+	 */
+	private int boundBytes(Object3d $o)
+	{
+		Vertices v = $o.vertices();
+		if (v.isInterleaved()) {
+			return v.size() * v.layout().stride();
+		}
+		int perVertex = 3 * VertexLayout.BYTES_PER_FLOAT;
+		if ($o.hasNormals() && $o.normalsEnabled()) perVertex += 3 * VertexLayout.BYTES_PER_FLOAT;
+		if ($o.hasVertexColors() && $o.vertexColorsEnabled()) perVertex += 4;
+		if ($o.hasUvs() && $o.texturesEnabled()) perVertex += 2 * VertexLayout.BYTES_PER_FLOAT;
+		return v.size() * perVertex;
+	}
+	
+	/**
+	 * Draws $faces one sub-mesh range at a time, each with its own color and texture on unit 0.
+	 * State is only changed between ranges that differ. Returns number of textures bound.
+	 */
+	private int drawObject_subMeshes(Object3d $o, FacesBufferedList $faces)
+	{
+		int binds = 0;
+		boolean textured = $o.hasUvs() && $o.texturesEnabled();
+		boolean colored = ! ($o.hasVertexColors() && $o.vertexColorsEnabled());
+		String boundTexture = null;
+		Color4 setColor = null;
+		int pos = 0;
+
+		_gl.glActiveTexture(GL10.GL_TEXTURE0);
+		_gl.glClientActiveTexture(GL10.GL_TEXTURE0);
+
+		for (int s = 0; s < $o.subMeshCount(); s++)
+		{
+			int len = $o.subMeshFaces(s);
+			if (len == 0) continue;
+
+			String textureId = textured ? $o.subMeshTexture(s) : null;
+			if (s == 0 || (textureId == null ? boundTexture != null : ! textureId.equals(boundTexture)))
+			{
+				if (textureId != null)
+				{
+					_gl.glBindTexture(GL10.GL_TEXTURE_2D, _textureManager.getGlTextureId(textureId));
+					binds++;
+					_gl.glEnable(GL10.GL_TEXTURE_2D);
+					_gl.glEnableClientState(GL10.GL_TEXTURE_COORD_ARRAY);
+
+					int minFilterType = _textureManager.hasMipMap(textureId) ? GL10.GL_LINEAR_MIPMAP_NEAREST : GL10.GL_NEAREST; 
+					_gl.glTexParameterf(GL10.GL_TEXTURE_2D, GL10.GL_TEXTURE_MIN_FILTER, minFilterType);
+					_gl.glTexParameterf(GL10.GL_TEXTURE_2D, GL10.GL_TEXTURE_MAG_FILTER, GL10.GL_LINEAR);
+					_gl.glTexParameterx(GL10.GL_TEXTURE_2D, GL10.GL_TEXTURE_WRAP_S, GL10.GL_REPEAT);
+					_gl.glTexParameterx(GL10.GL_TEXTURE_2D, GL10.GL_TEXTURE_WRAP_T, GL10.GL_REPEAT);
+				}
+				else
+				{
+					_gl.glBindTexture(GL10.GL_TEXTURE_2D, 0);
+					_gl.glDisable(GL10.GL_TEXTURE_2D);
+					_gl.glDisableClientState(GL10.GL_TEXTURE_COORD_ARRAY);
+				}
+				boundTexture = textureId;
+			}
+
+			Color4 color = $o.subMeshColor(s) != null ? $o.subMeshColor(s) : $o.defaultColor();
+			if (colored && color != setColor)
+			{
+				_gl.glColor4f(color.r / 255f, color.g / 255f, color.b / 255f, color.a / 255f);
+				setColor = color;
+			}
+
+			$faces.buffer().position(pos * FacesBufferedList.PROPERTIES_PER_ELEMENT);
+			_gl.glDrawElements(
+					$o.renderType().glValue(),
+					len * FacesBufferedList.PROPERTIES_PER_ELEMENT, 
+					GL10.GL_UNSIGNED_SHORT, 
+					$faces.buffer());
+			pos += len;
+		}
+		return binds;
+	}
+	
+	/**
+	 * Returns number of textures bound
+	 */
+	private int drawObject_textures(Object3d $o)
 	{
+		int binds = 0;
+		
 		// iterate thru object's textures
 		
 		for (int i = 0; i < RenderCaps.maxTextureUnits(); i++)
@@ -485,8 +771,18 @@ public class Renderer implements GLSurfaceView.Renderer
 
 			if ($o.hasUvs() && $o.texturesEnabled())
 			{
-				$o.vertices().uvs().buffer().position(0);
-				_gl.glTexCoordPointer(2, GL10.GL_FLOAT, 0, $o.vertices().uvs().buffer());
+				if ($o.vertices().isInterleaved()) {
+					VertexLayout layout = $o.vertices().layout();
+					// glTexCoordPointer has no half-float type; those layouts are for the GLES20 path
+					if (layout.halfFloatUvs()) {
+						throw new Error("Half-float uvs can't be drawn through GL10; use a float uv layout for " + $o.name());
+					}
+					_gl.glTexCoordPointer(2, layout.uvGlType(), layout.stride(), $o.vertices().attributeBuffer(layout.uvOffset()));
+				}
+				else {
+					$o.vertices().uvs().buffer().position(0);
+					_gl.glTexCoordPointer(2, GL10.GL_FLOAT, 0, $o.vertices().uvs().buffer());
+				}
 
 				TextureVo textureVo = ((i < $o.textures().size())) ? textureVo = $o.textures().get(i) : null;
 
@@ -495,6 +791,7 @@ public class Renderer implements GLSurfaceView.Renderer
 					// activate texture
 					int glId = _textureManager.getGlTextureId(textureVo.textureId);
 					_gl.glBindTexture(GL10.GL_TEXTURE_2D, glId);
+					binds++;
 				    _gl.glEnable(GL10.GL_TEXTURE_2D);
 					_gl.glEnableClientState(GL10.GL_TEXTURE_COORD_ARRAY);
 
@@ -535,6 +832,7 @@ public class Renderer implements GLSurfaceView.Renderer
 				_gl.glDisableClientState(GL10.GL_TEXTURE_COORD_ARRAY);
 			}
 		}
+		return binds;
 	}
 	
 	/**
@@ -594,22 +892,19 @@ public class Renderer implements GLSurfaceView.Renderer
 		_gl.glMatrixMode(GL10.GL_PROJECTION);
 		_gl.glLoadIdentity();
 		_gl.glFrustumf(lt,rt, btm,top, vf.zNear(), vf.zFar());
+		_tanHalfFovY = (top - btm) / 2f / vf.zNear();
 		
 		vf.clearDirtyFlag();
 	}
 
 	/**
-	 * If true, framerate and memory is periodically calculated and Log'ed,
-	 * and gettable thru fps() 
+	 * If true, frame timings are recorded, and a summary (fps, frame time percentiles, 
+	 * dropped frames, heap) is periodically Log'ed. Framerate is gettable thru fps() 
 	 */
 	public void logFps(boolean $b)
 	{
-		_logFps = $b;
-		
-		if (_logFps) { // init
-			_timeLastSample = System.currentTimeMillis();
-			_frameCount = 0;
-		}
+		_frameStats.enabled($b);
+		_frameStats.logInterval($b ? FRAMERATE_SAMPLEINTERVAL_MS : 0);
 	}
 	
 	private void setGl(GL10 $gl)
@@ -617,28 +912,15 @@ public class Renderer implements GLSurfaceView.Renderer
 		_gl = $gl;
 	}
 	
-	private void doFps()
-	{
-		_frameCount++;
-
-		long now = System.currentTimeMillis();
-		long delta = now - _timeLastSample;
-		if (delta >= FRAMERATE_SAMPLEINTERVAL_MS)
-		{
-			_fps = _frameCount / (delta/1000f); 
-
-			_activityManager.getMemoryInfo(_memoryInfo);
-			Log.v(Min3d.TAG, "FPS: " + Math.round(_fps) + ", availMem: " + Math.round(_memoryInfo.availMem/1048576) + "MB");
-
-			_timeLastSample = now;
-			_frameCount = 0;
-		}
-	}
-	
 	private void reset()
 	{
 		// Reset TextureManager
 		Shared.textureManager().reset();
+		
+		// A new context starts with every GL_LIGHT off
+		for (int slot = 0; slot < NUM_GLLIGHTS; slot++) {
+			_glLights[slot] = null;
+		}
 
 		// Do OpenGL settings which we are using as defaults, or which we will not be changing on-draw
 		
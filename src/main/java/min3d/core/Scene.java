@@ -3,9 +3,11 @@ package min3d.core;
 import java.util.ArrayList;
 
 import min3d.Min3d;
+import min3d.interfaces.IDirtyManaged;
 import min3d.interfaces.IDirtyParent;
 import min3d.interfaces.IObject3dContainer;
 import min3d.interfaces.ISceneController;
+import min3d.vos.AbstractDirtyManaged;
 import min3d.vos.CameraVo;
 import min3d.vos.Color4;
 import min3d.vos.Color4Managed;
@@ -15,6 +17,11 @@ import android.util.Log;
 
 public class Scene implements IObject3dContainer, IDirtyParent
 {
+	// Bits of dirtyBits(), one per kind of scene state the Renderer sends separately
+	public static final int BACKGROUND = 1;
+	public static final int FRUSTUM = 2;
+	public static final int FOG = 4;
+
 	private ArrayList<Object3d> _children = new ArrayList<Object3d>();
 
 	private ManagedLightList _lights;
@@ -31,6 +38,8 @@ public class Scene implements IObject3dContainer, IDirtyParent
 
 	private ISceneController _sceneController;
 	
+	private int _dirtyBits;
+	
 
 	public Scene(ISceneController $sceneController) 
 	{
@@ -70,13 +79,17 @@ public class Scene implements IObject3dContainer, IDirtyParent
 
 		_children = new ArrayList<Object3d>();
 
-		_camera = new CameraVo();
+		camera(new CameraVo());
 		
-		_backgroundColor = new Color4Managed(0,0,0,255, this);
+		_backgroundColor = new Color4Managed(0,0,0,255, null);
+		_backgroundColor.parent(this, BACKGROUND);
 		
 		_lights = new ManagedLightList();
 		
 		lightingEnabled(true);
+		
+		// a new GL context starts without fog settings
+		_dirtyBits |= FOG;
 	}
 	
 	/**
@@ -156,9 +169,16 @@ public class Scene implements IObject3dContainer, IDirtyParent
 	{
 		return _camera;
 	}
+	/**
+	 * Replaces the camera. Changes to its frustum are seen through the scene's
+	 * dirty bits, so swap in a new FrustumManaged with camera() too.
+	 */
 	public void camera(CameraVo $camera)
 	{
+		if (_camera != null) _camera.frustum.parent(null, AbstractDirtyManaged.DIRTY);
 		_camera = $camera;
+		_camera.frustum.parent(this, FRUSTUM);
+		_dirtyBits |= FRUSTUM;
 	}
 	
 	/**
@@ -202,12 +222,17 @@ public class Scene implements IObject3dContainer, IDirtyParent
 	}
 	*/
 
+	/**
+	 * Fog settings are sent to GL only when a setter is called, so after
+	 * changing the returned Color4's fields, pass it to fogColor() again.
+	 */
 	public Color4 fogColor() {
 		return _fogColor;
 	}
 
 	public void fogColor(Color4 _fogColor) {
 		this._fogColor = _fogColor;
+		_dirtyBits |= FOG;
 	}
 
 	public float fogFar() {
@@ -216,6 +241,7 @@ public class Scene implements IObject3dContainer, IDirtyParent
 
 	public void fogFar(float _fogFar) {
 		this._fogFar = _fogFar;
+		_dirtyBits |= FOG;
 	}
 
 	public float fogNear() {
@@ -224,6 +250,7 @@ public class Scene implements IObject3dContainer, IDirtyParent
 
 	public void fogNear(float _fogNear) {
 		this._fogNear = _fogNear;
+		_dirtyBits |= FOG;
 	}
 
 	public FogType fogType() {
@@ -232,6 +259,7 @@ public class Scene implements IObject3dContainer, IDirtyParent
 
 	public void fogType(FogType _fogType) {
 		this._fogType = _fogType;
+		_dirtyBits |= FOG;
 	}
 
 	public boolean fogEnabled() {
@@ -240,6 +268,25 @@ public class Scene implements IObject3dContainer, IDirtyParent
 
 	public void fogEnabled(boolean _fogEnabled) {
 		this._fogEnabled = _fogEnabled;
+		_dirtyBits |= FOG;
+	}
+
+	/**
+	 * What the Renderer has to send again (BACKGROUND, FRUSTUM, FOG); 0 for nothing.
+	 * The background color and the camera's frustum set their bits when they
+	 * change, so nothing is polled per frame.
+	 */
+	public int dirtyBits()
+	{
+		return _dirtyBits;
+	}
+
+	/**
+	 * Used by Renderer, once it has sent what changed
+	 */
+	void clearDirtyBits() /*package-private*/
+	{
+		_dirtyBits = 0;
 	}
 
 	/**
@@ -283,8 +330,8 @@ public class Scene implements IObject3dContainer, IDirtyParent
 		}
 	}	
 	
-	public void onDirty()
+	public void onDirty(IDirtyManaged $child, int $bits)
 	{
-		//
+		_dirtyBits |= $bits;
 	}
 }
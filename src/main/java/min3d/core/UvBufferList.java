@@ -14,6 +14,12 @@ public class UvBufferList
 
 	private FloatBuffer _b;
 	private int _numElements = 0;
+
+	// Both in floats. Non-default only when viewing an interleaved buffer
+	private int _stride = PROPERTIES_PER_ELEMENT;
+	private int _offset = 0;
+	
+	private boolean _shared;
 	
 	public UvBufferList(FloatBuffer $b, int $size)
 	{
@@ -33,6 +39,35 @@ public class UvBufferList
 		_b  = bb.asFloatBuffer();
 	}
 	
+	/**
+	 * Strided view onto an interleaved vertex buffer (see VertexLayout).
+	 * Stride and offset are in bytes, and must be 4-byte aligned.
+	 */
+	UvBufferList(ByteBuffer $interleaved, int $strideBytes, int $offsetBytes) /*package-private*/
+	{
+		ByteBuffer bb = $interleaved.duplicate();
+		bb.order($interleaved.order());
+		bb.position(0);
+		
+		_b = bb.asFloatBuffer();
+		_stride = $strideBytes / BYTES_PER_PROPERTY;
+		_offset = $offsetBytes / BYTES_PER_PROPERTY;
+	}
+	
+	/**
+	 * Marks the list as shared between objects (see Vertices.share()). From then on
+	 * it can't be changed or cleared; clone() it for a copy that can.
+	 */
+	public void share()
+	{
+		_shared = true;
+	}
+	
+	public boolean isShared()
+	{
+		return _shared;
+	}
+	
 	/**
 	 * The number of items in the list. 
 	 */
@@ -41,13 +76,21 @@ public class UvBufferList
 		return _numElements;
 	}
 	
+	/**
+	 * Used by Vertices when re-wrapping an already-populated interleaved buffer
+	 */
+	void size(int $size) /*package-private*/
+	{
+		_numElements = $size;
+	}
+	
 	/**
 	 * The _maximum_ number of items that the list can hold, as defined on instantiation.
 	 * (Not to be confused with the Buffer's capacity)
 	 */
 	public int capacity()
 	{
-		return _b.capacity() / PROPERTIES_PER_ELEMENT;
+		return _b.capacity() / _stride;
 	}
 	
 	/**
@@ -55,30 +98,31 @@ public class UvBufferList
 	 */
 	public void clear()
 	{
+		if (_shared) return;
 		_b.clear();
 	}
 	
 	public Uv getAsUv(int $index)
 	{
-		_b.position($index * PROPERTIES_PER_ELEMENT);
+		_b.position(_offset + $index * _stride);
 		return new Uv( _b.get(), _b.get() );
 	}
 	
 	public void putInUv(int $index, Uv $uv)
 	{
-		_b.position($index * PROPERTIES_PER_ELEMENT);
+		_b.position(_offset + $index * _stride);
 		$uv.u = _b.get();
 		$uv.v = _b.get();
 	}
 
 	public float getPropertyU(int $index)
 	{
-		_b.position($index * PROPERTIES_PER_ELEMENT);
+		_b.position(_offset + $index * _stride);
 		return _b.get();
 	}
 	public float getPropertyV(int $index)
 	{
-		_b.position($index * PROPERTIES_PER_ELEMENT + 1);
+		_b.position(_offset + $index * _stride + 1);
 		return _b.get();
 	}
 	
@@ -98,26 +142,30 @@ public class UvBufferList
 	
 	public void set(int $index, Uv $uv)
 	{
-		_b.position($index * PROPERTIES_PER_ELEMENT);
+		checkNotShared();
+		_b.position(_offset + $index * _stride);
 		_b.put($uv.u);
 		_b.put($uv.v);
 	}
 
 	public void set(int $index, float $u, float $v)
 	{
-		_b.position($index * PROPERTIES_PER_ELEMENT);
+		checkNotShared();
+		_b.position(_offset + $index * _stride);
 		_b.put($u);
 		_b.put($v);
 	}
 	
 	public void setPropertyU(int $index, float $u)
 	{
-		_b.position($index * PROPERTIES_PER_ELEMENT);
+		checkNotShared();
+		_b.position(_offset + $index * _stride);
 		_b.put($u);
 	}
 	public void setPropertyV(int $index, float $v)
 	{
-		_b.position($index * PROPERTIES_PER_ELEMENT + 1);
+		checkNotShared();
+		_b.position(_offset + $index * _stride + 1);
 		_b.put($v);
 	}
 	
@@ -128,10 +176,36 @@ public class UvBufferList
 		return _b;
 	}
 	
+	/**
+	 * True when this list is a view onto an interleaved buffer, 
+	 * in which case buffer() can't be handed to GL with a stride of 0.
+	 */
+	public boolean isStrided()
+	{
+		return _stride != PROPERTIES_PER_ELEMENT || _offset != 0;
+	}
+	
+	/**
+	 * Clones always come back tightly packed, even when cloned from a strided view
+	 */
 	public UvBufferList clone()
 	{
-		_b.position(0);
-		UvBufferList c = new UvBufferList(_b, size());
+		if (! isStrided())
+		{
+			_b.position(0);
+			UvBufferList c = new UvBufferList(_b, size());
+			return c;
+		}
+		
+		UvBufferList c = new UvBufferList(capacity());
+		for (int i = 0; i < size(); i++) {
+			c.add(getPropertyU(i), getPropertyV(i));
+		}
 		return c;
 	}
+	
+	void checkNotShared() /*package-private*/
+	{
+		if (_shared) throw new Error("Shared vertices can't be changed; clone() them first");
+	}
 }
@@ -0,0 +1,152 @@
+package min3d.core;
+
+import javax.microedition.khronos.opengles.GL10;
+
+/**
+ * Describes how one vertex is laid out inside an interleaved vertex buffer.
+ *
+ * Attributes are stored in the order position, normal, uv, color, each one
+ * starting on a 4-byte boundary:
+ *
+ * 		position	3 x GL_FLOAT						(12 bytes)
+ * 		normal		3 x GL_FLOAT, or 3 x GL_BYTE + pad	(12 or 4 bytes)
+ * 		uv			2 x GL_FLOAT, or 2 x half-float		(8 or 4 bytes)
+ * 		color		4 x GL_UNSIGNED_BYTE				(4 bytes)
+ *
+ * Stride defaults to the packed size, but can be set larger (eg, 32) to keep
+ * vertices aligned to a cache-friendly boundary.
+ */
+public class VertexLayout
+{
+	public static final int BYTES_PER_FLOAT = 4;
+
+	/**
+	 * From OES_vertex_half_float; only usable through the GLES20 attribute path.
+	 */
+	public static final int GL_HALF_FLOAT_OES = 0x8D61;
+
+	private boolean _hasUvs;
+	private boolean _hasNormals;
+	private boolean _hasColors;
+	private boolean _halfFloatUvs;
+	private boolean _packedNormals;
+
+	private int _normalOffset = -1;
+	private int _uvOffset = -1;
+	private int _colorOffset = -1;
+	private int _stride;
+
+	/**
+	 * Float normals and uvs, packed stride.
+	 */
+	public VertexLayout(boolean $useUvs, boolean $useNormals, boolean $useColors)
+	{
+		this($useUvs, $useNormals, $useColors, false, false, 0);
+	}
+
+	/**
+	 * @param $halfFloatUvs		Store uvs as two 16-bit half-floats
+	 * @param $packedNormals	Store normals as three normalized GL_BYTEs
+	 * @param $stride			Stride in bytes, or 0 to use the packed size
+	 */
+	public VertexLayout(boolean $useUvs, boolean $useNormals, boolean $useColors,
+			boolean $halfFloatUvs, boolean $packedNormals, int $stride)
+	{
+		_hasUvs = $useUvs;
+		_hasNormals = $useNormals;
+		_hasColors = $useColors;
+		_halfFloatUvs = $useUvs && $halfFloatUvs;
+		_packedNormals = $useNormals && $packedNormals;
+
+		int size = 3 * BYTES_PER_FLOAT;
+
+		if (_hasNormals) {
+			_normalOffset = size;
+			size += _packedNormals ? 4 : 3 * BYTES_PER_FLOAT;
+		}
+		if (_hasUvs) {
+			_uvOffset = size;
+			size += _halfFloatUvs ? 4 : 2 * BYTES_PER_FLOAT;
+		}
+		if (_hasColors) {
+			_colorOffset = size;
+			size += 4;
+		}
+
+		if ($stride == 0) {
+			_stride = size;
+		}
+		else if ($stride < size || $stride % 4 != 0) {
+			throw new Error("Stride " + $stride + " is too small or not 4-byte aligned (need at least " + size + ")");
+		}
+		else {
+			_stride = $stride;
+		}
+	}
+
+	public int stride()
+	{
+		return _stride;
+	}
+
+	public boolean hasUvs()
+	{
+		return _hasUvs;
+	}
+
+	public boolean hasNormals()
+	{
+		return _hasNormals;
+	}
+
+	public boolean hasColors()
+	{
+		return _hasColors;
+	}
+
+	public boolean halfFloatUvs()
+	{
+		return _halfFloatUvs;
+	}
+
+	public boolean packedNormals()
+	{
+		return _packedNormals;
+	}
+
+	public int positionOffset()
+	{
+		return 0;
+	}
+
+	public int normalOffset()
+	{
+		return _normalOffset;
+	}
+
+	public int uvOffset()
+	{
+		return _uvOffset;
+	}
+
+	public int colorOffset()
+	{
+		return _colorOffset;
+	}
+
+	/**
+	 * GL type constant to pass to glNormalPointer / glVertexAttribPointer
+	 */
+	public int normalGlType()
+	{
+		return _packedNormals ? GL10.GL_BYTE : GL10.GL_FLOAT;
+	}
+
+	/**
+	 * GL type constant to pass to glTexCoordPointer / glVertexAttribPointer
+	 */
+	public int uvGlType()
+	{
+		return _halfFloatUvs ? GL_HALF_FLOAT_OES : GL10.GL_FLOAT;
+	}
+}
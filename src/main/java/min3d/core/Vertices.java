@@ -1,5 +1,8 @@
 package min3d.core;
 
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+
 import min3d.vos.Color4;
 import min3d.vos.Number3d;
 import min3d.vos.Uv;
@@ -16,6 +19,16 @@ public class Vertices
 	private boolean _hasNormals;
 	private boolean _hasColors;
 	
+	// Only set when using interleaved storage
+	private VertexLayout _layout;
+	private ByteBuffer _interleaved;
+	private ByteBuffer _positionAttrib;
+	private ByteBuffer _normalAttrib;
+	private ByteBuffer _uvAttrib;
+	private ByteBuffer _colorAttrib;
+	
+	private boolean _shared;
+	
 	
 	/**
 	 * Used by Object3d to hold the lists of vertex points, texture coordinates (UV), normals, and vertex colors. 
@@ -55,6 +68,53 @@ public class Vertices
 		if (_hasColors) _colors = new Color4BufferList($maxElements);
 	}
 	
+	/**
+	 * Interleaved version of the constructor. All vertex attributes live in a single 
+	 * direct ByteBuffer laid out according to $layout, which keeps each vertex's data 
+	 * together in memory for better cache locality during vertex fetch.
+	 * 
+	 * The usual buffer list accessors keep working on top of the interleaved buffer.
+	 */
+	public Vertices(int $maxElements, VertexLayout $layout)
+	{
+		this(allocateInterleaved($maxElements, $layout), $layout);
+	}
+	
+	private Vertices(ByteBuffer $interleaved, VertexLayout $layout)
+	{
+		_layout = $layout;
+		_interleaved = $interleaved;
+		
+		_hasUvs = $layout.hasUvs();
+		_hasNormals = $layout.hasNormals();
+		_hasColors = $layout.hasColors();
+		
+		int stride = $layout.stride();
+		
+		_points = new Number3dBufferList(_interleaved, stride, $layout.positionOffset());
+		_positionAttrib = attributeSlice($layout.positionOffset());
+		
+		if (_hasNormals) 
+		{
+			_normals = $layout.packedNormals() 
+				? new PackedNormalBufferList(_interleaved, stride, $layout.normalOffset())
+				: new Number3dBufferList(_interleaved, stride, $layout.normalOffset());
+			_normalAttrib = attributeSlice($layout.normalOffset());
+		}
+		if (_hasUvs) 
+		{
+			_uvs = $layout.halfFloatUvs()
+				? new HalfFloatUvBufferList(_interleaved, stride, $layout.uvOffset())
+				: new UvBufferList(_interleaved, stride, $layout.uvOffset());
+			_uvAttrib = attributeSlice($layout.uvOffset());
+		}
+		if (_hasColors) 
+		{
+			_colors = new Color4BufferList(_interleaved, stride, $layout.colorOffset());
+			_colorAttrib = attributeSlice($layout.colorOffset());
+		}
+	}
+	
 	public Vertices(Number3dBufferList $points, UvBufferList $uvs, Number3dBufferList $normals,
 			Color4BufferList $colors)
 	{
@@ -68,6 +128,26 @@ public class Vertices
 		_hasColors = _colors != null && _colors.size() > 0;
 	}
 	
+	/**
+	 * Marks the vertices as shared between objects (see Primitives). From then on 
+	 * they can't be added to or overwritten, through here or through their buffer 
+	 * lists, and Object3d.clear() leaves them be; clone() them for a copy that can 
+	 * be changed.
+	 */
+	public void share()
+	{
+		_shared = true;
+		_points.share();
+		if (_uvs != null) _uvs.share();
+		if (_normals != null) _normals.share();
+		if (_colors != null) _colors.share();
+	}
+	
+	public boolean isShared()
+	{
+		return _shared;
+	}
+	
 	public int size()
 	{
 		return _points.size();
@@ -93,6 +173,47 @@ public class Vertices
 		return _hasColors;
 	}
 	
+	/**
+	 * True if all attributes are stored in one interleaved buffer
+	 */
+	public boolean isInterleaved()
+	{
+		return _interleaved != null;
+	}
+	
+	/**
+	 * Layout of the interleaved buffer, or null when not interleaved
+	 */
+	public VertexLayout layout()
+	{
+		return _layout;
+	}
+	
+	/**
+	 * The interleaved buffer itself, or null when not interleaved
+	 */
+	public ByteBuffer interleavedBuffer()
+	{
+		return _interleaved;
+	}
+	
+	/**
+	 * Returns a view of the interleaved buffer starting at the given attribute's offset, 
+	 * suitable for passing to glVertexPointer/glVertexAttribPointer along with layout().stride().
+	 * The views are created once, so this is safe to call every frame. 
+	 * 
+	 * @param $byteOffset	one of layout().positionOffset(), normalOffset(), uvOffset() or colorOffset() 
+	 */
+	public ByteBuffer attributeBuffer(int $byteOffset)
+	{
+		if (_layout == null) return null;
+		if ($byteOffset == _layout.positionOffset()) return _positionAttrib;
+		if ($byteOffset == _layout.normalOffset()) return _normalAttrib;
+		if ($byteOffset == _layout.uvOffset()) return _uvAttrib;
+		if ($byteOffset == _layout.colorOffset()) return _colorAttrib;
+		return null;
+	}
+	
 	
 	/**
 	 * Use this to populate an Object3d's vertex data.
@@ -107,6 +228,7 @@ public class Vertices
 		float $normalX, float $normalY, float $normalZ,  
 		short $colorR, short $colorG, short $colorB, short $colorA)
 	{
+		checkNotShared();
 		_points.add($pointX, $pointY, $pointZ);
 		
 		if (_hasUvs) _uvs.add($textureU, $textureV);
@@ -127,6 +249,7 @@ public class Vertices
 	 */
 	public short addVertex(Number3d $point, Uv $textureUv, Number3d $normal, Color4 $color)
 	{
+		checkNotShared();
 		_points.add($point);
 		
 		if (_hasUvs) _uvs.add($textureUv);
@@ -138,11 +261,13 @@ public class Vertices
 	
 	public void overwriteVerts(float[] $newVerts)
 	{
+		checkNotShared();
 		_points.overwrite($newVerts);
 	}
 	
 	public void overwriteNormals(float[] $newNormals)
 	{
+		checkNotShared();
 		_normals.overwrite($newNormals);
 	}
 	
@@ -177,7 +302,85 @@ public class Vertices
 	
 	public Vertices clone()
 	{
+		if (isInterleaved())
+		{
+			ByteBuffer copy = ByteBuffer.allocateDirect(_interleaved.capacity());
+			copy.order(ByteOrder.nativeOrder());
+			ByteBuffer src = _interleaved.duplicate();
+			src.position(0);
+			copy.put(src);
+			copy.position(0);
+			
+			Vertices v = new Vertices(copy, _layout);
+			v.restoreSize(size());
+			return v;
+		}
+		
 		Vertices v = new Vertices(_points.clone(), _uvs.clone(), _normals.clone(), _colors.clone());
 		return v;
 	}
+	
+	/**
+	 * Builds interleaved Vertices from flat arrays 
+	 * (3 floats per point and normal, 2 floats per uv, as produced by the OBJ loaders).
+	 * $normals and $uvs are ignored if $layout doesn't use them.
+	 */
+	public static Vertices fromArrays(VertexLayout $layout, float[] $points, float[] $normals, float[] $uvs)
+	{
+		return fromArrays($layout, $points, $normals, $uvs, null);
+	}
+	
+	/**
+	 * As above, plus one ARGB color per vertex (eg from LightBaker), 
+	 * ignored if $layout doesn't use colors.
+	 */
+	public static Vertices fromArrays(VertexLayout $layout, float[] $points, float[] $normals, float[] $uvs, int[] $argb)
+	{
+		int count = $points.length / 3;
+		Vertices v = new Vertices(count, $layout);
+		
+		for (int i = 0; i < count; i++)
+		{
+			v._points.add($points[i*3], $points[i*3+1], $points[i*3+2]);
+			if (v._hasNormals) v._normals.add($normals[i*3], $normals[i*3+1], $normals[i*3+2]);
+			if (v._hasUvs) v._uvs.add($uvs[i*2], $uvs[i*2+1]);
+			if (v._hasColors) {
+				int c = $argb[i];
+				v._colors.add((short)((c >> 16) & 0xFF), (short)((c >> 8) & 0xFF), (short)(c & 0xFF), (short)(c >>> 24));
+			}
+		}
+		return v;
+	}
+	
+	private void checkNotShared()
+	{
+		if (_shared) throw new Error("Shared vertices can't be changed; clone() them first");
+	}
+	
+	private ByteBuffer attributeSlice(int $byteOffset)
+	{
+		ByteBuffer bb = _interleaved.duplicate();
+		bb.position($byteOffset);
+		bb = bb.slice();
+		bb.order(ByteOrder.nativeOrder());
+		return bb;
+	}
+	
+	/**
+	 * Element counts live in the buffer lists, so an interleaved clone has to re-add them
+	 */
+	private void restoreSize(int $size)
+	{
+		_points.size($size);
+		if (_hasUvs) _uvs.size($size);
+		if (_hasNormals) _normals.size($size);
+		if (_hasColors) _colors.size($size);
+	}
+	
+	private static ByteBuffer allocateInterleaved(int $maxElements, VertexLayout $layout)
+	{
+		ByteBuffer bb = ByteBuffer.allocateDirect($maxElements * $layout.stride());
+		bb.order(ByteOrder.nativeOrder());
+		return bb;
+	}
 }
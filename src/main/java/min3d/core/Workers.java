@@ -0,0 +1,112 @@
+package min3d.core;
+
+import java.util.ArrayList;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadFactory;
+
+/**
+ * Shared pool of background threads for splitting load-time work
+ * (normal generation, decoding, baking) into parallel chunks.
+ *
+ * Threads are daemons, created lazily on first use, and sized to the number
+ * of cores minus one; the calling thread always works on a chunk too.
+ */
+public class Workers
+{
+	/**
+	 * Work on the index range [$from, $to)
+	 */
+	public interface RangeTask
+	{
+		void run(int $from, int $to);
+	}
+
+	private static ExecutorService _pool;
+
+	/**
+	 * Number of threads that can work on a range at once, including the caller.
+	 */
+	public static int parallelism()
+	{
+		return Math.max(1, Runtime.getRuntime().availableProcessors());
+	}
+
+	/**
+	 * Runs $task over [0, $count) in contiguous chunks and returns when all are done.
+	 * Runs inline on the calling thread when $count is below $minChunk * 2 or there is only one core.
+	 * Chunks must not write to shared state other than disjoint ranges of arrays.
+	 * Called from a pool thread, eg inside another RangeTask, it runs inline, so
+	 * nested work never waits on the pool it is running in.
+	 */
+	public static void forRange(int $count, int $minChunk, final RangeTask $task)
+	{
+		int chunks = Math.min(parallelism(), $count / Math.max(1, $minChunk));
+		if (chunks <= 1 || Thread.currentThread() instanceof WorkerThread) {
+			$task.run(0, $count);
+			return;
+		}
+
+		ExecutorService pool = pool();
+		int chunkSize = ($count + chunks - 1) / chunks;
+		ArrayList<Future<?>> pending = new ArrayList<Future<?>>(chunks - 1);
+
+		for (int from = chunkSize; from < $count; from += chunkSize)
+		{
+			final int start = from;
+			final int end = Math.min($count, from + chunkSize);
+			pending.add(pool.submit(new Runnable() {
+				public void run() {
+					$task.run(start, end);
+				}
+			}));
+		}
+
+		$task.run(0, Math.min($count, chunkSize));
+
+		for (int i = 0; i < pending.size(); i++)
+		{
+			try {
+				pending.get(i).get();
+			}
+			catch (InterruptedException e) {
+				Thread.currentThread().interrupt();
+				throw new RuntimeException(e);
+			}
+			catch (ExecutionException e) {
+				throw new RuntimeException(e.getCause());
+			}
+		}
+	}
+
+	/**
+	 * The underlying executor, for work that doesn't split into ranges (eg, one task per keyframe).
+	 */
+	public static synchronized ExecutorService pool()
+	{
+		if (_pool == null)
+		{
+			_pool = Executors.newFixedThreadPool(Math.max(1, parallelism() - 1), new ThreadFactory() {
+				private int _count = 0;
+
+				public synchronized Thread newThread(Runnable $r) {
+					Thread t = new WorkerThread($r, "min3d-worker-" + (_count++));
+					t.setDaemon(true);
+					t.setPriority(Thread.NORM_PRIORITY - 1);
+					return t;
+				}
+			});
+		}
+		return _pool;
+	}
+
+	private static final class WorkerThread extends Thread
+	{
+		WorkerThread(Runnable $r, String $name)
+		{
+			super($r, $name);
+		}
+	}
+}
@@ -1,6 +1,14 @@
 package min3d.interfaces;
 
+/**
+ * Told when a child goes from clean to dirty. Further changes to an
+ * already-dirty child don't call it again, until the child is cleared.
+ */
 public interface IDirtyParent 
 {
-	public void onDirty();
+	/**
+	 * @param $child	The child that became dirty
+	 * @param $bits		The bits the parent gave the child (see AbstractDirtyManaged.parent())
+	 */
+	public void onDirty(IDirtyManaged $child, int $bits);
 }
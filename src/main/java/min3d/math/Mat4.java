@@ -0,0 +1,108 @@
+package min3d.math;
+
+/**
+ * Allocation-free helpers for 4x4 matrices stored as float[16] in column-major
+ * order, the same convention as android.opengl.Matrix and glLoadMatrixf.
+ * Unlike android.opengl.Matrix, these have no Android dependency and
+ * multiplyInto() tolerates $out aliasing either input.
+ */
+public class Mat4
+{
+	public static void setIdentity(float[] $m)
+	{
+		for (int i = 0; i < 16; i++) {
+			$m[i] = 0;
+		}
+		$m[0] = $m[5] = $m[10] = $m[15] = 1;
+	}
+
+	/**
+	 * $out = $a * $b
+	 */
+	public static void multiplyInto(float[] $a, float[] $b, float[] $out)
+	{
+		float a0 = $a[0], a1 = $a[1], a2 = $a[2], a3 = $a[3];
+		float a4 = $a[4], a5 = $a[5], a6 = $a[6], a7 = $a[7];
+		float a8 = $a[8], a9 = $a[9], a10 = $a[10], a11 = $a[11];
+		float a12 = $a[12], a13 = $a[13], a14 = $a[14], a15 = $a[15];
+
+		for (int c = 0; c < 16; c += 4)
+		{
+			float b0 = $b[c], b1 = $b[c + 1], b2 = $b[c + 2], b3 = $b[c + 3];
+			$out[c] = a0 * b0 + a4 * b1 + a8 * b2 + a12 * b3;
+			$out[c + 1] = a1 * b0 + a5 * b1 + a9 * b2 + a13 * b3;
+			$out[c + 2] = a2 * b0 + a6 * b1 + a10 * b2 + a14 * b3;
+			$out[c + 3] = a3 * b0 + a7 * b1 + a11 * b2 + a15 * b3;
+		}
+	}
+
+	public static void setTranslation(float[] $m, float $x, float $y, float $z)
+	{
+		setIdentity($m);
+		$m[12] = $x;
+		$m[13] = $y;
+		$m[14] = $z;
+	}
+
+	/**
+	 * Rotation from unit quaternion $q (x, y, z, w), plus translation.
+	 */
+	public static void setRotationTranslation(float[] $m, float[] $q, float $tx, float $ty, float $tz)
+	{
+		float x = $q[0], y = $q[1], z = $q[2], w = $q[3];
+		float xx = x * x, yy = y * y, zz = z * z;
+		float xy = x * y, xz = x * z, yz = y * z;
+		float wx = w * x, wy = w * y, wz = w * z;
+
+		$m[0] = 1 - 2 * (yy + zz);
+		$m[1] = 2 * (xy + wz);
+		$m[2] = 2 * (xz - wy);
+		$m[3] = 0;
+
+		$m[4] = 2 * (xy - wz);
+		$m[5] = 1 - 2 * (xx + zz);
+		$m[6] = 2 * (yz + wx);
+		$m[7] = 0;
+
+		$m[8] = 2 * (xz + wy);
+		$m[9] = 2 * (yz - wx);
+		$m[10] = 1 - 2 * (xx + yy);
+		$m[11] = 0;
+
+		$m[12] = $tx;
+		$m[13] = $ty;
+		$m[14] = $tz;
+		$m[15] = 1;
+	}
+
+	/**
+	 * Inverse of a rotation + translation matrix (eg, a camera or head pose);
+	 * much cheaper than a general inverse. $out must not alias $m.
+	 */
+	public static void invertRigidInto(float[] $m, float[] $out)
+	{
+		// Transpose the 3x3 rotation
+		$out[0] = $m[0]; $out[1] = $m[4]; $out[2] = $m[8];
+		$out[4] = $m[1]; $out[5] = $m[5]; $out[6] = $m[9];
+		$out[8] = $m[2]; $out[9] = $m[6]; $out[10] = $m[10];
+		$out[3] = $out[7] = $out[11] = 0;
+
+		// -R^T * t
+		float tx = $m[12], ty = $m[13], tz = $m[14];
+		$out[12] = -($out[0] * tx + $out[4] * ty + $out[8] * tz);
+		$out[13] = -($out[1] * tx + $out[5] * ty + $out[9] * tz);
+		$out[14] = -($out[2] * tx + $out[6] * ty + $out[10] * tz);
+		$out[15] = 1;
+	}
+
+	/**
+	 * Transforms one point (w = 1) from $in[$io] into $out[$oo], without perspective divide.
+	 */
+	public static void transformPoint(float[] $m, float[] $in, int $io, float[] $out, int $oo)
+	{
+		float x = $in[$io], y = $in[$io + 1], z = $in[$io + 2];
+		$out[$oo] = $m[0] * x + $m[4] * y + $m[8] * z + $m[12];
+		$out[$oo + 1] = $m[1] * x + $m[5] * y + $m[9] * z + $m[13];
+		$out[$oo + 2] = $m[2] * x + $m[6] * y + $m[10] * z + $m[14];
+	}
+}
@@ -0,0 +1,110 @@
+package min3d.math;
+
+/**
+ * Allocation-free helpers for quaternions stored as float[4] in (x, y, z, w) order.
+ * Output arguments may alias inputs.
+ */
+public class Quat
+{
+	public static void setIdentity(float[] $q)
+	{
+		$q[0] = $q[1] = $q[2] = 0;
+		$q[3] = 1;
+	}
+
+	/**
+	 * @param $radians	Rotation angle
+	 * @param $ax		Rotation axis; need not be normalized
+	 */
+	public static void setAxisAngle(float[] $q, float $radians, float $ax, float $ay, float $az)
+	{
+		float len = (float)Math.sqrt($ax * $ax + $ay * $ay + $az * $az);
+		if (len == 0) {
+			setIdentity($q);
+			return;
+		}
+		float s = (float)Math.sin($radians * 0.5f) / len;
+		$q[0] = $ax * s;
+		$q[1] = $ay * s;
+		$q[2] = $az * s;
+		$q[3] = (float)Math.cos($radians * 0.5f);
+	}
+
+	/**
+	 * $out = $a * $b (apply $b, then $a)
+	 */
+	public static void multiplyInto(float[] $a, float[] $b, float[] $out)
+	{
+		float ax = $a[0], ay = $a[1], az = $a[2], aw = $a[3];
+		float bx = $b[0], by = $b[1], bz = $b[2], bw = $b[3];
+		$out[0] = aw * bx + ax * bw + ay * bz - az * by;
+		$out[1] = aw * by - ax * bz + ay * bw + az * bx;
+		$out[2] = aw * bz + ax * by - ay * bx + az * bw;
+		$out[3] = aw * bw - ax * bx - ay * by - az * bz;
+	}
+
+	public static void normalize(float[] $q)
+	{
+		float lenSq = $q[0] * $q[0] + $q[1] * $q[1] + $q[2] * $q[2] + $q[3] * $q[3];
+		if (lenSq > 0)
+		{
+			float inv = 1f / (float)Math.sqrt(lenSq);
+			$q[0] *= inv;
+			$q[1] *= inv;
+			$q[2] *= inv;
+			$q[3] *= inv;
+		}
+	}
+
+	/**
+	 * Spherical interpolation along the shorter arc; falls back to normalized lerp when nearly parallel.
+	 */
+	public static void slerpInto(float[] $a, float[] $b, float $t, float[] $out)
+	{
+		float bx = $b[0], by = $b[1], bz = $b[2], bw = $b[3];
+		float cos = $a[0] * bx + $a[1] * by + $a[2] * bz + $a[3] * bw;
+
+		if (cos < 0) {
+			cos = -cos;
+			bx = -bx; by = -by; bz = -bz; bw = -bw;
+		}
+
+		float wa, wb;
+		if (cos > 0.9995f)
+		{
+			wa = 1 - $t;
+			wb = $t;
+		}
+		else
+		{
+			float angle = (float)Math.acos(cos);
+			float invSin = 1f / (float)Math.sin(angle);
+			wa = (float)Math.sin((1 - $t) * angle) * invSin;
+			wb = (float)Math.sin($t * angle) * invSin;
+		}
+
+		$out[0] = wa * $a[0] + wb * bx;
+		$out[1] = wa * $a[1] + wb * by;
+		$out[2] = wa * $a[2] + wb * bz;
+		$out[3] = wa * $a[3] + wb * bw;
+		normalize($out);
+	}
+
+	/**
+	 * Rotates packed xyz vector $v[$vo] by unit quaternion $q into $out[$oo].
+	 */
+	public static void rotateInto(float[] $q, float[] $v, int $vo, float[] $out, int $oo)
+	{
+		float qx = $q[0], qy = $q[1], qz = $q[2], qw = $q[3];
+		float vx = $v[$vo], vy = $v[$vo + 1], vz = $v[$vo + 2];
+
+		// t = 2 * cross(q.xyz, v); v' = v + w * t + cross(q.xyz, t)
+		float tx = 2 * (qy * vz - qz * vy);
+		float ty = 2 * (qz * vx - qx * vz);
+		float tz = 2 * (qx * vy - qy * vx);
+
+		$out[$oo] = vx + qw * tx + (qy * tz - qz * ty);
+		$out[$oo + 1] = vy + qw * ty + (qz * tx - qx * tz);
+		$out[$oo + 2] = vz + qw * tz + (qx * ty - qy * tx);
+	}
+}
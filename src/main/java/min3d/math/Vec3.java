@@ -0,0 +1,284 @@
+package min3d.math;
+
+import min3d.vos.Number3d;
+
+/**
+ * Allocation-free 3-vector math.
+ *
+ * Single-vector operations come in two flavors: on Number3d's, and on
+ * float[] arrays at an offset (xyz packed). Output arguments may alias inputs.
+ *
+ * Batch operations work on packed xyz arrays (the layout used by the vertex
+ * buffers and KeyFrame's), or on separate x / y / z arrays (structure-of-arrays),
+ * and are written as plain loops the JIT can unroll.
+ */
+public class Vec3
+{
+	//
+	// Number3d
+	//
+
+	public static Number3d addInto(Number3d $a, Number3d $b, Number3d $out)
+	{
+		$out.x = $a.x + $b.x;
+		$out.y = $a.y + $b.y;
+		$out.z = $a.z + $b.z;
+		return $out;
+	}
+
+	public static Number3d subInto(Number3d $a, Number3d $b, Number3d $out)
+	{
+		$out.x = $a.x - $b.x;
+		$out.y = $a.y - $b.y;
+		$out.z = $a.z - $b.z;
+		return $out;
+	}
+
+	public static Number3d scaleInto(Number3d $a, float $s, Number3d $out)
+	{
+		$out.x = $a.x * $s;
+		$out.y = $a.y * $s;
+		$out.z = $a.z * $s;
+		return $out;
+	}
+
+	/**
+	 * $out = $a x $b
+	 */
+	public static Number3d crossInto(Number3d $a, Number3d $b, Number3d $out)
+	{
+		float x = $a.y * $b.z - $a.z * $b.y;
+		float y = $a.z * $b.x - $a.x * $b.z;
+		float z = $a.x * $b.y - $a.y * $b.x;
+		$out.x = x;
+		$out.y = y;
+		$out.z = z;
+		return $out;
+	}
+
+	public static float dot(Number3d $a, Number3d $b)
+	{
+		return $a.x * $b.x + $a.y * $b.y + $a.z * $b.z;
+	}
+
+	/**
+	 * Unit normal of triangle ($a, $b, $c) with counter-clockwise winding.
+	 * Degenerate triangles give (0,0,0).
+	 */
+	public static Number3d faceNormalInto(Number3d $a, Number3d $b, Number3d $c, Number3d $out)
+	{
+		float e1x = $b.x - $a.x, e1y = $b.y - $a.y, e1z = $b.z - $a.z;
+		float e2x = $c.x - $a.x, e2y = $c.y - $a.y, e2z = $c.z - $a.z;
+		$out.x = e1y * e2z - e1z * e2y;
+		$out.y = e1z * e2x - e1x * e2z;
+		$out.z = e1x * e2y - e1y * e2x;
+		normalize($out);
+		return $out;
+	}
+
+	public static void normalize(Number3d $n)
+	{
+		float lenSq = $n.x * $n.x + $n.y * $n.y + $n.z * $n.z;
+		if (lenSq > 0)
+		{
+			float inv = 1f / (float)Math.sqrt(lenSq);
+			$n.x *= inv;
+			$n.y *= inv;
+			$n.z *= inv;
+		}
+	}
+
+	//
+	// float[], packed xyz at an offset
+	//
+
+	public static void subInto(float[] $a, int $ao, float[] $b, int $bo, float[] $out, int $oo)
+	{
+		$out[$oo] = $a[$ao] - $b[$bo];
+		$out[$oo + 1] = $a[$ao + 1] - $b[$bo + 1];
+		$out[$oo + 2] = $a[$ao + 2] - $b[$bo + 2];
+	}
+
+	public static void addInto(float[] $a, int $ao, float[] $b, int $bo, float[] $out, int $oo)
+	{
+		$out[$oo] = $a[$ao] + $b[$bo];
+		$out[$oo + 1] = $a[$ao + 1] + $b[$bo + 1];
+		$out[$oo + 2] = $a[$ao + 2] + $b[$bo + 2];
+	}
+
+	public static void crossInto(float[] $a, int $ao, float[] $b, int $bo, float[] $out, int $oo)
+	{
+		float x = $a[$ao + 1] * $b[$bo + 2] - $a[$ao + 2] * $b[$bo + 1];
+		float y = $a[$ao + 2] * $b[$bo] - $a[$ao] * $b[$bo + 2];
+		float z = $a[$ao] * $b[$bo + 1] - $a[$ao + 1] * $b[$bo];
+		$out[$oo] = x;
+		$out[$oo + 1] = y;
+		$out[$oo + 2] = z;
+	}
+
+	public static float dot(float[] $a, int $ao, float[] $b, int $bo)
+	{
+		return $a[$ao] * $b[$bo] + $a[$ao + 1] * $b[$bo + 1] + $a[$ao + 2] * $b[$bo + 2];
+	}
+
+	/**
+	 * Unnormalized normal of triangle ($a, $b, $c); its length is twice the triangle's area.
+	 */
+	public static void faceNormalInto(float[] $p, int $a, int $b, int $c, float[] $out, int $oo)
+	{
+		float e1x = $p[$b] - $p[$a], e1y = $p[$b + 1] - $p[$a + 1], e1z = $p[$b + 2] - $p[$a + 2];
+		float e2x = $p[$c] - $p[$a], e2y = $p[$c + 1] - $p[$a + 1], e2z = $p[$c + 2] - $p[$a + 2];
+		$out[$oo] = e1y * e2z - e1z * e2y;
+		$out[$oo + 1] = e1z * e2x - e1x * e2z;
+		$out[$oo + 2] = e1x * e2y - e1y * e2x;
+	}
+
+	public static void normalize(float[] $v, int $o)
+	{
+		float x = $v[$o], y = $v[$o + 1], z = $v[$o + 2];
+		float lenSq = x * x + y * y + z * z;
+		if (lenSq > 0)
+		{
+			float inv = 1f / (float)Math.sqrt(lenSq);
+			$v[$o] = x * inv;
+			$v[$o + 1] = y * inv;
+			$v[$o + 2] = z * inv;
+		}
+	}
+
+	//
+	// Batch, packed xyz
+	//
+
+	/**
+	 * Normalizes $count packed xyz vectors starting at float offset $offset. Zero vectors are left alone.
+	 */
+	public static void normalizeAll(float[] $xyz, int $offset, int $count)
+	{
+		int end = $offset + $count * 3;
+		for (int i = $offset; i < end; i += 3)
+		{
+			float x = $xyz[i], y = $xyz[i + 1], z = $xyz[i + 2];
+			float lenSq = x * x + y * y + z * z;
+			if (lenSq > 0)
+			{
+				float inv = 1f / (float)Math.sqrt(lenSq);
+				$xyz[i] = x * inv;
+				$xyz[i + 1] = y * inv;
+				$xyz[i + 2] = z * inv;
+			}
+		}
+	}
+
+	/**
+	 * $out[i] = $a[i] + $t * ($b[i] - $a[i]) over the first $length floats.
+	 */
+	public static void lerpAll(float[] $a, float[] $b, float $t, float[] $out, int $length)
+	{
+		for (int i = 0; i < $length; i++) {
+			$out[i] = $a[i] + $t * ($b[i] - $a[i]);
+		}
+	}
+
+	/**
+	 * Transforms $count packed xyz points by column-major 4x4 matrix $m (w = 1, no perspective divide).
+	 * $in and $out may be the same array.
+	 */
+	public static void transformPoints(float[] $m, float[] $in, int $inOffset, float[] $out, int $outOffset, int $count)
+	{
+		float m0 = $m[0], m1 = $m[1], m2 = $m[2];
+		float m4 = $m[4], m5 = $m[5], m6 = $m[6];
+		float m8 = $m[8], m9 = $m[9], m10 = $m[10];
+		float m12 = $m[12], m13 = $m[13], m14 = $m[14];
+
+		for (int n = 0; n < $count; n++)
+		{
+			int i = $inOffset + n * 3;
+			int o = $outOffset + n * 3;
+			float x = $in[i], y = $in[i + 1], z = $in[i + 2];
+			$out[o] = m0 * x + m4 * y + m8 * z + m12;
+			$out[o + 1] = m1 * x + m5 * y + m9 * z + m13;
+			$out[o + 2] = m2 * x + m6 * y + m10 * z + m14;
+		}
+	}
+
+	/**
+	 * Like transformPoints(), but ignores translation (w = 0). Results are not renormalized.
+	 */
+	public static void transformDirections(float[] $m, float[] $in, int $inOffset, float[] $out, int $outOffset, int $count)
+	{
+		float m0 = $m[0], m1 = $m[1], m2 = $m[2];
+		float m4 = $m[4], m5 = $m[5], m6 = $m[6];
+		float m8 = $m[8], m9 = $m[9], m10 = $m[10];
+
+		for (int n = 0; n < $count; n++)
+		{
+			int i = $inOffset + n * 3;
+			int o = $outOffset + n * 3;
+			float x = $in[i], y = $in[i + 1], z = $in[i + 2];
+			$out[o] = m0 * x + m4 * y + m8 * z;
+			$out[o + 1] = m1 * x + m5 * y + m9 * z;
+			$out[o + 2] = m2 * x + m6 * y + m10 * z;
+		}
+	}
+
+	//
+	// Batch, structure-of-arrays
+	//
+
+	public static void normalizeAll(float[] $x, float[] $y, float[] $z, int $count)
+	{
+		for (int i = 0; i < $count; i++)
+		{
+			float lenSq = $x[i] * $x[i] + $y[i] * $y[i] + $z[i] * $z[i];
+			if (lenSq > 0)
+			{
+				float inv = 1f / (float)Math.sqrt(lenSq);
+				$x[i] *= inv;
+				$y[i] *= inv;
+				$z[i] *= inv;
+			}
+		}
+	}
+
+	public static void transformPoints(float[] $m, float[] $x, float[] $y, float[] $z, int $count)
+	{
+		float m0 = $m[0], m1 = $m[1], m2 = $m[2];
+		float m4 = $m[4], m5 = $m[5], m6 = $m[6];
+		float m8 = $m[8], m9 = $m[9], m10 = $m[10];
+		float m12 = $m[12], m13 = $m[13], m14 = $m[14];
+
+		for (int i = 0; i < $count; i++)
+		{
+			float x = $x[i], y = $y[i], z = $z[i];
+			$x[i] = m0 * x + m4 * y + m8 * z + m12;
+			$y[i] = m1 * x + m5 * y + m9 * z + m13;
+			$z[i] = m2 * x + m6 * y + m10 * z + m14;
+		}
+	}
+
+	/**
+	 * Splits packed xyz into separate arrays, eg, before several SoA passes.
+	 */
+	public static void deinterleave(float[] $xyz, int $offset, float[] $x, float[] $y, float[] $z, int $count)
+	{
+		for (int i = 0; i < $count; i++)
+		{
+			int o = $offset + i * 3;
+			$x[i] = $xyz[o];
+			$y[i] = $xyz[o + 1];
+			$z[i] = $xyz[o + 2];
+		}
+	}
+
+	public static void interleave(float[] $x, float[] $y, float[] $z, int $count, float[] $xyz, int $offset)
+	{
+		for (int i = 0; i < $count; i++)
+		{
+			int o = $offset + i * 3;
+			$xyz[o] = $x[i];
+			$xyz[o + 1] = $y[i];
+			$xyz[o + 2] = $z[i];
+		}
+	}
+}
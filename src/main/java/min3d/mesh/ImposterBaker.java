@@ -0,0 +1,250 @@
+package min3d.mesh;
+
+import java.util.Arrays;
+
+import min3d.core.Workers;
+
+/**
+ * Renders a mesh from several directions around its vertical axis into one
+ * texture atlas, so that far away it can be drawn as a single camera-facing
+ * quad (an imposter).
+ *
+ * A small software rasterizer does the work, so baking needs no GL context
+ * and can run on any thread. View i looks horizontally at the center of the
+ * mesh's bounding sphere from angle 2 * PI * i / views around +y, where angle
+ * 0 is from +z. Each view is an orthographic projection of the sphere onto a
+ * square tile. Pixels take the mesh's per-vertex colors, interpolated across
+ * each triangle, so a mesh whose lighting is baked into its vertex colors
+ * (see LightBaker) matches its imposter. Pixels the mesh doesn't cover are
+ * transparent, and take the color of a covered neighbour so filtering
+ * doesn't bleed black in at the edges.
+ *
+ * Views are rasterized in parallel on Workers, or on the calling thread
+ * when bake() is called from inside a Workers task.
+ */
+public class ImposterBaker
+{
+	/**
+	 * Views rendered into each tile of the atlas
+	 */
+	public static class Atlas
+	{
+		public final int views;
+		public final int tileSize;
+		public final int columns;
+		public final int rows;
+		public final int width;
+		public final int height;
+
+		/**
+		 * ARGB, top row first, width * height. Null after releasePixels().
+		 */
+		public int[] pixels;
+
+		/**
+		 * Bounding sphere, in the mesh's space. Each tile shows a 2 * radius square around center.
+		 */
+		public final float centerX, centerY, centerZ, radius;
+
+		Atlas(int $views, int $tileSize, float $cx, float $cy, float $cz, float $radius)
+		{
+			views = $views;
+			tileSize = $tileSize;
+			columns = powerOfTwo((int)Math.ceil(Math.sqrt($views)));
+			rows = powerOfTwo(($views + columns - 1) / columns);
+			width = columns * $tileSize;
+			height = rows * $tileSize;
+			pixels = new int[width * height];
+			centerX = $cx;
+			centerY = $cy;
+			centerZ = $cz;
+			radius = $radius;
+		}
+
+		/**
+		 * Drops the pixels, eg once they are uploaded to a texture
+		 */
+		public void releasePixels()
+		{
+			pixels = null;
+		}
+
+		/**
+		 * Writes view $view's texture coordinates into $out as u0, v0, u1, v1, with v0 the top edge.
+		 */
+		public void tileUv(int $view, float[] $out)
+		{
+			int col = $view % columns;
+			int row = $view / columns;
+			$out[0] = (float)col / columns;
+			$out[1] = (float)row / rows;
+			$out[2] = (float)(col + 1) / columns;
+			$out[3] = (float)(row + 1) / rows;
+		}
+
+		/**
+		 * Angle around +y that view $view was rendered from, in radians
+		 */
+		public float viewAngle(int $view)
+		{
+			return (float)(2 * Math.PI * $view / views);
+		}
+
+		/**
+		 * View rendered from the direction closest to ($dx, $dz), the horizontal offset
+		 * from the center to the eye in the mesh's space
+		 */
+		public int nearestView(float $dx, float $dz)
+		{
+			double angle = Math.atan2($dx, $dz);
+			if (angle < 0) angle += 2 * Math.PI;
+			return (int)Math.round(angle / (2 * Math.PI) * views) % views;
+		}
+	}
+
+	/**
+	 * @param $positions	Packed xyz
+	 * @param $indices		Triangle list
+	 * @param $views		Directions to render from
+	 * @param $tileSize		Pixels per tile side; a power of two keeps the atlas mipmappable
+	 * @param $colors		ARGB, one per vertex, as the mesh is drawn; alpha is ignored
+	 */
+	public static Atlas bake(final float[] $positions, final int[] $indices,
+		int $views, final int $tileSize, final int[] $colors)
+	{
+		int vertexCount = $positions.length / 3;
+		float minX = Float.MAX_VALUE, minY = Float.MAX_VALUE, minZ = Float.MAX_VALUE;
+		float maxX = -Float.MAX_VALUE, maxY = -Float.MAX_VALUE, maxZ = -Float.MAX_VALUE;
+		for (int i = 0; i < vertexCount; i++)
+		{
+			minX = Math.min(minX, $positions[i * 3]);
+			maxX = Math.max(maxX, $positions[i * 3]);
+			minY = Math.min(minY, $positions[i * 3 + 1]);
+			maxY = Math.max(maxY, $positions[i * 3 + 1]);
+			minZ = Math.min(minZ, $positions[i * 3 + 2]);
+			maxZ = Math.max(maxZ, $positions[i * 3 + 2]);
+		}
+		float cx = (minX + maxX) / 2, cy = (minY + maxY) / 2, cz = (minZ + maxZ) / 2;
+		float radius2 = 0;
+		for (int i = 0; i < vertexCount; i++)
+		{
+			float dx = $positions[i * 3] - cx, dy = $positions[i * 3 + 1] - cy, dz = $positions[i * 3 + 2] - cz;
+			radius2 = Math.max(radius2, dx*dx + dy*dy + dz*dz);
+		}
+
+		final Atlas atlas = new Atlas($views, $tileSize, cx, cy, cz, Math.max(1e-6f, (float)Math.sqrt(radius2)));
+
+		Workers.forRange($views, 1, new Workers.RangeTask() {
+			public void run(int $from, int $to) {
+				float[] depth = new float[$tileSize * $tileSize];
+				for (int view = $from; view < $to; view++) {
+					renderView(atlas, view, depth, $positions, $indices, $colors);
+				}
+			}
+		});
+		return atlas;
+	}
+
+	//
+
+	private static void renderView(Atlas $atlas, int $view, float[] $depth,
+		float[] $p, int[] $indices, int[] $colors)
+	{
+		int size = $atlas.tileSize;
+		int originX = ($view % $atlas.columns) * size;
+		int originY = ($view / $atlas.columns) * size;
+		int[] pixels = $atlas.pixels;
+		int stride = $atlas.width;
+
+		// eye direction, and the screen's right axis; up is +y
+		double angle = $atlas.viewAngle($view);
+		float dirX = (float)Math.sin(angle), dirZ = (float)Math.cos(angle);
+		float rightX = dirZ, rightZ = -dirX;
+		float scale = size / (2 * $atlas.radius);
+
+		Arrays.fill($depth, -Float.MAX_VALUE);
+
+		float[] sx = new float[3], sy = new float[3], sd = new float[3];
+		float[] red = new float[3], green = new float[3], blue = new float[3];
+		for (int t = 0; t + 2 < $indices.length; t += 3)
+		{
+			for (int k = 0; k < 3; k++)
+			{
+				int v = $indices[t + k] * 3;
+				float x = $p[v] - $atlas.centerX, y = $p[v + 1] - $atlas.centerY, z = $p[v + 2] - $atlas.centerZ;
+				sx[k] = (x * rightX + z * rightZ) * scale + size / 2f;
+				sy[k] = size / 2f - y * scale;
+				sd[k] = x * dirX + z * dirZ;
+			}
+
+			float area = (sx[1] - sx[0]) * (sy[2] - sy[0]) - (sx[2] - sx[0]) * (sy[1] - sy[0]);
+			if (area == 0) continue;
+
+			for (int k = 0; k < 3; k++)
+			{
+				int argb = $colors[$indices[t + k]];
+				red[k] = (argb >> 16) & 0xFF;
+				green[k] = (argb >> 8) & 0xFF;
+				blue[k] = argb & 0xFF;
+			}
+
+			int x0 = Math.max(0, (int)Math.floor(Math.min(sx[0], Math.min(sx[1], sx[2]))));
+			int x1 = Math.min(size - 1, (int)Math.ceil(Math.max(sx[0], Math.max(sx[1], sx[2]))));
+			int y0 = Math.max(0, (int)Math.floor(Math.min(sy[0], Math.min(sy[1], sy[2]))));
+			int y1 = Math.min(size - 1, (int)Math.ceil(Math.max(sy[0], Math.max(sy[1], sy[2]))));
+
+			for (int py = y0; py <= y1; py++)
+			{
+				float fy = py + 0.5f;
+				for (int px = x0; px <= x1; px++)
+				{
+					float fx = px + 0.5f;
+					// barycentrics by edge functions; either winding is drawn
+					float w0 = ((sx[2] - sx[1]) * (fy - sy[1]) - (sy[2] - sy[1]) * (fx - sx[1])) / area;
+					float w1 = ((sx[0] - sx[2]) * (fy - sy[2]) - (sy[0] - sy[2]) * (fx - sx[2])) / area;
+					float w2 = 1 - w0 - w1;
+					if (w0 < 0 || w1 < 0 || w2 < 0) continue;
+
+					float d = w0 * sd[0] + w1 * sd[1] + w2 * sd[2];
+					int i = py * size + px;
+					if (d <= $depth[i]) continue;
+					$depth[i] = d;
+
+					int r = Math.min(255, Math.round(w0 * red[0] + w1 * red[1] + w2 * red[2]));
+					int g = Math.min(255, Math.round(w0 * green[0] + w1 * green[1] + w2 * green[2]));
+					int b = Math.min(255, Math.round(w0 * blue[0] + w1 * blue[1] + w2 * blue[2]));
+					pixels[(originY + py) * stride + originX + px] = 0xFF000000 | (r << 16) | (g << 8) | b;
+				}
+			}
+		}
+
+		dilate(pixels, stride, originX, originY, size);
+	}
+
+	/**
+	 * Gives each transparent pixel next to a covered one that pixel's color, keeping alpha 0
+	 */
+	private static void dilate(int[] $pixels, int $stride, int $originX, int $originY, int $size)
+	{
+		for (int y = 0; y < $size; y++)
+		{
+			for (int x = 0; x < $size; x++)
+			{
+				int i = ($originY + y) * $stride + $originX + x;
+				if (($pixels[i] >>> 24) != 0) continue;
+				int from = -1;
+				if (x > 0 && ($pixels[i - 1] >>> 24) == 0xFF) from = i - 1;
+				else if (x < $size - 1 && ($pixels[i + 1] >>> 24) == 0xFF) from = i + 1;
+				else if (y > 0 && ($pixels[i - $stride] >>> 24) == 0xFF) from = i - $stride;
+				else if (y < $size - 1 && ($pixels[i + $stride] >>> 24) == 0xFF) from = i + $stride;
+				if (from >= 0) $pixels[i] = $pixels[from] & 0x00FFFFFF;
+			}
+		}
+	}
+
+	private static int powerOfTwo(int $n)
+	{
+		int p = Integer.highestOneBit(Math.max(1, $n));
+		return p == $n ? p : p << 1;
+	}
+}
@@ -0,0 +1,223 @@
+package min3d.mesh;
+
+import java.util.ArrayList;
+
+import min3d.core.Workers;
+
+/**
+ * Bakes static lighting into per-vertex colors, so static scenery can be
+ * drawn with an unlit shader.
+ *
+ * Each vertex gets an ambient term, darkened by ambient occlusion if it's
+ * on, plus diffuse light from each point light. Light falls off smoothly to
+ * nothing at its radius, as in the clustered shaders, and shadow rays stop
+ * light that the mesh itself blocks. Occlusion casts cosine-weighted rays
+ * over the vertex's hemisphere and counts the ones the mesh stops within a
+ * distance. Rays go through a TriangleBvh of the mesh.
+ *
+ * Vertices are baked in parallel on Workers. Called from inside a Workers
+ * task, bake() runs on that thread instead. Results don't depend on the
+ * thread count.
+ *
+ * Eg,
+ * 		LightBaker baker = new LightBaker(positions, normals, indices);
+ * 		baker.addLight(0, 10, 0,  50,  1, 1, 1);
+ * 		baker.ambient(0.3f);
+ * 		baker.occlusion(16, 2f);
+ * 		int[] argb = baker.bake(0xFF808080);
+ */
+public class LightBaker
+{
+	private static final int MIN_CHUNK = 256;
+
+	private final float[] _positions;
+	private final float[] _normals;
+	private final int[] _indices;
+	private TriangleBvh _bvh;
+
+	// per light: x, y, z, radius, r, g, b
+	private final ArrayList<float[]> _lights = new ArrayList<float[]>();
+	private float _ambient = 0;
+	private int _occlusionRays = 0;
+	private float _occlusionDistance = 0;
+	private boolean _shadows = true;
+
+	/**
+	 * @param $positions	Packed xyz
+	 * @param $normals		Packed xyz, one per vertex; null to average the faces'
+	 * @param $indices		Triangle list
+	 */
+	public LightBaker(float[] $positions, float[] $normals, int[] $indices)
+	{
+		_positions = $positions;
+		_normals = $normals != null ? $normals : NormalGenerator.smoothNormals($positions, $indices, $positions.length / 3);
+		_indices = $indices;
+	}
+
+	/**
+	 * Uses an existing tree of the same mesh, eg one kept for picking
+	 */
+	public void bvh(TriangleBvh $bvh)
+	{
+		_bvh = $bvh;
+	}
+
+	/**
+	 * The tree rays are cast through, built on first use
+	 */
+	public TriangleBvh bvh()
+	{
+		if (_bvh == null) {
+			_bvh = new TriangleBvh(_positions, _indices);
+		}
+		return _bvh;
+	}
+
+	/**
+	 * Adds a point light, in the mesh's space. Colors are linear, 1 is full brightness.
+	 */
+	public void addLight(float $x, float $y, float $z, float $radius, float $r, float $g, float $b)
+	{
+		_lights.add(new float[] { $x, $y, $z, $radius, $r, $g, $b });
+	}
+
+	/**
+	 * Light reaching every surface, before occlusion. Default is 0.
+	 */
+	public void ambient(float $ambient)
+	{
+		_ambient = $ambient;
+	}
+
+	/**
+	 * Turns on ambient occlusion. 0 rays turns it off, the default.
+	 *
+	 * @param $distance		Geometry further away than this doesn't occlude
+	 */
+	public void occlusion(int $rays, float $distance)
+	{
+		_occlusionRays = $rays;
+		_occlusionDistance = $distance;
+	}
+
+	/**
+	 * Whether the mesh shadows itself from the lights. Default is true.
+	 */
+	public void shadows(boolean $shadows)
+	{
+		_shadows = $shadows;
+	}
+
+	/**
+	 * Returns one ARGB color per vertex: $argb lit by the ambient and the lights.
+	 * Alpha is $argb's.
+	 */
+	public int[] bake(final int $argb)
+	{
+		int count = _positions.length / 3;
+		final int[] colors = new int[count];
+
+		// offset ray origins off the surface, relative to the mesh's size
+		float[] box = new float[6];
+		bvh().bounds(box);
+		final float bias = 1e-4f * Math.max(box[3] - box[0], Math.max(box[4] - box[1], box[5] - box[2]));
+		final float[][] lights = _lights.toArray(new float[_lights.size()][]);
+		final float[] directions = hemisphere(_occlusionRays);
+
+		Workers.forRange(count, MIN_CHUNK, new Workers.RangeTask() {
+			public void run(int $from, int $to) {
+				TriangleBvh.Hit scratch = new TriangleBvh.Hit();
+				for (int v = $from; v < $to; v++) {
+					colors[v] = bakeVertex(v, $argb, lights, directions, bias, scratch);
+				}
+			}
+		});
+		return colors;
+	}
+
+	//
+
+	private int bakeVertex(int $v, int $argb, float[][] $lights, float[] $directions, float $bias, TriangleBvh.Hit $scratch)
+	{
+		TriangleBvh bvh = _bvh;
+		float px = _positions[$v*3], py = _positions[$v*3 + 1], pz = _positions[$v*3 + 2];
+		float nx = _normals[$v*3], ny = _normals[$v*3 + 1], nz = _normals[$v*3 + 2];
+		float len = (float)Math.sqrt(nx*nx + ny*ny + nz*nz);
+		if (len > 0) {
+			nx /= len;
+			ny /= len;
+			nz /= len;
+		}
+		float ox = px + nx * $bias, oy = py + ny * $bias, oz = pz + nz * $bias;
+
+		float ambient = _ambient;
+		if (_occlusionRays > 0 && ambient > 0 && len > 0)
+		{
+			// a tangent frame around the normal, turned by a per-vertex angle against banding
+			float tx, ty, tz;
+			if (Math.abs(nx) < 0.9f) { tx = 0; ty = nz; tz = -ny; }
+			else { tx = -nz; ty = 0; tz = nx; }
+			float tl = (float)Math.sqrt(tx*tx + ty*ty + tz*tz);
+			tx /= tl; ty /= tl; tz /= tl;
+			float bx = ny * tz - nz * ty, by = nz * tx - nx * tz, bz = nx * ty - ny * tx;
+			double turn = ((($v * 0x9E3779B1) >>> 8) & 0xFFFF) / 65536.0 * 2 * Math.PI;
+			float c = (float)Math.cos(turn), s = (float)Math.sin(turn);
+
+			int blocked = 0;
+			for (int i = 0; i < $directions.length; i += 3)
+			{
+				float a = $directions[i] * c - $directions[i + 1] * s;
+				float b = $directions[i] * s + $directions[i + 1] * c;
+				float h = $directions[i + 2];
+				float dx = tx * a + bx * b + nx * h;
+				float dy = ty * a + by * b + ny * h;
+				float dz = tz * a + bz * b + nz * h;
+				if (bvh.occluded(ox, oy, oz, dx, dy, dz, _occlusionDistance, $scratch)) blocked++;
+			}
+			ambient *= 1f - (float)blocked / _occlusionRays;
+		}
+
+		float r = ambient, g = ambient, b = ambient;
+		for (float[] light : $lights)
+		{
+			float lx = light[0] - px, ly = light[1] - py, lz = light[2] - pz;
+			float distance = (float)Math.sqrt(lx*lx + ly*ly + lz*lz);
+			if (distance >= light[3] || distance == 0) continue;
+			float nDotL = (nx * lx + ny * ly + nz * lz) / distance;
+			if (nDotL <= 0) continue;
+			if (_shadows && bvh.occluded(ox, oy, oz, lx, ly, lz, 1f, $scratch)) continue;
+
+			float q = distance / light[3];
+			float falloff = (1 - q * q) * (1 - q * q);
+			r += light[4] * nDotL * falloff;
+			g += light[5] * nDotL * falloff;
+			b += light[6] * nDotL * falloff;
+		}
+
+		int cr = Math.min(255, (int)(((($argb >> 16) & 0xFF)) * r));
+		int cg = Math.min(255, (int)(((($argb >> 8) & 0xFF)) * g));
+		int cb = Math.min(255, (int)((($argb & 0xFF)) * b));
+		return ($argb & 0xFF000000) | (cr << 16) | (cg << 8) | cb;
+	}
+
+	/**
+	 * $count cosine-weighted unit directions around +z, as packed xyz. Spread
+	 * evenly by a Hammersley sequence, so every vertex's result is repeatable.
+	 */
+	private static float[] hemisphere(int $count)
+	{
+		float[] out = new float[$count * 3];
+		for (int i = 0; i < $count; i++)
+		{
+			float u = (i + 0.5f) / $count;
+			float w = Integer.reverse(i) / 4294967296f;
+			if (w < 0) w += 1;
+			float radius = (float)Math.sqrt(u);
+			double angle = 2 * Math.PI * w;
+			out[i*3] = radius * (float)Math.cos(angle);
+			out[i*3 + 1] = radius * (float)Math.sin(angle);
+			out[i*3 + 2] = (float)Math.sqrt(Math.max(0, 1 - u));
+		}
+		return out;
+	}
+}
@@ -0,0 +1,623 @@
+package min3d.mesh;
+
+import java.util.HashMap;
+import java.util.PriorityQueue;
+
+/**
+ * Quadric error metric simplification (Garland, Heckbert: "Surface
+ * Simplification Using Quadric Error Metrics", 1997), for building discrete
+ * levels of detail of indexed triangle meshes.
+ *
+ * Edges are collapsed cheapest first until the triangle count reaches a
+ * target. A collapse moves one end of the edge onto the other rather than to
+ * a new point, so the result is just a new index list into the original
+ * vertices, and every level shares the mesh's vertex buffer.
+ *
+ * Vertices at the same position (uv or normal seams) are welded for the error
+ * metric and move together. When the caller passes the vertices' attributes,
+ * those at the same position with equal attributes are one wedge, ie one
+ * side of any seam. Each moved corner is pointed at a vertex of the wedge its
+ * own wedge shared a collapsed triangle with, so it keeps its side's uv and
+ * normal. A collapse that leaves a corner with no such wedge, or with two,
+ * would drag a seam across the surface and is refused. Without attributes,
+ * every position is a single wedge. Open
+ * boundaries are held in place by penalty planes through each boundary edge,
+ * and collapses that would flip a triangle are refused.
+ *
+ * Pure Java, no GL or Android dependencies. It allocates freely and runs in
+ * O(n log n); call it at load time, off the render thread.
+ */
+public class MeshSimplifier
+{
+	/**
+	 * Fractions of the full triangle count for LOD 1, 2 and 3
+	 */
+	public static final float[] DEFAULT_RATIOS = { 0.5f, 0.25f, 0.1f };
+
+	private static final double BOUNDARY_WEIGHT = 100.0;
+
+	/**
+	 * Simplifies to each of $ratios in turn, in one pass.
+	 *
+	 * @param $positions	Packed xyz, $vertexCount * 3 floats
+	 * @param $indices		Triangle list
+	 * @param $ratios		Decreasing fractions of the triangle count to keep
+	 * @return				One triangle list per ratio, indexing the same vertices as $indices.
+	 * 						A level may keep more triangles than asked when no cheap collapse is left.
+	 */
+	public static int[][] simplify(float[] $positions, int[] $indices, int $vertexCount, float[] $ratios)
+	{
+		return simplify($positions, $indices, $vertexCount, null, 0, $ratios);
+	}
+
+	/**
+	 * As simplify(), keeping seams in $attributes
+	 *
+	 * @param $attributes		What the vertices are drawn with besides position (eg normal and uv),
+	 * 							$attributeSize floats per vertex. May be null.
+	 */
+	public static int[][] simplify(float[] $positions, int[] $indices, int $vertexCount,
+			float[] $attributes, int $attributeSize, float[] $ratios)
+	{
+		return new MeshSimplifier($positions, $indices, $vertexCount, $attributes, $attributeSize).run($ratios);
+	}
+
+	public static int[] simplify(float[] $positions, int[] $indices, int $vertexCount, float $ratio)
+	{
+		return simplify($positions, $indices, $vertexCount, new float[] { $ratio })[0];
+	}
+
+	//
+
+	private final int _numTris;
+	private final int[] _cornerVertex;		// per corner: vertex it points at now
+	private final int[] _cornerClass;		// per corner: welded position class
+	private final boolean[] _deadTri;
+	private int _liveTris;
+
+	private int _numClasses;
+	private int[] _vertexClass;				// vertex -> class, only while building
+	private int[] _vertexWedge;				// vertex -> class and attributes
+	private float[] _classPos;
+	private boolean[] _deadClass;
+	private int[] _version;
+	private double[] _q;					// 10 per class: upper triangle of a symmetric 4x4
+
+	private int[][] _adj;					// class -> triangles touching it (may include dead ones)
+	private int[] _adjSize;
+
+	private int[] _stamp;
+	private int _stampValue;
+
+	private int[] _mapFrom = new int[8];	// wedge moved by the current collapse ...
+	private int[] _mapTo = new int[8];		// ... and a vertex it moves onto
+	private int _mapSize;
+
+	private PriorityQueue<Collapse> _heap;
+
+	private MeshSimplifier(float[] $positions, int[] $indices, int $vertexCount, float[] $attributes, int $attributeSize)
+	{
+		_numTris = $indices.length / 3;
+		_cornerVertex = new int[_numTris * 3];
+		System.arraycopy($indices, 0, _cornerVertex, 0, _numTris * 3);
+		_cornerClass = new int[_numTris * 3];
+		_deadTri = new boolean[_numTris];
+		_liveTris = _numTris;
+
+		weld($positions, $vertexCount);
+		wedges($attributes, $attributeSize, $vertexCount);
+		for (int i = 0; i < _numTris * 3; i++) {
+			_cornerClass[i] = _vertexClass[_cornerVertex[i]];
+		}
+		_vertexClass = null;
+
+		_deadClass = new boolean[_numClasses];
+		_version = new int[_numClasses];
+		_stamp = new int[_numClasses];
+		buildAdjacency();
+		buildQuadrics();
+		buildHeap();
+	}
+
+	private int[][] run(float[] $ratios)
+	{
+		int[][] out = new int[$ratios.length][];
+		for (int level = 0; level < $ratios.length; level++)
+		{
+			int target = Math.max(1, (int)(_numTris * $ratios[level]));
+			while (_liveTris > target && ! _heap.isEmpty())
+			{
+				Collapse c = _heap.poll();
+				if (_deadClass[c.from] || _deadClass[c.to] || _version[c.from] != c.fromVersion || _version[c.to] != c.toVersion) continue;
+				collapse(c.from, c.to);
+			}
+			out[level] = liveIndices();
+		}
+		return out;
+	}
+
+	//
+
+	/**
+	 * Groups vertices with bit-identical positions into classes.
+	 */
+	private void weld(float[] $p, int $vertexCount)
+	{
+		_vertexClass = new int[$vertexCount];
+		int tableSize = Integer.highestOneBit(Math.max(2, $vertexCount * 2) - 1) << 1;
+		int[] table = new int[tableSize];	// class + 1, 0 = empty
+		int mask = tableSize - 1;
+
+		_classPos = new float[$vertexCount * 3];
+
+		for (int v = 0; v < $vertexCount; v++)
+		{
+			float x = $p[v * 3], y = $p[v * 3 + 1], z = $p[v * 3 + 2];
+			int h = Float.floatToIntBits(x) * 73856093 ^ Float.floatToIntBits(y) * 19349663 ^ Float.floatToIntBits(z) * 83492791;
+			int slot = (h ^ (h >>> 16)) & mask;
+			while (true)
+			{
+				int c = table[slot] - 1;
+				if (c < 0)
+				{
+					c = _numClasses++;
+					table[slot] = c + 1;
+					_classPos[c * 3] = x;
+					_classPos[c * 3 + 1] = y;
+					_classPos[c * 3 + 2] = z;
+					_vertexClass[v] = c;
+					break;
+				}
+				// bits, as hashed, so -0 and 0 are apart and a NaN matches itself
+				if (Float.floatToIntBits(_classPos[c * 3]) == Float.floatToIntBits(x)
+					&& Float.floatToIntBits(_classPos[c * 3 + 1]) == Float.floatToIntBits(y)
+					&& Float.floatToIntBits(_classPos[c * 3 + 2]) == Float.floatToIntBits(z))
+				{
+					_vertexClass[v] = c;
+					break;
+				}
+				slot = (slot + 1) & mask;
+			}
+		}
+	}
+
+	/**
+	 * Groups vertices of a class with bit-identical attributes into wedges.
+	 */
+	private void wedges(float[] $a, int $size, int $vertexCount)
+	{
+		_vertexWedge = new int[$vertexCount];
+		if ($a == null || $size == 0) {
+			System.arraycopy(_vertexClass, 0, _vertexWedge, 0, $vertexCount);
+			return;
+		}
+
+		int tableSize = Integer.highestOneBit(Math.max(2, $vertexCount * 2) - 1) << 1;
+		int[] table = new int[tableSize];	// first vertex of the wedge + 1, 0 = empty
+		int mask = tableSize - 1;
+
+		for (int v = 0; v < $vertexCount; v++)
+		{
+			int h = _vertexClass[v] * 73856093;
+			for (int i = 0; i < $size; i++) {
+				h = h * 31 + Float.floatToIntBits($a[v * $size + i]);
+			}
+			int slot = (h ^ (h >>> 16)) & mask;
+			while (true)
+			{
+				int first = table[slot] - 1;
+				if (first < 0)
+				{
+					table[slot] = v + 1;
+					_vertexWedge[v] = v;
+					break;
+				}
+				if (_vertexClass[first] == _vertexClass[v] && sameAttributes($a, $size, first, v))
+				{
+					_vertexWedge[v] = first;
+					break;
+				}
+				slot = (slot + 1) & mask;
+			}
+		}
+	}
+
+	private static boolean sameAttributes(float[] $a, int $size, int $u, int $v)
+	{
+		for (int i = 0; i < $size; i++) {
+			if (Float.floatToIntBits($a[$u * $size + i]) != Float.floatToIntBits($a[$v * $size + i])) return false;
+		}
+		return true;
+	}
+
+	private void buildAdjacency()
+	{
+		_adjSize = new int[_numClasses];
+		for (int i = 0; i < _numTris * 3; i++) {
+			_adjSize[_cornerClass[i]]++;
+		}
+		_adj = new int[_numClasses][];
+		for (int c = 0; c < _numClasses; c++) {
+			_adj[c] = new int[Math.max(4, _adjSize[c])];
+			_adjSize[c] = 0;
+		}
+		for (int t = 0; t < _numTris; t++)
+		{
+			for (int k = 0; k < 3; k++)
+			{
+				int c = _cornerClass[t * 3 + k];
+				// a triangle with a repeated class is already degenerate
+				if (k > 0 && c == _cornerClass[t * 3]) continue;
+				if (k > 1 && c == _cornerClass[t * 3 + 1]) continue;
+				addAdjacent(c, t);
+			}
+			if (isDegenerate(t)) {
+				_deadTri[t] = true;
+				_liveTris--;
+			}
+		}
+	}
+
+	private void buildQuadrics()
+	{
+		_q = new double[_numClasses * 10];
+		double[] n = new double[4];
+		HashMap<Long, Integer> edgeUse = new HashMap<Long, Integer>();
+
+		for (int t = 0; t < _numTris; t++)
+		{
+			if (_deadTri[t]) continue;
+			double area = plane(t, n);
+			if (area == 0) continue;
+			for (int k = 0; k < 3; k++) {
+				addPlane(_cornerClass[t * 3 + k], n, area);
+			}
+			for (int k = 0; k < 3; k++)
+			{
+				Long key = edgeKey(_cornerClass[t * 3 + k], _cornerClass[t * 3 + (k + 1) % 3]);
+				Integer uses = edgeUse.get(key);
+				edgeUse.put(key, uses == null ? 1 : uses + 1);
+			}
+		}
+
+		// Boundary edges: a plane through the edge, perpendicular to its triangle,
+		// keeps the outline from shrinking
+		for (int t = 0; t < _numTris; t++)
+		{
+			if (_deadTri[t]) continue;
+			double area = plane(t, n);
+			if (area == 0) continue;
+			for (int k = 0; k < 3; k++)
+			{
+				int a = _cornerClass[t * 3 + k];
+				int b = _cornerClass[t * 3 + (k + 1) % 3];
+				if (edgeUse.get(edgeKey(a, b)) != 1) continue;
+
+				double ex = _classPos[b * 3] - _classPos[a * 3];
+				double ey = _classPos[b * 3 + 1] - _classPos[a * 3 + 1];
+				double ez = _classPos[b * 3 + 2] - _classPos[a * 3 + 2];
+				double px = ey * n[2] - ez * n[1];
+				double py = ez * n[0] - ex * n[2];
+				double pz = ex * n[1] - ey * n[0];
+				double len = Math.sqrt(px * px + py * py + pz * pz);
+				if (len == 0) continue;
+				double[] p = { px / len, py / len, pz / len, 0 };
+				p[3] = -(p[0] * _classPos[a * 3] + p[1] * _classPos[a * 3 + 1] + p[2] * _classPos[a * 3 + 2]);
+				double weight = BOUNDARY_WEIGHT * (ex * ex + ey * ey + ez * ez);
+				addPlane(a, p, weight);
+				addPlane(b, p, weight);
+			}
+		}
+	}
+
+	private void buildHeap()
+	{
+		_heap = new PriorityQueue<Collapse>(Math.max(16, _numTris * 3 / 2));
+		for (int t = 0; t < _numTris; t++)
+		{
+			if (_deadTri[t]) continue;
+			for (int k = 0; k < 3; k++)
+			{
+				int a = _cornerClass[t * 3 + k];
+				int b = _cornerClass[t * 3 + (k + 1) % 3];
+				// each interior edge is seen from both sides; push it from one
+				if (a < b || ! hasEdge(b, a)) push(a, b);
+			}
+		}
+	}
+
+	//
+
+	private void collapse(int $from, int $to)
+	{
+		if (flips($from, $to) || ! matchCorners($from, $to)) return;
+
+		for (int i = 0; i < 10; i++) {
+			_q[$to * 10 + i] += _q[$from * 10 + i];
+		}
+		_deadClass[$from] = true;
+
+		int[] list = _adj[$from];
+		for (int i = 0; i < _adjSize[$from]; i++)
+		{
+			int t = list[i];
+			if (_deadTri[t]) continue;
+			for (int k = 0; k < 3; k++)
+			{
+				if (_cornerClass[t * 3 + k] == $from) {
+					_cornerClass[t * 3 + k] = $to;
+					_cornerVertex[t * 3 + k] = mapped(_cornerVertex[t * 3 + k]);
+				}
+			}
+			if (isDegenerate(t)) {
+				_deadTri[t] = true;
+				_liveTris--;
+			}
+			else {
+				addAdjacent($to, t);
+			}
+		}
+		_adj[$from] = null;
+		_adjSize[$from] = 0;
+		_version[$to]++;
+
+		// costs of every edge around the merged vertex changed
+		_stampValue++;
+		_stamp[$to] = _stampValue;
+		list = _adj[$to];
+		for (int i = 0; i < _adjSize[$to]; i++)
+		{
+			int t = list[i];
+			if (_deadTri[t]) continue;
+			for (int k = 0; k < 3; k++)
+			{
+				int c = _cornerClass[t * 3 + k];
+				if (_stamp[c] == _stampValue) continue;
+				_stamp[c] = _stampValue;
+				push($to, c);
+			}
+		}
+	}
+
+	/**
+	 * True when moving $from onto $to would turn a surviving triangle over.
+	 */
+	private boolean flips(int $from, int $to)
+	{
+		int[] list = _adj[$from];
+		for (int i = 0; i < _adjSize[$from]; i++)
+		{
+			int t = list[i];
+			if (_deadTri[t]) continue;
+			int k = 0;
+			boolean survives = true;
+			for (int j = 0; j < 3; j++)
+			{
+				int c = _cornerClass[t * 3 + j];
+				if (c == $to) survives = false;
+				if (c == $from) k = j;
+			}
+			if (! survives) continue;
+
+			int p0 = _cornerClass[t * 3 + k] * 3;
+			int p1 = _cornerClass[t * 3 + (k + 1) % 3] * 3;
+			int p2 = _cornerClass[t * 3 + (k + 2) % 3] * 3;
+			int moved = $to * 3;
+			float[] p = _classPos;
+
+			double[] before = cross(p, p0, p1, p2);
+			double[] after = cross(p, moved, p1, p2);
+			double dot = before[0] * after[0] + before[1] * after[1] + before[2] * after[2];
+			if (dot <= 0) return true;
+		}
+		return false;
+	}
+
+	/**
+	 * Pairs each wedge used at $from with the wedge it shares a collapsing triangle with at
+	 * $to. False when a wedge used by a surviving triangle has no pair, or two: its side of a
+	 * seam has no vertex at $to to move onto.
+	 */
+	private boolean matchCorners(int $from, int $to)
+	{
+		_mapSize = 0;
+		int[] list = _adj[$from];
+		for (int i = 0; i < _adjSize[$from]; i++)
+		{
+			int t = list[i];
+			if (_deadTri[t]) continue;
+			int v = -1, w = -1;
+			for (int k = 0; k < 3; k++)
+			{
+				int c = _cornerClass[t * 3 + k];
+				if (c == $from) v = _vertexWedge[_cornerVertex[t * 3 + k]];
+				if (c == $to) w = _cornerVertex[t * 3 + k];
+			}
+			if (w < 0) continue;
+
+			int m = mapIndex(v);
+			if (m >= 0) {
+				if (_vertexWedge[_mapTo[m]] != _vertexWedge[w]) return false;
+				continue;
+			}
+			if (_mapSize == _mapFrom.length) {
+				int[] grownFrom = new int[_mapSize * 2];
+				int[] grownTo = new int[_mapSize * 2];
+				System.arraycopy(_mapFrom, 0, grownFrom, 0, _mapSize);
+				System.arraycopy(_mapTo, 0, grownTo, 0, _mapSize);
+				_mapFrom = grownFrom;
+				_mapTo = grownTo;
+			}
+			_mapFrom[_mapSize] = v;
+			_mapTo[_mapSize] = w;
+			_mapSize++;
+		}
+
+		for (int i = 0; i < _adjSize[$from]; i++)
+		{
+			int t = list[i];
+			if (_deadTri[t]) continue;
+			for (int k = 0; k < 3; k++)
+			{
+				if (_cornerClass[t * 3 + k] == $from && mapIndex(_vertexWedge[_cornerVertex[t * 3 + k]]) < 0) return false;
+			}
+		}
+		return true;
+	}
+
+	private int mapIndex(int $wedge)
+	{
+		for (int i = 0; i < _mapSize; i++) {
+			if (_mapFrom[i] == $wedge) return i;
+		}
+		return -1;
+	}
+
+	private int mapped(int $v)
+	{
+		return _mapTo[mapIndex(_vertexWedge[$v])];
+	}
+
+	private void push(int $a, int $b)
+	{
+		double costAB = error($a, $b, $b);	// $a moves onto $b
+		double costBA = error($a, $b, $a);
+		Collapse c = new Collapse();
+		if (costAB <= costBA) {
+			c.from = $a;
+			c.to = $b;
+			c.cost = costAB;
+		}
+		else {
+			c.from = $b;
+			c.to = $a;
+			c.cost = costBA;
+		}
+		c.fromVersion = _version[c.from];
+		c.toVersion = _version[c.to];
+		_heap.add(c);
+	}
+
+	/**
+	 * v^T (Qa + Qb) v, with v at class $at's position
+	 */
+	private double error(int $a, int $b, int $at)
+	{
+		double x = _classPos[$at * 3], y = _classPos[$at * 3 + 1], z = _classPos[$at * 3 + 2];
+		int a = $a * 10, b = $b * 10;
+		double[] q = _q;
+		double e = (q[a] + q[b]) * x * x
+			+ 2 * (q[a + 1] + q[b + 1]) * x * y
+			+ 2 * (q[a + 2] + q[b + 2]) * x * z
+			+ 2 * (q[a + 3] + q[b + 3]) * x
+			+ (q[a + 4] + q[b + 4]) * y * y
+			+ 2 * (q[a + 5] + q[b + 5]) * y * z
+			+ 2 * (q[a + 6] + q[b + 6]) * y
+			+ (q[a + 7] + q[b + 7]) * z * z
+			+ 2 * (q[a + 8] + q[b + 8]) * z
+			+ (q[a + 9] + q[b + 9]);
+		return Math.max(0, e);
+	}
+
+	//
+
+	private int[] liveIndices()
+	{
+		int[] out = new int[_liveTris * 3];
+		int n = 0;
+		for (int t = 0; t < _numTris; t++)
+		{
+			if (_deadTri[t]) continue;
+			out[n++] = _cornerVertex[t * 3];
+			out[n++] = _cornerVertex[t * 3 + 1];
+			out[n++] = _cornerVertex[t * 3 + 2];
+		}
+		return out;
+	}
+
+	private boolean isDegenerate(int $t)
+	{
+		int a = _cornerClass[$t * 3], b = _cornerClass[$t * 3 + 1], c = _cornerClass[$t * 3 + 2];
+		return a == b || b == c || a == c;
+	}
+
+	private boolean hasEdge(int $a, int $b)
+	{
+		int[] list = _adj[$a];
+		for (int i = 0; i < _adjSize[$a]; i++)
+		{
+			int t = list[i];
+			for (int k = 0; k < 3; k++) {
+				if (_cornerClass[t * 3 + k] == $a && _cornerClass[t * 3 + (k + 1) % 3] == $b) return true;
+			}
+		}
+		return false;
+	}
+
+	private void addAdjacent(int $c, int $t)
+	{
+		if (_adjSize[$c] == _adj[$c].length) {
+			int[] grown = new int[_adj[$c].length * 2];
+			System.arraycopy(_adj[$c], 0, grown, 0, _adjSize[$c]);
+			_adj[$c] = grown;
+		}
+		_adj[$c][_adjSize[$c]++] = $t;
+	}
+
+	/**
+	 * Unit plane of triangle $t into $out (a, b, c, d); returns its area, 0 if degenerate.
+	 */
+	private double plane(int $t, double[] $out)
+	{
+		int p0 = _cornerClass[$t * 3] * 3;
+		double[] n = cross(_classPos, p0, _cornerClass[$t * 3 + 1] * 3, _cornerClass[$t * 3 + 2] * 3);
+		double len = Math.sqrt(n[0] * n[0] + n[1] * n[1] + n[2] * n[2]);
+		if (len == 0) return 0;
+		$out[0] = n[0] / len;
+		$out[1] = n[1] / len;
+		$out[2] = n[2] / len;
+		$out[3] = -($out[0] * _classPos[p0] + $out[1] * _classPos[p0 + 1] + $out[2] * _classPos[p0 + 2]);
+		return len * 0.5;
+	}
+
+	private void addPlane(int $c, double[] $p, double $weight)
+	{
+		double a = $p[0], b = $p[1], c = $p[2], d = $p[3];
+		int i = $c * 10;
+		_q[i] += $weight * a * a;
+		_q[i + 1] += $weight * a * b;
+		_q[i + 2] += $weight * a * c;
+		_q[i + 3] += $weight * a * d;
+		_q[i + 4] += $weight * b * b;
+		_q[i + 5] += $weight * b * c;
+		_q[i + 6] += $weight * b * d;
+		_q[i + 7] += $weight * c * c;
+		_q[i + 8] += $weight * c * d;
+		_q[i + 9] += $weight * d * d;
+	}
+
+	private static double[] cross(float[] $p, int $a, int $b, int $c)
+	{
+		double ux = $p[$b] - $p[$a], uy = $p[$b + 1] - $p[$a + 1], uz = $p[$b + 2] - $p[$a + 2];
+		double vx = $p[$c] - $p[$a], vy = $p[$c + 1] - $p[$a + 1], vz = $p[$c + 2] - $p[$a + 2];
+		return new double[] { uy * vz - uz * vy, uz * vx - ux * vz, ux * vy - uy * vx };
+	}
+
+	private static Long edgeKey(int $a, int $b)
+	{
+		int lo = Math.min($a, $b), hi = Math.max($a, $b);
+		return ((long)lo << 32) | hi;
+	}
+
+	private static class Collapse implements Comparable<Collapse>
+	{
+		double cost;
+		int from, to;
+		int fromVersion, toVersion;
+
+		public int compareTo(Collapse $o)
+		{
+			return Double.compare(cost, $o.cost);
+		}
+	}
+}
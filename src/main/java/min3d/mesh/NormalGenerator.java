@@ -0,0 +1,221 @@
+package min3d.mesh;
+
+import min3d.core.Workers;
+import min3d.math.Vec3;
+
+/**
+ * Generates vertex normals for triangle meshes from packed xyz positions and
+ * triangle indices.
+ *
+ * Smooth normals are area-weighted: each face contributes its unnormalized
+ * cross product, whose length is twice its area, so slivers barely count.
+ * With a crease angle, a face only contributes to a corner if it is within
+ * that angle of the corner's own face, which keeps hard edges hard.
+ *
+ * Work is done in flat float[] / int[] loops. Face normals are computed
+ * once, then each vertex (or corner) gathers from its adjacent faces, so
+ * chunks never write to the same element. Meshes above PARALLEL_THRESHOLD
+ * triangles are split across Workers.
+ *
+ * Pure Java, no GL or Android dependencies.
+ */
+public class NormalGenerator
+{
+	/**
+	 * Triangle count above which work is split across threads
+	 */
+	public static final int PARALLEL_THRESHOLD = 8192;
+
+	/**
+	 * Crease angle the loaders use when a file has no normals
+	 */
+	public static final float DEFAULT_CREASE_DEGREES = 60f;
+
+	/**
+	 * Area-weighted smooth normals, one per vertex.
+	 *
+	 * @param $positions	Packed xyz, $vertexCount * 3 floats
+	 * @param $indices		Triangle list
+	 * @return				Packed xyz unit normals, $vertexCount * 3 floats. Unused vertices get (0,0,0).
+	 */
+	public static float[] smoothNormals(float[] $positions, int[] $indices, int $vertexCount)
+	{
+		float[] out = new float[$vertexCount * 3];
+		smoothNormalsInto($positions, $indices, $vertexCount, out);
+		return out;
+	}
+
+	public static void smoothNormalsInto(final float[] $positions, final int[] $indices, final int $vertexCount, final float[] $out)
+	{
+		final float[] faceNormals = faceNormals($positions, $indices, false);
+		final int[] adjOffset = new int[$vertexCount + 1];
+		final int[] adj = vertexFaces($indices, $vertexCount, adjOffset);
+
+		Workers.forRange($vertexCount, PARALLEL_THRESHOLD, new Workers.RangeTask() {
+			public void run(int $from, int $to) {
+				for (int v = $from; v < $to; v++)
+				{
+					float x = 0, y = 0, z = 0;
+					for (int a = adjOffset[v]; a < adjOffset[v + 1]; a++)
+					{
+						int f = adj[a] * 3;
+						x += faceNormals[f];
+						y += faceNormals[f + 1];
+						z += faceNormals[f + 2];
+					}
+					writeNormalized($out, v * 3, x, y, z);
+				}
+			}
+		});
+	}
+
+	/**
+	 * Normals per triangle corner, smoothed across faces within $creaseDegrees of each other.
+	 * Use this when hard edges should stay hard; the result lines up with a de-indexed
+	 * (one vertex per corner) copy of the mesh.
+	 *
+	 * @return	Packed xyz unit normals, $indices.length * 3 floats
+	 */
+	public static float[] creasedNormals(final float[] $positions, final int[] $indices, int $vertexCount, float $creaseDegrees)
+	{
+		final int numTris = $indices.length / 3;
+		final float[] out = new float[numTris * 9];
+
+		if ($creaseDegrees <= 0) {
+			flatNormalsInto($positions, $indices, out);
+			return out;
+		}
+
+		final float[] faceNormals = faceNormals($positions, $indices, false);
+		final float[] unitNormals = faceNormals.clone();
+		Vec3.normalizeAll(unitNormals, 0, numTris);
+
+		final float minCos = (float)Math.cos(Math.toRadians(Math.min($creaseDegrees, 180f)));
+		final int[] adjOffset = new int[$vertexCount + 1];
+		final int[] adj = vertexFaces($indices, $vertexCount, adjOffset);
+
+		Workers.forRange(numTris, PARALLEL_THRESHOLD, new Workers.RangeTask() {
+			public void run(int $from, int $to) {
+				for (int t = $from; t < $to; t++)
+				{
+					int ft = t * 3;
+					float ux = unitNormals[ft], uy = unitNormals[ft + 1], uz = unitNormals[ft + 2];
+
+					for (int k = 0; k < 3; k++)
+					{
+						int v = $indices[ft + k];
+						float x = 0, y = 0, z = 0;
+
+						for (int a = adjOffset[v]; a < adjOffset[v + 1]; a++)
+						{
+							int f = adj[a] * 3;
+							if (ux * unitNormals[f] + uy * unitNormals[f + 1] + uz * unitNormals[f + 2] >= minCos)
+							{
+								x += faceNormals[f];
+								y += faceNormals[f + 1];
+								z += faceNormals[f + 2];
+							}
+						}
+						writeNormalized(out, (ft + k) * 3, x, y, z);
+					}
+				}
+			}
+		});
+
+		return out;
+	}
+
+	/**
+	 * Flat normals for a triangle soup (every three consecutive positions form a triangle),
+	 * repeated for each of the triangle's corners.
+	 *
+	 * @param $out		At least $soupPositions.length floats
+	 */
+	public static void flatNormalsInto(float[] $soupPositions, float[] $out)
+	{
+		for (int i = 0; i + 8 < $soupPositions.length; i += 9)
+		{
+			Vec3.faceNormalInto($soupPositions, i, i + 3, i + 6, $out, i);
+			Vec3.normalize($out, i);
+			$out[i + 3] = $out[i + 6] = $out[i];
+			$out[i + 4] = $out[i + 7] = $out[i + 1];
+			$out[i + 5] = $out[i + 8] = $out[i + 2];
+		}
+	}
+
+	/**
+	 * Face normals, one per triangle (packed xyz).
+	 *
+	 * @param $normalize	False to keep area weighting (length == 2 * area)
+	 */
+	public static float[] faceNormals(final float[] $positions, final int[] $indices, final boolean $normalize)
+	{
+		int numTris = $indices.length / 3;
+		final float[] out = new float[numTris * 3];
+
+		Workers.forRange(numTris, PARALLEL_THRESHOLD, new Workers.RangeTask() {
+			public void run(int $from, int $to) {
+				for (int t = $from; t < $to; t++)
+				{
+					int i = t * 3;
+					Vec3.faceNormalInto($positions, $indices[i] * 3, $indices[i + 1] * 3, $indices[i + 2] * 3, out, i);
+				}
+				if ($normalize) {
+					for (int i = $from * 3; i < $to * 3; i += 3) {
+						Vec3.normalize(out, i);
+					}
+				}
+			}
+		});
+
+		return out;
+	}
+
+	//
+
+	private static void flatNormalsInto(float[] $positions, int[] $indices, float[] $out)
+	{
+		for (int i = 0; i + 2 < $indices.length; i += 3)
+		{
+			int o = i * 3;
+			Vec3.faceNormalInto($positions, $indices[i] * 3, $indices[i + 1] * 3, $indices[i + 2] * 3, $out, o);
+			Vec3.normalize($out, o);
+			$out[o + 3] = $out[o + 6] = $out[o];
+			$out[o + 4] = $out[o + 7] = $out[o + 1];
+			$out[o + 5] = $out[o + 8] = $out[o + 2];
+		}
+	}
+
+	/**
+	 * Vertex -> face adjacency in compressed form: faces of vertex v are
+	 * adj[offset[v]] .. adj[offset[v + 1] - 1]
+	 */
+	private static int[] vertexFaces(int[] $indices, int $vertexCount, int[] $offset)
+	{
+		int numTris = $indices.length / 3;
+		for (int i = 0; i < numTris * 3; i++) {
+			$offset[$indices[i] + 1]++;
+		}
+		for (int v = 0; v < $vertexCount; v++) {
+			$offset[v + 1] += $offset[v];
+		}
+
+		int[] fill = new int[$vertexCount];
+		int[] adj = new int[numTris * 3];
+		for (int i = 0; i < numTris * 3; i++)
+		{
+			int v = $indices[i];
+			adj[$offset[v] + fill[v]++] = i / 3;
+		}
+		return adj;
+	}
+
+	private static void writeNormalized(float[] $out, int $o, float $x, float $y, float $z)
+	{
+		float lenSq = $x * $x + $y * $y + $z * $z;
+		float inv = lenSq > 0 ? 1f / (float)Math.sqrt(lenSq) : 0;
+		$out[$o] = $x * inv;
+		$out[$o + 1] = $y * inv;
+		$out[$o + 2] = $z * inv;
+	}
+}
@@ -0,0 +1,672 @@
+package min3d.mesh;
+
+/**
+ * Bounding volume hierarchy over a triangle mesh, for casting rays against it
+ * and finding what's nearest to a segment.
+ *
+ * Built once from positions and a triangle list; nodes are split by the
+ * surface area heuristic over a few bins along their longest axis, down to
+ * a handful of triangles per leaf. Nodes and triangles are stored flat, in
+ * traversal order, with each triangle kept as a corner and two edges ready
+ * for the ray test.
+ *
+ * Queries don't change the tree, so any number of threads can cast rays at
+ * once, each with its own Hit.
+ */
+public class TriangleBvh
+{
+	/**
+	 * Result of intersect(), and scratch space for a query. One per thread.
+	 */
+	public static class Hit
+	{
+		/**
+		 * Index of the triangle hit, in the list the tree was built from; -1 for a miss
+		 */
+		public int triangle = -1;
+
+		/**
+		 * Along the ray, in units of its direction's length
+		 */
+		public float distance;
+
+		/**
+		 * Barycentric weights of the triangle's second and third corners
+		 */
+		public float u, v;
+
+		/**
+		 * For closest(): where on the segment, from 0 at its start to 1 at its end
+		 */
+		public float s;
+
+		/**
+		 * For closest(): the nearest point on the mesh
+		 */
+		public float x, y, z;
+
+		int[] stack = new int[64];
+		final float[] pair = new float[2];
+	}
+
+	private static final int MAX_LEAF_SIZE = 4;
+	private static final int BINS = 8;
+	// below this, nodes are halved rather than split by cost, so the query stack can't overflow
+	private static final int MAX_SAH_DEPTH = 40;
+	private static final float EPSILON = 1e-9f;
+
+	// per node: bounds min xyz, max xyz
+	private float[] _bounds;
+	// per node: first triangle for a leaf, else left child (right follows it)
+	private int[] _first;
+	// per node: triangle count for a leaf, else 0
+	private int[] _count;
+	private int _nodes;
+
+	// per triangle, in leaf order: corner, edge 1, edge 2
+	private final float[] _tris;
+	// original index of each triangle, in leaf order
+	private final int[] _ids;
+
+	/**
+	 * @param $positions	Packed xyz
+	 * @param $indices		Triangle list
+	 */
+	public TriangleBvh(float[] $positions, int[] $indices)
+	{
+		int count = $indices.length / 3;
+		float[] centroids = new float[count * 3];
+		float[] boxes = new float[count * 6];
+		int[] order = new int[count];
+		for (int t = 0; t < count; t++)
+		{
+			order[t] = t;
+			int a = $indices[t*3] * 3, b = $indices[t*3 + 1] * 3, c = $indices[t*3 + 2] * 3;
+			for (int k = 0; k < 3; k++)
+			{
+				float min = Math.min($positions[a + k], Math.min($positions[b + k], $positions[c + k]));
+				float max = Math.max($positions[a + k], Math.max($positions[b + k], $positions[c + k]));
+				boxes[t*6 + k] = min;
+				boxes[t*6 + 3 + k] = max;
+				centroids[t*3 + k] = (min + max) / 2;
+			}
+		}
+
+		int capacity = Math.max(1, 2 * count);
+		_bounds = new float[capacity * 6];
+		_first = new int[capacity];
+		_count = new int[capacity];
+		_nodes = 1;
+		build(0, 0, order, 0, count, boxes, centroids);
+
+		_tris = new float[count * 9];
+		_ids = order;
+		for (int i = 0; i < count; i++)
+		{
+			int t = order[i];
+			int a = $indices[t*3] * 3, b = $indices[t*3 + 1] * 3, c = $indices[t*3 + 2] * 3;
+			for (int k = 0; k < 3; k++)
+			{
+				_tris[i*9 + k] = $positions[a + k];
+				_tris[i*9 + 3 + k] = $positions[b + k] - $positions[a + k];
+				_tris[i*9 + 6 + k] = $positions[c + k] - $positions[a + k];
+			}
+		}
+	}
+
+	public int triangleCount()
+	{
+		return _ids.length;
+	}
+
+	public int nodeCount()
+	{
+		return _nodes;
+	}
+
+	/**
+	 * Writes the bounds of the whole mesh into $out as min xyz, max xyz
+	 */
+	public void bounds(float[] $out)
+	{
+		System.arraycopy(_bounds, 0, $out, 0, 6);
+	}
+
+	/**
+	 * Finds the nearest triangle the ray hits before $maxDistance. Either side of a triangle counts.
+	 *
+	 * @return	Whether anything was hit; details are in $hit
+	 */
+	public boolean intersect(float $ox, float $oy, float $oz, float $dx, float $dy, float $dz, float $maxDistance, Hit $hit)
+	{
+		$hit.triangle = -1;
+		$hit.distance = $maxDistance;
+		if (_ids.length == 0) return false;
+
+		float ix = 1f / $dx, iy = 1f / $dy, iz = 1f / $dz;
+		int[] stack = $hit.stack;
+		int top = 0;
+		stack[top++] = 0;
+
+		while (top > 0)
+		{
+			int node = stack[--top];
+			if (slab(node, $ox, $oy, $oz, ix, iy, iz, $hit.distance) == Float.MAX_VALUE) continue;
+
+			int count = _count[node];
+			if (count > 0)
+			{
+				int first = _first[node];
+				for (int i = first; i < first + count; i++) {
+					triangle(i, $ox, $oy, $oz, $dx, $dy, $dz, $hit);
+				}
+				continue;
+			}
+
+			// nearer child on top, so it's searched first and shortens the ray for the other
+			int left = _first[node], right = left + 1;
+			float tl = slab(left, $ox, $oy, $oz, ix, iy, iz, $hit.distance);
+			float tr = slab(right, $ox, $oy, $oz, ix, iy, iz, $hit.distance);
+			if (tl <= tr) {
+				if (tr != Float.MAX_VALUE) stack[top++] = right;
+				if (tl != Float.MAX_VALUE) stack[top++] = left;
+			}
+			else {
+				if (tl != Float.MAX_VALUE) stack[top++] = left;
+				stack[top++] = right;
+			}
+		}
+
+		if ($hit.triangle >= 0) {
+			$hit.triangle = _ids[$hit.triangle];
+			return true;
+		}
+		return false;
+	}
+
+	/**
+	 * Whether the ray hits anything before $maxDistance. Stops at the first hit found, so
+	 * it's cheaper than intersect() for shadow and occlusion rays.
+	 */
+	public boolean occluded(float $ox, float $oy, float $oz, float $dx, float $dy, float $dz, float $maxDistance, Hit $scratch)
+	{
+		if (_ids.length == 0) return false;
+
+		float ix = 1f / $dx, iy = 1f / $dy, iz = 1f / $dz;
+		int[] stack = $scratch.stack;
+		int top = 0;
+		stack[top++] = 0;
+		$scratch.triangle = -1;
+		$scratch.distance = $maxDistance;
+
+		while (top > 0)
+		{
+			int node = stack[--top];
+			if (slab(node, $ox, $oy, $oz, ix, iy, iz, $maxDistance) == Float.MAX_VALUE) continue;
+
+			int count = _count[node];
+			if (count > 0)
+			{
+				int first = _first[node];
+				for (int i = first; i < first + count; i++) {
+					if (triangle(i, $ox, $oy, $oz, $dx, $dy, $dz, $scratch)) return true;
+				}
+				continue;
+			}
+			stack[top++] = _first[node] + 1;
+			stack[top++] = _first[node];
+		}
+		return false;
+	}
+
+	/**
+	 * Finds the triangle nearest to the segment from A to B, if any is nearer
+	 * than $maxDistance. Swept spheres and capsules test against the mesh
+	 * with this: they touch it where the distance is below their radius.
+	 *
+	 * @return	Whether anything was found; the distance, both nearest points and the
+	 * 			triangle are in $hit
+	 */
+	public boolean closest(float $ax, float $ay, float $az, float $bx, float $by, float $bz, float $maxDistance, Hit $hit)
+	{
+		$hit.triangle = -1;
+		$hit.distance = $maxDistance;
+		if (_ids.length == 0) return false;
+
+		float best = $maxDistance * $maxDistance;
+		float dx = $bx - $ax, dy = $by - $ay, dz = $bz - $az;
+		int[] stack = $hit.stack;
+		float[] pair = $hit.pair;
+		int top = 0;
+		stack[top++] = 0;
+
+		while (top > 0)
+		{
+			int node = stack[--top];
+			if (! near(node, $ax, $ay, $az, $bx, $by, $bz, (float)Math.sqrt(best))) continue;
+
+			int count = _count[node];
+			if (count == 0) {
+				stack[top++] = _first[node] + 1;
+				stack[top++] = _first[node];
+				continue;
+			}
+
+			for (int i = _first[node]; i < _first[node] + count; i++)
+			{
+				float[] t = _tris;
+				int o = i * 9;
+				float cx = t[o], cy = t[o + 1], cz = t[o + 2];
+				float e1x = t[o + 3], e1y = t[o + 4], e1z = t[o + 5];
+				float e2x = t[o + 6], e2y = t[o + 7], e2z = t[o + 8];
+
+				// the segment passing through the triangle
+				float px = dy * e2z - dz * e2y, py = dz * e2x - dx * e2z, pz = dx * e2y - dy * e2x;
+				float det = e1x * px + e1y * py + e1z * pz;
+				if (det < -EPSILON || det > EPSILON)
+				{
+					float inv = 1f / det;
+					float sx = $ax - cx, sy = $ay - cy, sz = $az - cz;
+					float u = (sx * px + sy * py + sz * pz) * inv;
+					float qx = sy * e1z - sz * e1y, qy = sz * e1x - sx * e1z, qz = sx * e1y - sy * e1x;
+					float v = (dx * qx + dy * qy + dz * qz) * inv;
+					float along = (e2x * qx + e2y * qy + e2z * qz) * inv;
+					if (u >= 0 && v >= 0 && u + v <= 1 && along >= 0 && along <= 1) {
+						best = 0;
+						record($hit, i, along, u, v, cx + e1x * u + e2x * v, cy + e1y * u + e2y * v, cz + e1z * u + e2z * v);
+						continue;
+					}
+				}
+
+				// else the nearest points are on the segment's ends or the triangle's edges
+				for (int end = 0; end <= 1; end++)
+				{
+					float qx = end == 0 ? $ax : $bx, qy = end == 0 ? $ay : $by, qz = end == 0 ? $az : $bz;
+					pointTriangle(qx - cx, qy - cy, qz - cz, e1x, e1y, e1z, e2x, e2y, e2z, pair);
+					float mx = cx + e1x * pair[0] + e2x * pair[1];
+					float my = cy + e1y * pair[0] + e2y * pair[1];
+					float mz = cz + e1z * pair[0] + e2z * pair[1];
+					float d2 = (qx - mx) * (qx - mx) + (qy - my) * (qy - my) + (qz - mz) * (qz - mz);
+					if (d2 < best) {
+						best = d2;
+						record($hit, i, end, pair[0], pair[1], mx, my, mz);
+					}
+				}
+				for (int edge = 0; edge < 3; edge++)
+				{
+					// corner to second, corner to third, second to third
+					float sx = cx + (edge == 2 ? e1x : 0), sy = cy + (edge == 2 ? e1y : 0), sz = cz + (edge == 2 ? e1z : 0);
+					float ex = edge == 0 ? e1x : edge == 1 ? e2x : e2x - e1x;
+					float ey = edge == 0 ? e1y : edge == 1 ? e2y : e2y - e1y;
+					float ez = edge == 0 ? e1z : edge == 1 ? e2z : e2z - e1z;
+					segmentSegment($ax, $ay, $az, dx, dy, dz, sx, sy, sz, ex, ey, ez, pair);
+					float qx = $ax + dx * pair[0], qy = $ay + dy * pair[0], qz = $az + dz * pair[0];
+					float mx = sx + ex * pair[1], my = sy + ey * pair[1], mz = sz + ez * pair[1];
+					float d2 = (qx - mx) * (qx - mx) + (qy - my) * (qy - my) + (qz - mz) * (qz - mz);
+					if (d2 < best) {
+						best = d2;
+						float u = edge == 0 ? pair[1] : edge == 1 ? 0 : 1 - pair[1];
+						float v = edge == 0 ? 0 : pair[1];
+						record($hit, i, pair[0], u, v, mx, my, mz);
+					}
+				}
+			}
+		}
+
+		if ($hit.triangle >= 0) {
+			$hit.triangle = _ids[$hit.triangle];
+			$hit.distance = (float)Math.sqrt(best);
+			return true;
+		}
+		return false;
+	}
+
+	//
+
+	private static void record(Hit $hit, int $i, float $s, float $u, float $v, float $x, float $y, float $z)
+	{
+		$hit.triangle = $i;
+		$hit.s = $s;
+		$hit.u = $u;
+		$hit.v = $v;
+		$hit.x = $x;
+		$hit.y = $y;
+		$hit.z = $z;
+	}
+
+	/**
+	 * Whether the segment comes within about $distance of $node's box. Conservative:
+	 * the box is grown by $distance on every side.
+	 */
+	private boolean near(int $node, float $ax, float $ay, float $az, float $bx, float $by, float $bz, float $distance)
+	{
+		int b = $node * 6;
+		return Math.max($ax, $bx) >= _bounds[b] - $distance && Math.min($ax, $bx) <= _bounds[b + 3] + $distance
+			&& Math.max($ay, $by) >= _bounds[b + 1] - $distance && Math.min($ay, $by) <= _bounds[b + 4] + $distance
+			&& Math.max($az, $bz) >= _bounds[b + 2] - $distance && Math.min($az, $bz) <= _bounds[b + 5] + $distance;
+	}
+
+	/**
+	 * Nearest point of a triangle to a point, as the weights of its two edges.
+	 * The point is given relative to the triangle's corner. (Ericson, Real-Time
+	 * Collision Detection, 5.1.5)
+	 */
+	private static void pointTriangle(float $px, float $py, float $pz,
+		float $e1x, float $e1y, float $e1z, float $e2x, float $e2y, float $e2z, float[] $out)
+	{
+		float d1 = $e1x * $px + $e1y * $py + $e1z * $pz;
+		float d2 = $e2x * $px + $e2y * $py + $e2z * $pz;
+		if (d1 <= 0 && d2 <= 0) { $out[0] = 0; $out[1] = 0; return; }
+
+		float bx = $px - $e1x, by = $py - $e1y, bz = $pz - $e1z;
+		float d3 = $e1x * bx + $e1y * by + $e1z * bz;
+		float d4 = $e2x * bx + $e2y * by + $e2z * bz;
+		if (d3 >= 0 && d4 <= d3) { $out[0] = 1; $out[1] = 0; return; }
+
+		float vc = d1 * d4 - d3 * d2;
+		if (vc <= 0 && d1 >= 0 && d3 <= 0) { $out[0] = d1 / (d1 - d3); $out[1] = 0; return; }
+
+		float cx = $px - $e2x, cy = $py - $e2y, cz = $pz - $e2z;
+		float d5 = $e1x * cx + $e1y * cy + $e1z * cz;
+		float d6 = $e2x * cx + $e2y * cy + $e2z * cz;
+		if (d6 >= 0 && d5 <= d6) { $out[0] = 0; $out[1] = 1; return; }
+
+		float vb = d5 * d2 - d1 * d6;
+		if (vb <= 0 && d2 >= 0 && d6 <= 0) { $out[0] = 0; $out[1] = d2 / (d2 - d6); return; }
+
+		float va = d3 * d6 - d5 * d4;
+		if (va <= 0 && d4 - d3 >= 0 && d5 - d6 >= 0) {
+			float w = (d4 - d3) / ((d4 - d3) + (d5 - d6));
+			$out[0] = 1 - w;
+			$out[1] = w;
+			return;
+		}
+
+		float denom = va + vb + vc;
+		if (denom <= 0) { $out[0] = 0; $out[1] = 0; return; }
+		$out[0] = vb / denom;
+		$out[1] = vc / denom;
+	}
+
+	/**
+	 * Nearest points of two segments, each a start and a direction, as where along
+	 * each they are. (Ericson, Real-Time Collision Detection, 5.1.9)
+	 */
+	private static void segmentSegment(float $px, float $py, float $pz, float $dx, float $dy, float $dz,
+		float $qx, float $qy, float $qz, float $ex, float $ey, float $ez, float[] $out)
+	{
+		float rx = $px - $qx, ry = $py - $qy, rz = $pz - $qz;
+		float a = $dx * $dx + $dy * $dy + $dz * $dz;
+		float e = $ex * $ex + $ey * $ey + $ez * $ez;
+		float f = $ex * rx + $ey * ry + $ez * rz;
+		float s, t;
+		if (a <= EPSILON && e <= EPSILON) {
+			s = 0;
+			t = 0;
+		}
+		else if (a <= EPSILON) {
+			s = 0;
+			t = clamp(f / e);
+		}
+		else
+		{
+			float c = $dx * rx + $dy * ry + $dz * rz;
+			if (e <= EPSILON) {
+				t = 0;
+				s = clamp(-c / a);
+			}
+			else
+			{
+				float b = $dx * $ex + $dy * $ey + $dz * $ez;
+				float denom = a * e - b * b;
+				s = denom > EPSILON ? clamp((b * f - c * e) / denom) : 0;
+				t = (b * s + f) / e;
+				if (t < 0) {
+					t = 0;
+					s = clamp(-c / a);
+				}
+				else if (t > 1) {
+					t = 1;
+					s = clamp((b - c) / a);
+				}
+			}
+		}
+		$out[0] = s;
+		$out[1] = t;
+	}
+
+	private static float clamp(float $f)
+	{
+		return $f < 0 ? 0 : $f > 1 ? 1 : $f;
+	}
+
+	/**
+	 * Entry distance of the ray into $node's box, or Float.MAX_VALUE if it misses
+	 * or enters beyond $max
+	 */
+	private float slab(int $node, float $ox, float $oy, float $oz, float $ix, float $iy, float $iz, float $max)
+	{
+		int b = $node * 6;
+		float t0 = (_bounds[b] - $ox) * $ix, t1 = (_bounds[b + 3] - $ox) * $ix;
+		float near = Math.min(t0, t1), far = Math.max(t0, t1);
+		t0 = (_bounds[b + 1] - $oy) * $iy;
+		t1 = (_bounds[b + 4] - $oy) * $iy;
+		near = Math.max(near, Math.min(t0, t1));
+		far = Math.min(far, Math.max(t0, t1));
+		t0 = (_bounds[b + 2] - $oz) * $iz;
+		t1 = (_bounds[b + 5] - $oz) * $iz;
+		near = Math.max(near, Math.min(t0, t1));
+		far = Math.min(far, Math.max(t0, t1));
+
+		// NaN from a zero direction on a box face falls through as a hit, which is safe
+		if (near > far || far < 0 || near > $max) return Float.MAX_VALUE;
+		return Math.max(near, 0);
+	}
+
+	/**
+	 * Ray against triangle $i (Moller-Trumbore). Records it in $hit if nearer.
+	 */
+	private boolean triangle(int $i, float $ox, float $oy, float $oz, float $dx, float $dy, float $dz, Hit $hit)
+	{
+		float[] t = _tris;
+		int o = $i * 9;
+		float e1x = t[o + 3], e1y = t[o + 4], e1z = t[o + 5];
+		float e2x = t[o + 6], e2y = t[o + 7], e2z = t[o + 8];
+
+		float px = $dy * e2z - $dz * e2y, py = $dz * e2x - $dx * e2z, pz = $dx * e2y - $dy * e2x;
+		float det = e1x * px + e1y * py + e1z * pz;
+		if (det > -EPSILON && det < EPSILON) return false;
+		float inv = 1f / det;
+
+		float sx = $ox - t[o], sy = $oy - t[o + 1], sz = $oz - t[o + 2];
+		float u = (sx * px + sy * py + sz * pz) * inv;
+		if (u < 0 || u > 1) return false;
+
+		float qx = sy * e1z - sz * e1y, qy = sz * e1x - sx * e1z, qz = sx * e1y - sy * e1x;
+		float v = ($dx * qx + $dy * qy + $dz * qz) * inv;
+		if (v < 0 || u + v > 1) return false;
+
+		float distance = (e2x * qx + e2y * qy + e2z * qz) * inv;
+		if (distance < 0 || distance >= $hit.distance) return false;
+
+		$hit.distance = distance;
+		$hit.triangle = $i;
+		$hit.u = u;
+		$hit.v = v;
+		return true;
+	}
+
+	/**
+	 * Fills $node from order[$from, $to), splitting it while that pays
+	 */
+	private void build(int $node, int $depth, int[] $order, int $from, int $to, float[] $boxes, float[] $centroids)
+	{
+		int b = $node * 6;
+		float cminX = Float.MAX_VALUE, cminY = Float.MAX_VALUE, cminZ = Float.MAX_VALUE;
+		float cmaxX = -Float.MAX_VALUE, cmaxY = -Float.MAX_VALUE, cmaxZ = -Float.MAX_VALUE;
+		for (int k = 0; k < 3; k++) {
+			_bounds[b + k] = Float.MAX_VALUE;
+			_bounds[b + 3 + k] = -Float.MAX_VALUE;
+		}
+		for (int i = $from; i < $to; i++)
+		{
+			int t = $order[i];
+			for (int k = 0; k < 3; k++) {
+				_bounds[b + k] = Math.min(_bounds[b + k], $boxes[t*6 + k]);
+				_bounds[b + 3 + k] = Math.max(_bounds[b + 3 + k], $boxes[t*6 + 3 + k]);
+			}
+			cminX = Math.min(cminX, $centroids[t*3]);
+			cmaxX = Math.max(cmaxX, $centroids[t*3]);
+			cminY = Math.min(cminY, $centroids[t*3 + 1]);
+			cmaxY = Math.max(cmaxY, $centroids[t*3 + 1]);
+			cminZ = Math.min(cminZ, $centroids[t*3 + 2]);
+			cmaxZ = Math.max(cmaxZ, $centroids[t*3 + 2]);
+		}
+
+		int count = $to - $from;
+		_first[$node] = $from;
+		_count[$node] = count;
+		if (count <= MAX_LEAF_SIZE) return;
+
+		// longest axis of the centroids
+		int axis = 0;
+		float min = cminX, extent = cmaxX - cminX;
+		if (cmaxY - cminY > extent) { axis = 1; min = cminY; extent = cmaxY - cminY; }
+		if (cmaxZ - cminZ > extent) { axis = 2; min = cminZ; extent = cmaxZ - cminZ; }
+		if (extent <= 0) return;
+
+		// bin the centroids, then cost each split between bins by area times count
+		int[] binCounts = new int[BINS];
+		float[] binBoxes = new float[BINS * 6];
+		for (int i = 0; i < BINS; i++) empty(binBoxes, i);
+		float scale = BINS / extent;
+		for (int i = $from; i < $to; i++)
+		{
+			int t = $order[i];
+			int bin = Math.min(BINS - 1, (int)(($centroids[t*3 + axis] - min) * scale));
+			binCounts[bin]++;
+			grow(binBoxes, bin, $boxes, t);
+		}
+
+		float[] leftArea = new float[BINS - 1];
+		int[] leftCount = new int[BINS - 1];
+		float[] box = new float[6];
+		empty(box, 0);
+		int n = 0;
+		for (int i = 0; i < BINS - 1; i++) {
+			n += binCounts[i];
+			grow(box, 0, binBoxes, i);
+			leftCount[i] = n;
+			leftArea[i] = area(box);
+		}
+		float bestCost = Float.MAX_VALUE;
+		int bestSplit = -1;
+		empty(box, 0);
+		n = 0;
+		for (int i = BINS - 1; i > 0; i--)
+		{
+			n += binCounts[i];
+			grow(box, 0, binBoxes, i);
+			if (n == 0 || leftCount[i - 1] == 0) continue;
+			float cost = leftArea[i - 1] * leftCount[i - 1] + area(box) * n;
+			if (cost < bestCost) {
+				bestCost = cost;
+				bestSplit = i;
+			}
+		}
+
+		// a split must beat testing every triangle here
+		float nodeArea = area(_bounds, b);
+		if (bestSplit < 0 || bestCost >= nodeArea * count) {
+			if (count <= MAX_LEAF_SIZE * 4) return;
+			bestSplit = -1;
+		}
+		if ($depth >= MAX_SAH_DEPTH) bestSplit = -1;
+
+		int mid;
+		if (bestSplit >= 0)
+		{
+			int i = $from, j = $to - 1;
+			while (i <= j)
+			{
+				int t = $order[i];
+				int bin = Math.min(BINS - 1, (int)(($centroids[t*3 + axis] - min) * scale));
+				if (bin < bestSplit) {
+					i++;
+				}
+				else {
+					$order[i] = $order[j];
+					$order[j--] = t;
+				}
+			}
+			mid = i;
+		}
+		else
+		{
+			// too many to leave in one leaf: halve by centroid
+			mid = ($from + $to) / 2;
+			nthElement($order, $from, $to, mid, $centroids, axis);
+		}
+
+		int left = _nodes;
+		_nodes += 2;
+		_first[$node] = left;
+		_count[$node] = 0;
+		build(left, $depth + 1, $order, $from, mid, $boxes, $centroids);
+		build(left + 1, $depth + 1, $order, mid, $to, $boxes, $centroids);
+	}
+
+	private static void empty(float[] $boxes, int $i)
+	{
+		for (int k = 0; k < 3; k++) {
+			$boxes[$i*6 + k] = Float.MAX_VALUE;
+			$boxes[$i*6 + 3 + k] = -Float.MAX_VALUE;
+		}
+	}
+
+	private static void grow(float[] $boxes, int $i, float[] $from, int $j)
+	{
+		for (int k = 0; k < 3; k++) {
+			$boxes[$i*6 + k] = Math.min($boxes[$i*6 + k], $from[$j*6 + k]);
+			$boxes[$i*6 + 3 + k] = Math.max($boxes[$i*6 + 3 + k], $from[$j*6 + 3 + k]);
+		}
+	}
+
+	private static float area(float[] $box)
+	{
+		return area($box, 0);
+	}
+
+	private static float area(float[] $box, int $o)
+	{
+		float x = $box[$o + 3] - $box[$o], y = $box[$o + 4] - $box[$o + 1], z = $box[$o + 5] - $box[$o + 2];
+		if (x < 0) return 0;
+		return x*y + y*z + z*x;
+	}
+
+	/**
+	 * Partitions $order[$from, $to) so the element at $nth is where a sort by centroid would put it
+	 */
+	private static void nthElement(int[] $order, int $from, int $to, int $nth, float[] $centroids, int $axis)
+	{
+		int lo = $from, hi = $to - 1;
+		while (lo < hi)
+		{
+			float pivot = $centroids[$order[(lo + hi) >>> 1] * 3 + $axis];
+			int i = lo, j = hi;
+			while (i <= j)
+			{
+				while ($centroids[$order[i] * 3 + $axis] < pivot) i++;
+				while ($centroids[$order[j] * 3 + $axis] > pivot) j--;
+				if (i <= j) {
+					int t = $order[i];
+					$order[i++] = $order[j];
+					$order[j--] = t;
+				}
+			}
+			if ($nth <= j) hi = j;
+			else if ($nth >= i) lo = i;
+			else return;
+		}
+	}
+}
@@ -0,0 +1,218 @@
+package min3d.mesh;
+
+/**
+ * Reorders indexed triangle lists for post-transform vertex cache locality,
+ * then reorders vertices so they are fetched in (roughly) sequential order.
+ *
+ * Triangle ordering uses "Tipsify" (Sander, Nehab, Barczak: "Fast Triangle
+ * Reordering for Vertex Locality and Reduced Overdraw", 2007), which runs in
+ * linear time and needs no tuning beyond the cache size.
+ *
+ * Typical use, on a triangle list with $vertexCount vertices:
+ *
+ * 		int[] ordered = VertexCacheOptimizer.optimizeTriangleOrder(indices, vertexCount, VertexCacheOptimizer.DEFAULT_CACHE_SIZE);
+ * 		int[] remap = VertexCacheOptimizer.optimizeVertexFetch(ordered, vertexCount);
+ * 		positions = VertexCacheOptimizer.remapVertexData(positions, 3, remap);
+ *
+ * Pure Java, no GL or Android dependencies.
+ */
+public class VertexCacheOptimizer
+{
+	/**
+	 * Conservative post-transform cache size; most mobile GPUs have at least this many entries.
+	 */
+	public static final int DEFAULT_CACHE_SIZE = 16;
+
+	/**
+	 * Returns a new index array with the same triangles, in cache-friendly order.
+	 * Winding of each triangle is preserved.
+	 */
+	public static int[] optimizeTriangleOrder(int[] $indices, int $vertexCount, int $cacheSize)
+	{
+		int numTris = $indices.length / 3;
+		if (numTris == 0) return $indices.clone();
+
+		// Vertex -> triangle adjacency, in compressed (offset + list) form
+
+		int[] live = new int[$vertexCount];
+		for (int i = 0; i < numTris * 3; i++) {
+			live[$indices[i]]++;
+		}
+
+		int[] adjOffset = new int[$vertexCount + 1];
+		for (int v = 0; v < $vertexCount; v++) {
+			adjOffset[v + 1] = adjOffset[v] + live[v];
+		}
+
+		int[] adjFill = new int[$vertexCount];
+		int[] adj = new int[numTris * 3];
+		for (int t = 0; t < numTris; t++)
+		{
+			for (int k = 0; k < 3; k++)
+			{
+				int v = $indices[t * 3 + k];
+				adj[adjOffset[v] + adjFill[v]++] = t;
+			}
+		}
+
+		// Tipsify
+
+		int[] cacheTime = new int[$vertexCount];
+		boolean[] emitted = new boolean[numTris];
+		int[] deadEnd = new int[numTris * 3];
+		int deadEndSize = 0;
+		int[] candidates = new int[numTris * 3];
+
+		int[] out = new int[numTris * 3];
+		int outSize = 0;
+
+		int time = $cacheSize + 1;
+		int cursor = 0;
+		int fan = 0;
+
+		while (fan >= 0)
+		{
+			int numCandidates = 0;
+
+			for (int a = adjOffset[fan]; a < adjOffset[fan + 1]; a++)
+			{
+				int t = adj[a];
+				if (emitted[t]) continue;
+
+				for (int k = 0; k < 3; k++)
+				{
+					int v = $indices[t * 3 + k];
+					out[outSize++] = v;
+					deadEnd[deadEndSize++] = v;
+					candidates[numCandidates++] = v;
+					live[v]--;
+
+					if (time - cacheTime[v] > $cacheSize) {
+						cacheTime[v] = time;
+						time++;
+					}
+				}
+				emitted[t] = true;
+			}
+
+			// Next fanning vertex: the candidate still in cache that will stay there
+			// longest after its remaining triangles are emitted
+
+			int next = -1;
+			int best = -1;
+
+			for (int c = 0; c < numCandidates; c++)
+			{
+				int v = candidates[c];
+				if (live[v] <= 0) continue;
+
+				int priority = 0;
+				if (time - cacheTime[v] + 2 * live[v] <= $cacheSize) {
+					priority = time - cacheTime[v];
+				}
+				if (priority > best) {
+					best = priority;
+					next = v;
+				}
+			}
+
+			if (next == -1)
+			{
+				// Dead end: back up through recently used vertices, then scan forward
+
+				while (deadEndSize > 0)
+				{
+					int v = deadEnd[--deadEndSize];
+					if (live[v] > 0) {
+						next = v;
+						break;
+					}
+				}
+				while (next == -1 && cursor < $vertexCount)
+				{
+					if (live[cursor] > 0) next = cursor;
+					cursor++;
+				}
+			}
+
+			fan = next;
+		}
+
+		return out;
+	}
+
+	/**
+	 * Renumbers vertices in order of first use by $indices (rewritten in place),
+	 * so vertex fetch walks memory mostly sequentially.
+	 * Vertices not referenced by any triangle are moved to the end.
+	 *
+	 * @return remap table, where remap[oldIndex] == newIndex
+	 */
+	public static int[] optimizeVertexFetch(int[] $indices, int $vertexCount)
+	{
+		int[] remap = new int[$vertexCount];
+		for (int i = 0; i < $vertexCount; i++) {
+			remap[i] = -1;
+		}
+
+		int next = 0;
+		for (int i = 0; i < $indices.length; i++)
+		{
+			int v = $indices[i];
+			if (remap[v] == -1) remap[v] = next++;
+			$indices[i] = remap[v];
+		}
+
+		for (int i = 0; i < $vertexCount; i++) {
+			if (remap[i] == -1) remap[i] = next++;
+		}
+
+		return remap;
+	}
+
+	/**
+	 * Returns a copy of a flat per-vertex array (eg, xyz positions) reordered by a remap table
+	 * from optimizeVertexFetch().
+	 */
+	public static float[] remapVertexData(float[] $data, int $componentsPerVertex, int[] $remap)
+	{
+		float[] out = new float[$data.length];
+		int n = $componentsPerVertex;
+		int count = Math.min($remap.length, $data.length / n);
+
+		for (int i = 0; i < count; i++) {
+			System.arraycopy($data, i * n, out, $remap[i] * n, n);
+		}
+		return out;
+	}
+
+	/**
+	 * Average cache miss ratio: simulated post-transform (FIFO) cache misses per triangle.
+	 * 3.0 means no reuse at all; well-optimized meshes land around 0.6 - 0.8.
+	 */
+	public static float acmr(int[] $indices, int $vertexCount, int $cacheSize)
+	{
+		int numTris = $indices.length / 3;
+		if (numTris == 0) return 0;
+
+		// A vertex is in a FIFO cache if fewer than $cacheSize misses happened since it was inserted
+
+		int[] insertedAt = new int[$vertexCount];
+		for (int i = 0; i < $vertexCount; i++) {
+			insertedAt[i] = Integer.MIN_VALUE / 2;
+		}
+
+		int misses = 0;
+		for (int i = 0; i < numTris * 3; i++)
+		{
+			int v = $indices[i];
+			if (misses - insertedAt[v] >= $cacheSize)
+			{
+				insertedAt[v] = misses;
+				misses++;
+			}
+		}
+
+		return (float)misses / numTris;
+	}
+}
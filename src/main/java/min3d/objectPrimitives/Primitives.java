@@ -0,0 +1,223 @@
+package min3d.objectPrimitives;
+
+import java.lang.ref.WeakReference;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import min3d.core.FacesBufferedList;
+import min3d.core.Object3d;
+import min3d.core.Object3dContainer;
+import min3d.core.TextureList;
+import min3d.core.Vertices;
+import min3d.vos.Color4;
+
+/**
+ * Makes primitives that share their geometry. The first request for a given
+ * shape and parameters builds it as usual; later ones get a new object around
+ * the same Vertices and FacesBufferedList, so 500 identical spheres hold one
+ * copy of the buffers.
+ *
+ * Shared geometry is marked with share(), which makes it read-only, and
+ * Object3d.clear() leaves it be. Each object still has its own position,
+ * rotation, scale, textures and flags. Clone an object's vertices and faces
+ * to change its shape alone.
+ *
+ * Geometry stays cached while any object uses it (held weakly), and the most
+ * recently asked-for shapes are kept even when none does, so shapes that come
+ * and go aren't rebuilt each time.
+ *
+ * Eg,
+ * 		for (int i = 0; i < 500; i++) {
+ * 			Object3dContainer ball = Primitives.sphere(1, 20, 15, color);
+ * 			scene.addChild(ball);
+ * 		}
+ */
+public class Primitives
+{
+	private static final int MAX_RECENT = 16;
+
+	private static final HashMap<Key, Shared> _shared = new HashMap<Key, Shared>();
+
+	private static final LinkedHashMap<Key, Object3d> _recent = new LinkedHashMap<Key, Object3d>(MAX_RECENT, 0.75f, true) {
+		@Override
+		protected boolean removeEldestEntry(Map.Entry<Key, Object3d> $eldest) {
+			return size() > MAX_RECENT;
+		}
+	};
+
+	public static Object3dContainer sphere(float $radius, int $columns, int $rows, Color4 $color, boolean $useUvs, boolean $useNormals, boolean $useVertexColors)
+	{
+		Key key = new Key("sphere", $color, $radius, $columns, $rows, flags($useUvs, $useNormals, $useVertexColors));
+		Object3d geometry = find(key);
+		if (geometry == null) {
+			Sphere sphere = new Sphere($radius, $columns, $rows, $useUvs, $useNormals, $useVertexColors, $color);
+			geometry = keep(key, sphere);
+		}
+		return instance(geometry, $color);
+	}
+
+	public static Object3dContainer sphere(float $radius, int $columns, int $rows, Color4 $color)
+	{
+		return sphere($radius, $columns, $rows, $color, true, true, true);
+	}
+
+	public static Object3dContainer sphere(float $radius, int $columns, int $rows)
+	{
+		return sphere($radius, $columns, $rows, new Color4());
+	}
+
+	public static Object3dContainer box(float $width, float $height, float $depth, Color4 $color)
+	{
+		Key key = new Key("box", $color, $width, $height, $depth);
+		Object3d geometry = find(key);
+		if (geometry == null) {
+			geometry = keep(key, new Box($width, $height, $depth, $color));
+		}
+		return instance(geometry, $color);
+	}
+
+	public static Object3dContainer torus(float $largeRadius, float $smallRadius, int $segmentsW, int $segmentsH, Color4 $color)
+	{
+		Key key = new Key("torus", $color, $largeRadius, $smallRadius, $segmentsW, $segmentsH);
+		Object3d geometry = find(key);
+		if (geometry == null) {
+			geometry = keep(key, new Torus($largeRadius, $smallRadius, $segmentsW, $segmentsH, $color));
+		}
+		return instance(geometry, $color);
+	}
+
+	public static Object3dContainer rectangle(float $width, float $height, int $segsW, int $segsH, Color4 $color)
+	{
+		Key key = new Key("rectangle", $color, $width, $height, $segsW, $segsH);
+		Object3d geometry = find(key);
+		if (geometry == null) {
+			geometry = keep(key, new Rectangle($width, $height, $segsW, $segsH, $color));
+		}
+		return instance(geometry, $color);
+	}
+
+	public static Object3dContainer hollowCylinder(float $radiusOuter, float $radiusInner, float $height, int $segs)
+	{
+		Key key = new Key("hollowCylinder", null, $radiusOuter, $radiusInner, $height, $segs);
+		Object3d geometry = find(key);
+		if (geometry == null) {
+			geometry = keep(key, new HollowCylinder($radiusOuter, $radiusInner, $height, $segs));
+		}
+		return instance(geometry, null);
+	}
+
+	/**
+	 * Forgets all cached geometry. Objects already made keep theirs.
+	 */
+	public static synchronized void clearCache()
+	{
+		_shared.clear();
+		_recent.clear();
+	}
+
+	//
+
+	private static synchronized Object3d find(Key $key)
+	{
+		Object3d geometry = _recent.get($key);
+		if (geometry != null) return geometry;
+
+		Shared shared = _shared.get($key);
+		if (shared == null) return null;
+
+		Vertices vertices = shared.vertices.get();
+		FacesBufferedList faces = shared.faces.get();
+		if (vertices == null || faces == null) {
+			_shared.remove($key);
+			return null;
+		}
+		geometry = new Object3d(vertices, faces, null);
+		_recent.put($key, geometry);
+		return geometry;
+	}
+
+	/**
+	 * Shares $built's geometry under $key; $built itself is only a holder from here on
+	 */
+	private static synchronized Object3d keep(Key $key, Object3d $built)
+	{
+		// another thread may have built the same shape meanwhile
+		Object3d existing = find($key);
+		if (existing != null) return existing;
+
+		// drop what no object uses any more
+		Iterator<Shared> it = _shared.values().iterator();
+		while (it.hasNext()) {
+			Shared shared = it.next();
+			if (shared.vertices.get() == null || shared.faces.get() == null) it.remove();
+		}
+
+		$built.vertices().share();
+		$built.faces().share();
+		_shared.put($key, new Shared($built.vertices(), $built.faces()));
+		_recent.put($key, $built);
+		return $built;
+	}
+
+	private static Object3dContainer instance(Object3d $geometry, Color4 $color)
+	{
+		Object3dContainer o = new Object3dContainer($geometry.vertices(), $geometry.faces(), new TextureList());
+		if ($color != null) o.defaultColor($color);
+		return o;
+	}
+
+	private static int flags(boolean $useUvs, boolean $useNormals, boolean $useVertexColors)
+	{
+		return ($useUvs ? 1 : 0) | ($useNormals ? 2 : 0) | ($useVertexColors ? 4 : 0);
+	}
+
+	private static final class Shared
+	{
+		final WeakReference<Vertices> vertices;
+		final WeakReference<FacesBufferedList> faces;
+
+		Shared(Vertices $vertices, FacesBufferedList $faces)
+		{
+			vertices = new WeakReference<Vertices>($vertices);
+			faces = new WeakReference<FacesBufferedList>($faces);
+		}
+	}
+
+	/**
+	 * A primitive's type and everything its geometry is built from
+	 */
+	private static final class Key
+	{
+		private final String _type;
+		private final float[] _params;
+
+		Key(String $type, Color4 $color, float... $params)
+		{
+			_type = $type;
+			_params = Arrays.copyOf($params, $params.length + 4);
+			if ($color != null) {
+				_params[$params.length] = $color.r;
+				_params[$params.length + 1] = $color.g;
+				_params[$params.length + 2] = $color.b;
+				_params[$params.length + 3] = $color.a;
+			}
+		}
+
+		@Override
+		public boolean equals(Object $o)
+		{
+			if (! ($o instanceof Key)) return false;
+			Key k = (Key)$o;
+			return _type.equals(k._type) && Arrays.equals(_params, k._params);
+		}
+
+		@Override
+		public int hashCode()
+		{
+			return _type.hashCode() * 31 + Arrays.hashCode(_params);
+		}
+	}
+}
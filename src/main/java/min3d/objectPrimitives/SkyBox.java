@@ -11,7 +11,7 @@ public class SkyBox extends Object3dContainer {
 	private float halfSize;
 	private int quality;
 	private Color4 color;
-	private Rectangle[] faces;
+	private Object3dContainer[] faces;
 	
 	public enum Face {
 		North,
@@ -33,13 +33,14 @@ public class SkyBox extends Object3dContainer {
 	
 	private void build() {
 		color = new Color4();
-		faces = new Rectangle[6];
-		Rectangle north = new Rectangle(size, size, quality, quality, color);
-		Rectangle east = new Rectangle(size, size, quality, quality, color);
-		Rectangle south = new Rectangle(size, size, quality, quality, color);
-		Rectangle west = new Rectangle(size, size, quality, quality, color);
-		Rectangle up = new Rectangle(size, size, quality, quality, color);
-		Rectangle down = new Rectangle(size, size, quality, quality, color);
+		faces = new Object3dContainer[6];
+		// the six sides are one shared rectangle, turned into place
+		Object3dContainer north = Primitives.rectangle(size, size, quality, quality, color);
+		Object3dContainer east = Primitives.rectangle(size, size, quality, quality, color);
+		Object3dContainer south = Primitives.rectangle(size, size, quality, quality, color);
+		Object3dContainer west = Primitives.rectangle(size, size, quality, quality, color);
+		Object3dContainer up = Primitives.rectangle(size, size, quality, quality, color);
+		Object3dContainer down = Primitives.rectangle(size, size, quality, quality, color);
 		
 		north.position().z = halfSize;
 		north.lightingEnabled(false);
@@ -2,8 +2,8 @@ package min3d.objectPrimitives;
 
 import min3d.Utils;
 import min3d.core.Object3dContainer;
+import min3d.core.Workers;
 import min3d.vos.Color4;
-import min3d.vos.Number3d;
 
 
 /**
@@ -12,12 +12,20 @@ import min3d.vos.Number3d;
  */
 public class Sphere extends Object3dContainer
 {
+	// vertices per parallel chunk of rows; smaller spheres are built inline
+	private static final int MIN_CHUNK_VERTICES = 4096;
+	
 	private float _radius;
 	private int _cols;
 	private int _rows;
 	
 	
 	public Sphere(float $radius, int $columns, int $rows, Boolean $useUvs, Boolean $useNormals, Boolean $useVertexColors)
+	{
+		this($radius, $columns, $rows, $useUvs, $useNormals, $useVertexColors, null);
+	}
+
+	public Sphere(float $radius, int $columns, int $rows, Boolean $useUvs, Boolean $useNormals, Boolean $useVertexColors, Color4 color)
 	{
 		super(
 			($columns+1) * ($rows+1),
@@ -26,6 +34,7 @@ public class Sphere extends Object3dContainer
 			$useNormals,
 			$useVertexColors
 		);
+		if (color != null) defaultColor(color);
 
 		_cols = $columns;
 		_rows = $rows;
@@ -36,84 +45,47 @@ public class Sphere extends Object3dContainer
 
 	public Sphere(float $radius, int $columns, int $rows)
 	{
-		super(
-				($columns+1) * ($rows+1),
-				$columns * $rows * 2,
-				true,
-				true,
-				true
-			);
-
-			_cols = $columns;
-			_rows = $rows;
-			_radius = $radius;
-			
-			build();
+		this($radius, $columns, $rows, true, true, true, null);
 	} 
 	
 	public Sphere(float $radius, int $columns, int $rows, Color4 color)
 	{
-		super(
-				($columns+1) * ($rows+1),
-				$columns * $rows * 2,
-				true,
-				true,
-				true
-		);
-		defaultColor(color);
-		_cols = $columns;
-		_rows = $rows;
-		_radius = $radius;
-		
-		build();
+		this($radius, $columns, $rows, true, true, true, color);
 	}
 	
 	private void build()
 	{
-		int r, c;
-		
-		Number3d n = new Number3d();
-		Number3d pos = new Number3d();
-		Number3d posFull = new Number3d();
-
 		if( defaultColor() == null ) defaultColor(new Color4());
-		// Build vertices
-				
-		for (r = 0; r <= _rows; r++)
-		{
-			float v = (float)r / (float)_rows; // [0,1]
-			float theta1 = v * (float)Math.PI; // [0,PI]
-
-			n.setAll(0,1,0);
-			n.rotateZ(theta1); 
+		Color4 color = defaultColor();
 
-			// each 'row' assigned random color. for the hell of it.
-			
-			for (c = 0; c <= _cols; c++)
-			{
-				float u = (float)c / (float)_cols; // [0,1]
-				float theta2 = u * (float)(Math.PI * 2f); // [0,2PI]
-				pos.setAllFrom(n);
-				pos.rotateY(theta2);
-				
-				posFull.setAllFrom(pos);
-				posFull.multiply(_radius);
-				
-				
-				this.vertices().addVertex(posFull.x,posFull.y,posFull.z,  u,v,  pos.x,pos.y,pos.z,  defaultColor().r,defaultColor().g,defaultColor().b,defaultColor().a);
+		// Build vertices, a chunk of rows per worker
+		
+		final int colLength = _cols + 1;
+		final float[] points = new float[(_rows + 1) * colLength * 3];
+		final float[] normals = new float[points.length];
+		final float[] uvs = new float[(_rows + 1) * colLength * 2];
+		
+		Workers.forRange(_rows + 1, Math.max(1, MIN_CHUNK_VERTICES / colLength), new Workers.RangeTask() {
+			public void run(int $from, int $to) {
+				buildRows($from, $to, points, normals, uvs);
 			}
+		});
+		
+		for (int i = 0; i < uvs.length / 2; i++)
+		{
+			this.vertices().addVertex(
+				points[i*3],points[i*3+1],points[i*3+2],  uvs[i*2],uvs[i*2+1],  normals[i*3],normals[i*3+1],normals[i*3+2],
+				color.r,color.g,color.b,color.a);
 		}
 
 
 		// Add faces
 
-		int colLength = _cols + 1;
-		
-		for (r = 0; r < _rows; r++)
+		for (int r = 0; r < _rows; r++)
 		{
 			int offset = r * colLength; 
 			
-			for (c = 0; c < _cols; c++)
+			for (int c = 0; c < _cols; c++)
 			{
 				int ul = offset  +  c;
 				int ur = offset  +  c+1;
@@ -124,4 +96,38 @@ public class Sphere extends Object3dContainer
 			}
 		}
 	}
+	
+	/**
+	 * Fills rows [$from, $to) of the flat vertex arrays
+	 */
+	private void buildRows(int $from, int $to, float[] $points, float[] $normals, float[] $uvs)
+	{
+		// Number3d's rotations share a static temp, so they're written out here:
+		// (0,1,0) turned by theta1 about z, then by theta2 about y
+		for (int r = $from; r < $to; r++)
+		{
+			float v = (float)r / (float)_rows; // [0,1]
+			float theta1 = v * (float)Math.PI; // [0,PI]
+			float nx = -(float)Math.sin(theta1);
+			float ny = (float)Math.cos(theta1);
+
+			for (int c = 0; c <= _cols; c++)
+			{
+				float u = (float)c / (float)_cols; // [0,1]
+				float theta2 = u * (float)(Math.PI * 2f); // [0,2PI]
+				float x = nx * (float)Math.cos(theta2);
+				float z = -nx * (float)Math.sin(theta2);
+				
+				int i = r * (_cols + 1) + c;
+				$points[i*3] = x * _radius;
+				$points[i*3+1] = ny * _radius;
+				$points[i*3+2] = z * _radius;
+				$normals[i*3] = x;
+				$normals[i*3+1] = ny;
+				$normals[i*3+2] = z;
+				$uvs[i*2] = u;
+				$uvs[i*2+1] = v;
+			}
+		}
+	}
 }
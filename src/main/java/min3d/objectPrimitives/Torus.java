@@ -1,9 +1,9 @@
 package min3d.objectPrimitives;
 
 import min3d.core.Object3dContainer;
+import min3d.core.Workers;
 import min3d.vos.Color4;
 import min3d.vos.Number3d;
-import min3d.vos.Uv;
 import min3d.vos.Vertex3d;
 
 /**
@@ -22,6 +22,8 @@ import min3d.vos.Vertex3d;
 public class Torus extends Object3dContainer {
 	private final int MIN_SEGMENTSW = 3;
 	private final int MIN_SEGMENTSH = 2;
+	// vertices per parallel chunk of rings; smaller tori are built inline
+	private static final int MIN_CHUNK_VERTICES = 4096;
 	
 	private float largeRadius;
 	private float smallRadius;
@@ -51,6 +53,39 @@ public class Torus extends Object3dContainer {
 	}
 	
 	private void build()
+	{
+		// Build each ring's vertices on a worker, then add them in order
+		
+		final int count = segmentsW * segmentsH * 4;
+		final float[] points = new float[count * 3];
+		final float[] normals = new float[count * 3];
+		final float[] uvs = new float[count * 2];
+		
+		Workers.forRange(segmentsW, Math.max(1, MIN_CHUNK_VERTICES / (segmentsH * 4)), new Workers.RangeTask() {
+			public void run(int $from, int $to) {
+				buildRings($from, $to, points, normals, uvs);
+			}
+		});
+		
+		Color4 color = defaultColor();
+		for (int i = 0; i < count; i++)
+		{
+			vertices().addVertex(
+				points[i*3], points[i*3+1], points[i*3+2],  uvs[i*2], uvs[i*2+1],  normals[i*3], normals[i*3+1], normals[i*3+2],
+				color.r, color.g, color.b, color.a);
+		}
+		
+		for (int vcount = 0; vcount < count; vcount += 4)
+		{
+			faces().add(vcount, vcount+1, vcount+2);
+			faces().add(vcount, vcount+2, vcount+3);
+		}
+	}
+	
+	/**
+	 * Fills the quads of rings [$from, $to) into the flat vertex arrays
+	 */
+	private void buildRings(int $from, int $to, float[] $points, float[] $normals, float[] $uvs)
 	{
 		float r1 = largeRadius;
 		float r2 = smallRadius;
@@ -58,38 +93,45 @@ public class Torus extends Object3dContainer {
 		int steps2 = segmentsH;
 		float step1r = (float) ((2.0 * Math.PI) / steps1);
 		float step2r = (float) ((2.0 * Math.PI) / steps2);
-		float a1a = 0;
-		float a1b = step1r;
-		int vcount = 0;
 		
-		for(float s=0; s<steps1; s++, a1a=a1b, a1b+=step1r) {
+		for(int s=$from; s<$to; s++) {
+			float a1a = s * step1r;
+			float a1b = a1a + step1r;
 			float a2a = 0;
 			float a2b = step2r;
 			
-			for(float s2=0; s2<steps2; s2++, a2a=a2b, a2b+=step2r) {
+			for(int s2=0; s2<steps2; s2++, a2a=a2b, a2b+=step2r) {
 				Vertex3d v0 = getVertex(a1a, r1, a2a, r2);
 				Vertex3d v1 = getVertex(a1b, r1, a2a, r2);
 				Vertex3d v2 = getVertex(a1b, r1, a2b, r2);
 				Vertex3d v3 = getVertex(a1a, r1, a2b, r2);
 				
-				float ux1 = s/steps1;
-				float ux0 = (s+1)/steps1;
-				float uy0 = s2/steps2;
-				float uy1 = (s2+1)/steps2;
+				float ux1 = (float)s/steps1;
+				float ux0 = (float)(s+1)/steps1;
+				float uy0 = (float)s2/steps2;
+				float uy1 = (float)(s2+1)/steps2;
 
-				vertices().addVertex(v0.position, new Uv(1-ux1, uy0), v0.normal, defaultColor());
-				vertices().addVertex(v1.position, new Uv(1-ux0, uy0), v1.normal, defaultColor());
-				vertices().addVertex(v2.position, new Uv(1-ux0, uy1), v2.normal, defaultColor());
-				vertices().addVertex(v3.position, new Uv(1-ux1, uy1), v3.normal, defaultColor());
-				
-				faces().add(vcount, vcount+1, vcount+2);
-				faces().add(vcount, vcount+2, vcount+3);
-				
-				vcount += 4;
+				int i = (s * steps2 + s2) * 4;
+				put(i, v0, 1-ux1, uy0, $points, $normals, $uvs);
+				put(i + 1, v1, 1-ux0, uy0, $points, $normals, $uvs);
+				put(i + 2, v2, 1-ux0, uy1, $points, $normals, $uvs);
+				put(i + 3, v3, 1-ux1, uy1, $points, $normals, $uvs);
 			}
 		}
 	}
 	
+	private static void put(int $i, Vertex3d $v, float $u, float $uvV, float[] $points, float[] $normals, float[] $uvs)
+	{
+		$points[$i*3] = $v.position.x;
+		$points[$i*3+1] = $v.position.y;
+		$points[$i*3+2] = $v.position.z;
+		$normals[$i*3] = $v.normal.x;
+		$normals[$i*3+1] = $v.normal.y;
+		$normals[$i*3+2] = $v.normal.z;
+		$uvs[$i*2] = $u;
+		$uvs[$i*2+1] = $uvV;
+	}
+	
 	private Vertex3d getVertex(float a1, float r1, float a2, float r2) {
 		Vertex3d vertex = new Vertex3d();
 		vertex.normal = new Number3d();
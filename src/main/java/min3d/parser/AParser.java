@@ -1,9 +1,14 @@
 package min3d.parser;
 
+import java.io.ByteArrayOutputStream;
+import java.io.FileInputStream;
 import java.io.FileNotFoundException;
 import java.io.FileOutputStream;
 import java.io.IOException;
 import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
 import java.util.ArrayList;
 import java.util.Collections;
 import java.util.Comparator;
@@ -13,10 +18,13 @@ import min3d.Min3d;
 import min3d.Shared;
 import min3d.Utils;
 import min3d.animation.AnimationObject3d;
+import min3d.core.Object3d;
 import min3d.core.Object3dContainer;
+import min3d.core.Workers;
 import min3d.vos.Color4;
 import min3d.vos.Number3d;
 import min3d.vos.Uv;
+import android.content.res.AssetFileDescriptor;
 import android.content.res.Resources;
 import android.graphics.Bitmap;
 import android.graphics.Bitmap.Config;
@@ -42,6 +50,7 @@ public abstract class AParser implements IParser {
 	protected ArrayList<Number3d> normals;
 	protected boolean generateMipMap;
 	protected HashMap<String, Material> materialMap;
+	protected float[] lodRatios;
 	
 	public AParser()
 	{
@@ -87,6 +96,20 @@ public abstract class AParser implements IParser {
 		return null;
 	}
 
+	public void lodRatios(float[] $ratios) {
+		lodRatios = $ratios;
+	}
+
+	/**
+	 * Builds the object's LODs if lodRatios() was set. Concrete parsers call this
+	 * on each object they create.
+	 */
+	protected Object3d withLods(Object3d obj) {
+		if (lodRatios != null && obj.faces().size() > 0)
+			obj.buildLods(lodRatios);
+		return obj;
+	}
+
 	protected String readString(InputStream stream) throws IOException {
 		String result = new String();
 		byte inByte;
@@ -108,6 +131,56 @@ public abstract class AParser implements IParser {
 		return Float.intBitsToFloat(readInt(stream));
 	}
 
+	/**
+	 * The whole resource as a little-endian buffer. Memory-maps it when it's
+	 * stored uncompressed in the package, otherwise reads it in one go.
+	 */
+	protected ByteBuffer readResource() throws IOException {
+		int id = resources.getIdentifier(resourceID, null, null);
+		ByteBuffer buffer;
+
+		AssetFileDescriptor fd = null;
+		try {
+			fd = resources.openRawResourceFd(id);
+		} catch (Resources.NotFoundException e) {
+			// compressed, so there's no file range to map
+		}
+
+		if (fd != null && fd.getLength() >= 0) {
+			FileInputStream in = fd.createInputStream();
+			try {
+				buffer = in.getChannel().map(FileChannel.MapMode.READ_ONLY, fd.getStartOffset(), fd.getLength());
+			} finally {
+				in.close();
+			}
+		} else {
+			if (fd != null) fd.close();
+			InputStream in = resources.openRawResource(id);
+			try {
+				ByteArrayOutputStream out = new ByteArrayOutputStream(Math.max(in.available(), 8192));
+				byte[] chunk = new byte[8192];
+				int n;
+				while ((n = in.read(chunk)) > 0)
+					out.write(chunk, 0, n);
+				buffer = ByteBuffer.wrap(out.toByteArray());
+			} finally {
+				in.close();
+			}
+		}
+		return buffer.order(ByteOrder.LITTLE_ENDIAN);
+	}
+
+	/**
+	 * A NUL-terminated string at the buffer's position, which is left after the NUL
+	 */
+	protected String readString(ByteBuffer buffer) {
+		StringBuilder result = new StringBuilder();
+		byte inByte;
+		while (buffer.hasRemaining() && (inByte = buffer.get()) != 0)
+			result.append((char) (inByte & 0xff));
+		return result.toString();
+	}
+
 	/**
 	 * Override this in the concrete parser
 	 */
@@ -170,6 +243,8 @@ public abstract class AParser implements IParser {
 	/**
 	 * When a model contains per-face textures a texture atlas is created. This
 	 * combines multiple textures into one and re-calculates the UV coordinates.
+	 * Models drawn as sub-meshes use uploadTextures() instead, which keeps one
+	 * texture per bitmap.
 	 * 
 	 * @author dennis.ippel
 	 * 
@@ -211,17 +286,40 @@ public abstract class AParser implements IParser {
 
 				Log.d(Min3d.TAG, "Adding texture " + ba.resourceID);
 				
-				Bitmap b = Utils.makeBitmapFromResourceId(bmResourceID);
+				// decoded in generate(), once per resource
 				ba.useForAtlasDimensions = true;
-				ba.bitmap = b;
-			}
-			else
-			{
-				ba.bitmap = existingBA.bitmap;
 			}
 
 			bitmaps.add(ba);
 		}
+
+		/**
+		 * Decodes each resource's bitmap, in parallel, and hands it to the
+		 * assets that share the resource
+		 */
+		private void decode() {
+			final ArrayList<BitmapAsset> pending = new ArrayList<BitmapAsset>();
+			for (int i = 0; i < bitmaps.size(); i++) {
+				BitmapAsset ba = bitmaps.get(i);
+				if (ba.useForAtlasDimensions && ba.bitmap == null)
+					pending.add(ba);
+			}
+
+			Workers.forRange(pending.size(), 1, new Workers.RangeTask() {
+				public void run(int $from, int $to) {
+					for (int i = $from; i < $to; i++) {
+						BitmapAsset ba = pending.get(i);
+						ba.bitmap = Utils.makeBitmapFromResourceId(resources.getIdentifier(ba.resourceID, null, null));
+					}
+				}
+			});
+
+			for (int i = 0; i < bitmaps.size(); i++) {
+				BitmapAsset ba = bitmaps.get(i);
+				if (! ba.useForAtlasDimensions)
+					ba.bitmap = getBitmapAssetByResourceID(ba.resourceID).bitmap;
+			}
+		}
 		
 		public BitmapAsset getBitmapAssetByResourceID(String resourceID)
 		{
@@ -240,9 +338,10 @@ public abstract class AParser implements IParser {
 		 * Generates a new texture atlas
 		 */
 		public void generate() {
-			Collections.sort(bitmaps, new BitmapHeightComparer());
-
 			if(bitmaps.size() == 0) return;
+
+			decode();
+			Collections.sort(bitmaps, new BitmapHeightComparer());
 			
 			BitmapAsset largestBitmap = bitmaps.get(0);
 			int totalWidth = 0;
@@ -306,6 +405,35 @@ public abstract class AParser implements IParser {
 			setId(Shared.textureManager().getNewAtlasId());
 		}
 
+		/**
+		 * Uploads each resource's bitmap as its own texture, with the resource ID as its
+		 * TextureManager id, instead of generating an atlas. Resources already uploaded,
+		 * eg by an earlier model, are shared. UV coordinates are left as they are.
+		 */
+		public void uploadTextures(boolean generateMipMap) {
+			decode();
+			for (int i = 0; i < bitmaps.size(); i++) {
+				BitmapAsset ba = bitmaps.get(i);
+				if (! ba.useForAtlasDimensions) continue;
+				
+				if (! Shared.textureManager().contains(ba.resourceID))
+					Shared.textureManager().addTextureId(ba.bitmap, ba.resourceID, generateMipMap);
+				ba.bitmap.recycle();
+				ba.uOffset = 0;
+				ba.vOffset = 0;
+				ba.uScale = 1;
+				ba.vScale = 1;
+			}
+		}
+
+		/**
+		 * Texture id of the material's bitmap after uploadTextures(), or null if it has none
+		 */
+		public String getTextureId(String materialKey) {
+			BitmapAsset ba = materialKey != null ? getBitmapAssetByName(materialKey) : null;
+			return ba != null ? ba.resourceID : null;
+		}
+
 		/**
 		 * Returns the generated texture atlas bitmap
 		 * 
@@ -367,7 +495,8 @@ public abstract class AParser implements IParser {
 			int numBitmaps = bitmaps.size();
 
 			for (int i = 0; i < numBitmaps; i++) {
-				bitmaps.get(i).bitmap.recycle();
+				if (bitmaps.get(i).bitmap != null)
+					bitmaps.get(i).bitmap.recycle();
 			}
 			
 			if(atlas != null) atlas.recycle();
@@ -24,4 +24,10 @@ public interface IParser {
 	 * @return
 	 */
 	public AnimationObject3d getParsedAnimationObject();
+	/**
+	 * Gives each object returned by getParsedObject() coarser LODs, one per ratio
+	 * (see Object3d.buildLods()). Null, the default, builds none.
+	 * Simplifying is slow for big meshes, so parse off the render thread when this is set.
+	 */
+	public void lodRatios(float[] $ratios);
 }
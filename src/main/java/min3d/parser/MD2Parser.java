@@ -1,15 +1,14 @@
 package min3d.parser;
 
-import java.io.BufferedInputStream;
-import java.io.ByteArrayInputStream;
 import java.io.IOException;
-import java.io.InputStream;
-import java.util.ArrayList;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
 
 import min3d.Min3d;
 import min3d.Shared;
 import min3d.animation.AnimationObject3d;
 import min3d.animation.KeyFrame;
+import min3d.core.Workers;
 import min3d.vos.Number3d;
 import min3d.vos.Uv;
 import android.content.res.Resources;
@@ -53,43 +52,64 @@ public class MD2Parser extends AParser implements IParser {
 
 	@Override
 	public void parse() {
-		InputStream fileIn = resources.openRawResource(resources.getIdentifier(
-				resourceID, null, null));
-		BufferedInputStream stream = new BufferedInputStream(fileIn);
+		try {
+			parse(readResource());
+		} catch (IOException e) {
+			e.printStackTrace();
+		}
+	}
 
+	/**
+	 * Parses a whole .MD2 file, eg one memory-mapped from storage. Sections are
+	 * read in place through views of the buffer, without copying it.
+	 */
+	public void parse(ByteBuffer buffer) {
 		co = new ParseObjectData();
 		header = new MD2Header();
 
 		Log.d(Min3d.TAG, "Start parsing MD2 file");
 		try {
-			header.parse(stream);
-			frames = new KeyFrame[header.numFrames];
-			byte[] bytes = new byte[header.offsetEnd - 68];
-			stream.read(bytes);
-			getMaterials(stream, bytes);
-			getTexCoords(stream, bytes);
-			getFrames(stream, bytes);
-			getTriangles(stream, bytes);
+			buffer = buffer.slice().order(ByteOrder.LITTLE_ENDIAN);
+			header.parse(buffer);
+			getMaterials(buffer);
+			getTexCoords(buffer);
+			int[] indices = getTriangles(buffer);
+			getFrames(buffer, indices);
 		} catch (Exception e) {
 			e.printStackTrace();
 		}
 	}
 
-	private void getMaterials(BufferedInputStream stream, byte[] bytes)
-			throws IOException {
-		ByteArrayInputStream ba = new ByteArrayInputStream(bytes,
-				header.offsetSkins - 68, bytes.length - header.offsetSkins);
-		LittleEndianDataInputStream is = new LittleEndianDataInputStream(ba);
+	/**
+	 * A view of the file from $offset, little-endian like the file
+	 */
+	private static ByteBuffer at(ByteBuffer buffer, int offset) {
+		ByteBuffer view = buffer.duplicate().order(ByteOrder.LITTLE_ENDIAN);
+		view.position(offset);
+		return view;
+	}
+
+	private static String readString(ByteBuffer buffer, int length) throws IOException {
+		byte[] b = new byte[length];
+		buffer.get(b);
+		return new String(b, "US-ASCII");
+	}
+
+	private void getMaterials(ByteBuffer buffer) throws IOException {
+		ByteBuffer is = at(buffer, header.offsetSkins);
 
 		for (int i = 0; i < header.numSkins; i++) {
-			String skinPath = is.readString(64);
+			String skinPath = readString(is, 64);
+			int end = skinPath.indexOf('\0');
+			if (end > -1)
+				skinPath = skinPath.substring(0, end);
 			StringBuffer texture = new StringBuffer(packageID);
 			texture.append(":drawable/");
 
 			skinPath = skinPath.substring(skinPath.lastIndexOf("/") + 1,
 					skinPath.length());
 			StringBuffer textureName = new StringBuffer(skinPath.toLowerCase());
-			int dotIndex = textureName.lastIndexOf("");
+			int dotIndex = textureName.lastIndexOf(".");
 			if (dotIndex > -1)
 				texture.append(textureName.substring(0, dotIndex));
 			else
@@ -101,94 +121,105 @@ public class MD2Parser extends AParser implements IParser {
 		}
 	}
 
-	private void getTexCoords(BufferedInputStream stream, byte[] bytes)
-			throws IOException {
-		ByteArrayInputStream ba = new ByteArrayInputStream(bytes,
-				header.offsetTexCoord - 68, bytes.length
-						- header.offsetTexCoord);
-		LittleEndianDataInputStream is = new LittleEndianDataInputStream(ba);
+	private void getTexCoords(ByteBuffer buffer) {
+		short[] st = new short[header.numTexCoord * 2];
+		at(buffer, header.offsetTexCoord).asShortBuffer().get(st);
+		float skinWidth = header.skinWidth;
+		float skinHeight = header.skinHeight;
+		co.texCoords.ensureCapacity(header.numTexCoord);
 
-		for (int i = 0; i < header.numTexCoord; i++) {
-			co.texCoords.add(new Uv((float)is.readShort() / (float)header.skinWidth, (float)is.readShort() / (float)header.skinHeight));
+		for (int i = 0; i < st.length; i += 2) {
+			co.texCoords.add(new Uv(st[i] / skinWidth, st[i + 1] / skinHeight));
 		}
 	}
 
-	private void getFrames(BufferedInputStream stream, byte[] bytes)
-			throws IOException {
-		ByteArrayInputStream ba = new ByteArrayInputStream(bytes,
-				header.offsetFrames - 68, bytes.length - header.offsetFrames);
-		LittleEndianDataInputStream is = new LittleEndianDataInputStream(ba);
-		ArrayList<Number3d> firstFrameVerts = new ArrayList<Number3d>();
-
-		for (int i = 0; i < header.numFrames; i++) {
-			float scaleX = is.readFloat();
-			float scaleY = is.readFloat();
-			float scaleZ = is.readFloat();
-			float translateX = is.readFloat();
-			float translateY = is.readFloat();
-			float translateZ = is.readFloat();
-			String name = is.readString(16);
-			
-			if(name.indexOf("_") > 0)
-				name = name.subSequence(0, name.lastIndexOf("_")).toString();
-			else
-				name = name.substring(0, 6).replaceAll("[0-9]{1,2}$", "");
-			
-			Log.d(Min3d.TAG, "frame name: " + name);
-			float vertices[] = new float[header.numVerts * 3];
-			int index = 0;
-
-			for (int j = 0; j < header.numVerts; j++) {
-				vertices[index++] = scaleX * is.readUnsignedByte() + translateX;
-				vertices[index++] = scaleY * is.readUnsignedByte() + translateY;
-				vertices[index++] = scaleZ * is.readUnsignedByte() + translateZ;
-				
-				int normalIndex = is.readUnsignedByte();
-				if (i == 0)
-					co.vertices.add(new Number3d(vertices[index - 3],
-							vertices[index - 2], vertices[index - 1]));
+	/**
+	 * Decodes the frames in parallel, each straight into its own keyframe,
+	 * expanded by $indices and with its normals. The first frame's vertices
+	 * are also the object's.
+	 */
+	private void getFrames(final ByteBuffer buffer, final int[] indices) {
+		final int numVerts = header.numVerts;
+		final float[] first = new float[numVerts * 3];
+		frames = new KeyFrame[header.numFrames];
+
+		Workers.forRange(header.numFrames, 1, new Workers.RangeTask() {
+			public void run(int $from, int $to) {
+				float[] transform = new float[6];
+				byte[] packed = new byte[numVerts * 4];
+
+				for (int i = $from; i < $to; i++) {
+					ByteBuffer is = at(buffer, header.offsetFrames + i * header.frameSize);
+					// scale xyz, translate xyz
+					is.asFloatBuffer().get(transform);
+					is.position(is.position() + 6 * 4);
+					String name;
+					try {
+						name = readString(is, 16);
+					} catch (IOException e) {
+						throw new RuntimeException(e);
+					}
+					if(name.indexOf("_") > 0)
+						name = name.subSequence(0, name.lastIndexOf("_")).toString();
+					else
+						name = name.substring(0, 6).replaceAll("[0-9]{1,2}$", "");
+
+					// x, y, z, normal index per vertex, unsigned bytes
+					is.get(packed);
+					float[] vertices = new float[numVerts * 3];
+					for (int j = 0, k = 0; j < packed.length; j += 4) {
+						vertices[k++] = transform[0] * (packed[j] & 0xff) + transform[3];
+						vertices[k++] = transform[1] * (packed[j + 1] & 0xff) + transform[4];
+						vertices[k++] = transform[2] * (packed[j + 2] & 0xff) + transform[5];
+					}
+					if (i == 0)
+						System.arraycopy(vertices, 0, first, 0, vertices.length);
+
+					KeyFrame frame = new KeyFrame(name, vertices);
+					frame.setIndices(indices);
+					frames[i] = frame;
+				}
 			}
+		});
 
-			frames[i] = new KeyFrame(name, vertices);
+		for (int i = 0; i < frames.length; i++)
+			Log.d(Min3d.TAG, "frame name: " + frames[i].getName());
+
+		if (frames.length > 0) {
+			co.vertices.ensureCapacity(numVerts);
+			for (int j = 0; j < first.length; j += 3)
+				co.vertices.add(new Number3d(first[j], first[j + 1], first[j + 2]));
 		}
 	}
 
-	private void getTriangles(BufferedInputStream stream, byte[] bytes)
-			throws IOException {
-		ByteArrayInputStream ba = new ByteArrayInputStream(bytes,
-				header.offsetTriangles - 68, bytes.length
-						- header.offsetTriangles);
-		LittleEndianDataInputStream is = new LittleEndianDataInputStream(ba);
+	private int[] getTriangles(ByteBuffer buffer) {
+		// vertex ids then uv ids, each triangle's in reverse
+		short[] data = new short[header.numTriangles * 6];
+		at(buffer, header.offsetTriangles).asShortBuffer().get(data);
 		int[] indices = new int[header.numTriangles*3];
-		int index = 0;
+		co.faces.ensureCapacity(header.numTriangles);
 
-		for (int i = 0; i < header.numTriangles; i++) {
+		for (int i = 0, index = 0; i < data.length; i += 6, index += 3) {
 			int[] vertexIDs = new int[3];
 			int[] uvIDS = new int[3];
 
-			indices[index+2] = vertexIDs[2] = is.readUnsignedShort();
-			indices[index+1] = vertexIDs[1] = is.readUnsignedShort();
-			indices[index] = vertexIDs[0] = is.readUnsignedShort();
-			index += 3;
-			uvIDS[2] = is.readUnsignedShort();
-			uvIDS[1] = is.readUnsignedShort();
-			uvIDS[0] = is.readUnsignedShort();
+			indices[index+2] = vertexIDs[2] = data[i] & 0xffff;
+			indices[index+1] = vertexIDs[1] = data[i + 1] & 0xffff;
+			indices[index] = vertexIDs[0] = data[i + 2] & 0xffff;
+			uvIDS[2] = data[i + 3] & 0xffff;
+			uvIDS[1] = data[i + 4] & 0xffff;
+			uvIDS[0] = data[i + 5] & 0xffff;
 
 			ParseObjectFace f = new ParseObjectFace();
 			f.v = vertexIDs;
 			f.uv = uvIDS;
-			f.hasn = f.hasuv = true;
+			f.hasuv = true;
 			f.faceLength = 3;
 			f.materialKey = currentTextureName;
 			co.numFaces++;
 			co.faces.add(f);
-			co.calculateFaceNormal(f);
-		}
-		
-		for(int j=0; j<header.numFrames; j++)
-		{
-			frames[j].setIndices(indices);
 		}
+		return indices;
 	}
 
 	private class MD2Header {
@@ -210,30 +241,30 @@ public class MD2Parser extends AParser implements IParser {
 		public int offsetGLCommands;
 		public int offsetEnd;
 
-		public void parse(InputStream stream) throws Exception {
-			id = readInt(stream);
-			version = readInt(stream);
+		public void parse(ByteBuffer buffer) throws Exception {
+			id = buffer.getInt();
+			version = buffer.getInt();
 
 			if (id != 844121161 || version != 8)
 				throw new Exception("This is not a valid MD2 file.");
 
-			skinWidth = readInt(stream);
-			skinHeight = readInt(stream);
-			frameSize = readInt(stream);
-
-			numSkins = readInt(stream);
-			numVerts = readInt(stream);
-			numTexCoord = readInt(stream);
-			numTriangles = readInt(stream);
-			numGLCommands = readInt(stream);
-			numFrames = readInt(stream);
-
-			offsetSkins = readInt(stream);
-			offsetTexCoord = readInt(stream);
-			offsetTriangles = readInt(stream);
-			offsetFrames = readInt(stream);
-			offsetGLCommands = readInt(stream);
-			offsetEnd = readInt(stream);
+			skinWidth = buffer.getInt();
+			skinHeight = buffer.getInt();
+			frameSize = buffer.getInt();
+
+			numSkins = buffer.getInt();
+			numVerts = buffer.getInt();
+			numTexCoord = buffer.getInt();
+			numTriangles = buffer.getInt();
+			numGLCommands = buffer.getInt();
+			numFrames = buffer.getInt();
+
+			offsetSkins = buffer.getInt();
+			offsetTexCoord = buffer.getInt();
+			offsetTriangles = buffer.getInt();
+			offsetFrames = buffer.getInt();
+			offsetGLCommands = buffer.getInt();
+			offsetEnd = buffer.getInt();
 		}
 	}
 }
@@ -1,16 +1,15 @@
 package min3d.parser;
 
-import java.io.BufferedInputStream;
 import java.io.IOException;
-import java.io.InputStream;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
 
 import min3d.Min3d;
-import min3d.Shared;
 import min3d.core.Object3dContainer;
 import min3d.vos.Number3d;
 import min3d.vos.Uv;
 import android.content.res.Resources;
-import android.graphics.Bitmap;
 import android.util.Log;
 
 public class Max3DSParser extends AParser implements IParser {
@@ -27,9 +26,6 @@ public class Max3DSParser extends AParser implements IParser {
 	private final int TEX_FILENAME = 0xA300;
 	private final int MATERIAL = 0xAFFF;
 
-	private int chunkID;
-	private int chunkEndOffset;
-	private boolean endReached;
 	private String currentObjName;
 
 	public Max3DSParser(Resources resources, String resourceID, boolean generateMipMap) {
@@ -38,18 +34,28 @@ public class Max3DSParser extends AParser implements IParser {
 
 	@Override
 	public void parse() {
-		InputStream fileIn = resources.openRawResource(resources.getIdentifier(
-				resourceID, null, null));
-		BufferedInputStream stream = new BufferedInputStream(fileIn);
-		
+		try {
+			parse(readResource());
+		} catch (IOException e) {
+			e.printStackTrace();
+		}
+	}
+
+	/**
+	 * Parses a whole .3DS file, eg one memory-mapped from storage. Chunks are
+	 * walked by their lengths, so the ones not needed are skipped without
+	 * reading them.
+	 */
+	public void parse(ByteBuffer buffer) {
 		Log.d(Min3d.TAG, "Start parsing object");
-		
+
+		buffer.order(ByteOrder.LITTLE_ENDIAN);
 		co = new ParseObjectData();
 		parseObjects.add(co);
 
 		try {
-			readHeader(stream);
-			if(chunkID != IDENTIFIER_3DS)
+			int start = buffer.position();
+			if(buffer.remaining() < 6 || (buffer.getShort() & 0xffff) != IDENTIFIER_3DS)
 			{
 				Log.d(Min3d.TAG, "Not a valid .3DS file!");
 				return;
@@ -58,32 +64,44 @@ public class Max3DSParser extends AParser implements IParser {
 			{
 				Log.d(Min3d.TAG, "Found a valid .3DS file");
 			}
-			while(!endReached)
-			{
-				readChunk(stream);
-			}
-		} catch (IOException e) {
-			e.printStackTrace();
+			int end = start + buffer.getInt();
+			readChunks(buffer, end < start + 6 || end > buffer.limit() ? buffer.limit() : end);
+		} catch (BufferUnderflowException e) {
+			Log.d(Min3d.TAG, "Truncated .3DS file");
 		}
-		
+
 		Log.d(Min3d.TAG, "End parsing object");
 	}
 
-	private void readHeader(InputStream stream) throws IOException {
-		chunkID = readShort(stream);
-		chunkEndOffset = readInt(stream);
-		endReached = chunkID < 0;
+	/**
+	 * Reads the chunks from the buffer's position up to end
+	 */
+	private void readChunks(ByteBuffer buffer, int end) {
+		while (buffer.position() + 6 <= end) {
+			int start = buffer.position();
+			int chunkID = buffer.getShort() & 0xffff;
+			int chunkEnd = start + buffer.getInt();
+			if (chunkEnd < start + 6 || chunkEnd > end) {
+				Log.d(Min3d.TAG, "Bad .3DS chunk " + Integer.toHexString(chunkID) + " at " + start);
+				buffer.position(end);
+				return;
+			}
+			readChunk(buffer, chunkID, chunkEnd);
+			buffer.position(chunkEnd);
+		}
 	}
 
-	private void readChunk(InputStream stream) throws IOException {
-		readHeader(stream);
-
+	private void readChunk(ByteBuffer buffer, int chunkID, int chunkEnd) {
 		switch (chunkID) {
 		case MESH_BLOCK:
+		case MATERIAL:
+		case TEX_MAP:
+			readChunks(buffer, chunkEnd);
 			break;
 		case OBJECT_BLOCK:
-			currentObjName = readString(stream);
+			currentObjName = readString(buffer);
 			Log.d(Min3d.TAG, "Parsing object " + currentObjName);
+			readChunks(buffer, chunkEnd);
 			break;
 		case TRIMESH:
 			if(firstObject)
@@ -97,26 +115,29 @@ public class Max3DSParser extends AParser implements IParser {
 				co.name = currentObjName;
 				parseObjects.add(co);
 			}
+			readChunks(buffer, chunkEnd);
 			break;
 		case VERTICES:
-			readVertices(stream);
+			readVertices(buffer);
 			break;
 		case FACES:
-			readFaces(stream);
+			readFaces(buffer);
+			// face material lists follow the faces
+			readChunks(buffer, chunkEnd);
 			break;
 		case TEXCOORD:
-			readTexCoords(stream);
+			readTexCoords(buffer);
 			break;
 		case TEX_NAME:
-			currentMaterialKey = readString(stream);
+			currentMaterialKey = readString(buffer);
 			break;
 		case TEX_FILENAME:
-			String fileName = readString(stream);
+			String fileName = readString(buffer);
 			StringBuffer texture = new StringBuffer(packageID);
 			texture.append(":drawable/");
 
 			StringBuffer textureName = new StringBuffer(fileName.toLowerCase());
-			int dotIndex = textureName.lastIndexOf("");
+			int dotIndex = textureName.lastIndexOf(".");
 			if (dotIndex > -1)
 				texture.append(textureName.substring(0, dotIndex));
 			else
@@ -125,102 +146,83 @@ public class Max3DSParser extends AParser implements IParser {
 			textureAtlas.addBitmapAsset(new BitmapAsset(currentMaterialKey, texture.toString()));
 			break;
 		case TRI_MATERIAL:
-			String materialName = readString(stream);
-			int numFaces = readShort(stream);
+			String materialName = readString(buffer);
+			int numFaces = buffer.getShort() & 0xffff;
+			short[] faceIndices = new short[numFaces];
+			buffer.asShortBuffer().get(faceIndices);
 
 			for(int i=0; i<numFaces; i++)
 			{
-				int faceIndex = readShort(stream);
-				co.faces.get(faceIndex).materialKey = materialName;
+				co.faces.get(faceIndices[i] & 0xffff).materialKey = materialName;
 			}
 			break;
-		case MATERIAL:
-			break;
-		case TEX_MAP:
-			break;
-		default:
-			skipRead(stream);
 		}
 	}
 	
-	private void skipRead(InputStream stream) throws IOException
-	{
-		for(int i=0; (i<chunkEndOffset - 6) && !endReached; i++)
-		{
-			endReached = stream.read() < 0;
+	private void readVertices(ByteBuffer buffer) {
+		int numVertices = buffer.getShort() & 0xffff;
+		float[] xyz = new float[numVertices * 3];
+		buffer.asFloatBuffer().get(xyz);
+		co.vertices.ensureCapacity(co.vertices.size() + numVertices);
+
+		for (int i = 0; i < xyz.length; i += 3) {
+			// z up to y up
+			co.vertices.add(new Number3d(xyz[i], xyz[i + 2], -xyz[i + 1]));
 		}
 	}
 	
-	private void readVertices(InputStream buffer) throws IOException {
-        float x, y, z, tmpy;
-        int numVertices = readShort(buffer);
-
-        for (int i = 0; i < numVertices; i++) {
-            x = readFloat(buffer);
-            y = readFloat(buffer);
-            z = readFloat(buffer);
-            tmpy = y;
-            y = z;
-            z = -tmpy;
-            
-            co.vertices.add(new Number3d(x, y, z));
-        }
-    }
-	
-	private void readFaces(InputStream buffer) throws IOException {
-        int triangles = readShort(buffer);
-        for (int i = 0; i < triangles; i++) {
-            int[] vertexIDs = new int[3];
-            vertexIDs[0] = readShort(buffer);
-            vertexIDs[1] = readShort(buffer);
-            vertexIDs[2] = readShort(buffer);
-            readShort(buffer);
-            ParseObjectFace face = new ParseObjectFace();
-            face.v = vertexIDs;
-            face.uv = vertexIDs;
-            face.faceLength = 3;
-            face.hasuv = true;
-            co.numFaces++;
-            co.faces.add(face);
-            
-            co.calculateFaceNormal(face);
-        }
-    }
+	private void readFaces(ByteBuffer buffer) {
+		int triangles = buffer.getShort() & 0xffff;
+		// a, b, c, flags
+		short[] data = new short[triangles * 4];
+		buffer.asShortBuffer().get(data);
+		buffer.position(buffer.position() + data.length * 2);
+		co.faces.ensureCapacity(co.faces.size() + triangles);
+
+		for (int i = 0; i < data.length; i += 4) {
+			int[] vertexIDs = new int[3];
+			vertexIDs[0] = data[i] & 0xffff;
+			vertexIDs[1] = data[i + 1] & 0xffff;
+			vertexIDs[2] = data[i + 2] & 0xffff;
+			ParseObjectFace face = new ParseObjectFace();
+			face.v = vertexIDs;
+			face.uv = vertexIDs;
+			face.faceLength = 3;
+			face.hasuv = true;
+			co.numFaces++;
+			co.faces.add(face);
+		}
+	}
 	
-	private void readTexCoords(InputStream buffer) throws IOException {
-        int numVertices = readShort(buffer);
-
-        for (int i = 0; i < numVertices; i++) {
-            Uv uv = new Uv();
-            uv.u = readFloat(buffer);
-            uv.v = readFloat(buffer) * -1f;
-            co.texCoords.add(uv);
-        }
-    }
+	private void readTexCoords(ByteBuffer buffer) {
+		int numVertices = buffer.getShort() & 0xffff;
+		float[] uvs = new float[numVertices * 2];
+		buffer.asFloatBuffer().get(uvs);
+		co.texCoords.ensureCapacity(co.texCoords.size() + numVertices);
+
+		for (int i = 0; i < uvs.length; i += 2) {
+			Uv uv = new Uv();
+			uv.u = uvs[i];
+			uv.v = uvs[i + 1] * -1f;
+			co.texCoords.add(uv);
+		}
+	}
 	
 	public Object3dContainer getParsedObject() {
 		Log.d(Min3d.TAG, "Start object creation");
 		Object3dContainer obj = new Object3dContainer(0, 0);
 		int numObjects = parseObjects.size();
-		Bitmap texture = null;
 
+		// one texture per material, bound by its sub-mesh
 		if(textureAtlas.hasBitmaps())
-		{
-			textureAtlas.generate();
-			texture = textureAtlas.getBitmap();
-			Shared.textureManager().addTextureId(texture, textureAtlas.getId(), generateMipMap);
-		}
+			textureAtlas.uploadTextures(generateMipMap);
 		
 		for (int i = 0; i < numObjects; i++) {
 			ParseObjectData o = parseObjects.get(i);
 			Log.d(Min3d.TAG, "Creating object " + o.name);
-			obj.addChild(o.getParsedObject(materialMap, textureAtlas));
+			obj.addChild(withLods(o.getParsedObject(materialMap, textureAtlas)));
 		}
 		
-		if(textureAtlas.hasBitmaps())
-		{
-			if(texture != null) texture.recycle();
-		}
 		Log.d(Min3d.TAG, "Object creation finished");
 		
 		super.cleanup();
@@ -9,14 +9,11 @@ import java.util.HashMap;
 import java.util.StringTokenizer;
 
 import min3d.Min3d;
-import min3d.Shared;
-import min3d.Utils;
 import min3d.core.Object3dContainer;
 import min3d.vos.Color4;
 import min3d.vos.Number3d;
 import min3d.vos.Uv;
 import android.content.res.Resources;
-import android.graphics.Bitmap;
 import android.util.Log;
 
 /**
@@ -85,12 +82,10 @@ public class ObjParser extends AParser implements IParser {
 					vertex.z = Float.parseFloat(parts.nextToken());
 					vertices.add(vertex);
 				} else if (type.equals(FACE)) {
-					if (numTokens == 4) {
-						co.numFaces++;
-						co.faces.add(new ObjFace(line, currentMaterialKey, 3));
-					} else if (numTokens == 5) {
-						co.numFaces += 2;
-						co.faces.add(new ObjFace(line, currentMaterialKey, 4));
+					// polygons are fan-triangulated, so each adds its corners less two
+					if (numTokens >= 4) {
+						co.numFaces += numTokens - 3;
+						co.faces.add(new ObjFace(line, currentMaterialKey, numTokens - 1));
 					}
 				} else if (type.equals(TEXCOORD)) {
 					Uv texCoord = new Uv();
@@ -136,25 +131,17 @@ public class ObjParser extends AParser implements IParser {
 		Log.d(Min3d.TAG, "Start object creation");
 		Object3dContainer obj = new Object3dContainer(0, 0);
 		int numObjects = parseObjects.size();
-		Bitmap texture = null;
 
+		// one texture per material, bound by its sub-mesh
 		if(textureAtlas.hasBitmaps())
-		{
-			textureAtlas.generate();
-			texture = textureAtlas.getBitmap();
-			Shared.textureManager().addTextureId(texture, textureAtlas.getId(), generateMipMap);
-		}
+			textureAtlas.uploadTextures(generateMipMap);
 		
 		for (int i = 0; i < numObjects; i++) {
 			ParseObjectData o = parseObjects.get(i);
 			Log.d(Min3d.TAG, "Creating object " + o.name);
-			obj.addChild(o.getParsedObject(materialMap, textureAtlas));
+			obj.addChild(withLods(o.getParsedObject(materialMap, textureAtlas)));
 		}
 		
-		if(textureAtlas.hasBitmaps())
-		{
-			if(texture != null) texture.recycle();
-		}
 		Log.d(Min3d.TAG, "Object creation finished");
 		
 		cleanup();
@@ -165,7 +152,7 @@ public class ObjParser extends AParser implements IParser {
 	private void readMaterialLib(String libID) {
 		StringBuffer resourceID = new StringBuffer(packageID);
 		StringBuffer libIDSbuf = new StringBuffer(libID);
-		int dotIndex = libIDSbuf.lastIndexOf("");
+		int dotIndex = libIDSbuf.lastIndexOf(".");
 		if (dotIndex > -1)
 			libIDSbuf = libIDSbuf.replace(dotIndex, dotIndex + 1, "_");
 
@@ -202,15 +189,13 @@ public class ObjParser extends AParser implements IParser {
 						texture.append(":drawable/");
 						
 						StringBuffer textureName = new StringBuffer(parts[1]);
-						dotIndex = textureName.lastIndexOf("");
+						dotIndex = textureName.lastIndexOf(".");
 						if (dotIndex > -1)
 							texture.append(textureName.substring(0, dotIndex));
 						else
 							texture.append(textureName);
 						
-						int bmResourceID = resources.getIdentifier(texture
-								.toString(), null, null);
-						Bitmap b = Utils.makeBitmapFromResourceId(bmResourceID);
+						// decoded when the atlas is generated
 						textureAtlas.addBitmapAsset(new BitmapAsset(currentMaterial, texture.toString()));
 					}
 				}
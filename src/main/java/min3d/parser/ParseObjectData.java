@@ -2,6 +2,7 @@ package min3d.parser;
 
 import java.util.ArrayList;
 import java.util.HashMap;
+import java.util.LinkedHashMap;
 
 import android.util.Log;
 
@@ -10,6 +11,9 @@ import min3d.Shared;
 import min3d.animation.AnimationObject3d;
 import min3d.animation.KeyFrame;
 import min3d.core.Object3d;
+import min3d.math.Vec3;
+import min3d.mesh.NormalGenerator;
+import min3d.mesh.VertexCacheOptimizer;
 import min3d.parser.AParser.BitmapAsset;
 import min3d.parser.AParser.Material;
 import min3d.parser.AParser.TextureAtlas;
@@ -47,6 +51,8 @@ public class ParseObjectData {
 	
 	public AnimationObject3d getParsedObject(TextureAtlas textureAtlas, HashMap<String, Material> materialMap, KeyFrame[] frames)
 	{
+		generateMissingNormals(NormalGenerator.DEFAULT_CREASE_DEGREES);
+
 		AnimationObject3d obj = new AnimationObject3d(numFaces * 3, numFaces, frames.length);
 		obj.name(name);
 		obj.setFrames(frames);
@@ -56,25 +62,165 @@ public class ParseObjectData {
 		return obj;
 	}
 	
+	/**
+	 * Builds an indexed Object3d: identical (position, uv, normal) corners are shared,
+	 * and faces are grouped by material into one sub-mesh range each, drawn with the
+	 * material's diffuse color and its own texture (see TextureAtlas.uploadTextures()).
+	 * Each range's triangles are ordered for vertex cache reuse.
+	 */
 	public Object3d getParsedObject(HashMap<String, Material> materialMap, TextureAtlas textureAtlas) {
-		Object3d obj = new Object3d(numFaces * 3, numFaces);
+		generateMissingNormals(NormalGenerator.DEFAULT_CREASE_DEGREES);
+
+		// materials in the order they're first used, each with its faces in file order
+		LinkedHashMap<String, ArrayList<ParseObjectFace>> byMaterial = new LinkedHashMap<String, ArrayList<ParseObjectFace>>();
+		for (int i = 0; i < faces.size(); i++) {
+			ParseObjectFace face = faces.get(i);
+			ArrayList<ParseObjectFace> group = byMaterial.get(face.materialKey);
+			if (group == null) {
+				group = new ArrayList<ParseObjectFace>();
+				byMaterial.put(face.materialKey, group);
+			}
+			group.add(face);
+		}
+
+		UniqueVertexTable table = new UniqueVertexTable(numFaces * 3 / 2);
+		int[] indices = new int[numFaces * 3];
+		int numIndices = 0;
+		int[] corners = new int[4];
+		int ranges = byMaterial.size();
+		int[] rangeStarts = new int[ranges + 1];
+		int range = 0;
+
+		for (ArrayList<ParseObjectFace> group : byMaterial.values()) {
+			rangeStarts[range++] = numIndices;
+			for (int i = 0; i < group.size(); i++) {
+				ParseObjectFace face = group.get(i);
+				if (corners.length < face.faceLength) corners = new int[face.faceLength];
+
+				for (int j = 0; j < face.faceLength; j++) {
+					Number3d p = vertices.get(face.v[j]);
+
+					float u = 0, v = 0;
+					if (face.hasuv) {
+						Uv uv = texCoords.get(face.uv[j]);
+						u = uv.u;
+						v = uv.v;
+					}
+
+					float nx = 0, ny = 0, nz = 0;
+					if (face.hasn) {
+						Number3d n = normals.get(face.n[j]);
+						nx = n.x;
+						ny = n.y;
+						nz = n.z;
+					}
+
+					// the material's color is the range's, not the vertices'
+					corners[j] = table.add(p.x, p.y, p.z, u, v, nx, ny, nz, 0);
+				}
+
+				int triangles = (face.faceLength - 2) * 3;
+				if (numIndices + triangles > indices.length) {
+					int[] grown = new int[Math.max(indices.length * 2, numIndices + triangles)];
+					System.arraycopy(indices, 0, grown, 0, numIndices);
+					indices = grown;
+				}
+				numIndices = fan(corners, face.faceLength, indices, numIndices);
+			}
+		}
+		rangeStarts[ranges] = numIndices;
+
+		int numVertices = table.size();
+		float acmrBefore = VertexCacheOptimizer.acmr(indices, numVertices, VertexCacheOptimizer.DEFAULT_CACHE_SIZE);
+		int[] ordered = new int[numIndices];
+		for (int r = 0; r < ranges; r++) {
+			int[] rangeIndices = new int[rangeStarts[r + 1] - rangeStarts[r]];
+			System.arraycopy(indices, rangeStarts[r], rangeIndices, 0, rangeIndices.length);
+			rangeIndices = VertexCacheOptimizer.optimizeTriangleOrder(rangeIndices, numVertices, VertexCacheOptimizer.DEFAULT_CACHE_SIZE);
+			System.arraycopy(rangeIndices, 0, ordered, rangeStarts[r], rangeIndices.length);
+		}
+		indices = ordered;
+		float acmrAfter = VertexCacheOptimizer.acmr(indices, numVertices, VertexCacheOptimizer.DEFAULT_CACHE_SIZE);
+		int[] remap = VertexCacheOptimizer.optimizeVertexFetch(indices, numVertices);
+
+		int[] order = new int[numVertices];
+		for (int i = 0; i < numVertices; i++) {
+			order[remap[i]] = i;
+		}
+
+		Object3d obj = new Object3d(numVertices, indices.length / 3, true, true, false);
 		obj.name(name);
-		
-		parseObject(obj, materialMap, textureAtlas);
-		
+
+		float[] data = table.data();
+
+		for (int i = 0; i < numVertices; i++) {
+			int o = order[i] * UniqueVertexTable.FLOATS_PER_VERTEX;
+			obj.vertices().addVertex(
+					data[o], data[o + 1], data[o + 2],
+					data[o + 3], data[o + 4],
+					data[o + 5], data[o + 6], data[o + 7],
+					(short)0, (short)0, (short)0, (short)0);
+		}
+
+		for (int i = 0; i < indices.length; i += 3) {
+			obj.faces().add(indices[i], indices[i + 1], indices[i + 2]);
+		}
+
+		int[] faceCounts = new int[ranges];
+		for (int r = 0; r < ranges; r++) {
+			faceCounts[r] = (rangeStarts[r + 1] - rangeStarts[r]) / 3;
+		}
+		obj.subMeshes(faceCounts);
+
+		range = 0;
+		for (String key : byMaterial.keySet()) {
+			Material material = materialMap.get(key);
+			Color4 color = new Color4(255, 0, 255, 255);
+			if (material != null && material.diffuseColor != null) {
+				color = material.diffuseColor;
+			}
+			obj.subMeshMaterial(range++, textureAtlas.hasBitmaps() ? textureAtlas.getTextureId(key) : null, color);
+		}
+
+		Log.d(Min3d.TAG, "Object " + name + ": " + numVertices + " unique vertices for "
+				+ numIndices + " face corners in " + ranges + " materials, ACMR " + acmrBefore + " -> " + acmrAfter);
+
+		cleanup();
+
 		return obj;
 	}
+
+	/**
+	 * Appends a polygon's corners as a triangle fan; returns the new index count
+	 */
+	private static int fan(int[] $corners, int $faceLength, int[] $indices, int $numIndices) {
+		for (int j = 2; j < $faceLength; j++) {
+			$indices[$numIndices++] = $corners[0];
+			$indices[$numIndices++] = $corners[j - 1];
+			$indices[$numIndices++] = $corners[j];
+		}
+		return $numIndices;
+	}
 	
+	/**
+	 * Keyframe data is stored per face corner, so animated objects keep one vertex per corner.
+	 */
 	private void parseObject(Object3d obj, HashMap<String, Material> materialMap, TextureAtlas textureAtlas)
 	{
 		int numFaces = faces.size();
 		int faceIndex = 0;
 		boolean hasBitmaps = textureAtlas.hasBitmaps();
+		String key = null;
+		BitmapAsset ba = null;
+		Material material = null;
 
 		for (int i = 0; i < numFaces; i++) {
 			ParseObjectFace face = faces.get(i);
-			BitmapAsset ba = textureAtlas
-					.getBitmapAssetByName(face.materialKey);
+			if (i == 0 || ! sameKey(face.materialKey, key)) {
+				key = face.materialKey;
+				ba = textureAtlas.getBitmapAssetByName(key);
+				material = materialMap.get(key);
+			}
 
 			for (int j = 0; j < face.faceLength; j++) {
 				Number3d newVertex = vertices.get(face.v[j]);
@@ -83,7 +229,6 @@ public class ParseObjectData {
 						: new Uv();
 				Number3d newNormal = face.hasn ? normals.get(face.n[j])
 						: new Number3d();
-				Material material = materialMap.get(face.materialKey);
 				
 				Color4 newColor = new Color4(255, 255, 0, 255);
 				if(material != null && material.diffuseColor != null)
@@ -102,14 +247,9 @@ public class ParseObjectData {
 				obj.vertices().addVertex(newVertex, newUv, newNormal, newColor);
 			}
 
-			if (face.faceLength == 3) {
-				obj.faces().add(
-						new Face(faceIndex, faceIndex + 1, faceIndex + 2));
-			} else if (face.faceLength == 4) {
+			for (int j = 2; j < face.faceLength; j++) {
 				obj.faces().add(
-						new Face(faceIndex, faceIndex + 1, faceIndex + 3));
-				obj.faces().add(
-						new Face(faceIndex + 1, faceIndex + 2, faceIndex + 3));
+						new Face(faceIndex, faceIndex + j - 1, faceIndex + j));
 			}
 
 			faceIndex += face.faceLength;
@@ -122,25 +262,80 @@ public class ParseObjectData {
 		cleanup();
 	}
 	
+	/**
+	 * Fills in normals for faces that have none, area-weighted and smoothed across
+	 * neighbouring faces within $creaseDegrees of each other (0 for flat shading).
+	 * Called by getParsedObject(), so parsers only need to leave face.hasn false.
+	 */
+	public void generateMissingNormals(float $creaseDegrees)
+	{
+		int numTris = 0;
+		boolean missing = false;
+
+		for (int i = 0; i < faces.size(); i++) {
+			ParseObjectFace face = faces.get(i);
+			numTris += face.faceLength - 2;
+			if (! face.hasn) missing = true;
+		}
+		if (! missing) return;
+
+		int numVertices = vertices.size();
+		float[] positions = new float[numVertices * 3];
+		for (int i = 0; i < numVertices; i++) {
+			Number3d p = vertices.get(i);
+			positions[i * 3] = p.x;
+			positions[i * 3 + 1] = p.y;
+			positions[i * 3 + 2] = p.z;
+		}
+
+		// Same fan triangulation as getParsedObject()
+		int[] indices = new int[numTris * 3];
+		int t = 0;
+		for (int i = 0; i < faces.size(); i++) {
+			ParseObjectFace face = faces.get(i);
+			t = fan(face.v, face.faceLength, indices, t);
+		}
+
+		float[] corners = NormalGenerator.creasedNormals(positions, indices, numVertices, $creaseDegrees);
+
+		// Map corner normals back onto faces; fan triangle k is (0, k+1, k+2), so corner
+		// j >= 2 is the last corner of triangle j-2
+		int c = 0;
+		for (int i = 0; i < faces.size(); i++) {
+			ParseObjectFace face = faces.get(i);
+
+			if (! face.hasn) {
+				face.n = new int[face.faceLength];
+				face.n[0] = addNormal(corners, c);
+				face.n[1] = addNormal(corners, c + 3);
+				for (int j = 2; j < face.faceLength; j++) {
+					face.n[j] = addNormal(corners, c + (j - 2) * 9 + 6);
+				}
+				face.hasn = true;
+			}
+			c += (face.faceLength - 2) * 9;
+		}
+	}
+
+	private static boolean sameKey(String $a, String $b)
+	{
+		return $a == null ? $b == null : $a.equals($b);
+	}
+
+	private int addNormal(float[] $normals, int $offset)
+	{
+		normals.add(new Number3d($normals[$offset], $normals[$offset + 1], $normals[$offset + 2]));
+		return normals.size() - 1;
+	}
+
+	/**
+	 * Flat normal for a single face. Parsers should prefer leaving normals to generateMissingNormals().
+	 */
 	public void calculateFaceNormal(ParseObjectFace face)
 	{
-		Number3d v1 = vertices.get(face.v[0]);
-		Number3d v2 = vertices.get(face.v[1]);
-		Number3d v3 = vertices.get(face.v[2]);
-		
-		Number3d vector1 = Number3d.subtract(v2, v1);
-		Number3d vector2 = Number3d.subtract(v3, v1);
-		
-		Number3d normal = new Number3d();
-		normal.x = (vector1.y * vector2.z) - (vector1.z * vector2.y);
-		normal.y = -((vector2.z * vector1.x) - (vector2.x * vector1.z));
-		normal.z = (vector1.x * vector2.y) - (vector1.y * vector2.x);
-		
-		double normFactor = Math.sqrt((normal.x * normal.x) + (normal.y * normal.y) + (normal.z * normal.z));
-		
-		normal.x /= normFactor;
-		normal.y /= normFactor;
-		normal.z /= normFactor;
+		Number3d normal = Vec3.faceNormalInto(
+				vertices.get(face.v[0]), vertices.get(face.v[1]), vertices.get(face.v[2]),
+				new Number3d());
 		
         normals.add(normal);
         
@@ -0,0 +1,154 @@
+package min3d.parser;
+
+/**
+ * Open-addressing hash table of unique (position, uv, normal, color) vertex tuples,
+ * keyed on the raw float bits so no boxing or per-vertex objects are needed.
+ * Used by ParseObjectData to turn per-face-corner data into an indexed mesh.
+ */
+/*package-private*/ class UniqueVertexTable
+{
+	/*package-private*/ static final int FLOATS_PER_VERTEX = 8; // x y z, u v, nx ny nz
+
+	private float[] _data;
+	private int[] _colors;
+	private int[] _slots;
+	private int _size;
+
+	public UniqueVertexTable(int $expectedVertices)
+	{
+		int capacity = Math.max(16, $expectedVertices);
+		_data = new float[capacity * FLOATS_PER_VERTEX];
+		_colors = new int[capacity];
+		_slots = newSlots(capacity * 2);
+	}
+
+	public int size()
+	{
+		return _size;
+	}
+
+	/**
+	 * Returns the index of an identical vertex already in the table, or adds it and returns the new index.
+	 * $color is packed as 0xRRGGBBAA.
+	 */
+	public int add(float $x, float $y, float $z, float $u, float $v, float $nx, float $ny, float $nz, int $color)
+	{
+		int hash = $color;
+		hash = hash * 31 + Float.floatToIntBits($x);
+		hash = hash * 31 + Float.floatToIntBits($y);
+		hash = hash * 31 + Float.floatToIntBits($z);
+		hash = hash * 31 + Float.floatToIntBits($u);
+		hash = hash * 31 + Float.floatToIntBits($v);
+		hash = hash * 31 + Float.floatToIntBits($nx);
+		hash = hash * 31 + Float.floatToIntBits($ny);
+		hash = hash * 31 + Float.floatToIntBits($nz);
+		hash ^= (hash >>> 16);
+
+		int mask = _slots.length - 1;
+		int slot = hash & mask;
+
+		while (_slots[slot] != -1)
+		{
+			int i = _slots[slot];
+			int o = i * FLOATS_PER_VERTEX;
+			if (_colors[i] == $color
+					&& same(_data[o], $x) && same(_data[o + 1], $y) && same(_data[o + 2], $z)
+					&& same(_data[o + 3], $u) && same(_data[o + 4], $v)
+					&& same(_data[o + 5], $nx) && same(_data[o + 6], $ny) && same(_data[o + 7], $nz))
+			{
+				return i;
+			}
+			slot = (slot + 1) & mask;
+		}
+
+		if (_size == _colors.length) grow();
+		if ((_size + 1) * 2 > _slots.length) {
+			rehash();
+			return add($x, $y, $z, $u, $v, $nx, $ny, $nz, $color);
+		}
+
+		int index = _size++;
+		int o = index * FLOATS_PER_VERTEX;
+		_data[o] = $x;
+		_data[o + 1] = $y;
+		_data[o + 2] = $z;
+		_data[o + 3] = $u;
+		_data[o + 4] = $v;
+		_data[o + 5] = $nx;
+		_data[o + 6] = $ny;
+		_data[o + 7] = $nz;
+		_colors[index] = $color;
+		_slots[slot] = index;
+
+		return index;
+	}
+
+	/**
+	 * Interleaved x y z u v nx ny nz floats for each unique vertex, in insertion order.
+	 * Only the first size() * FLOATS_PER_VERTEX entries are valid.
+	 */
+	public float[] data()
+	{
+		return _data;
+	}
+
+	/**
+	 * Packed 0xRRGGBBAA colors, in insertion order.
+	 */
+	public int[] colors()
+	{
+		return _colors;
+	}
+
+	//
+
+	private void grow()
+	{
+		int capacity = _colors.length * 2;
+		float[] data = new float[capacity * FLOATS_PER_VERTEX];
+		System.arraycopy(_data, 0, data, 0, _size * FLOATS_PER_VERTEX);
+		_data = data;
+		int[] colors = new int[capacity];
+		System.arraycopy(_colors, 0, colors, 0, _size);
+		_colors = colors;
+	}
+
+	private void rehash()
+	{
+		int size = _size;
+		float[] data = _data;
+		int[] colors = _colors;
+
+		_slots = newSlots(_slots.length * 2);
+		_data = new float[colors.length * FLOATS_PER_VERTEX];
+		_colors = new int[colors.length];
+		_size = 0;
+
+		for (int i = 0; i < size; i++)
+		{
+			int o = i * FLOATS_PER_VERTEX;
+			add(data[o], data[o + 1], data[o + 2], data[o + 3], data[o + 4],
+					data[o + 5], data[o + 6], data[o + 7], colors[i]);
+		}
+	}
+
+	private static int[] newSlots(int $minLength)
+	{
+		int length = 1;
+		while (length < $minLength) length <<= 1;
+
+		int[] slots = new int[length];
+		for (int i = 0; i < length; i++) {
+			slots[i] = -1;
+		}
+		return slots;
+	}
+
+	/**
+	 * Compares the way add() hashes, so 0 and -0 stay apart and NaN matches itself
+	 */
+	private static boolean same(float $a, float $b)
+	{
+		return Float.floatToIntBits($a) == Float.floatToIntBits($b);
+	}
+}
@@ -4,29 +4,65 @@ import min3d.interfaces.IDirtyManaged;
 import min3d.interfaces.IDirtyParent;
 
 
+/**
+ * Dirty state is a bitmask. Leaf values only use DIRTY; owners such as Light
+ * give each child its own bit, so the Renderer can tell which properties
+ * changed from one int, without asking every child.
+ * 
+ * Only the change from clean to dirty is passed up to the parent, so setting
+ * a property many times between frames costs one callback.
+ */
 public abstract class AbstractDirtyManaged implements IDirtyManaged
 {
+	public static final int DIRTY = 1;
+	
 	protected IDirtyParent _parent;
-	protected boolean _dirty;
+	protected int _bitsInParent = DIRTY;
+	protected int _dirtyBits;
 	
 	public AbstractDirtyManaged(IDirtyParent $parent)
 	{
 		_parent = $parent;
 	}
 	
+	/**
+	 * Sets the parent told when this becomes dirty, and the bits it's told
+	 * with. If this is dirty already, the parent is told straight away.
+	 */
+	public void parent(IDirtyParent $parent, int $bitsInParent)
+	{
+		_parent = $parent;
+		_bitsInParent = $bitsInParent;
+		if (_dirtyBits != 0 && _parent != null) _parent.onDirty(this, _bitsInParent);
+	}
+	
 	public boolean isDirty()
 	{
-		return _dirty;
+		return _dirtyBits != 0;
+	}
+	
+	/**
+	 * What changed since the last clearDirtyFlag(); 0 for nothing
+	 */
+	public int dirtyBits()
+	{
+		return _dirtyBits;
 	}
 	
 	public void setDirtyFlag()
 	{
-		_dirty = true;
-		if (_parent != null) _parent.onDirty();
+		setDirtyBits(DIRTY);
 	}
 	
 	public void clearDirtyFlag()
 	{
-		_dirty = false;
+		_dirtyBits = 0;
+	}
+	
+	protected void setDirtyBits(int $bits)
+	{
+		boolean wasClean = (_dirtyBits == 0);
+		_dirtyBits |= $bits;
+		if (wasClean && _dirtyBits != 0 && _parent != null) _parent.onDirty(this, _bitsInParent);
 	}
 }
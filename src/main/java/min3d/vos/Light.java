@@ -3,6 +3,7 @@ package min3d.vos;
 import java.nio.FloatBuffer;
 
 import min3d.Utils;
+import min3d.interfaces.IDirtyManaged;
 import min3d.interfaces.IDirtyParent;
 
 /**
@@ -12,6 +13,19 @@ import min3d.interfaces.IDirtyParent;
  */
 public class Light extends AbstractDirtyManaged implements IDirtyParent
 {
+	// Bits of dirtyBits(), one per property the Renderer sends separately
+	public static final int POSITION = 1 << 0;
+	public static final int AMBIENT = 1 << 1;
+	public static final int DIFFUSE = 1 << 2;
+	public static final int SPECULAR = 1 << 3;
+	public static final int EMISSIVE = 1 << 4;
+	public static final int DIRECTION = 1 << 5;
+	public static final int SPOT_CUTOFF = 1 << 6;
+	public static final int SPOT_EXPONENT = 1 << 7;
+	public static final int ATTENUATION = 1 << 8;
+	public static final int VISIBLE = 1 << 9;
+	public static final int ALL = (1 << 10) - 1;
+	
 	/**
 	 * Position is relative to eye space, not world space.
 	 */
@@ -33,26 +47,36 @@ public class Light extends AbstractDirtyManaged implements IDirtyParent
 	{
 		super(null);
 		
-		 ambient = new Color4Managed(128,128,128, 255, this);
-		 diffuse = new Color4Managed(255,255,255, 255, this);
-		 specular = new Color4Managed(0,0,0,255, this);
-		 emissive = new Color4Managed(0,0,0,255, this);
+		 ambient = new Color4Managed(128,128,128, 255, null);
+		 diffuse = new Color4Managed(255,255,255, 255, null);
+		 specular = new Color4Managed(0,0,0,255, null);
+		 emissive = new Color4Managed(0,0,0,255, null);
 		 
-		 position = new Number3dManaged(0f, 0f, 1f, this); 			
+		 position = new Number3dManaged(0f, 0f, 1f, null); 			
 		 
-		 direction = new Number3dManaged(0f, 0f, -1f, this);	
-		 _spotCutoffAngle = new FloatManaged(180, this);		
-		 _spotExponent = new FloatManaged(0f, this);			
+		 direction = new Number3dManaged(0f, 0f, -1f, null);	
+		 _spotCutoffAngle = new FloatManaged(180, null);		
+		 _spotExponent = new FloatManaged(0f, null);			
 		 
-		 _attenuation = new Number3dManaged(1f,0f,0f, this); 	
+		 _attenuation = new Number3dManaged(1f,0f,0f, null); 	
 		 
 		 _type = LightType.DIRECTIONAL;								
 		 
-		 _isVisible = new BooleanManaged(true, this);
+		 _isVisible = new BooleanManaged(true, null);
 		 
 		 _positionAndTypeBuffer = Utils.makeFloatBuffer4(0,0,0,0);
 		 
-		 setDirtyFlag();
+		 // each property marks its own bit here when it changes
+		 position.parent(this, POSITION);
+		 ambient.parent(this, AMBIENT);
+		 diffuse.parent(this, DIFFUSE);
+		 specular.parent(this, SPECULAR);
+		 emissive.parent(this, EMISSIVE);
+		 direction.parent(this, DIRECTION);
+		 _spotCutoffAngle.parent(this, SPOT_CUTOFF);
+		 _spotExponent.parent(this, SPOT_EXPONENT);
+		 _attenuation.parent(this, ATTENUATION);
+		 _isVisible.parent(this, VISIBLE);
 	}
 
 	public boolean isVisible()
@@ -129,7 +153,6 @@ public class Light extends AbstractDirtyManaged implements IDirtyParent
 	public void attenuationConstant(float $normalizedValue)
 	{
 		_attenuation.setX($normalizedValue);
-		setDirtyFlag();
 	}
 	
 	public float attenuationLinear()
@@ -139,7 +162,6 @@ public class Light extends AbstractDirtyManaged implements IDirtyParent
 	public void attenuationLinear(float $normalizedValue)
 	{
 		_attenuation.setY($normalizedValue);
-		setDirtyFlag();
 	}
 	
 	public float attenuationQuadratic()
@@ -149,7 +171,6 @@ public class Light extends AbstractDirtyManaged implements IDirtyParent
 	public void attenuationQuadratic(float $normalizedValue)
 	{
 		_attenuation.setZ($normalizedValue);
-		setDirtyFlag();
 	}
 	
 	/**
@@ -159,28 +180,46 @@ public class Light extends AbstractDirtyManaged implements IDirtyParent
 	public void attenuationSetAll(float $constant, float $linear, float $quadratic)
 	{
 		_attenuation.setAll($constant, $linear, $quadratic);
-		setDirtyFlag();
 	}
 
 	//
 	
 	public void setAllDirty()
 	{
-		position.setDirtyFlag();
-		ambient.setDirtyFlag();
-		diffuse.setDirtyFlag();
-		specular.setDirtyFlag();
-		emissive.setDirtyFlag();
-		direction.setDirtyFlag();
-		_spotCutoffAngle.setDirtyFlag();
-		_spotExponent.setDirtyFlag();
-		_attenuation.setDirtyFlag();
-		_isVisible.setDirtyFlag();
+		setDirtyBits(ALL);
+	}
+
+	/**
+	 * Marks every property, as there's no telling which changed
+	 */
+	@Override
+	public void setDirtyFlag()
+	{
+		setDirtyBits(ALL);
+	}
+
+	/**
+	 * Clears the properties' flags too, so their next change is passed up again
+	 */
+	@Override
+	public void clearDirtyFlag()
+	{
+		super.clearDirtyFlag();
+		position.clearDirtyFlag();
+		ambient.clearDirtyFlag();
+		diffuse.clearDirtyFlag();
+		specular.clearDirtyFlag();
+		emissive.clearDirtyFlag();
+		direction.clearDirtyFlag();
+		_spotCutoffAngle.clearDirtyFlag();
+		_spotExponent.clearDirtyFlag();
+		_attenuation.clearDirtyFlag();
+		_isVisible.clearDirtyFlag();
 	}
 
-	public void onDirty()
+	public void onDirty(IDirtyManaged $child, int $bits)
 	{
-		setDirtyFlag();
+		setDirtyBits($bits);
 	}
 	
 	/**
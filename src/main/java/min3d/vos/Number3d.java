@@ -1,9 +1,14 @@
 package min3d.vos;
 
+import min3d.math.Vec3;
+
 /**
  * Simple VO holding x,y, and z values. Plus helper math functions.
  * Care should be taken to avoid creating Number3d instances unnecessarily. 
  * Its use is not required for the construction of vertices.
+ * 
+ * The static helpers below return new instances; for per-frame or per-vertex
+ * work use the in-place equivalents in min3d.math.Vec3 (subInto, crossInto, etc).
  */
 public class Number3d 
 {
@@ -46,15 +51,7 @@ public class Number3d
 	
 	public void normalize()
 	{
-		float mod = (float) Math.sqrt( this.x*this.x + this.y*this.y + this.z*this.z );
-
-		if( mod != 0 && mod != 1)
-		{
-			mod = 1 / mod; 
-			this.x *= mod;
-			this.y *= mod;
-			this.z *= mod;
-		}
+		Vec3.normalize(this);
 	}
 
 	public void add(Number3d n)
@@ -71,7 +68,7 @@ public class Number3d
 		this.z -= n.z;
 	}
 	
-	public void multiply(Float f)
+	public void multiply(float f)
 	{
 		this.x *= f;
 		this.y *= f;
@@ -132,12 +129,12 @@ public class Number3d
 
 	public static Number3d add(Number3d a, Number3d b)
 	{
-		return new Number3d(a.x + b.x, a.y + b.y, a.z + b.z);
+		return Vec3.addInto(a, b, new Number3d());
 	}
 
 	public static Number3d subtract(Number3d a, Number3d b)
 	{
-		return new Number3d(a.x - b.x, a.y - b.y, a.z - b.z);
+		return Vec3.subInto(a, b, new Number3d());
 	}
 	
 	public static Number3d multiply(Number3d a, Number3d b)
@@ -145,14 +142,17 @@ public class Number3d
 		return new Number3d(a.x * b.x, a.y * b.y, a.z * b.z);
 	}
 	
+	/**
+	 * Note argument order: returns w x v
+	 */
 	public static Number3d cross(Number3d v, Number3d w)
 	{
-		return new Number3d((w.y * v.z) - (w.z * v.y), (w.z * v.x) - (w.x * v.z), (w.x * v.y) - (w.y * v.x));
+		return Vec3.crossInto(w, v, new Number3d());
 	}
 	
 	public static float dot(Number3d v, Number3d w)
 	{
-		return ( v.x * w.x + v.y * w.y + w.z * v.z );
+		return Vec3.dot(v, w);
 	}
 	
 	// * 	Math functions thanks to Papervision3D AS3 library
@@ -20,6 +20,6 @@ public class ShadeModelManaged extends AbstractDirtyManaged
 	public void set(ShadeModel $shadeModel)
 	{
 		_shadeModel = $shadeModel;
-		_dirty = true; // no need for callback
+		_dirtyBits |= DIRTY; // no need for callback
 	}
 }
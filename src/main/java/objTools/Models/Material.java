@@ -22,14 +22,40 @@ public class Material {
     String textureFileName;
     protected int glTexture = 0;
 
+    // made on first use; the colors can't change once frozen
+    private FloatBuffer ambientColorBuffer;
+    private FloatBuffer diffuseColorBuffer;
+    private FloatBuffer specularColorBuffer;
+    private boolean frozen;
+
     public Material(String name){
         this.name=name;
     }
+
+    /**
+     * Makes the material read-only. Materials shared through MTLReader are frozen, since
+     * every model using the library sees the same ones.
+     */
+    public void freeze() {
+        frozen = true;
+    }
+
+    public boolean isFrozen() {
+        return frozen;
+    }
+
+    private void checkMutable() {
+        if (frozen) {
+            throw new IllegalStateException("Material " + name + " is shared and can't be changed");
+        }
+    }
+
     public String getName() {
         return name;
     }
 
     public void setName(String name) {
+        checkMutable();
         this.name = name;
     }
 
@@ -37,16 +63,16 @@ public class Material {
         return ambientColor;
     }
     public FloatBuffer getAmbientColorBuffer(){
-        FloatBuffer f;
-        ByteBuffer b = ByteBuffer.allocateDirect(12);
-        b.order(ByteOrder.nativeOrder());
-        f = b.asFloatBuffer();
-        f.put(ambientColor);
-        f.position(0);
-        return f;
+        if (ambientColorBuffer == null) {
+            ambientColorBuffer = colorBuffer(ambientColor);
+        }
+        ambientColorBuffer.position(0);
+        return ambientColorBuffer;
     }
 
     public void setAmbientColor(float r, float g, float b) {
+        checkMutable();
+        ambientColorBuffer = null;
         ambientColor = new float[3];
         ambientColor[0]=r;
         ambientColor[1]=g;
@@ -57,16 +83,16 @@ public class Material {
         return diffuseColor;
     }
     public FloatBuffer getDiffuseColorBuffer(){
-        FloatBuffer f;
-        ByteBuffer b = ByteBuffer.allocateDirect(12);
-        b.order(ByteOrder.nativeOrder());
-        f = b.asFloatBuffer();
-        f.put(diffuseColor);
-        f.position(0);
-        return f;
+        if (diffuseColorBuffer == null) {
+            diffuseColorBuffer = colorBuffer(diffuseColor);
+        }
+        diffuseColorBuffer.position(0);
+        return diffuseColorBuffer;
     }
 
     public void setDiffuseColor(float r, float g, float b) {
+        checkMutable();
+        diffuseColorBuffer = null;
         diffuseColor = new float[3];
         diffuseColor[0]=r;
         diffuseColor[1]=g;
@@ -77,16 +103,16 @@ public class Material {
         return specularColor;
     }
     public FloatBuffer getSpecularColorBuffer(){
-        FloatBuffer f;
-        ByteBuffer b = ByteBuffer.allocateDirect(12);
-        b.order(ByteOrder.nativeOrder());
-        f = b.asFloatBuffer();
-        f.put(specularColor);
-        f.position(0);
-        return f;
+        if (specularColorBuffer == null) {
+            specularColorBuffer = colorBuffer(specularColor);
+        }
+        specularColorBuffer.position(0);
+        return specularColorBuffer;
     }
 
     public void setSpecularColor(float r, float g, float b) {
+        checkMutable();
+        specularColorBuffer = null;
         specularColor = new float[3];
         specularColor[0]=r;
         specularColor[1]=g;
@@ -98,6 +124,7 @@ public class Material {
     }
 
     public void setAlpha(float alpha) {
+        checkMutable();
         this.alpha = alpha;
     }
 
@@ -106,6 +133,7 @@ public class Material {
     }
 
     public void setShine(float shine) {
+        checkMutable();
         this.shine = shine;
     }
 
@@ -114,6 +142,7 @@ public class Material {
     }
 
     public void setIllum(int illum) {
+        checkMutable();
         this.illum = illum;
     }
 
@@ -122,8 +151,16 @@ public class Material {
     }
 
     public void setTextureFile(String textureFile) {
+        checkMutable();
         this.textureFileName = textureFile;
     }
+    private static FloatBuffer colorBuffer(float[] color) {
+        FloatBuffer f = ByteBuffer.allocateDirect(12).order(ByteOrder.nativeOrder()).asFloatBuffer();
+        f.put(color);
+        f.position(0);
+        return f;
+    }
+
     public String toString(){
         String str=new String();
         str+="Material name: "+name;
@@ -137,14 +174,15 @@ public class Material {
 
 
     /**
-     * Loads/returns the cached texture for the current material.
+     * Loads/returns the cached texture for the current material. Call it on the GL thread.
      *
-     * @param rootPath The root asset path of the model to search into.
      * @return The loaded texture's GL handle if successful. Returns -1 if there is no texture defined.
      */
-    public int loadTexture() {
+    public synchronized int loadTexture() {
         if (textureFileName == null || textureFileName.isEmpty())
             return -1;
+        if (glTexture != 0)
+            return glTexture;
 
         if( textureFileName.contains(".dds") )
             glTexture = Texture.loadDDSFromStorage(textureFileName);
@@ -162,8 +200,20 @@ public class Material {
         return glTexture;
     }
 
+    /**
+     * The texture's GL handle, decoding and uploading it the first time a material is drawn,
+     * or -1 if there is no texture defined. Call it on the GL thread.
+     */
     public int getGlTexture() {
-        return glTexture;
+        return glTexture != 0 ? glTexture : loadTexture();
+    }
+
+    /**
+     * Forgets the GL handle, eg after the GL context was lost, so the texture is loaded again
+     * when next drawn.
+     */
+    public synchronized void releaseTexture() {
+        glTexture = 0;
     }
 }
 
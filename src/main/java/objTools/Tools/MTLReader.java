@@ -1,81 +1,179 @@
 package objTools.Tools;
 
 import java.io.BufferedReader;
+import java.io.File;
 import java.io.FileInputStream;
 import java.io.IOException;
+import java.io.InputStream;
 import java.io.InputStreamReader;
-import java.util.Vector;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
 
 import objTools.Models.Material;
 
 /**
  * Created by stardust on 2017/1/2.
+ * <p>
+ * <p>Each library is parsed once. Models that name the same file share one table of frozen
+ * materials, so their color buffers and textures are made once too. Textures are only decoded
+ * when a material is first drawn (Material.getGlTexture()). A library that can't be read is
+ * not cached, so the next load() tries it again.
  */
 
 
 public class MTLReader {
 
+    // files by canonical path, and streams by the name they were loaded under, kept apart so a
+    // stream name can never pick up a file's library or the other way round
+    private static final Map<String, Map<String, Material>> libraries = new HashMap<String, Map<String, Material>>();
+    private static final Map<String, Map<String, Material>> streamLibraries = new HashMap<String, Map<String, Material>>();
 
-    public  static Vector<Material> loadMTL(String file){
-        BufferedReader reader=null;
-        Vector<Material> materials=new Vector<Material>();
-        String line;
-        Material currentMtl=null;
-        try { //try to open file
-            reader = new BufferedReader(new InputStreamReader(new FileInputStream(file)));
-        } 		catch(IOException e){
-            e.printStackTrace();
+    /**
+     * The library's materials by name, in file order. The map and its materials are read-only.
+     */
+    public static synchronized Map<String, Material> load(String file) {
+        String key = file;
+        try {
+            key = new File(file).getCanonicalPath();
+        } catch (IOException e) {
+            // keep the path as given
         }
-        if(reader!=null){
-            try {//try to read lines of the file
-                while((line = reader.readLine()) != null) {
-                    if(line.startsWith("newmtl")){
-                        String mtName = line.split("[ ]+", 2)[1];
-                        currentMtl = new Material(mtName);
-                        materials.add(currentMtl);
-                    }
-                    else
-                    if(line.startsWith("Ka")){
-                        String[] str=line.split("[ ]+");
-                        currentMtl.setAmbientColor(Float.parseFloat(str[1]), Float.parseFloat(str[2]), Float.parseFloat(str[3]));
-                    }
-                    else
-                    if(line.startsWith("Kd")){
-                        String[] str=line.split("[ ]+");
-                        currentMtl.setDiffuseColor(Float.parseFloat(str[1]), Float.parseFloat(str[2]), Float.parseFloat(str[3]));
-                    }
-                    else
-                    if(line.startsWith("Ks")){
-                        String[] str=line.split("[ ]+");
-                        currentMtl.setSpecularColor(Float.parseFloat(str[1]), Float.parseFloat(str[2]), Float.parseFloat(str[3]));
-                    }
-                    else
-                    if(line.startsWith("Tr") || line.startsWith("d")){
-                        String[] str=line.split("[ ]+");
-                        currentMtl.setAlpha(Float.parseFloat(str[1]));
-                    }
-                    else
-                    if(line.startsWith("Ns")){
-                        String[] str=line.split("[ ]+");
-                        currentMtl.setShine(Float.parseFloat(str[1]));
-                    }
-                    else
-                    if(line.startsWith("illum")){
-                        String[] str=line.split("[ ]+");
-                        currentMtl.setIllum(Integer.parseInt(str[1]));
-                    }
-                    else
-                    if(line.startsWith("map_Ka") || line.startsWith("map_Kd") || line.startsWith("map_Ks")){
-                        String[] str=line.split("[ ]+");
-                        currentMtl.setTextureFile(file.substring(0, file.lastIndexOf('/'))+"/"+str[1]);
-                    }
-                }
+        Map<String, Material> library = libraries.get(key);
+        if (library == null) {
+            List<Material> materials = new ArrayList<Material>();
+            try {
+                parse(new BufferedReader(new InputStreamReader(new FileInputStream(file))),
+                        file.substring(0, file.lastIndexOf('/') + 1), materials);
+            } catch (IOException e) {
+                e.printStackTrace();
+                // what was read before the failure, uncached
+                return freeze(materials);
             }
-            catch (Exception e) {
+            library = freeze(materials);
+            libraries.put(key, library);
+        }
+        return library;
+    }
+
+    /**
+     * As load(String), for a library that isn't a file, eg a raw resource. It's cached under
+     * name, apart from the files, and the stream is only read (and closed) until a read
+     * succeeds. Texture paths are left as the library gives them.
+     */
+    public static synchronized Map<String, Material> load(String name, InputStream in) {
+        Map<String, Material> library = streamLibraries.get(name);
+        if (library == null) {
+            List<Material> materials = new ArrayList<Material>();
+            try {
+                parse(new BufferedReader(new InputStreamReader(in)), "", materials);
+            } catch (IOException e) {
                 e.printStackTrace();
+                return freeze(materials);
+            }
+            library = freeze(materials);
+            streamLibraries.put(name, library);
+        } else {
+            try {
+                in.close();
+            } catch (IOException e) {
+                // ignore
             }
         }
+        return library;
+    }
+
+    /**
+     * The library's materials in file order, read-only.
+     */
+    public static List<Material> loadMTL(String file) {
+        return Collections.unmodifiableList(new ArrayList<Material>(load(file).values()));
+    }
+
+    /**
+     * Forgets every library, eg after the GL context was lost, since their materials hold
+     * its texture handles.
+     */
+    public static synchronized void clearCache() {
+        libraries.clear();
+        streamLibraries.clear();
+    }
+
+    private static Map<String, Material> freeze(List<Material> materials) {
+        Map<String, Material> library = new LinkedHashMap<String, Material>();
+        for (Material m : materials) {
+            m.freeze();
+            library.put(m.getName(), m);
+        }
+        return Collections.unmodifiableMap(library);
+    }
 
-        return materials;
+    /**
+     * Reads a library into materials and closes the reader; texture files are resolved against
+     * directory. Throws if the library can't be read or has a line that can't be parsed, with
+     * the materials before it left in the list.
+     */
+    private static void parse(BufferedReader reader, String directory, List<Material> materials)
+            throws IOException {
+        String line;
+        Material currentMtl=null;
+        try {//try to read lines of the file
+            while((line = reader.readLine()) != null) {
+                if(line.startsWith("newmtl")){
+                    String mtName = line.split("[ ]+", 2)[1].intern();
+                    currentMtl = new Material(mtName);
+                    materials.add(currentMtl);
+                }
+                else
+                if(line.startsWith("Ka")){
+                    String[] str=line.split("[ ]+");
+                    currentMtl.setAmbientColor(Float.parseFloat(str[1]), Float.parseFloat(str[2]), Float.parseFloat(str[3]));
+                }
+                else
+                if(line.startsWith("Kd")){
+                    String[] str=line.split("[ ]+");
+                    currentMtl.setDiffuseColor(Float.parseFloat(str[1]), Float.parseFloat(str[2]), Float.parseFloat(str[3]));
+                }
+                else
+                if(line.startsWith("Ks")){
+                    String[] str=line.split("[ ]+");
+                    currentMtl.setSpecularColor(Float.parseFloat(str[1]), Float.parseFloat(str[2]), Float.parseFloat(str[3]));
+                }
+                else
+                if(line.startsWith("Tr") || line.startsWith("d")){
+                    String[] str=line.split("[ ]+");
+                    currentMtl.setAlpha(Float.parseFloat(str[1]));
+                }
+                else
+                if(line.startsWith("Ns")){
+                    String[] str=line.split("[ ]+");
+                    currentMtl.setShine(Float.parseFloat(str[1]));
+                }
+                else
+                if(line.startsWith("illum")){
+                    String[] str=line.split("[ ]+");
+                    currentMtl.setIllum(Integer.parseInt(str[1]));
+                }
+                else
+                if(line.startsWith("map_Ka") || line.startsWith("map_Kd") || line.startsWith("map_Ks")){
+                    String[] str=line.split("[ ]+");
+                    currentMtl.setTextureFile(directory+str[1]);
+                }
+            }
+        }
+        catch (RuntimeException e) {
+            // eg a number that won't parse, or a property before any newmtl
+            throw new IOException("Bad material library line", e);
+        }
+        finally {
+            try {
+                reader.close();
+            } catch (IOException e) {
+                // ignore
+            }
+        }
     }
 }
@@ -7,10 +7,10 @@ import java.io.IOException;
 import java.io.InputStream;
 import java.io.InputStreamReader;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
-import java.util.Vector;
 
 import android.net.Uri;
 import android.opengl.ETC1Util;
@@ -18,6 +18,9 @@ import android.opengl.GLES10;
 import android.opengl.GLES20;
 import android.util.Log;
 
+import min3d.mesh.NormalGenerator;
+import min3d.mesh.VertexCacheOptimizer;
+import min3d.vos.Number3d;
 import objTools.Models.Material;
 import objTools.Models.ModelObject;
 import objTools.Models.ObjObject;
@@ -50,21 +53,27 @@ public class ResourceLoader {
     public static void parseFace(String[] words, List<Short> positionIndices,
                                  List<Short> textureCoordIndices, List<Short> normalIndices) {
 
-        String[] parts;
-        int i=1;
-        for (i=1; i<4; i++) {
-            parts = words[i].split("/");
-            short s = Short.parseShort(parts[0]);
-            s--;
-            short s2 = Short.parseShort(parts[1]);
-            s2--;
-            positionIndices.add(s );
-            textureCoordIndices.add(s2 );
-            normalIndices.add(s );
+        // a fan, so quads and larger polygons come out as whole triangles
+        for (int i=3; i<words.length; i++) {
+            parseCorner(words[1], positionIndices, textureCoordIndices, normalIndices);
+            parseCorner(words[i-1], positionIndices, textureCoordIndices, normalIndices);
+            parseCorner(words[i], positionIndices, textureCoordIndices, normalIndices);
         }
 
         //return indices;
     }
+
+    private static void parseCorner(String word, List<Short> positionIndices,
+                                    List<Short> textureCoordIndices, List<Short> normalIndices) {
+        String[] parts = word.split("/");
+        short s = Short.parseShort(parts[0]);
+        s--;
+        short s2 = Short.parseShort(parts[1]);
+        s2--;
+        positionIndices.add(s );
+        textureCoordIndices.add(s2 );
+        normalIndices.add(s );
+    }
     public String readTextFile(String filename) {
 
         BufferedReader br = null;
@@ -87,7 +96,7 @@ public class ResourceLoader {
     }
 
     public ObjObject loadObjObject(String ObjObjectName, String fileName) {
-        Vector<Material> materials = null;
+        List<Material> materials = null;
         BufferedReader br = null;
 
         try{
@@ -100,7 +109,7 @@ public class ResourceLoader {
     }
 
     public ObjObject loadObjObject(InputStream is, String ObjObjectName, String fileName){
-        Vector<Material> materials = null;
+        List<Material> materials = null;
         BufferedReader br = null;
         try {
 //            InputStream is = assetMgr.open(fileName,
@@ -109,9 +118,9 @@ public class ResourceLoader {
 
             String line;
             br = new BufferedReader(new InputStreamReader(is));
-            List<Vector3f> positionVertices = new ArrayList<Vector3f>();
+            List<Number3d> positionVertices = new ArrayList<Number3d>();
             List<Vector2f> textureVertices = new ArrayList<Vector2f>();
-            List<Vector3f> vertexNormals = new ArrayList<Vector3f>();
+            List<Number3d> vertexNormals = new ArrayList<Number3d>();
 
             List<Short> positionIndices = new ArrayList<Short>();
             List<Short> textureCoordIndices = new ArrayList<Short>();
@@ -130,7 +139,7 @@ public class ResourceLoader {
                     float y = Float.parseFloat(words[2]);
                     float z = Float.parseFloat(words[3]);
 
-                    Vector3f v = new Vector3f(x, y, z);
+                    Number3d v = new Number3d(x, y, z);
                     positionVertices.add(v);
                 }
                 else if (words[0].equals("vt")) {
@@ -152,44 +161,23 @@ public class ResourceLoader {
 
             }
 
-            for (int i=0; i<positionVertices.size(); i++) {
-                vertexNormals.add(new Vector3f(0,0,0));
+            // compute area-weighted smooth normals over whole triangles
+            int numPositions = positionVertices.size();
+            float[] positions = new float[numPositions * 3];
+            for (int i = 0; i < numPositions; i++) {
+                Number3d p = positionVertices.get(i);
+                positions[i * 3] = p.x;
+                positions[i * 3 + 1] = p.y;
+                positions[i * 3 + 2] = p.z;
             }
-
-            // compute the normals
-            for (int i=0; i<positionIndices.size()-3; i++) {
-
-                short i1 = positionIndices.get(i);
-                short i2 = positionIndices.get(i+1);
-                short i3 = positionIndices.get(i+2);
-
-                Vector3f v1 = positionVertices.get(i1);
-                Vector3f v2 = positionVertices.get(i2);
-                Vector3f v3 = positionVertices.get(i3);
-
-                Vector3f a = v1.sub(v2);
-                Vector3f b = v1.sub(v3);
-
-                Vector3f norm = Vector3f.cross(a, b);
-                norm.normalize();
-
-                Vector3f current;
-                current = vertexNormals.get(i1);
-                current = current.add(norm);
-                current.normalize();
-                vertexNormals.set(i1, current);
-
-                current = vertexNormals.get(i2);
-                current = current.add(norm);
-                current.normalize();
-                vertexNormals.set(i2, current);
-
-                current = vertexNormals.get(i3);
-                current = current.add(norm);
-                current.normalize();
-                vertexNormals.set(i3, current);
+            int[] triangles = new int[positionIndices.size() / 3 * 3];
+            for (int i = 0; i < triangles.length; i++) {
+                triangles[i] = positionIndices.get(i);
+            }
+            float[] smoothNormals = NormalGenerator.smoothNormals(positions, triangles, numPositions);
+            for (int i = 0; i < numPositions; i++) {
+                vertexNormals.add(new Number3d(smoothNormals[i * 3], smoothNormals[i * 3 + 1], smoothNormals[i * 3 + 2]));
             }
-
 
             short index = 0;
             Map<String, Vertex> map = new HashMap<String, Vertex>();
@@ -215,12 +203,14 @@ public class ResourceLoader {
                     v.index = index;
                     index ++;
 
+                    map.put(key, v);
+                    finalVertices.add(v);
                 }
 
-                finalVertices.add(v);
                 finalIndices.add(v.index);
             }
 
+            optimizeCacheOrder(finalIndices, finalVertices);
 
             ObjObject object = new ObjObject(finalIndices, finalVertices);
             if( materials != null )
@@ -237,6 +227,39 @@ public class ResourceLoader {
         return null;
     }
 
+    /**
+     * Reorders triangles for post-transform vertex cache reuse, then renumbers
+     * vertices in first-use order. Both lists are rewritten in place.
+     */
+    private static void optimizeCacheOrder(List<Short> indices, List<Vertex> vertices) {
+        int vertexCount = vertices.size();
+        int[] ordered = new int[indices.size()];
+        for (int i = 0; i < ordered.length; i++) {
+            ordered[i] = indices.get(i) & 0xFFFF;
+        }
+
+        float before = VertexCacheOptimizer.acmr(ordered, vertexCount, VertexCacheOptimizer.DEFAULT_CACHE_SIZE);
+        ordered = VertexCacheOptimizer.optimizeTriangleOrder(ordered, vertexCount, VertexCacheOptimizer.DEFAULT_CACHE_SIZE);
+        float after = VertexCacheOptimizer.acmr(ordered, vertexCount, VertexCacheOptimizer.DEFAULT_CACHE_SIZE);
+        int[] remap = VertexCacheOptimizer.optimizeVertexFetch(ordered, vertexCount);
+
+        Vertex[] reordered = new Vertex[vertexCount];
+        for (Vertex v : vertices) {
+            int newIndex = remap[v.index & 0xFFFF];
+            v.index = (short) newIndex;
+            reordered[newIndex] = v;
+        }
+        vertices.clear();
+        vertices.addAll(Arrays.asList(reordered));
+
+        for (int i = 0; i < ordered.length; i++) {
+            indices.set(i, (short) ordered[i]);
+        }
+
+        Log.i(TAG, "Vertex cache ACMR " + before + " -> " + after
+                + " (" + vertexCount + " vertices, " + ordered.length / 3 + " triangles)");
+    }
+
     public int loadTexture(String filename) {
 
         final int[] textureHandle = new int[1];
@@ -1,5 +1,7 @@
 package objTools.Tools;
 
+import min3d.vos.Number3d;
+
 /**
  * Created by stardust on 2017/1/2.
  */
@@ -7,8 +9,8 @@ package objTools.Tools;
 public class Vertex {
 
     public  short index;
-    public Vector3f position;
-    public Vector3f normal;
+    public Number3d position;
+    public Number3d normal;
     public Vector2f tex;
 
 }
@@ -0,0 +1,14 @@
+uniform mat4 u_MVP;
+uniform vec4 u_MaterialColor;
+
+attribute vec4 a_Position;
+attribute vec4 a_Color;
+
+varying vec4 v_Color;
+
+// Lighting is baked into the vertex colors, so there's nothing to light here; the
+// sub-mesh's material only tints them.
+void main() {
+   v_Color = a_Color * u_MaterialColor;
+   gl_Position = u_MVP * a_Position;
+}
@@ -0,0 +1,57 @@
+#ifdef GL_FRAGMENT_PRECISION_HIGH
+precision highp float;
+#else
+precision mediump float;
+#endif
+
+// Must match ClusteredLights. MAX_LIGHTS comes from ClusteredLights.shaderDefines(), sized to the
+// GPU's fragment uniform vectors; 32 is the most a cluster's texel has bits for.
+#ifndef MAX_LIGHTS
+#define MAX_LIGHTS 32
+#endif
+#define TILES_X 8.0
+#define TILES_Y 8.0
+#define SLICES 16.0
+
+uniform vec4 u_LightPosRange[MAX_LIGHTS]; // eye-space position, radius
+uniform vec4 u_LightColor[MAX_LIGHTS];
+uniform sampler2D u_LightClusters;        // a texel per cluster, bits of the lights reaching it
+uniform vec4 u_ClusterTan;                // lowest x / depth and y / depth, tiles per unit of each
+uniform vec2 u_ClusterDepth;              // slice = log(depth) * x + y
+
+varying vec3 v_Position;
+varying vec3 v_Normal;
+varying vec4 v_Color;
+
+void main() {
+    float depth = max(-v_Position.z, 0.0001);
+    vec2 tile = floor((v_Position.xy / depth - u_ClusterTan.xy) * u_ClusterTan.zw);
+    tile = clamp(tile, vec2(0.0), vec2(TILES_X - 1.0, TILES_Y - 1.0));
+    float slice = clamp(floor(log(depth) * u_ClusterDepth.x + u_ClusterDepth.y), 0.0, SLICES - 1.0);
+    vec2 cluster = vec2((tile.y * TILES_X + tile.x + 0.5) / (TILES_X * TILES_Y), (slice + 0.5) / SLICES);
+    vec4 bytes = floor(texture2D(u_LightClusters, cluster) * 255.0 + 0.5);
+
+    vec3 normal = normalize(v_Normal);
+    vec3 diffuse = vec3(0.0);
+    // light i is bit i % 8 of byte i / 8; the index never passes MAX_LIGHTS, so the arrays can be
+    // shorter than the 32 bits
+    float bits = 0.0;
+    for (int i = 0; i < MAX_LIGHTS; i++) {
+        if (i - (i / 8) * 8 == 0) {
+            bits = bytes[i / 8];
+        }
+        float bit = mod(bits, 2.0);
+        bits = floor(bits * 0.5);
+        if (bit > 0.5) {
+            vec4 light = u_LightPosRange[i];
+            vec3 toLight = light.xyz - v_Position;
+            float distance = length(toLight);
+            float falloff = clamp(1.0 - (distance / light.w) * (distance / light.w), 0.0, 1.0);
+            float nDotL = max(dot(normal, toLight / max(distance, 0.0001)), 0.0);
+            diffuse += u_LightColor[i].rgb * nDotL * falloff * falloff;
+        }
+    }
+
+    // vertex colors, never darker than half as in light_vertex
+    gl_FragColor = v_Color * vec4(max(diffuse, vec3(0.5)), 1.0);
+}
@@ -0,0 +1,14 @@
+precision mediump float;
+
+uniform sampler2D u_Texture;
+
+varying vec2 v_TextureCoord;
+
+void main() {
+    vec4 color = texture2D(u_Texture, v_TextureCoord);
+    // Cut out instead of blending, so imposters need no sorting.
+    if (color.a < 0.5) {
+        discard;
+    }
+    gl_FragColor = color;
+}
@@ -0,0 +1,12 @@
+uniform mat4 u_MVP;
+
+attribute vec4 a_Position;
+attribute vec2 a_TextureCoord;
+
+varying vec2 v_TextureCoord;
+
+// A quad textured with one view from an imposter atlas.
+void main() {
+   v_TextureCoord = a_TextureCoord;
+   gl_Position = u_MVP * a_Position;
+}